@@ -182,6 +182,65 @@ public interface StatsStorage extends StatsStorageRouter {
      */
     List<Persistable> getUpdates(String sessionID, String typeID, String workerID, long[] timestamps);
 
+    /**
+     * Get the latest (most recent) updates for the specified sessionID, typeID and workerID
+     *
+     * @param sessionID Session ID to get the updates for
+     * @param typeID    Type ID to get the updates for
+     * @param workerID  Worker ID to get the updates for
+     * @param maxCount  Maximum number of updates to return
+     * @return          Up to maxCount of the most recent updates, sorted by timestamp (ascending)
+     */
+    List<Persistable> getLatestUpdates(String sessionID, String typeID, String workerID, int maxCount);
+
+    /**
+     * Get the times of all updates in the specified time range, for the specified sessionID, typeID and workerID
+     *
+     * @param sessionID     Session ID to get update times for
+     * @param typeID        Type ID to get update times for
+     * @param workerID      Worker ID to get update times for
+     * @param fromExclusive Start of the time range (exclusive)
+     * @param toInclusive   End of the time range (inclusive)
+     * @return              Times of the updates in the range, sorted (ascending)
+     */
+    long[] getUpdateTimesInRange(String sessionID, String typeID, String workerID, long fromExclusive,
+                    long toInclusive);
+
+    /**
+     * Get the updates in the specified time range, downsampled to at most maxPoints updates. Downsampling selects
+     * updates evenly spaced over the range; the most recent update in the range is always included.<br>
+     * Only the selected updates are loaded, hence this is much cheaper than
+     * {@link #getAllUpdatesAfter(String, String, String, long)} for long-running sessions. Incremental queries can
+     * be done by setting fromExclusive to the timestamp of the last update seen by the caller.
+     *
+     * @param sessionID     Session ID to get the updates for
+     * @param typeID        Type ID to get the updates for
+     * @param workerID      Worker ID to get the updates for
+     * @param fromExclusive Start of the time range (exclusive)
+     * @param toInclusive   End of the time range (inclusive)
+     * @param maxPoints     Maximum number of updates to return. If <= 0: all updates in the range are returned
+     * @return              Updates in the range, sorted by timestamp (ascending)
+     */
+    List<Persistable> getUpdatesInRange(String sessionID, String typeID, String workerID, long fromExclusive,
+                    long toInclusive, int maxPoints);
+
+    /**
+     * Get summary statistics (count, min, max, mean) of a value over the updates in the specified time range, in
+     * numBuckets equal-width time windows between the first and last updates in the range. Empty buckets are not
+     * returned.
+     *
+     * @param sessionID     Session ID to get the updates for
+     * @param typeID        Type ID to get the updates for
+     * @param workerID      Worker ID to get the updates for
+     * @param fromExclusive Start of the time range (exclusive)
+     * @param toInclusive   End of the time range (inclusive)
+     * @param numBuckets    Number of time windows
+     * @param valueFunction Function used to get the value from each update
+     * @return              Non-empty buckets, sorted by time (ascending)
+     */
+    List<UpdateBucket> getUpdateBuckets(String sessionID, String typeID, String workerID, long fromExclusive,
+                    long toInclusive, int numBuckets, UpdateValueFunction valueFunction);
+
     /**
      * Get the session metadata, if any has been registered via {@link #putStorageMetaData(StorageMetaData)}
      *
@@ -0,0 +1,30 @@
+package org.deeplearning4j.api.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Summary statistics (count, min, max, mean) for a single value over all updates in a time window, as returned by
+ * {@link StatsStorage#getUpdateBuckets(String, String, String, long, long, int, UpdateValueFunction)}
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UpdateBucket implements Serializable {
+
+    /** Start time of the bucket (inclusive) */
+    private long startTime;
+    /** End time of the bucket (exclusive, except for the last bucket) */
+    private long endTime;
+    /** Number of updates with a (non-NaN) value in this bucket */
+    private int count;
+    private double min;
+    private double max;
+    private double mean;
+    /** Timestamp of the last update in this bucket */
+    private long lastTimeStamp;
+
+}
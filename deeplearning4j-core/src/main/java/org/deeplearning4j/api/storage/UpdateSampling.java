@@ -0,0 +1,115 @@
+package org.deeplearning4j.api.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Utilities for the {@link StatsStorage} range and downsampling queries, shared by the StatsStorage implementations
+ */
+public class UpdateSampling {
+
+    private UpdateSampling() {}
+
+    /**
+     * Select at most maxPoints timestamps, evenly spaced (by index) over the sorted timestamps. The last timestamp is
+     * always included, so that the most recent update is always returned.
+     *
+     * @param sortedTimes Timestamps, sorted in ascending order
+     * @param maxPoints   Maximum number of timestamps to return. If <= 0: no subsampling is done
+     * @return Subsampled timestamps, in ascending order
+     */
+    public static long[] subsample(long[] sortedTimes, int maxPoints) {
+        if (maxPoints <= 0 || sortedTimes.length <= maxPoints)
+            return sortedTimes;
+        if (maxPoints == 1)
+            return new long[] {sortedTimes[sortedTimes.length - 1]};
+
+        //Include first and last; remaining points are evenly spaced between them
+        long[] out = new long[maxPoints];
+        double step = (sortedTimes.length - 1) / (double) (maxPoints - 1);
+        for (int i = 0; i < maxPoints - 1; i++) {
+            out[i] = sortedTimes[(int) (i * step)];
+        }
+        out[maxPoints - 1] = sortedTimes[sortedTimes.length - 1];
+        return out;
+    }
+
+    /**
+     * Select at most maxCount of the latest timestamps
+     *
+     * @param sortedTimes Timestamps, sorted in ascending order
+     * @param maxCount    Maximum number of timestamps
+     * @return The last (up to) maxCount timestamps, in ascending order
+     */
+    public static long[] last(long[] sortedTimes, int maxCount) {
+        if (maxCount >= sortedTimes.length)
+            return sortedTimes;
+        return Arrays.copyOfRange(sortedTimes, sortedTimes.length - Math.max(maxCount, 0), sortedTimes.length);
+    }
+
+    /**
+     * Accumulates values into a fixed number of equal-width time buckets over the range [firstTime, lastTime].
+     * Updates must be added in ascending timestamp order.
+     */
+    public static class BucketAccumulator {
+        private final long firstTime;
+        private final double width;
+        private final UpdateBucket[] buckets;
+        private final double[] sums;
+
+        /**
+         * @param firstTime  Time of the first update in the range
+         * @param lastTime   Time of the last update in the range
+         * @param numBuckets Number of buckets
+         */
+        public BucketAccumulator(long firstTime, long lastTime, int numBuckets) {
+            if (numBuckets <= 0)
+                throw new IllegalArgumentException("Number of buckets must be > 0. Got: " + numBuckets);
+            this.firstTime = firstTime;
+            this.width = Math.max(1.0, (lastTime - firstTime + 1) / (double) numBuckets);
+            this.buckets = new UpdateBucket[numBuckets];
+            this.sums = new double[numBuckets];
+        }
+
+        public void add(long timestamp, double value) {
+            int idx = Math.min(buckets.length - 1, (int) ((timestamp - firstTime) / width));
+            if (idx < 0)
+                return;
+
+            UpdateBucket b = buckets[idx];
+            if (b == null) {
+                long start = firstTime + (long) (idx * width);
+                long end = firstTime + (long) ((idx + 1) * width);
+                b = new UpdateBucket(start, end, 0, Double.NaN, Double.NaN, Double.NaN, timestamp);
+                buckets[idx] = b;
+            }
+            b.setLastTimeStamp(timestamp);
+            if (Double.isNaN(value))
+                return;
+
+            if (b.getCount() == 0) {
+                b.setMin(value);
+                b.setMax(value);
+            } else {
+                b.setMin(Math.min(b.getMin(), value));
+                b.setMax(Math.max(b.getMax(), value));
+            }
+            b.setCount(b.getCount() + 1);
+            sums[idx] += value;
+            b.setMean(sums[idx] / b.getCount());
+        }
+
+        /**
+         * @return Non-empty buckets, in ascending time order
+         */
+        public List<UpdateBucket> getBuckets() {
+            List<UpdateBucket> out = new ArrayList<>();
+            for (UpdateBucket b : buckets) {
+                if (b != null)
+                    out.add(b);
+            }
+            return out;
+        }
+    }
+}
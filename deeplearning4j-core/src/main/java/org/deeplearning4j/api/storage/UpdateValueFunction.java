@@ -0,0 +1,17 @@
+package org.deeplearning4j.api.storage;
+
+import java.io.Serializable;
+
+/**
+ * Extracts a single value (for example, the score) from an update {@link Persistable}, for use in
+ * {@link StatsStorage#getUpdateBuckets(String, String, String, long, long, int, UpdateValueFunction)}
+ */
+public interface UpdateValueFunction extends Serializable {
+
+    /**
+     * @param update Update to get the value for
+     * @return The value, or NaN if the update has no value (NaN values are not included in the bucket statistics)
+     */
+    double getValue(Persistable update);
+
+}
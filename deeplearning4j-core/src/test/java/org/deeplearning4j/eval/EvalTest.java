@@ -884,4 +884,70 @@ public class EvalTest {
         assertTrue(stats, stats.contains(s1));
         assertTrue(stats, stats.contains(s2));
     }
+
+    @Test
+    public void testEvalCountsManyClasses() {
+        int nClasses = 50;
+        int minibatch = 20;
+        Nd4j.getRandom().setSeed(12345);
+
+        int[][] expCounts = new int[nClasses][nClasses];
+        Evaluation e = new Evaluation();
+        Evaluation e1 = new Evaluation();
+        Evaluation e2 = new Evaluation();
+        Evaluation eCopy = new Evaluation();
+        for (int batch = 0; batch < 10; batch++) {
+            INDArray labels = Nd4j.zeros(minibatch, nClasses);
+            INDArray predictions = Nd4j.rand(minibatch, nClasses);
+            for (int i = 0; i < minibatch; i++) {
+                int actual = Nd4j.getRandom().nextInt(nClasses);
+                labels.putScalar(i, actual, 1.0);
+                int predicted = Nd4j.argMax(predictions.getRow(i), 1).getInt(0);
+                expCounts[actual][predicted]++;
+            }
+            e.eval(labels, predictions);
+            eCopy.eval(labels, predictions);
+            (batch % 2 == 0 ? e1 : e2).eval(labels, predictions);
+        }
+        assertEquals(e, eCopy);
+        assertEquals(e.hashCode(), eCopy.hashCode());
+
+        //Merging and JSON round trip should give the same results
+        Evaluation fromJson = Evaluation.fromJson(e1.toJson());
+        fromJson.merge(e2);
+
+        int total = 10 * minibatch;
+        for (Evaluation eval : new Evaluation[] {e, fromJson}) {
+            for (int c = 0; c < nClasses; c++) {
+                int rowSum = 0;
+                int colSum = 0;
+                for (int j = 0; j < nClasses; j++) {
+                    rowSum += expCounts[c][j];
+                    colSum += expCounts[j][c];
+                    assertEquals(expCounts[c][j], eval.getConfusionMatrix().getCount(c, j));
+                }
+                int tp = expCounts[c][c];
+                assertEquals(tp, (int) eval.truePositives().get(c));
+                assertEquals(colSum - tp, (int) eval.falsePositives().get(c));
+                assertEquals(rowSum - tp, (int) eval.falseNegatives().get(c));
+                assertEquals(total - rowSum - colSum + tp, (int) eval.trueNegatives().get(c));
+            }
+            assertEquals(total, eval.getNumRowCounter());
+        }
+        assertEquals(e.stats(), fromJson.stats());
+
+        //Single example evaluation should give the same counts
+        Evaluation single = new Evaluation(nClasses);
+        for (int a = 0; a < nClasses; a++) {
+            for (int p = 0; p < nClasses; p++) {
+                for (int i = 0; i < expCounts[a][p]; i++) {
+                    single.eval(p, a);
+                }
+            }
+        }
+        assertEquals(e.getConfusionMatrix(), single.getConfusionMatrix());
+        assertEquals(e.accuracy(), single.accuracy(), 1e-12);
+        assertEquals(e.f1(), single.f1(), 1e-12);
+        assertEquals(e.falsePositiveRate(), single.falsePositiveRate(), 1e-12);
+    }
 }
@@ -851,4 +851,121 @@ public class ROCTest {
         }
     }
 
+
+    @Test
+    public void testRocHistogramVsExact() {
+        Nd4j.getRandom().setSeed(12345);
+        //Skewed predictions (as per click-through rate prediction): most probabilities are small
+        int nBatches = 10;
+        int minibatch = 200;
+
+        ROC exact = new ROC(0);
+        ROC histogram = new ROC(ROC.HISTOGRAM);
+        ROC h1 = new ROC(ROC.HISTOGRAM);
+        ROC h2 = new ROC(ROC.HISTOGRAM);
+        ROCMultiClass multiExact = new ROCMultiClass(0);
+        ROCMultiClass multiHistogram = new ROCMultiClass(ROC.HISTOGRAM);
+        for (int i = 0; i < nBatches; i++) {
+            INDArray prob = Nd4j.rand(minibatch, 1);
+            prob = prob.muli(prob).muli(prob).muli(0.05);
+            INDArray labels = Nd4j.getExecutioner()
+                            .exec(new BernoulliDistribution(Nd4j.createUninitialized(minibatch, 1), 0.5));
+            //Make predictions informative: positive examples are more likely to have higher probabilities
+            prob.addi(labels.mul(Nd4j.rand(minibatch, 1).muli(0.01)));
+
+            exact.eval(labels, prob);
+            histogram.eval(labels, prob);
+            (i % 2 == 0 ? h1 : h2).eval(labels, prob);
+
+            INDArray prob2 = Nd4j.hstack(prob.rsub(1.0), prob);
+            INDArray labels2 = Nd4j.hstack(labels.rsub(1.0), labels);
+            multiExact.eval(labels2, prob2);
+            multiHistogram.eval(labels2, prob2);
+        }
+
+        assertTrue(histogram.isHistogram());
+        assertEquals(ROCHistogram.NUM_BINS, histogram.getHistogram().getCountPositive().length);
+
+        double aucExact = exact.calculateAUC();
+        double aucHistogram = histogram.calculateAUC();
+        double bound = histogram.calculateAUCErrorBound();
+        assertTrue(bound < 0.01);
+        assertEquals(aucExact, aucHistogram, bound + 1e-6);
+        assertEquals(exact.calculateAUCPR(), histogram.calculateAUCPR(), 0.02);
+        assertEquals(exact.getCountActualPositive(), histogram.getCountActualPositive());
+        assertEquals(exact.getCountActualNegative(), histogram.getCountActualNegative());
+
+        //Merging: histogram counts are added, giving identical results
+        h1.merge(h2);
+        assertEquals(histogram.getHistogram(), h1.getHistogram());
+        assertEquals(aucHistogram, h1.calculateAUC(), 1e-10);
+
+        //JSON round trip retains the histogram (for further merging)
+        ROC fromJson = ROC.fromJson(histogram.toJson(), ROC.class);
+        assertEquals(histogram.getHistogram(), fromJson.getHistogram());
+        assertEquals(aucHistogram, fromJson.getRocCurve().calculateAUC(), 1e-10);
+
+        for (int c = 0; c < 2; c++) {
+            assertEquals(multiExact.calculateAUC(c), multiHistogram.calculateAUC(c), bound + 1e-6);
+        }
+    }
+
+    @Test
+    public void testRocHistogramBins() {
+        double[] probs = {0.0, 1e-6, 0.001, 0.1, 0.4999, 0.5, 0.5001, 0.9, 0.999, 1.0 - 1e-6, 1.0};
+        int last = -1;
+        for (double p : probs) {
+            int bin = ROCHistogram.binIndex(p);
+            assertTrue(bin >= 0 && bin < ROCHistogram.NUM_BINS);
+            assertTrue(String.valueOf(p), bin > last);
+            assertTrue(String.valueOf(p), ROCHistogram.binLowerBound(bin) <= p);
+            last = bin;
+        }
+        assertEquals(ROCHistogram.NUM_BINS - 1, ROCHistogram.binIndex(1.0));
+    }
+
+    @Test
+    public void testHistogramCountsAboveIntMax() {
+        INDArray prob = Nd4j.create(new double[] {0.9, 0.8, 0.3, 0.1}, new int[] {4, 1});
+        INDArray label = Nd4j.create(new double[] {1, 0, 1, 0}, new int[] {4, 1});
+        ROC small = new ROC(ROC.HISTOGRAM);
+        small.eval(label, prob);
+
+        //Scale all counts by k, so that the bin counts and totals exceed Integer.MAX_VALUE
+        long k = 1000000000L;
+        ROC big = new ROC(ROC.HISTOGRAM);
+        big.eval(label, prob);
+        long[] pos = big.getHistogram().getCountPositive();
+        long[] neg = big.getHistogram().getCountNegative();
+        for (int i = 0; i < pos.length; i++) {
+            pos[i] *= k;
+            neg[i] *= k;
+        }
+        big.setCountActualPositive(2 * k);
+        big.setCountActualNegative(2 * k);
+        big.setExampleCount(4 * k);
+
+        ROC merged = new ROC(ROC.HISTOGRAM);
+        merged.merge(big);
+        merged.merge(big);
+        assertEquals(8 * k, merged.getExampleCount());
+        assertEquals(small.calculateAUC(), merged.calculateAUC(), 1e-10);
+        assertEquals(small.calculateAUCPR(), merged.calculateAUCPR(), 1e-10);
+
+        PrecisionRecallCurve expPrc = small.getPrecisionRecallCurve();
+        PrecisionRecallCurve prc = merged.getPrecisionRecallCurve();
+        assertEquals(8 * k, prc.getTotalCountLong());
+        assertEquals(Integer.MAX_VALUE, prc.getTotalCount());
+        assertEquals(expPrc.numPoints(), prc.numPoints());
+        for (int i = 0; i < prc.numPoints(); i++) {
+            PrecisionRecallCurve.Confusion exp = expPrc.getConfusionMatrixAtPoint(i);
+            PrecisionRecallCurve.Confusion act = prc.getConfusionMatrixAtPoint(i);
+            assertEquals(2 * k * exp.getTpCount(), act.getTpCountLong());
+            assertEquals(2 * k * exp.getFpCount(), act.getFpCountLong());
+            assertEquals(2 * k * exp.getFnCount(), act.getFnCountLong());
+            assertEquals(2 * k * exp.getTnCount(), act.getTnCountLong());
+            assertEquals(exp.getPoint().getPrecision(), act.getPoint().getPrecision(), 1e-10);
+            assertEquals(exp.getPoint().getRecall(), act.getPoint().getRecall(), 1e-10);
+        }
+    }
 }
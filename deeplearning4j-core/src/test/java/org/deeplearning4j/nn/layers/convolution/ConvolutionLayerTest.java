@@ -5,9 +5,11 @@ import org.deeplearning4j.eval.Evaluation;
 import org.deeplearning4j.exception.DL4JException;
 import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
+import org.deeplearning4j.nn.conf.CacheMode;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.conf.memory.MemoryUseMode;
 import org.deeplearning4j.nn.conf.layers.ConvolutionLayer;
 import org.deeplearning4j.nn.conf.layers.DenseLayer;
 import org.deeplearning4j.nn.conf.layers.OutputLayer;
@@ -652,6 +654,63 @@ public class ConvolutionLayerTest {
 
     //////////////////////////////////////////////////////////////////////////////////
 
+    @Test
+    public void testIm2colBufferReuse() {
+        MultiLayerNetwork standard = getIm2colReuseNet(false);
+        MultiLayerNetwork reuse = getIm2colReuseNet(true);
+        reuse.setParams(standard.params().dup());
+
+        //Different minibatch sizes: buffer is grown, or a view of it is used
+        for (int mb : new int[] {4, 2, 5, 3}) {
+            INDArray in = Nd4j.rand(new int[] {mb, 2, 8, 8});
+            INDArray labels = Nd4j.zeros(mb, 3);
+            for (int i = 0; i < mb; i++) {
+                labels.putScalar(i, i % 3, 1.0);
+            }
+
+            standard.setInput(in);
+            standard.setLabels(labels);
+            standard.computeGradientAndScore();
+            reuse.setInput(in);
+            reuse.setLabels(labels);
+            reuse.computeGradientAndScore();
+
+            assertEquals(standard.score(), reuse.score(), 1e-10);
+            assertEquals(standard.gradient().gradient(), reuse.gradient().gradient());
+
+            //Epsilons for the layer below: the second conv layer's epsNext is calculated in the im2col buffer
+            INDArray epsStandard = standard.getLayer(1).backpropGradient(Nd4j.ones(mb, 4, 2, 2)).getSecond();
+            INDArray epsReuse = reuse.getLayer(1).backpropGradient(Nd4j.ones(mb, 4, 2, 2)).getSecond();
+            assertEquals(epsStandard, epsReuse);
+        }
+
+        //Memory report: training working memory (no caching) reduced by the im2col array size
+        ConvolutionLayer standardConf = (ConvolutionLayer) standard.getLayer(1).conf().getLayer();
+        ConvolutionLayer reuseConf = (ConvolutionLayer) reuse.getLayer(1).conf().getLayer();
+        InputType it = InputType.convolutional(6, 6, 3);
+        long im2colBytesPerEx = 3 * 2 * 2 * 3 * 3 * 8;
+        long standardBytes = standardConf.getMemoryReport(it).getTotalMemoryBytes(10, MemoryUseMode.TRAINING,
+                        CacheMode.NONE, DataBuffer.Type.DOUBLE);
+        long reuseBytes = reuseConf.getMemoryReport(it).getTotalMemoryBytes(10, MemoryUseMode.TRAINING,
+                        CacheMode.NONE, DataBuffer.Type.DOUBLE);
+        assertEquals(10 * im2colBytesPerEx, standardBytes - reuseBytes);
+    }
+
+    private static MultiLayerNetwork getIm2colReuseNet(boolean reuse) {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                        .weightInit(WeightInit.XAVIER).activation(Activation.TANH).list()
+                        .layer(0, new ConvolutionLayer.Builder().kernelSize(3, 3).stride(1, 1).nOut(3)
+                                        .im2colBufferReuse(reuse).build())
+                        .layer(1, new ConvolutionLayer.Builder().kernelSize(3, 3).stride(2, 2).nOut(4)
+                                        .im2colBufferReuse(reuse).build())
+                        .layer(2, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT)
+                                        .activation(Activation.SOFTMAX).nOut(3).build())
+                        .setInputType(InputType.convolutional(8, 8, 2)).build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        return net;
+    }
+
     private static MultiLayerNetwork getCNNMLNConfig(boolean backprop, boolean pretrain) {
         Nd4j.ENFORCE_NUMERICAL_STABILITY = true;
 
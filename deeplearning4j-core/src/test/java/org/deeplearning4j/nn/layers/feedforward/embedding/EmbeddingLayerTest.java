@@ -2,12 +2,15 @@ package org.deeplearning4j.nn.layers.feedforward.embedding;
 
 import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.GradientNormalization;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.conf.layers.*;
 import org.deeplearning4j.nn.conf.layers.EmbeddingLayer;
 import org.deeplearning4j.nn.conf.preprocessor.FeedForwardToRnnPreProcessor;
 import org.deeplearning4j.nn.conf.preprocessor.RnnToFeedForwardPreProcessor;
+import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.params.DefaultParamInitializer;
 import org.deeplearning4j.nn.weights.WeightInit;
@@ -15,8 +18,9 @@ import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
-import org.nd4j.linalg.learning.config.Sgd;
+import org.nd4j.linalg.learning.config.*;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
+import org.nd4j.linalg.ops.transforms.Transforms;
 
 import java.util.List;
 import java.util.Map;
@@ -24,6 +28,8 @@ import java.util.Random;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 
 public class EmbeddingLayerTest {
 
@@ -322,4 +328,165 @@ public class EmbeddingLayerTest {
         }
     }
 
+    @Test
+    public void testEmbeddingSparseGradientsMatchDense() {
+        //Single iteration (all updater state initially zero): lazy row-wise update is identical to the dense update
+        //SGD: identical for any number of iterations
+        IUpdater[] updaters = {new Sgd(0.1), new Adam(0.01), new RmsProp(0.01), new Nesterovs(0.1, 0.9)};
+        int[] numIterations = {5, 1, 1, 1};
+        for (int u = 0; u < updaters.length; u++) {
+            MultiLayerNetwork dense = getEmbeddingNet(updaters[u], false, GradientNormalization.None);
+            MultiLayerNetwork sparse = getEmbeddingNet(updaters[u], true, GradientNormalization.None);
+            ComputationGraph denseGraph = getEmbeddingGraph(updaters[u], false);
+            ComputationGraph sparseGraph = getEmbeddingGraph(updaters[u], true);
+            assertEquals(dense.params(), sparse.params());
+            denseGraph.setParams(dense.params());
+            sparseGraph.setParams(dense.params());
+
+            Random r = new Random(12345);
+            for (int i = 0; i < numIterations[u]; i++) {
+                INDArray[] data = getEmbeddingData(r);
+                dense.fit(data[0], data[1]);
+                sparse.fit(data[0], data[1]);
+                denseGraph.fit(new INDArray[] {data[0]}, new INDArray[] {data[1]});
+                sparseGraph.fit(new INDArray[] {data[0]}, new INDArray[] {data[1]});
+            }
+
+            String msg = updaters[u].toString();
+            assertArraysClose(msg, dense.params(), sparse.params());
+            assertArraysClose(msg, denseGraph.params(), sparseGraph.params());
+            assertArraysClose(msg, dense.params(), denseGraph.params());
+        }
+    }
+
+    @Test
+    public void testEmbeddingSparseGradientsLazyUpdate() {
+        MultiLayerNetwork net = getEmbeddingNet(new Adam(0.01), true, GradientNormalization.None);
+        INDArray initialWeights = net.getParam("0_W").dup();
+
+        Random r = new Random(12345);
+        boolean[] present = new boolean[100];
+        for (int i = 0; i < 5; i++) {
+            INDArray[] data = getEmbeddingData(r);
+            boolean[] presentInBatch = new boolean[100];
+            for (int j = 0; j < data[0].rows(); j++) {
+                presentInBatch[data[0].getInt(j, 0)] = true;
+                present[data[0].getInt(j, 0)] = true;
+            }
+            net.fit(data[0], data[1]);
+
+            //Updater is applied row-wise: weight update (in the gradient view) is non-zero only for rows in the batch
+            INDArray weightUpdate = net.gradient().getGradientFor("0_W");
+            for (int j = 0; j < 100; j++) {
+                double maxAbs = Transforms.abs(weightUpdate.getRow(j)).maxNumber().doubleValue();
+                assertEquals(String.valueOf(j), presentInBatch[j], maxAbs > 0.0);
+            }
+        }
+
+        //Rows for indices not present in any minibatch are not updated
+        INDArray weights = net.getParam("0_W");
+        for (int i = 0; i < 100; i++) {
+            if (present[i]) {
+                assertNotEquals(initialWeights.getRow(i), weights.getRow(i));
+            } else {
+                assertEquals(initialWeights.getRow(i), weights.getRow(i));
+            }
+        }
+    }
+
+    @Test
+    public void testEmbeddingSparseGradientsGradientView() {
+        //Gradient (before the updater is applied) is the same as for dense gradients: used by gradient checks etc
+        MultiLayerNetwork dense = getEmbeddingNet(new Adam(0.01), false, GradientNormalization.None);
+        MultiLayerNetwork sparse = getEmbeddingNet(new Adam(0.01), true, GradientNormalization.None);
+
+        INDArray[] data = getEmbeddingData(new Random(12345));
+        for (MultiLayerNetwork net : new MultiLayerNetwork[] {dense, sparse}) {
+            net.setInput(data[0]);
+            net.setLabels(data[1]);
+            net.computeGradientAndScore();
+        }
+        assertArraysClose("gradient", dense.gradient().gradient(), sparse.gradient().gradient());
+        assertEquals(dense.score(), sparse.score(), 0.0);
+
+        //After a row-wise update, only the updated rows of the gradient view are zeroed: gradient should still match
+        dense = getEmbeddingNet(new Sgd(0.1), false, GradientNormalization.None);
+        sparse = getEmbeddingNet(new Sgd(0.1), true, GradientNormalization.None);
+        Random r = new Random(12345);
+        for (int i = 0; i < 3; i++) {
+            data = getEmbeddingData(r);
+            dense.fit(data[0], data[1]);
+            sparse.fit(data[0], data[1]);
+        }
+        data = getEmbeddingData(r);
+        for (MultiLayerNetwork net : new MultiLayerNetwork[] {dense, sparse}) {
+            net.setInput(data[0]);
+            net.setLabels(data[1]);
+            net.computeGradientAndScore();
+        }
+        assertArraysClose("gradient after fit", dense.gradient().gradient(), sparse.gradient().gradient());
+    }
+
+    @Test
+    public void testEmbeddingSparseGradientsStandardUpdateFallback() {
+        //Gradient normalization is not supported for the row-wise update: standard (dense) update should be used
+        MultiLayerNetwork dense = getEmbeddingNet(new Adam(0.01), false,
+                        GradientNormalization.ClipElementWiseAbsoluteValue);
+        MultiLayerNetwork sparse = getEmbeddingNet(new Adam(0.01), true,
+                        GradientNormalization.ClipElementWiseAbsoluteValue);
+
+        Random r = new Random(12345);
+        for (int i = 0; i < 5; i++) {
+            INDArray[] data = getEmbeddingData(r);
+            dense.fit(data[0], data[1]);
+            sparse.fit(data[0], data[1]);
+            assertArraysClose(String.valueOf(i), dense.params(), sparse.params());
+        }
+    }
+
+    private static MultiLayerNetwork getEmbeddingNet(IUpdater updater, boolean sparseGradients,
+                    GradientNormalization gradientNormalization) {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).updater(updater)
+                        .weightInit(WeightInit.XAVIER).gradientNormalization(gradientNormalization)
+                        .gradientNormalizationThreshold(0.01).list()
+                        .layer(0, new EmbeddingLayer.Builder().nIn(100).nOut(5).sparseGradients(sparseGradients)
+                                        .activation(Activation.TANH).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(5).nOut(3)
+                                        .activation(Activation.SOFTMAX).build())
+                        .build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        return net;
+    }
+
+    private static ComputationGraph getEmbeddingGraph(IUpdater updater, boolean sparseGradients) {
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).updater(updater)
+                        .weightInit(WeightInit.XAVIER).graphBuilder().addInputs("in")
+                        .addLayer("0", new EmbeddingLayer.Builder().nIn(100).nOut(5).sparseGradients(sparseGradients)
+                                        .activation(Activation.TANH).build(), "in")
+                        .addLayer("1", new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(5).nOut(3)
+                                        .activation(Activation.SOFTMAX).build(), "0")
+                        .setOutputs("1").build();
+        ComputationGraph graph = new ComputationGraph(conf);
+        graph.init();
+        return graph;
+    }
+
+    private static INDArray[] getEmbeddingData(Random r) {
+        int miniBatch = 8;
+        INDArray in = Nd4j.create(miniBatch, 1);
+        INDArray labels = Nd4j.create(miniBatch, 3);
+        for (int i = 0; i < miniBatch; i++) {
+            //Repeated indices within a minibatch are likely
+            in.putScalar(i, 0, r.nextInt(20));
+            labels.putScalar(i, r.nextInt(3), 1.0);
+        }
+        return new INDArray[] {in, labels};
+    }
+
+    private static void assertArraysClose(String msg, INDArray expected, INDArray actual) {
+        double maxAbsDiff = Transforms.abs(expected.sub(actual)).maxNumber().doubleValue();
+        assertTrue(msg + " - max absolute difference: " + maxAbsDiff, maxAbsDiff < 1e-5);
+    }
+
 }
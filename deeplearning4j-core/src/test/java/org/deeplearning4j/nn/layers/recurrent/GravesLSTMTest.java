@@ -255,4 +255,37 @@ public class GravesLSTMTest {
             net.fit(in, labels);
         }
     }
+
+    @Test
+    public void testSequenceOutputMatchesTimeSteps() {
+        //Input projections for whole sequences are calculated with a single GEMM, whereas rnnTimeStep with a single
+        // time step does one projection per call: results should match
+        for (boolean graves : new boolean[] {true, false}) {
+            org.deeplearning4j.nn.conf.layers.Layer l = graves
+                            ? new org.deeplearning4j.nn.conf.layers.GravesLSTM.Builder().activation(Activation.TANH)
+                                            .nIn(3).nOut(4).build()
+                            : new org.deeplearning4j.nn.conf.layers.LSTM.Builder().activation(Activation.TANH)
+                                            .nIn(3).nOut(4).build();
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).list().layer(0, l)
+                            .layer(1, new org.deeplearning4j.nn.conf.layers.RnnOutputLayer.Builder()
+                                            .lossFunction(LossFunctions.LossFunction.MSE).nIn(4).nOut(2)
+                                            .activation(Activation.IDENTITY).build())
+                            .build();
+
+            MultiLayerNetwork net = new MultiLayerNetwork(conf);
+            net.init();
+
+            int tsLength = 6;
+            INDArray in = Nd4j.rand(new int[] {2, 3, tsLength});
+            INDArray out = net.output(in);
+
+            for (int t = 0; t < tsLength; t++) {
+                INDArray inStep = in.get(NDArrayIndex.all(), NDArrayIndex.all(), NDArrayIndex.point(t));
+                INDArray outStep = net.rnnTimeStep(inStep);
+                INDArray expStep = out.get(NDArrayIndex.all(), NDArrayIndex.all(), NDArrayIndex.point(t));
+                assertTrue(expStep.equalsWithEps(outStep, 1e-5));
+            }
+            net.rnnClearPreviousState();
+        }
+    }
 }
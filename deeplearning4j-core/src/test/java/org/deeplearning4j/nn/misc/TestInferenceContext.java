@@ -0,0 +1,140 @@
+package org.deeplearning4j.nn.misc;
+
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.WorkspaceMode;
+import org.deeplearning4j.nn.conf.graph.MergeVertex;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.graph.GraphInferenceContext;
+import org.deeplearning4j.nn.multilayer.MultiLayerInferenceContext;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class TestInferenceContext {
+
+    private static final int N_THREADS = 4;
+    private static final int N_ITER = 20;
+
+    @Test
+    public void testMultiLayerNetworkConcurrentInference() throws Exception {
+        for (WorkspaceMode wsm : new WorkspaceMode[] {WorkspaceMode.NONE, WorkspaceMode.SEPARATE}) {
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                            .inferenceWorkspaceMode(wsm).list()
+                            .layer(0, new DenseLayer.Builder().nIn(10).nOut(20).activation(Activation.TANH).build())
+                            .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(20).nOut(5)
+                                            .activation(Activation.SOFTMAX).build())
+                            .build();
+            final MultiLayerNetwork net = new MultiLayerNetwork(conf);
+            net.init();
+
+            final List<INDArray> inputs = new ArrayList<>();
+            final List<INDArray> expected = new ArrayList<>();
+            for (int i = 0; i < N_THREADS; i++) {
+                INDArray in = Nd4j.rand(3 + i, 10);
+                inputs.add(in);
+                expected.add(net.output(in));
+            }
+
+            ExecutorService exec = Executors.newFixedThreadPool(N_THREADS);
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < N_THREADS; i++) {
+                final int idx = i;
+                futures.add(exec.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        MultiLayerInferenceContext ctx = net.createInferenceContext();
+                        boolean ok = true;
+                        for (int j = 0; j < N_ITER; j++) {
+                            ok &= expected.get(idx).equals(net.output(ctx, inputs.get(idx)));
+                        }
+                        return ok;
+                    }
+                }));
+            }
+            for (Future<Boolean> f : futures) {
+                assertTrue(f.get());
+            }
+            exec.shutdown();
+
+            //Parameters should be shared, not copied: changes should be visible via the context
+            MultiLayerInferenceContext ctx = net.createInferenceContext();
+            net.params().muli(0.5);
+            assertEquals(net.output(inputs.get(0)), net.output(ctx, inputs.get(0)));
+
+            //Context from a different network should not be accepted
+            MultiLayerNetwork other = net.clone();
+            try {
+                other.output(ctx, inputs.get(0));
+                fail("Expected exception");
+            } catch (IllegalArgumentException e) {
+                //Expected
+            }
+        }
+    }
+
+    @Test
+    public void testComputationGraphConcurrentInference() throws Exception {
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).graphBuilder()
+                        .addInputs("in1", "in2")
+                        .addLayer("d1", new DenseLayer.Builder().nIn(4).nOut(6).activation(Activation.TANH).build(),
+                                        "in1")
+                        .addLayer("d2", new DenseLayer.Builder().nIn(5).nOut(6).activation(Activation.TANH).build(),
+                                        "in2")
+                        .addVertex("merge", new MergeVertex(), "d1", "d2")
+                        .addLayer("out", new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(12).nOut(3)
+                                        .activation(Activation.SOFTMAX).build(), "merge")
+                        .setOutputs("out").build();
+        final ComputationGraph graph = new ComputationGraph(conf);
+        graph.init();
+
+        final List<INDArray[]> inputs = new ArrayList<>();
+        final List<INDArray> expected = new ArrayList<>();
+        for (int i = 0; i < N_THREADS; i++) {
+            INDArray[] in = new INDArray[] {Nd4j.rand(2 + i, 4), Nd4j.rand(2 + i, 5)};
+            inputs.add(in);
+            expected.add(graph.outputSingle(in));
+        }
+
+        ExecutorService exec = Executors.newFixedThreadPool(N_THREADS);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < N_THREADS; i++) {
+            final int idx = i;
+            futures.add(exec.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    GraphInferenceContext ctx = graph.createInferenceContext();
+                    boolean ok = true;
+                    for (int j = 0; j < N_ITER; j++) {
+                        ok &= expected.get(idx).equals(graph.output(ctx, inputs.get(idx))[0]);
+                    }
+                    return ok;
+                }
+            }));
+        }
+        for (Future<Boolean> f : futures) {
+            assertTrue(f.get());
+        }
+        exec.shutdown();
+
+        //Re-setting the parameters via setParams should be visible via the context
+        GraphInferenceContext ctx = graph.createInferenceContext();
+        graph.setParams(graph.params().mul(2.0));
+        assertEquals(graph.outputSingle(inputs.get(1)), graph.output(ctx, inputs.get(1))[0]);
+    }
+}
@@ -4,15 +4,18 @@ import org.deeplearning4j.nn.conf.CacheMode;
 import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.WorkspaceMode;
 import org.deeplearning4j.nn.conf.graph.*;
 import org.deeplearning4j.nn.conf.graph.rnn.DuplicateToTimeSeriesVertex;
 import org.deeplearning4j.nn.conf.graph.rnn.LastTimeStepVertex;
 import org.deeplearning4j.nn.conf.inputs.InputType;
 import org.deeplearning4j.nn.conf.layers.*;
+import org.deeplearning4j.nn.conf.memory.ActivationLivenessReport;
 import org.deeplearning4j.nn.conf.memory.MemoryReport;
 import org.deeplearning4j.nn.conf.memory.MemoryType;
 import org.deeplearning4j.nn.conf.memory.MemoryUseMode;
 import org.deeplearning4j.nn.conf.preprocessor.FeedForwardToCnnPreProcessor;
+import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.buffer.DataBuffer;
@@ -25,6 +28,7 @@ import java.util.List;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  * Created by Alex on 14/07/2017.
@@ -235,4 +239,55 @@ public class TestMemoryReports {
         assertEquals(0, mr.getMemoryBytes(MemoryType.WORKING_MEMORY_VARIABLE, 1, MemoryUseMode.INFERENCE,
                         CacheMode.NONE, DataBuffer.Type.FLOAT));
     }
+
+    @Test
+    public void testActivationLivenessReport() {
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder().graphBuilder().addInputs("in")
+                        .addLayer("d1", new DenseLayer.Builder().nIn(10).nOut(20).build(), "in")
+                        .addLayer("d2", new DenseLayer.Builder().nIn(20).nOut(20).build(), "d1")
+                        .addLayer("d3", new DenseLayer.Builder().nIn(20).nOut(20).build(), "d2")
+                        .addVertex("merge", new MergeVertex(), "d1", "d3")
+                        .addLayer("out", new OutputLayer.Builder().nIn(40).nOut(5).build(), "merge")
+                        .setOutputs("out").build();
+
+        ActivationLivenessReport r = conf.getActivationLivenessReport(InputType.feedForward(10));
+
+        //Activations: in=10, d1=20, d2=20, d3=20, merge=40, out=5
+        assertEquals(115, r.getTotalActivationsPerExample());
+        //Peak at merge: d1 (held until merge), d3 and merge itself are live. in and d2 are released by then
+        assertEquals(80, r.getPeakLiveActivationsPerExample());
+        assertEquals("merge", r.getPeakVertex());
+        assertEquals("merge", r.getLastConsumers().get("d1"));
+        assertEquals("d3", r.getLastConsumers().get("d2"));
+        assertNull(r.getLastConsumers().get("out"));
+        assertEquals(115 * 4 * 32, r.getTotalActivationBytes(32, DataBuffer.Type.FLOAT));
+        assertEquals(80 * 4 * 32, r.getPeakLiveActivationBytes(32, DataBuffer.Type.FLOAT));
+        assertEquals(115 / 80.0, r.getReductionFactor(), 1e-6);
+
+        //Releasing activations during inference should not change the network output
+        ComputationGraph graph = new ComputationGraph(conf);
+        graph.init();
+        INDArray in = Nd4j.rand(3, 10);
+        INDArray expOut = graph.feedForward(in, false).get("out");
+        assertEquals(expOut, graph.outputSingle(in));
+        assertEquals(expOut, graph.outputSingle(in));
+
+        //Chain of equal size layers: released activation arrays are reused by later layers when using workspaces
+        for (WorkspaceMode wsm : WorkspaceMode.values()) {
+            ComputationGraphConfiguration chain = new NeuralNetConfiguration.Builder().inferenceWorkspaceMode(wsm)
+                            .graphBuilder().addInputs("in")
+                            .addLayer("d1", new DenseLayer.Builder().nIn(10).nOut(20).build(), "in")
+                            .addLayer("d2", new DenseLayer.Builder().nIn(20).nOut(20).build(), "d1")
+                            .addLayer("d3", new DenseLayer.Builder().nIn(20).nOut(20).build(), "d2")
+                            .addLayer("d4", new DenseLayer.Builder().nIn(20).nOut(20).build(), "d3")
+                            .addVertex("merge", new MergeVertex(), "d2", "d4")
+                            .addLayer("out", new OutputLayer.Builder().nIn(40).nOut(5).build(), "merge")
+                            .setOutputs("out").build();
+            ComputationGraph chainGraph = new ComputationGraph(chain);
+            chainGraph.init();
+            expOut = chainGraph.feedForward(in, false).get("out");
+            assertEquals(wsm.toString(), expOut, chainGraph.outputSingle(in));
+            assertEquals(wsm.toString(), expOut, chainGraph.outputSingle(in));
+        }
+    }
 }
@@ -5,6 +5,7 @@ import org.apache.commons.math3.util.FastMath;
 import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.api.Updater;
 import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.GradientNormalization;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.conf.layers.DenseLayer;
@@ -22,6 +23,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.learning.*;
@@ -966,4 +968,47 @@ public class TestUpdaters {
         }
         assertEquals(expParams, actParams);
     }
+
+    @Test
+    public void testFusedUpdateMatchesStandard() {
+        IUpdater[] updaters = {new Sgd(0.1), new Adam(0.01), new Nesterovs(0.1, 0.9), new RmsProp(0.01), new NoOp()};
+        GradientNormalization[] gradNorms = {GradientNormalization.None, GradientNormalization.RenormalizeL2PerLayer,
+                        GradientNormalization.ClipL2PerLayer, GradientNormalization.RenormalizeL2PerParamType,
+                        GradientNormalization.ClipL2PerParamType, GradientNormalization.ClipElementWiseAbsoluteValue};
+
+        Nd4j.getRandom().setSeed(12345);
+        DataSet ds = new DataSet(Nd4j.rand(5, 4), Nd4j.rand(5, 3));
+
+        for (IUpdater u : updaters) {
+            for (GradientNormalization gn : gradNorms) {
+                String msg = u + " - " + gn;
+                MultiLayerNetwork standard = getFusedUpdateNet(u, gn);
+                MultiLayerNetwork fused = getFusedUpdateNet(u, gn);
+                ((MultiLayerUpdater) fused.getUpdater()).setFusedUpdate(true);
+                assertTrue(msg, ((MultiLayerUpdater) fused.getUpdater()).isFusedUpdateSupported());
+
+                for (int i = 0; i < 5; i++) {
+                    standard.fit(ds);
+                    fused.fit(ds);
+                    assertEquals(msg, standard.params(), fused.params());
+                }
+                assertEquals(msg, standard.getUpdater().getStateViewArray(), fused.getUpdater().getStateViewArray());
+            }
+        }
+    }
+
+    private static MultiLayerNetwork getFusedUpdateNet(IUpdater updater, GradientNormalization gn) {
+        //Layer 1: different updater (SGD), hence 2 updater blocks
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).updater(updater).l1(0.01)
+                        .l2(0.02).gradientNormalization(gn).gradientNormalizationThreshold(0.5).list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(5).activation(Activation.TANH).build())
+                        .layer(1, new DenseLayer.Builder().nIn(5).nOut(6).activation(Activation.TANH)
+                                        .updater(new Sgd(0.05)).build())
+                        .layer(2, new OutputLayer.Builder().nIn(6).nOut(3).activation(Activation.IDENTITY)
+                                        .lossFunction(LossFunctions.LossFunction.MSE).build())
+                        .build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        return net;
+    }
 }
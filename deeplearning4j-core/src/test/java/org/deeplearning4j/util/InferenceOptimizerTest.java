@@ -0,0 +1,129 @@
+package org.deeplearning4j.util;
+
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.graph.ElementWiseVertex;
+import org.deeplearning4j.nn.conf.graph.MergeVertex;
+import org.deeplearning4j.nn.conf.graph.ScaleVertex;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.conf.layers.*;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.params.BatchNormalizationParamInitializer;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.activations.impl.ActivationReLU;
+import org.nd4j.linalg.activations.impl.ActivationTanH;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.*;
+
+public class InferenceOptimizerTest {
+
+    @Test
+    public void testOptimizeMultiLayerNetwork() throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).weightInit(WeightInit.XAVIER)
+                        .list()
+                        .layer(0, new ConvolutionLayer.Builder().kernelSize(3, 3).nOut(4).hasBias(false)
+                                        .activation(Activation.IDENTITY).build())
+                        .layer(1, new BatchNormalization.Builder().build())
+                        .layer(2, new ActivationLayer.Builder().activation(Activation.RELU).build())
+                        .layer(3, new DropoutLayer.Builder(0.5).build())
+                        .layer(4, new DenseLayer.Builder().nOut(6).activation(Activation.IDENTITY).build())
+                        .layer(5, new BatchNormalization.Builder().build())
+                        .layer(6, new ActivationLayer.Builder().activation(Activation.TANH).build())
+                        .layer(7, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nOut(3)
+                                        .activation(Activation.SOFTMAX).build())
+                        .setInputType(InputType.convolutional(8, 8, 2)).build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        randomizeBatchNorm(net.getLayer(1));
+        randomizeBatchNorm(net.getLayer(5));
+
+        MultiLayerNetwork optimized = InferenceOptimizer.optimize(net);
+        assertEquals(3, optimized.getnLayers());
+        ConvolutionLayer c = (ConvolutionLayer) optimized.getLayer(0).conf().getLayer();
+        assertTrue(c.hasBias());
+        assertTrue(c.getActivationFn() instanceof ActivationReLU);
+        DenseLayer d = (DenseLayer) optimized.getLayer(1).conf().getLayer();
+        assertTrue(d.getActivationFn() instanceof ActivationTanH);
+        assertEquals(8, net.getnLayers()); //Original is not modified
+
+        INDArray in = Nd4j.rand(new int[] {5, 2, 8, 8});
+        INDArray expected = net.output(in, false);
+        assertClose(expected, optimized.output(in, false));
+
+        //Result is an ordinary network
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ModelSerializer.writeModel(optimized, baos, false);
+        MultiLayerNetwork restored =
+                        ModelSerializer.restoreMultiLayerNetwork(new ByteArrayInputStream(baos.toByteArray()));
+        assertClose(expected, restored.output(in, false));
+    }
+
+    @Test
+    public void testOptimizeComputationGraph() throws Exception {
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                        .weightInit(WeightInit.XAVIER).graphBuilder().addInputs("in")
+                        .addLayer("d0", new DenseLayer.Builder().nIn(5).nOut(8).activation(Activation.IDENTITY)
+                                        .build(), "in")
+                        .addLayer("bn0", new BatchNormalization.Builder().build(), "d0")
+                        .addVertex("scale", new ScaleVertex(1.0), "bn0")
+                        .addLayer("act0", new ActivationLayer.Builder().activation(Activation.RELU).build(), "scale")
+                        .addLayer("drop", new DropoutLayer.Builder(0.5).build(), "act0")
+                        .addVertex("merge", new MergeVertex(), "drop")
+                        .addLayer("d1", new DenseLayer.Builder().nOut(8).activation(Activation.IDENTITY).build(),
+                                        "merge")
+                        //d1 output is used twice: bn1 can't be folded into it
+                        .addLayer("bn1", new BatchNormalization.Builder().build(), "d1")
+                        .addVertex("add", new ElementWiseVertex(ElementWiseVertex.Op.Add), "bn1", "d1")
+                        .addLayer("out", new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nOut(3)
+                                        .activation(Activation.SOFTMAX).build(), "add")
+                        .setOutputs("out").setInputTypes(InputType.feedForward(5)).build();
+        ComputationGraph graph = new ComputationGraph(conf);
+        graph.init();
+        randomizeBatchNorm(graph.getLayer("bn0"));
+        randomizeBatchNorm(graph.getLayer("bn1"));
+
+        ComputationGraph optimized = InferenceOptimizer.optimize(graph);
+        assertEquals(5, optimized.getConfiguration().getVertices().size());
+        for (String s : new String[] {"d0", "d1", "bn1", "add", "out"}) {
+            assertTrue(s, optimized.getConfiguration().getVertices().containsKey(s));
+        }
+        DenseLayer d0 = (DenseLayer) optimized.getLayer("d0").conf().getLayer();
+        assertTrue(d0.getActivationFn() instanceof ActivationReLU);
+
+        INDArray in = Nd4j.rand(5, 5);
+        INDArray expected = graph.outputSingle(false, in);
+        assertClose(expected, optimized.outputSingle(false, in));
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ModelSerializer.writeModel(optimized, baos, false);
+        ComputationGraph restored =
+                        ModelSerializer.restoreComputationGraph(new ByteArrayInputStream(baos.toByteArray()));
+        assertClose(expected, restored.outputSingle(false, in));
+    }
+
+    private static void randomizeBatchNorm(Layer bn) {
+        int n = bn.getParam(BatchNormalizationParamInitializer.GLOBAL_MEAN).length();
+        bn.setParam(BatchNormalizationParamInitializer.GAMMA, Nd4j.rand(1, n).addi(0.5));
+        bn.setParam(BatchNormalizationParamInitializer.BETA, Nd4j.rand(1, n).subi(0.5));
+        bn.setParam(BatchNormalizationParamInitializer.GLOBAL_MEAN, Nd4j.rand(1, n).subi(0.5));
+        bn.setParam(BatchNormalizationParamInitializer.GLOBAL_VAR, Nd4j.rand(1, n).addi(0.5));
+    }
+
+    private static void assertClose(INDArray expected, INDArray actual) {
+        assertArrayEquals(expected.shape(), actual.shape());
+        double maxAbsDiff = Transforms.abs(expected.sub(actual)).maxNumber().doubleValue();
+        assertTrue("Max absolute difference: " + maxAbsDiff, maxAbsDiff < 1e-4);
+    }
+}
@@ -0,0 +1,202 @@
+package org.deeplearning4j.util;
+
+import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.conf.layers.ConvolutionLayer;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.EmbeddingLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.learning.config.Sgd;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.*;
+
+public class WeightQuantizationTest {
+
+    @Test
+    public void testHalfPrecisionConversion() {
+        float[] exact = {0.0f, 1.0f, -2.0f, 0.5f, 65504.0f, -0.000061035156f, 5.9604645e-8f};
+        for (float f : exact) {
+            assertEquals(f, WeightQuantization.halfToFloat(WeightQuantization.floatToHalf(f)), 0.0f);
+        }
+        assertTrue(Float.isInfinite(WeightQuantization.halfToFloat(WeightQuantization.floatToHalf(1e6f))));
+        //Round to nearest even: 1 + 2^-11 is half way between 1 and 1 + 2^-10
+        assertEquals(1.0f, WeightQuantization.halfToFloat(WeightQuantization.floatToHalf(1.00048828125f)), 0.0f);
+        float f = 0.1234567f;
+        assertEquals(f, WeightQuantization.halfToFloat(WeightQuantization.floatToHalf(f)), f * 1e-3);
+    }
+
+    @Test
+    public void testQuantizedModelSerialization() throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).weightInit(WeightInit.XAVIER)
+                        .list()
+                        .layer(0, new ConvolutionLayer.Builder().kernelSize(3, 3).nOut(8)
+                                        .activation(Activation.RELU).build())
+                        .layer(1, new DenseLayer.Builder().nOut(32).activation(Activation.TANH).build())
+                        .layer(2, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nOut(3)
+                                        .activation(Activation.SOFTMAX).build())
+                        .setInputType(InputType.convolutional(10, 10, 2)).build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        ByteArrayOutputStream full = new ByteArrayOutputStream();
+        ModelSerializer.writeModel(net, full, false);
+
+        INDArray in = Nd4j.rand(new int[] {4, 2, 10, 10});
+        INDArray expected = net.output(in, false);
+
+        for (WeightQuantization.Type t : WeightQuantization.Type.values()) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ModelSerializer.writeModel(net, baos, t);
+            assertTrue(t + " size " + baos.size() + " vs. " + full.size(), baos.size() < full.size() / 1.5);
+
+            MultiLayerNetwork restored =
+                            ModelSerializer.restoreMultiLayerNetwork(new ByteArrayInputStream(baos.toByteArray()));
+            assertEquals(net.getLayerWiseConfigurations(), restored.getLayerWiseConfigurations());
+
+            //Biases are stored at full precision
+            assertEquals(net.getLayer(1).getParam("b"), restored.getLayer(1).getParam("b"));
+
+            //Per channel int8: each weight within scale/2 = max|w| / 254 of its original value
+            for (int i = 0; i < 3; i++) {
+                INDArray w = net.getLayer(i).getParam("W");
+                INDArray wRestored = restored.getLayer(i).getParam("W");
+                double maxAbs = Transforms.abs(w).maxNumber().doubleValue();
+                double maxDiff = Transforms.abs(w.sub(wRestored)).maxNumber().doubleValue();
+                double bound = (t == WeightQuantization.Type.INT8 ? maxAbs / 254 : maxAbs / 1024) + 1e-6;
+                assertTrue(t + " layer " + i + ": " + maxDiff + " vs. " + bound, maxDiff <= bound);
+            }
+
+            INDArray out = restored.output(in, false);
+            double maxDiff = Transforms.abs(expected.sub(out)).maxNumber().doubleValue();
+            assertTrue(t + ": " + maxDiff, maxDiff < 0.05);
+
+            //Simulated quantization gives the same network as restoring the quantized model
+            MultiLayerNetwork simulated = WeightQuantization.quantize(net, t);
+            assertEquals(restored.params(), simulated.params());
+            assertNotEquals(net.params(), simulated.params());
+        }
+    }
+
+    @Test
+    public void testEmbeddingPerRowScales() throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).weightInit(WeightInit.XAVIER)
+                        .list()
+                        .layer(0, new EmbeddingLayer.Builder().nIn(20).nOut(8).activation(Activation.IDENTITY).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(8).nOut(3)
+                                        .activation(Activation.SOFTMAX).build())
+                        .build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        //Rows with very different magnitudes: a per-column scale would be dominated by the largest row
+        INDArray w = net.getLayer(0).getParam("W");
+        for (int i = 0; i < w.rows(); i++) {
+            w.getRow(i).muli(Math.pow(10, -(i % 4)));
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ModelSerializer.writeModel(net, baos, WeightQuantization.Type.INT8);
+        MultiLayerNetwork restored =
+                        ModelSerializer.restoreMultiLayerNetwork(new ByteArrayInputStream(baos.toByteArray()));
+
+        INDArray wRestored = restored.getLayer(0).getParam("W");
+        for (int i = 0; i < w.rows(); i++) {
+            double rowMax = Transforms.abs(w.getRow(i)).maxNumber().doubleValue();
+            double maxDiff = Transforms.abs(w.getRow(i).sub(wRestored.getRow(i))).maxNumber().doubleValue();
+            assertTrue("row " + i + ": " + maxDiff + " vs. " + rowMax, maxDiff <= rowMax / 254 + 1e-7);
+        }
+    }
+
+    @Test
+    public void testQuantizedMultiLayerNetwork() throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).weightInit(WeightInit.XAVIER)
+                        .list()
+                        .layer(0, new ConvolutionLayer.Builder().kernelSize(3, 3).nOut(8)
+                                        .activation(Activation.RELU).build())
+                        .layer(1, new DenseLayer.Builder().nOut(32).activation(Activation.TANH).build())
+                        .layer(2, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nOut(3)
+                                        .activation(Activation.SOFTMAX).build())
+                        .setInputType(InputType.convolutional(10, 10, 2)).build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        INDArray in = Nd4j.rand(new int[] {4, 2, 10, 10});
+
+        for (WeightQuantization.Type t : WeightQuantization.Type.values()) {
+            INDArray expected = WeightQuantization.quantize(net, t).output(in, false);
+
+            QuantizedMultiLayerNetwork quantized = QuantizedMultiLayerNetwork.fromNetwork(net, t);
+            assertEquals(expected, quantized.output(in));
+            //Repeated calls: parameters of all layers are loaded again
+            assertEquals(expected, quantized.output(in));
+
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ModelSerializer.writeModel(net, baos, t);
+            QuantizedMultiLayerNetwork restored =
+                            QuantizedMultiLayerNetwork.restore(new ByteArrayInputStream(baos.toByteArray()));
+            assertEquals(net.getLayerWiseConfigurations(), restored.getLayerWiseConfigurations());
+            assertEquals(expected, restored.output(in));
+        }
+    }
+
+    @Test
+    public void testQuantizedComputationGraphSerialization() throws Exception {
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                        .weightInit(WeightInit.XAVIER).graphBuilder().addInputs("in")
+                        .addLayer("dense_0", new DenseLayer.Builder().nIn(4).nOut(10).build(), "in")
+                        .addLayer("out", new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(10).nOut(3)
+                                        .activation(Activation.SOFTMAX).build(), "dense_0")
+                        .setOutputs("out").build();
+        ComputationGraph graph = new ComputationGraph(conf);
+        graph.init();
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ModelSerializer.writeModel(graph, baos, WeightQuantization.Type.INT8);
+        ComputationGraph restored =
+                        ModelSerializer.restoreComputationGraph(new ByteArrayInputStream(baos.toByteArray()));
+        assertEquals(WeightQuantization.quantize(graph, WeightQuantization.Type.INT8).params(), restored.params());
+    }
+
+    @Test
+    public void testAccuracyReport() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).weightInit(WeightInit.XAVIER)
+                        .updater(new Sgd(0.1)).list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(10).activation(Activation.TANH).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(10).nOut(3)
+                                        .activation(Activation.SOFTMAX).build())
+                        .build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        DataSetIterator iter = new IrisDataSetIterator(150, 150);
+        for (int i = 0; i < 50; i++) {
+            iter.reset();
+            net.fit(iter);
+        }
+
+        MultiLayerNetwork quantized = WeightQuantization.quantize(net, WeightQuantization.Type.INT8);
+        WeightQuantization.QuantizationReport report = WeightQuantization.evaluate(net, quantized, iter);
+        assertEquals(150, report.getOriginalEvaluation().getNumRowCounter(), 0.0);
+        assertEquals(150, report.getQuantizedEvaluation().getNumRowCounter(), 0.0);
+        assertTrue(report.toString(), Math.abs(report.getAccuracyDrop()) < 0.05);
+        assertTrue(report.toString(), report.getMaxAbsoluteOutputDifference() < 0.05);
+
+        //No change: no accuracy drop
+        report = WeightQuantization.evaluate(net, net, iter);
+        assertEquals(0.0, report.getAccuracyDrop(), 0.0);
+        assertEquals(0.0, report.getMaxAbsoluteOutputDifference(), 0.0);
+    }
+}
@@ -3,7 +3,9 @@ package org.deeplearning4j.graph.data;
 import org.deeplearning4j.graph.api.Edge;
 import org.deeplearning4j.graph.api.Vertex;
 import org.deeplearning4j.graph.data.impl.DelimitedEdgeLineProcessor;
+import org.deeplearning4j.graph.data.impl.EdgeListFileSource;
 import org.deeplearning4j.graph.data.impl.WeightedEdgeLineProcessor;
+import org.deeplearning4j.graph.graph.CSRGraph;
 import org.deeplearning4j.graph.graph.Graph;
 import org.deeplearning4j.graph.vertexfactory.StringVertexFactory;
 import org.deeplearning4j.graph.vertexfactory.VertexFactory;
@@ -172,4 +174,31 @@ public class GraphLoader {
 
         return graph;
     }
+
+    /** Load a graph from an edge list file (one edge per line) into an immutable {@link CSRGraph}, for large graphs.
+     * Numerical edge values (such as from a {@link WeightedEdgeLineProcessor}) are used as edge weights.<br>
+     * The file is parsed in parallel, in two passes: see {@link CSRGraph.Builder} for details
+     * @param path Path to the file containing the edges, one per line
+     * @param numVertices number of vertices in the graph
+     * @param lineProcessor EdgeLineProcessor used to convert lines of text into edges. Must be thread safe
+     * @param vertexFactory Used to create vertices
+     * @return CSRGraph, stored on the heap
+     */
+    public static <V> CSRGraph<V> loadCSRGraph(String path, int numVertices, EdgeLineProcessor<?> lineProcessor,
+                    VertexFactory<V> vertexFactory) throws IOException {
+        return loadCSRGraph(path, lineProcessor, new CSRGraph.Builder<V>(numVertices).vertexFactory(vertexFactory));
+    }
+
+    /** Load a graph from an edge list file (one edge per line) into an immutable {@link CSRGraph}, with the
+     * configuration (storage, number of threads, etc) from the provided builder
+     * @param path Path to the file containing the edges, one per line
+     * @param lineProcessor EdgeLineProcessor used to convert lines of text into edges. Must be thread safe
+     * @param builder Configuration for the graph
+     * @return CSRGraph
+     */
+    public static <V> CSRGraph<V> loadCSRGraph(String path, EdgeLineProcessor<?> lineProcessor,
+                    CSRGraph.Builder<V> builder) throws IOException {
+        int numPartitions = 4 * Runtime.getRuntime().availableProcessors();
+        return builder.build(new EdgeListFileSource(new File(path), lineProcessor, numPartitions));
+    }
 }
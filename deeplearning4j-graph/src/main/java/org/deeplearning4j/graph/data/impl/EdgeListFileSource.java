@@ -0,0 +1,98 @@
+package org.deeplearning4j.graph.data.impl;
+
+import org.deeplearning4j.graph.api.Edge;
+import org.deeplearning4j.graph.data.EdgeLineProcessor;
+import org.deeplearning4j.graph.graph.CSRGraph;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**Edge source for building a {@link CSRGraph} from an edge list file, with one edge per line.<br>
+ * The file is split into byte ranges (partitions) which are parsed in parallel: each partition starts at the first
+ * line beginning within its range, and ends with the line that spans the end of its range. Lines are converted to
+ * edges using the provided {@link EdgeLineProcessor}, which must be thread safe (as per the implementations in this
+ * package). Edge values are used as edge weights if they are numbers; other edges (for example, from a
+ * {@link DelimitedEdgeLineProcessor}) have weight 1.0
+ */
+public class EdgeListFileSource implements CSRGraph.EdgeSource {
+
+    private static final int MIN_PARTITION_BYTES = 1 << 20;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final File file;
+    private final EdgeLineProcessor<?> lineProcessor;
+    private final int numPartitions;
+    private final long length;
+
+    /**
+     * @param file          Edge list file
+     * @param lineProcessor Used to convert lines to edges. Must be thread safe
+     * @param numPartitions Maximum number of partitions to split the file into. Small files use fewer partitions
+     */
+    public EdgeListFileSource(File file, EdgeLineProcessor<?> lineProcessor, int numPartitions) {
+        this.file = file;
+        this.lineProcessor = lineProcessor;
+        this.length = file.length();
+        this.numPartitions = (int) Math.max(1, Math.min(numPartitions, length / MIN_PARTITION_BYTES));
+    }
+
+    @Override
+    public int numPartitions() {
+        return numPartitions;
+    }
+
+    @Override
+    public void scan(int partition, CSRGraph.EdgeConsumer consumer) throws IOException {
+        long start = length * partition / numPartitions;
+        long end = length * (partition + 1) / numPartitions;
+
+        try (FileInputStream fis = new FileInputStream(file)) {
+            long pos = Math.max(0, start - 1);
+            fis.getChannel().position(pos);
+            InputStream in = new BufferedInputStream(fis, 1 << 16);
+
+            if (start > 0) {
+                //Skip to the start of the first line beginning at or after 'start'. The line containing byte
+                // (start-1) belongs to the previous partition
+                int b;
+                while ((b = in.read()) != -1) {
+                    pos++;
+                    if (b == '\n')
+                        break;
+                }
+            }
+
+            byte[] line = new byte[256];
+            while (pos < end) {
+                int len = 0;
+                int b;
+                boolean any = false;
+                while ((b = in.read()) != -1) {
+                    pos++;
+                    any = true;
+                    if (b == '\n')
+                        break;
+                    if (len == line.length)
+                        line = Arrays.copyOf(line, 2 * len);
+                    line[len++] = (byte) b;
+                }
+                if (!any)
+                    break; //End of file
+                if (len > 0 && line[len - 1] == '\r')
+                    len--;
+
+                Edge<?> edge = lineProcessor.processLine(new String(line, 0, len, UTF8));
+                if (edge != null) {
+                    Object value = edge.getValue();
+                    double weight = (value instanceof Number ? ((Number) value).doubleValue() : 1.0);
+                    consumer.addEdge(edge.getFrom(), edge.getTo(), weight, edge.isDirected());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,729 @@
+package org.deeplearning4j.graph.graph;
+
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.graph.api.BaseGraph;
+import org.deeplearning4j.graph.api.Edge;
+import org.deeplearning4j.graph.api.IGraph;
+import org.deeplearning4j.graph.api.Vertex;
+import org.deeplearning4j.graph.exception.NoEdgesException;
+import org.deeplearning4j.graph.vertexfactory.VertexFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/** Immutable graph in compressed sparse row (CSR) format, for large graphs.<br>
+ * Unlike {@link Graph} (one {@link Edge} object per edge, in per-vertex lists), edges here are stored in primitive
+ * arrays: the neighbours of vertex i are {@code targets[offsets[i]]} to {@code targets[offsets[i+1]-1]}, sorted by
+ * index, with the corresponding edge weights (as floats) in a parallel array. Undirected edges are stored in both
+ * directions. Edge objects are created on demand only, by methods such as {@link #getEdgesOut(int)}.<br>
+ * For weighted graphs, an alias table (Walker/Vose alias method) is precomputed for each vertex, so that weighted
+ * neighbour sampling ({@link #sampleWeightedNeighbor(int, Random)}) is O(1) instead of O(degree).
+ * <p>
+ * Arrays may be stored either on the heap, or in a memory-mapped file (see {@link Builder#mmapFile(File)}) that can
+ * later be reopened using {@link #load(File, VertexFactory)} without rebuilding the graph. Multiple edges between the
+ * same pair of vertices are allowed, and the graph cannot be modified after construction.<br>
+ * Graphs are created using a {@link Builder} from an {@link EdgeSource} (for example, see
+ * {@link org.deeplearning4j.graph.data.GraphLoader#loadCSRGraph(String, int,
+ * org.deeplearning4j.graph.data.EdgeLineProcessor, VertexFactory)}), or from an existing graph using
+ * {@link #fromGraph(IGraph)}
+ * @param <V> Type parameter for vertices (type of objects attached to each vertex)
+ */
+@Slf4j
+public class CSRGraph<V> extends BaseGraph<V, Double> {
+
+    private static final int MAGIC = 0x43535247; //"CSRG"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int FLAG_WEIGHTED = 1;
+    private static final int FLAG_DIRECTED = 2;
+
+    private final int numVertices;
+    private final int numEntries;
+    private final boolean weighted;
+    private final boolean directed;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final FloatBuffer weights;
+    private final FloatBuffer aliasProb;
+    private final IntBuffer alias;
+    private final List<Vertex<V>> vertices;
+    private final VertexFactory<V> vertexFactory;
+
+    private CSRGraph(Storage s, List<Vertex<V>> vertices, VertexFactory<V> vertexFactory) {
+        this.numVertices = s.numVertices;
+        this.numEntries = s.numEntries;
+        this.weighted = s.weighted;
+        this.directed = s.directed;
+        this.offsets = s.offsets;
+        this.targets = s.targets;
+        this.weights = s.weights;
+        this.aliasProb = s.aliasProb;
+        this.alias = s.alias;
+        this.vertices = vertices;
+        this.vertexFactory = vertexFactory;
+    }
+
+    /** Create a CSRGraph with the same vertices and edges as the specified graph. Edge values are used as weights
+     * (null values: weight 1.0)
+     * @param graph Graph to convert
+     * @return CSRGraph (stored on the heap)
+     */
+    public static <V> CSRGraph<V> fromGraph(final IGraph<V, ? extends Number> graph) {
+        final int n = graph.numVertices();
+        final int nPartitions = Math.min(n, 4 * Runtime.getRuntime().availableProcessors());
+        EdgeSource source = new EdgeSource() {
+            @Override
+            public int numPartitions() {
+                return nPartitions;
+            }
+
+            @Override
+            public void scan(int partition, EdgeConsumer consumer) {
+                int from = (int) ((long) n * partition / nPartitions);
+                int to = (int) ((long) n * (partition + 1) / nPartitions);
+                for (int v = from; v < to; v++) {
+                    for (Edge<? extends Number> e : graph.getEdgesOut(v)) {
+                        //Undirected edges are present in the lists of both vertices: add each once only
+                        if (e.isDirected() || e.getFrom() == v) {
+                            double w = (e.getValue() == null ? 1.0 : e.getValue().doubleValue());
+                            consumer.addEdge(e.getFrom(), e.getTo(), w, e.isDirected());
+                        }
+                    }
+                }
+            }
+        };
+        try {
+            return new Builder<V>(n).vertices(graph.getVertices(0, n - 1)).build(source);
+        } catch (IOException e) {
+            //Should never happen for heap storage
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Open a graph previously written to a memory-mapped file by a {@link Builder} with {@link Builder#mmapFile(File)}
+     * @param file          Graph file
+     * @param vertexFactory Used to create vertex objects (vertex values are not stored in the file)
+     * @return CSRGraph backed by the (read only) memory-mapped file
+     */
+    public static <V> CSRGraph<V> load(File file, VertexFactory<V> vertexFactory) throws IOException {
+        return load(file, null, vertexFactory);
+    }
+
+    /** As per {@link #load(File, VertexFactory)}, but with the specified vertices
+     */
+    public static <V> CSRGraph<V> load(File file, List<Vertex<V>> vertices) throws IOException {
+        return load(file, vertices, null);
+    }
+
+    private static <V> CSRGraph<V> load(File file, List<Vertex<V>> vertices, VertexFactory<V> vertexFactory)
+                    throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel ch = raf.getChannel()) {
+            ByteBuffer header = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC)
+                throw new IOException("Invalid file: " + file + " is not a CSRGraph file");
+            if (header.getInt(4) != VERSION)
+                throw new IOException("Unsupported CSRGraph file version: " + header.getInt(4));
+            int flags = header.getInt(16);
+            Storage s = new Storage(header.getInt(8), header.getInt(12), (flags & FLAG_WEIGHTED) != 0);
+            s.directed = (flags & FLAG_DIRECTED) != 0;
+            s.map(ch, FileChannel.MapMode.READ_ONLY);
+            if (vertices != null && vertices.size() != s.numVertices)
+                throw new IllegalArgumentException("Number of vertices (" + vertices.size()
+                                + ") does not match number of vertices in graph file (" + s.numVertices + ")");
+            return new CSRGraph<>(s, vertices == null ? null : new ArrayList<>(vertices), vertexFactory);
+        }
+    }
+
+    @Override
+    public int numVertices() {
+        return numVertices;
+    }
+
+    /** Number of entries in the adjacency arrays: i.e., the number of directed edges, plus 2x the number of
+     * undirected edges (other than self loops)
+     */
+    public int numEdgeEntries() {
+        return numEntries;
+    }
+
+    /** Whether the graph has edge weights (and alias tables for weighted sampling)
+     */
+    public boolean isWeighted() {
+        return weighted;
+    }
+
+    /** Whether any of the edges in the graph are directed
+     */
+    public boolean isDirected() {
+        return directed;
+    }
+
+    @Override
+    public Vertex<V> getVertex(int idx) {
+        if (idx < 0 || idx >= numVertices)
+            throw new IllegalArgumentException("Invalid index: " + idx);
+        if (vertices != null)
+            return vertices.get(idx);
+        return vertexFactory.create(idx);
+    }
+
+    @Override
+    public List<Vertex<V>> getVertices(int[] indexes) {
+        List<Vertex<V>> out = new ArrayList<>(indexes.length);
+        for (int i : indexes)
+            out.add(getVertex(i));
+        return out;
+    }
+
+    @Override
+    public List<Vertex<V>> getVertices(int from, int to) {
+        if (to < from || from < 0 || to >= numVertices)
+            throw new IllegalArgumentException("Invalid range: from=" + from + ", to=" + to);
+        List<Vertex<V>> out = new ArrayList<>(to - from + 1);
+        for (int i = from; i <= to; i++)
+            out.add(getVertex(i));
+        return out;
+    }
+
+    @Override
+    public void addEdge(Edge<Double> edge) {
+        throw new UnsupportedOperationException("Cannot add edges: CSRGraph is immutable");
+    }
+
+    @Override
+    public List<Edge<Double>> getEdgesOut(int vertex) {
+        checkVertex(vertex);
+        int start = offsets.get(vertex);
+        int end = offsets.get(vertex + 1);
+        List<Edge<Double>> out = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            double w = (weighted ? weights.get(i) : 1.0);
+            out.add(new Edge<>(vertex, targets.get(i), w, directed));
+        }
+        return out;
+    }
+
+    @Override
+    public int getVertexDegree(int vertex) {
+        checkVertex(vertex);
+        return offsets.get(vertex + 1) - offsets.get(vertex);
+    }
+
+    /** Get the index of the i'th neighbour of the specified vertex, for i in range 0 to degree-1. Neighbours are
+     * sorted by index
+     */
+    public int getNeighbor(int vertex, int i) {
+        return targets.get(offsets.get(vertex) + i);
+    }
+
+    /** Get the weight of the edge to the i'th neighbour of the specified vertex (1.0 for unweighted graphs)
+     */
+    public double getEdgeWeight(int vertex, int i) {
+        return (weighted ? weights.get(offsets.get(vertex) + i) : 1.0);
+    }
+
+    /** Whether an edge (from -> to) exists. Binary search over the (sorted) neighbours of vertex {@code from}
+     */
+    public boolean hasEdge(int from, int to) {
+        return edgeIndex(from, to) >= 0;
+    }
+
+    /** Get the position of the edge (from -> to) in the adjacency arrays: i.e., a unique index (in range 0 to
+     * {@link #numEdgeEntries()}-1) for the edge. If multiple such edges exist, any one of them may be returned
+     * @return Index of the edge, or -1 if no edge (from -> to) exists
+     */
+    public int edgeIndex(int from, int to) {
+        int lo = offsets.get(from);
+        int hi = offsets.get(from + 1) - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int t = targets.get(mid);
+            if (t < to)
+                lo = mid + 1;
+            else if (t > to)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    /** Sample a neighbour of the specified vertex uniformly at random, without creating any objects
+     * @return Index of the neighbour
+     * @throws NoEdgesException If the vertex has no outgoing edges
+     */
+    public int sampleNeighbor(int vertex, Random rng) {
+        int start = offsets.get(vertex);
+        int degree = offsets.get(vertex + 1) - start;
+        if (degree == 0)
+            throw noEdges(vertex);
+        return targets.get(start + rng.nextInt(degree));
+    }
+
+    /** Sample a neighbour of the specified vertex with probability proportional to the edge weights, in O(1) time
+     * using the precomputed alias table. For unweighted graphs, this is the same as
+     * {@link #sampleNeighbor(int, Random)}
+     * @return Index of the neighbour
+     * @throws NoEdgesException If the vertex has no outgoing edges
+     */
+    public int sampleWeightedNeighbor(int vertex, Random rng) {
+        if (!weighted)
+            return sampleNeighbor(vertex, rng);
+        int start = offsets.get(vertex);
+        int degree = offsets.get(vertex + 1) - start;
+        if (degree == 0)
+            throw noEdges(vertex);
+        int i = start + rng.nextInt(degree);
+        if (rng.nextFloat() < aliasProb.get(i))
+            return targets.get(i);
+        return targets.get(start + alias.get(i));
+    }
+
+    @Override
+    public Vertex<V> getRandomConnectedVertex(int vertex, Random rng) throws NoEdgesException {
+        checkVertex(vertex);
+        return getVertex(sampleNeighbor(vertex, rng));
+    }
+
+    @Override
+    public List<Vertex<V>> getConnectedVertices(int vertex) {
+        return getVertices(getConnectedVertexIndices(vertex));
+    }
+
+    @Override
+    public int[] getConnectedVertexIndices(int vertex) {
+        checkVertex(vertex);
+        int start = offsets.get(vertex);
+        int[] out = new int[offsets.get(vertex + 1) - start];
+        for (int i = 0; i < out.length; i++)
+            out[i] = targets.get(start + i);
+        return out;
+    }
+
+    private void checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= numVertices)
+            throw new IllegalArgumentException("Invalid vertex index: " + vertex);
+    }
+
+    private static NoEdgesException noEdges(int vertex) {
+        return new NoEdgesException("Cannot generate random connected vertex: vertex " + vertex
+                        + " has no outgoing/undirected edges");
+    }
+
+    @Override
+    public String toString() {
+        return "CSRGraph(numVertices=" + numVertices + ",numEdgeEntries=" + numEntries + ",weighted=" + weighted
+                        + ",directed=" + directed + ")";
+    }
+
+    /** Source of edges for building a {@link CSRGraph}. Edges are split into partitions that are scanned in parallel;
+     * every partition is scanned twice (once to count the edges for each vertex, once to store them), and must
+     * produce the same edges each time.
+     */
+    public interface EdgeSource {
+
+        /** Number of partitions of the edges */
+        int numPartitions();
+
+        /** Pass all edges in the specified partition to the consumer. May be called concurrently for different
+         * partitions
+         */
+        void scan(int partition, EdgeConsumer consumer) throws IOException;
+    }
+
+    /** Receives edges from an {@link EdgeSource}. Thread safe.
+     */
+    public interface EdgeConsumer {
+
+        /** Add an edge
+         * @param from     Index of the first vertex
+         * @param to       Index of the second vertex
+         * @param weight   Edge weight. Must be non-negative
+         * @param directed Whether the edge is directed (from -> to) or undirected (from -- to)
+         */
+        void addEdge(int from, int to, double weight, boolean directed);
+    }
+
+    /** Builder for CSRGraph. Construction is done in two parallel passes over the edge source: the first counts the
+     * number of edges for each vertex, the second stores the edges directly into their final position; this avoids
+     * holding any per-edge objects in memory. Adjacency lists are then sorted and alias tables built (also in parallel)
+     */
+    public static class Builder<V> {
+        private final int numVertices;
+        private List<Vertex<V>> vertices;
+        private VertexFactory<V> vertexFactory;
+        private boolean weighted = true;
+        private File mmapFile;
+        private int numThreads = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * @param numVertices Number of vertices in the graph
+         */
+        public Builder(int numVertices) {
+            if (numVertices <= 0)
+                throw new IllegalArgumentException("Number of vertices must be positive: got " + numVertices);
+            this.numVertices = numVertices;
+        }
+
+        /** Vertices for the graph. Either this or {@link #vertexFactory(VertexFactory)} must be set
+         */
+        public Builder<V> vertices(List<Vertex<V>> vertices) {
+            if (vertices.size() != numVertices)
+                throw new IllegalArgumentException("Expected " + numVertices + " vertices, got " + vertices.size());
+            this.vertices = vertices;
+            return this;
+        }
+
+        /** Vertex factory, used to create vertices on demand. Either this or {@link #vertices(List)} must be set
+         */
+        public Builder<V> vertexFactory(VertexFactory<V> vertexFactory) {
+            this.vertexFactory = vertexFactory;
+            return this;
+        }
+
+        /** Whether to store edge weights (and build alias tables for weighted sampling). If false, all edge weights
+         * are 1.0, and the memory requirements are reduced by 60%. Default: true
+         */
+        public Builder<V> weighted(boolean weighted) {
+            this.weighted = weighted;
+            return this;
+        }
+
+        /** If set: store the graph in the specified (memory-mapped) file instead of on the heap. The file may later
+         * be reopened using {@link CSRGraph#load(File, VertexFactory)}. Note that each array in the file is limited
+         * to 2GB: i.e., approximately 536 million edge entries.
+         */
+        public Builder<V> mmapFile(File mmapFile) {
+            this.mmapFile = mmapFile;
+            return this;
+        }
+
+        /** Number of threads to use for building the graph. Default: number of available processors
+         */
+        public Builder<V> numThreads(int numThreads) {
+            if (numThreads < 1)
+                throw new IllegalArgumentException("Number of threads must be positive: got " + numThreads);
+            this.numThreads = numThreads;
+            return this;
+        }
+
+        public CSRGraph<V> build(EdgeSource source) throws IOException {
+            if (vertices == null && vertexFactory == null)
+                throw new IllegalStateException("Cannot build graph: vertices or vertexFactory must be set");
+
+            final int n = numVertices;
+            final AtomicIntegerArray counts = new AtomicIntegerArray(n);
+            final AtomicBoolean anyDirected = new AtomicBoolean(false);
+
+            ExecutorService exec = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "CSRGraphBuilder");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+            try {
+                //First pass: count the number of entries for each vertex
+                scanAll(exec, source, new EdgeConsumer() {
+                    @Override
+                    public void addEdge(int from, int to, double weight, boolean directed) {
+                        checkEdge(from, to, weight);
+                        counts.incrementAndGet(from);
+                        if (directed) {
+                            anyDirected.set(true);
+                        } else if (from != to) {
+                            counts.incrementAndGet(to);
+                        }
+                    }
+                });
+
+                long total = 0;
+                for (int i = 0; i < n; i++)
+                    total += counts.get(i);
+                if (total > Integer.MAX_VALUE)
+                    throw new IllegalStateException("Too many edges for CSRGraph: " + total);
+
+                final Storage s = new Storage(n, (int) total, weighted);
+                s.directed = anyDirected.get();
+                if (mmapFile != null) {
+                    s.create(mmapFile);
+                } else {
+                    s.allocate();
+                }
+
+                //Offsets; counts array is reused as the insertion position for each vertex
+                int pos = 0;
+                for (int i = 0; i < n; i++) {
+                    s.offsets.put(i, pos);
+                    int c = counts.get(i);
+                    counts.set(i, pos);
+                    pos += c;
+                }
+                s.offsets.put(n, pos);
+
+                //Second pass: store the edges
+                scanAll(exec, source, new EdgeConsumer() {
+                    @Override
+                    public void addEdge(int from, int to, double weight, boolean directed) {
+                        put(counts.getAndIncrement(from), to, weight);
+                        if (!directed && from != to)
+                            put(counts.getAndIncrement(to), from, weight);
+                    }
+
+                    private void put(int idx, int target, double weight) {
+                        if (idx >= s.numEntries)
+                            throw new IllegalStateException("Edge source returned more edges on second pass");
+                        s.targets.put(idx, target);
+                        if (s.weighted)
+                            s.weights.put(idx, (float) weight);
+                    }
+                });
+                for (int i = 0; i < n; i++) {
+                    if (counts.get(i) != s.offsets.get(i + 1))
+                        throw new IllegalStateException("Edge source returned different edges on second pass (vertex "
+                                        + i + ")");
+                }
+
+                //Sort adjacency lists (for determinism and binary search) and build alias tables
+                final int nPartitions = Math.min(n, 4 * numThreads);
+                List<Future<?>> futures = new ArrayList<>(nPartitions);
+                for (int p = 0; p < nPartitions; p++) {
+                    final int first = (int) ((long) n * p / nPartitions);
+                    final int last = (int) ((long) n * (p + 1) / nPartitions);
+                    futures.add(exec.submit(new Runnable() {
+                        @Override
+                        public void run() {
+                            s.finalizeVertices(first, last);
+                        }
+                    }));
+                }
+                waitAll(futures);
+
+                if (s.mapped != null) {
+                    for (ByteBuffer bb : s.mapped)
+                        ((MappedByteBuffer) bb).force();
+                }
+
+                log.debug("Built CSRGraph: {} vertices, {} edge entries", n, s.numEntries);
+                return new CSRGraph<>(s, vertices == null ? null : new ArrayList<>(vertices), vertexFactory);
+            } finally {
+                exec.shutdownNow();
+            }
+        }
+
+        private void checkEdge(int from, int to, double weight) {
+            if (from < 0 || from >= numVertices || to < 0 || to >= numVertices)
+                throw new IllegalArgumentException("Invalid edge: " + from + " -> " + to
+                                + ", from/to indexes out of range (numVertices=" + numVertices + ")");
+            if (weighted && (weight < 0 || Double.isNaN(weight) || Double.isInfinite(weight)))
+                throw new IllegalArgumentException("Invalid edge weight: " + weight + " for edge " + from + " -> " + to
+                                + ". Weights must be non-negative and finite");
+        }
+
+        private static void scanAll(ExecutorService exec, final EdgeSource source, final EdgeConsumer consumer)
+                        throws IOException {
+            List<Future<?>> futures = new ArrayList<>(source.numPartitions());
+            for (int p = 0; p < source.numPartitions(); p++) {
+                final int partition = p;
+                futures.add(exec.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        source.scan(partition, consumer);
+                        return null;
+                    }
+                }));
+            }
+            waitAll(futures);
+        }
+
+        private static void waitAll(List<Future<?>> futures) throws IOException {
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while building graph", e);
+                } catch (ExecutionException e) {
+                    Throwable t = e.getCause();
+                    if (t instanceof IOException)
+                        throw (IOException) t;
+                    if (t instanceof RuntimeException)
+                        throw (RuntimeException) t;
+                    throw new RuntimeException(t);
+                }
+            }
+        }
+    }
+
+    /** Arrays for a CSRGraph, either heap or memory-mapped
+     */
+    private static class Storage {
+        private final int numVertices;
+        private final int numEntries;
+        private final boolean weighted;
+        private boolean directed;
+        private IntBuffer offsets;
+        private IntBuffer targets;
+        private FloatBuffer weights;
+        private FloatBuffer aliasProb;
+        private IntBuffer alias;
+        private List<ByteBuffer> mapped;
+
+        private Storage(int numVertices, int numEntries, boolean weighted) {
+            this.numVertices = numVertices;
+            this.numEntries = numEntries;
+            this.weighted = weighted;
+        }
+
+        private void allocate() {
+            offsets = IntBuffer.wrap(new int[numVertices + 1]);
+            targets = IntBuffer.wrap(new int[numEntries]);
+            if (weighted) {
+                weights = FloatBuffer.wrap(new float[numEntries]);
+                aliasProb = FloatBuffer.wrap(new float[numEntries]);
+                alias = IntBuffer.wrap(new int[numEntries]);
+            }
+        }
+
+        private long[] sectionSizes() {
+            long e = 4L * numEntries;
+            return weighted ? new long[] {4L * (numVertices + 1), e, e, e, e} : new long[] {4L * (numVertices + 1), e};
+        }
+
+        private void create(File file) throws IOException {
+            long length = HEADER_BYTES;
+            for (long l : sectionSizes())
+                length += l;
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel ch = raf.getChannel()) {
+                raf.setLength(length);
+                ByteBuffer header = ch.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES)
+                                .order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(0, MAGIC);
+                header.putInt(4, VERSION);
+                header.putInt(8, numVertices);
+                header.putInt(12, numEntries);
+                header.putInt(16, (weighted ? FLAG_WEIGHTED : 0) | (directed ? FLAG_DIRECTED : 0));
+                ((MappedByteBuffer) header).force();
+                map(ch, FileChannel.MapMode.READ_WRITE);
+            }
+        }
+
+        private void map(FileChannel ch, FileChannel.MapMode mode) throws IOException {
+            long[] sizes = sectionSizes();
+            mapped = new ArrayList<>(sizes.length);
+            long pos = HEADER_BYTES;
+            for (long size : sizes) {
+                if (size > Integer.MAX_VALUE)
+                    throw new IllegalStateException("Graph too large for memory-mapped CSRGraph: " + numEntries
+                                    + " edge entries (section size " + size + " bytes exceeds 2GB)");
+                mapped.add(ch.map(mode, pos, size).order(ByteOrder.LITTLE_ENDIAN));
+                pos += size;
+            }
+            offsets = mapped.get(0).asIntBuffer();
+            targets = mapped.get(1).asIntBuffer();
+            if (weighted) {
+                weights = mapped.get(2).asFloatBuffer();
+                aliasProb = mapped.get(3).asFloatBuffer();
+                alias = mapped.get(4).asIntBuffer();
+            }
+        }
+
+        /** Sort the adjacency lists and build the alias tables for the specified range of vertices
+         */
+        private void finalizeVertices(int first, int last) {
+            long[] keys = new long[0];
+            double[] scaled = new double[0];
+            int[] small = new int[0];
+            int[] large = new int[0];
+            for (int v = first; v < last; v++) {
+                int start = offsets.get(v);
+                int degree = offsets.get(v + 1) - start;
+                if (degree == 0)
+                    continue;
+                if (keys.length < degree) {
+                    keys = new long[degree];
+                    if (weighted) {
+                        scaled = new double[degree];
+                        small = new int[degree];
+                        large = new int[degree];
+                    }
+                }
+
+                //Sort by (target, weight). Non-negative floats have the same order as their int bits
+                for (int i = 0; i < degree; i++) {
+                    long w = (weighted ? Float.floatToIntBits(weights.get(start + i)) & 0xFFFFFFFFL : 0L);
+                    keys[i] = ((long) targets.get(start + i) << 32) | w;
+                }
+                Arrays.sort(keys, 0, degree);
+                for (int i = 0; i < degree; i++) {
+                    targets.put(start + i, (int) (keys[i] >>> 32));
+                    if (weighted)
+                        weights.put(start + i, Float.intBitsToFloat((int) keys[i]));
+                }
+
+                if (weighted)
+                    buildAliasTable(start, degree, scaled, small, large);
+            }
+        }
+
+        /** Vose's alias method: O(degree) construction, O(1) sampling
+         */
+        private void buildAliasTable(int start, int degree, double[] scaled, int[] small, int[] large) {
+            double sum = 0.0;
+            for (int i = 0; i < degree; i++)
+                sum += weights.get(start + i);
+            if (sum <= 0.0) {
+                //All weights zero: sample uniformly
+                for (int i = 0; i < degree; i++) {
+                    aliasProb.put(start + i, 1.0f);
+                    alias.put(start + i, i);
+                }
+                return;
+            }
+
+            int nSmall = 0;
+            int nLarge = 0;
+            for (int i = 0; i < degree; i++) {
+                scaled[i] = weights.get(start + i) * degree / sum;
+                if (scaled[i] < 1.0)
+                    small[nSmall++] = i;
+                else
+                    large[nLarge++] = i;
+            }
+            while (nSmall > 0 && nLarge > 0) {
+                int l = small[--nSmall];
+                int g = large[--nLarge];
+                aliasProb.put(start + l, (float) scaled[l]);
+                alias.put(start + l, g);
+                scaled[g] = (scaled[g] + scaled[l]) - 1.0;
+                if (scaled[g] < 1.0)
+                    small[nSmall++] = g;
+                else
+                    large[nLarge++] = g;
+            }
+            //Remaining entries have probability 1 (up to rounding error)
+            while (nLarge > 0) {
+                int g = large[--nLarge];
+                aliasProb.put(start + g, 1.0f);
+                alias.put(start + g, g);
+            }
+            while (nSmall > 0) {
+                int l = small[--nSmall];
+                aliasProb.put(start + l, 1.0f);
+                alias.put(start + l, l);
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package org.deeplearning4j.graph.iterator;
+
+import org.deeplearning4j.graph.graph.CSRGraph;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**Second order (node2vec) transition sampling, as per <i>node2vec: Scalable Feature Learning for Networks</i> by
+ * Grover & Leskovec (2016), <a href="https://arxiv.org/abs/1607.00653">https://arxiv.org/abs/1607.00653</a><br>
+ * Having arrived at vertex v from vertex t, the next vertex x (a neighbour of v) is selected with probability
+ * proportional to w(v,x) * a(t,x), where w is the edge weight and a(t,x) is 1/p if x == t (return), 1 if x is a
+ * neighbour of t, or 1/q otherwise (moving further away from t).
+ * <p>
+ * Two sampling methods are used:<br>
+ * - Alias tables for each edge (t -> v), giving O(1) sampling. These require O(degree(v)) memory per edge, so are built
+ * lazily (the first time the edge is traversed) and cached, up to the specified memory budget. Once the budget is
+ * used, transitions over edges without a cached table use rejection sampling.<br>
+ * - Rejection sampling, for vertices with degree above the specified threshold (and when the cache is full): a
+ * candidate x is sampled from the first order distribution w(v,x) using the graph's alias table in O(1), and
+ * accepted with probability a(t,x) / max(a). Each attempt requires one binary search over the neighbours of t.
+ * <p>
+ * Instances are thread safe, and should be shared between the walk iterators for the same graph (for example, see
+ * {@link org.deeplearning4j.graph.iterator.parallel.Node2VecGraphIteratorProvider}) so that the cached tables are
+ * shared also.
+ */
+public class Node2VecTransitions {
+
+    public static final long DEFAULT_CACHE_BYTES = 256L * 1024 * 1024;
+    public static final int DEFAULT_REJECTION_DEGREE = 500;
+
+    private static final int TABLE_OVERHEAD_BYTES = 96; //Approx. objects + map entry
+
+    private final CSRGraph<?> graph;
+    private final double p;
+    private final double q;
+    private final long cacheBudgetBytes;
+    private final int rejectionDegree;
+    private final double maxAlpha;
+    private final boolean firstOrder;
+
+    private final ConcurrentHashMap<Integer, EdgeTable> cache = new ConcurrentHashMap<>();
+    private final AtomicLong cacheBytes = new AtomicLong(0);
+
+    /**
+     * @param graph Graph to sample transitions for
+     * @param p     Return parameter. Larger values: less likely to return to the previous vertex
+     * @param q     In-out parameter. Values greater than 1 bias the walk towards vertices close to the previous vertex
+     *              (BFS-like); values less than 1 bias the walk towards vertices further away (DFS-like)
+     */
+    public Node2VecTransitions(CSRGraph<?> graph, double p, double q) {
+        this(graph, p, q, DEFAULT_CACHE_BYTES, DEFAULT_REJECTION_DEGREE);
+    }
+
+    /**
+     * @param graph            Graph to sample transitions for
+     * @param p                Return parameter
+     * @param q                In-out parameter
+     * @param cacheBudgetBytes Maximum memory (approx.) to use for cached per-edge alias tables. 0 to always use
+     *                         rejection sampling
+     * @param rejectionDegree  Vertices with degree above this value always use rejection sampling
+     */
+    public Node2VecTransitions(CSRGraph<?> graph, double p, double q, long cacheBudgetBytes, int rejectionDegree) {
+        if (p <= 0 || q <= 0)
+            throw new IllegalArgumentException("p and q must be positive: got p=" + p + ", q=" + q);
+        this.graph = graph;
+        this.p = p;
+        this.q = q;
+        this.cacheBudgetBytes = cacheBudgetBytes;
+        this.rejectionDegree = rejectionDegree;
+        this.maxAlpha = Math.max(1.0, Math.max(1.0 / p, 1.0 / q));
+        this.firstOrder = (p == 1.0 && q == 1.0);
+    }
+
+    public CSRGraph<?> getGraph() {
+        return graph;
+    }
+
+    /** Approximate memory currently used by the cached per-edge alias tables, in bytes */
+    public long getCacheBytes() {
+        return cacheBytes.get();
+    }
+
+    /** Number of per-edge alias tables currently cached */
+    public int getCachedTableCount() {
+        return cache.size();
+    }
+
+    /** Sample the next vertex of a walk
+     * @param prev Previous vertex in the walk, or -1 if the walk has only one vertex so far (first order transition)
+     * @param curr Current vertex in the walk. Must have at least one outgoing edge
+     * @param rng  Random number generator
+     * @return Next vertex in the walk
+     */
+    public int next(int prev, int curr, Random rng) {
+        if (prev < 0 || firstOrder)
+            return graph.sampleWeightedNeighbor(curr, rng);
+
+        int degree = graph.getVertexDegree(curr);
+        if (degree <= rejectionDegree && cacheBudgetBytes > 0) {
+            int edge = graph.edgeIndex(prev, curr);
+            if (edge >= 0) {
+                EdgeTable table = cache.get(edge);
+                if (table == null)
+                    table = buildAndCache(edge, prev, curr, degree);
+                if (table != null)
+                    return graph.getNeighbor(curr, table.sample(rng));
+            }
+        }
+        return sampleRejection(prev, curr, rng);
+    }
+
+    private int sampleRejection(int prev, int curr, Random rng) {
+        while (true) {
+            int x = graph.sampleWeightedNeighbor(curr, rng);
+            double a = alpha(prev, x);
+            if (a >= maxAlpha || rng.nextDouble() * maxAlpha < a)
+                return x;
+        }
+    }
+
+    private double alpha(int prev, int x) {
+        if (x == prev)
+            return 1.0 / p;
+        if (graph.hasEdge(prev, x))
+            return 1.0;
+        return 1.0 / q;
+    }
+
+    private EdgeTable buildAndCache(int edge, int prev, int curr, int degree) {
+        long bytes = 8L * degree + TABLE_OVERHEAD_BYTES;
+        if (cacheBytes.addAndGet(bytes) > cacheBudgetBytes) {
+            //Cache is full: leave it as it is, and use rejection sampling
+            cacheBytes.addAndGet(-bytes);
+            return null;
+        }
+
+        //Unnormalized transition probabilities. Neighbours of curr and prev are both sorted: merge to find common ones
+        double[] w = new double[degree];
+        int prevDegree = graph.getVertexDegree(prev);
+        int j = 0;
+        for (int i = 0; i < degree; i++) {
+            int x = graph.getNeighbor(curr, i);
+            while (j < prevDegree && graph.getNeighbor(prev, j) < x)
+                j++;
+            double a;
+            if (x == prev)
+                a = 1.0 / p;
+            else if (j < prevDegree && graph.getNeighbor(prev, j) == x)
+                a = 1.0;
+            else
+                a = 1.0 / q;
+            w[i] = graph.getEdgeWeight(curr, i) * a;
+        }
+
+        EdgeTable table = new EdgeTable(w);
+        EdgeTable existing = cache.putIfAbsent(edge, table);
+        if (existing != null) {
+            //Another thread built the same table concurrently
+            cacheBytes.addAndGet(-bytes);
+            return existing;
+        }
+        return table;
+    }
+
+    /** Alias table (Vose's method) for the transitions over one edge
+     */
+    private static class EdgeTable {
+        private final float[] prob;
+        private final int[] alias;
+
+        private EdgeTable(double[] w) {
+            int n = w.length;
+            prob = new float[n];
+            alias = new int[n];
+            double sum = 0.0;
+            for (double d : w)
+                sum += d;
+
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int nSmall = 0;
+            int nLarge = 0;
+            for (int i = 0; i < n; i++) {
+                w[i] = (sum > 0 ? w[i] * n / sum : 1.0);
+                if (w[i] < 1.0)
+                    small[nSmall++] = i;
+                else
+                    large[nLarge++] = i;
+            }
+            while (nSmall > 0 && nLarge > 0) {
+                int l = small[--nSmall];
+                int g = large[--nLarge];
+                prob[l] = (float) w[l];
+                alias[l] = g;
+                w[g] = (w[g] + w[l]) - 1.0;
+                if (w[g] < 1.0)
+                    small[nSmall++] = g;
+                else
+                    large[nLarge++] = g;
+            }
+            while (nLarge > 0) {
+                int g = large[--nLarge];
+                prob[g] = 1.0f;
+                alias[g] = g;
+            }
+            while (nSmall > 0) {
+                int l = small[--nSmall];
+                prob[l] = 1.0f;
+                alias[l] = l;
+            }
+        }
+
+        private int sample(Random rng) {
+            int i = rng.nextInt(prob.length);
+            return (rng.nextFloat() < prob[i] ? i : alias[i]);
+        }
+    }
+}
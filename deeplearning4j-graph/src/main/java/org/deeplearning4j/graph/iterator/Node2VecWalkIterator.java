@@ -0,0 +1,130 @@
+package org.deeplearning4j.graph.iterator;
+
+import org.deeplearning4j.graph.api.IVertexSequence;
+import org.deeplearning4j.graph.api.NoEdgeHandling;
+import org.deeplearning4j.graph.exception.NoEdgesException;
+import org.deeplearning4j.graph.graph.CSRGraph;
+import org.deeplearning4j.graph.graph.VertexSequence;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**Given a graph, iterate through second order biased (node2vec) random walks on that graph of a specified length.
+ * Transitions depend on both the current and previous vertex, and the edge weights: see {@link Node2VecTransitions}.
+ * With p = q = 1, this is equivalent to a {@link WeightedRandomWalkIterator}.<br>
+ * Walks are generated on demand, one at a time: when used with
+ * {@link org.deeplearning4j.graph.models.deepwalk.DeepWalk#fit(GraphWalkIterator)} (or, in parallel, with a
+ * {@link org.deeplearning4j.graph.iterator.parallel.Node2VecGraphIteratorProvider}) the walks are never
+ * materialized.<br>
+ * Random walks are generated starting at every node in the graph exactly once, though the order of the starting nodes
+ * is randomized.
+ */
+public class Node2VecWalkIterator<V> implements GraphWalkIterator<V> {
+
+    private final CSRGraph<V> graph;
+    private final Node2VecTransitions transitions;
+    private final int walkLength;
+    private final NoEdgeHandling mode;
+    private final int firstVertex;
+    private final int lastVertex;
+
+    private int position;
+    private Random rng;
+    private int[] order;
+
+    /**
+     * @param graph      Graph to conduct walks on
+     * @param walkLength length of each walk. Walk of length 0 includes 1 vertex, walk of 1 includes 2 vertices etc
+     * @param p          Return parameter (see {@link Node2VecTransitions})
+     * @param q          In-out parameter (see {@link Node2VecTransitions})
+     * @param rngSeed    seed for randomization
+     */
+    public Node2VecWalkIterator(CSRGraph<V> graph, int walkLength, double p, double q, long rngSeed) {
+        this(graph, new Node2VecTransitions(graph, p, q), walkLength, rngSeed,
+                        NoEdgeHandling.EXCEPTION_ON_DISCONNECTED, 0, graph.numVertices());
+    }
+
+    /**Constructor used to generate random walks starting at a subset of the vertices in the graph. Order of starting
+     * vertices is randomized within this subset
+     * @param graph IGraph to conduct walks on
+     * @param transitions transition sampler for the graph. May be shared between iterators
+     * @param walkLength length of each walk. Walk of length 0 includes 1 vertex, walk of 1 includes 2 vertices etc
+     * @param rngSeed seed for randomization
+     * @param mode mode for handling random walks from vertices with either no edges, or no outgoing edges (for directed graphs)
+     * @param firstVertex first vertex index (inclusive) to start random walks from
+     * @param lastVertex last vertex index (exclusive) to start random walks from
+     */
+    public Node2VecWalkIterator(CSRGraph<V> graph, Node2VecTransitions transitions, int walkLength, long rngSeed,
+                    NoEdgeHandling mode, int firstVertex, int lastVertex) {
+        if (transitions.getGraph() != graph)
+            throw new IllegalArgumentException("Node2VecTransitions instance is for a different graph");
+        this.graph = graph;
+        this.transitions = transitions;
+        this.walkLength = walkLength;
+        this.rng = new Random(rngSeed);
+        this.mode = mode;
+        this.firstVertex = firstVertex;
+        this.lastVertex = lastVertex;
+
+        order = new int[lastVertex - firstVertex];
+        for (int i = 0; i < order.length; i++)
+            order[i] = firstVertex + i;
+        reset();
+    }
+
+    @Override
+    public IVertexSequence<V> next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        int currVertexIdx = order[position++];
+        int prevVertexIdx = -1;
+        int[] indices = new int[walkLength + 1];
+        indices[0] = currVertexIdx;
+
+        for (int i = 1; i <= walkLength; i++) {
+            if (graph.getVertexDegree(currVertexIdx) == 0) {
+                switch (mode) {
+                    case SELF_LOOP_ON_DISCONNECTED:
+                        for (int j = i; j <= walkLength; j++)
+                            indices[j] = currVertexIdx;
+                        return new VertexSequence<>(graph, indices);
+                    case EXCEPTION_ON_DISCONNECTED:
+                        throw new NoEdgesException("Cannot conduct random walk: vertex " + currVertexIdx
+                                        + " has no outgoing edges. "
+                                        + " Set NoEdgeHandling mode to NoEdgeHandlingMode.SELF_LOOP_ON_DISCONNECTED to self loop instead of "
+                                        + "throwing an exception in this situation.");
+                    default:
+                        throw new RuntimeException("Unknown/not implemented NoEdgeHandling mode: " + mode);
+                }
+            }
+
+            int next = transitions.next(prevVertexIdx, currVertexIdx, rng);
+            prevVertexIdx = currVertexIdx;
+            currVertexIdx = next;
+            indices[i] = currVertexIdx;
+        }
+        return new VertexSequence<>(graph, indices);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return position < order.length;
+    }
+
+    @Override
+    public void reset() {
+        position = 0;
+        //https://en.wikipedia.org/wiki/Fisher%E2%80%93Yates_shuffle#The_modern_algorithm
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            int temp = order[j];
+            order[j] = order[i];
+            order[i] = temp;
+        }
+    }
+
+    @Override
+    public int walkLength() {
+        return walkLength;
+    }
+}
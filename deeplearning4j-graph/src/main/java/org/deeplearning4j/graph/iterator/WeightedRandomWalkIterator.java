@@ -5,6 +5,7 @@ import org.deeplearning4j.graph.api.IGraph;
 import org.deeplearning4j.graph.api.IVertexSequence;
 import org.deeplearning4j.graph.api.NoEdgeHandling;
 import org.deeplearning4j.graph.exception.NoEdgesException;
+import org.deeplearning4j.graph.graph.CSRGraph;
 import org.deeplearning4j.graph.graph.VertexSequence;
 
 import java.util.List;
@@ -17,7 +18,9 @@ import java.util.Random;
  * Because the edge values are used to determine the probabilities of selecting an edge, the {@code WeightedRandomWalkIterator}
  * can only be used on graphs with an edge type that extends the {@link java.lang.Number} class (i.e., Integer, Double, etc)<br>
  * Random walks are generated starting at every node in the graph exactly once, though the order of the starting nodes
- * is randomized.
+ * is randomized.<br>
+ * For a {@link CSRGraph}, neighbours are sampled in O(1) time using the graph's alias tables; for other graphs, each
+ * step is O(degree).
  * @author Alex Black
  */
 public class WeightedRandomWalkIterator<V> implements GraphWalkIterator<V> {
@@ -93,6 +96,13 @@ public class WeightedRandomWalkIterator<V> implements GraphWalkIterator<V> {
             return new VertexSequence<>(graph, indices);
 
         for (int i = 1; i <= walkLength; i++) {
+            if (graph instanceof CSRGraph && graph.getVertexDegree(currVertexIdx) > 0) {
+                //O(1) weighted sampling using the precomputed alias tables
+                currVertexIdx = ((CSRGraph<?>) graph).sampleWeightedNeighbor(currVertexIdx, rng);
+                indices[i] = currVertexIdx;
+                continue;
+            }
+
             List<? extends Edge<? extends Number>> edgeList = graph.getEdgesOut(currVertexIdx);
 
             //First: check if there are any outgoing edges from this vertex. If not: handle the situation
@@ -0,0 +1,70 @@
+package org.deeplearning4j.graph.iterator.parallel;
+
+import org.deeplearning4j.graph.api.NoEdgeHandling;
+import org.deeplearning4j.graph.graph.CSRGraph;
+import org.deeplearning4j.graph.iterator.GraphWalkIterator;
+import org.deeplearning4j.graph.iterator.Node2VecTransitions;
+import org.deeplearning4j.graph.iterator.Node2VecWalkIterator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**Node2vec (second order biased) random walk graph iterator provider: split up the generation of node2vec walks
+ * for parallel learning, for example with
+ * {@link org.deeplearning4j.graph.models.deepwalk.DeepWalk#fit(GraphWalkIteratorProvider)}. Each walk is generated by
+ * the thread that trains on it. All iterators share the same {@link Node2VecTransitions}, and hence the same cached
+ * transition tables. Specifically: with N threads and V vertices:
+ * - First iterator generates walks starting at vertices 0 to V/N
+ * - Second iterator generates walks starting at vertices V/N+1 to 2*V/N
+ * - and so on
+ * @param <V> Vertex type
+ * @see Node2VecWalkIterator
+ */
+public class Node2VecGraphIteratorProvider<V> implements GraphWalkIteratorProvider<V> {
+
+    private CSRGraph<V> graph;
+    private Node2VecTransitions transitions;
+    private int walkLength;
+    private Random rng;
+    private NoEdgeHandling mode;
+
+    public Node2VecGraphIteratorProvider(CSRGraph<V> graph, int walkLength, double p, double q) {
+        this(graph, new Node2VecTransitions(graph, p, q), walkLength, System.currentTimeMillis(),
+                        NoEdgeHandling.EXCEPTION_ON_DISCONNECTED);
+    }
+
+    public Node2VecGraphIteratorProvider(CSRGraph<V> graph, Node2VecTransitions transitions, int walkLength,
+                    long seed, NoEdgeHandling mode) {
+        this.graph = graph;
+        this.transitions = transitions;
+        this.walkLength = walkLength;
+        this.rng = new Random(seed);
+        this.mode = mode;
+    }
+
+    @Override
+    public List<GraphWalkIterator<V>> getGraphWalkIterators(int numIterators) {
+        int nVertices = graph.numVertices();
+        if (numIterators > nVertices)
+            numIterators = nVertices;
+
+        int verticesPerIter = nVertices / numIterators;
+
+        List<GraphWalkIterator<V>> list = new ArrayList<>(numIterators);
+        int last = 0;
+        for (int i = 0; i < numIterators; i++) {
+            int from = last;
+            int to = Math.min(nVertices, from + verticesPerIter);
+            if (i == numIterators - 1)
+                to = nVertices;
+
+            GraphWalkIterator<V> iter = new Node2VecWalkIterator<>(graph, transitions, walkLength, rng.nextLong(),
+                            mode, from, to);
+            list.add(iter);
+            last = to;
+        }
+
+        return list;
+    }
+}
@@ -30,6 +30,7 @@ import java.util.concurrent.atomic.AtomicLong;
  */
 public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
     public static final int STATUS_UPDATE_FREQUENCY = 1000;
+    public static final int DEFAULT_BATCH_SIZE = 1024;
     private Logger log = LoggerFactory.getLogger(DeepWalk.class);
 
     private int vectorSize;
@@ -39,7 +40,10 @@ public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
     private long seed;
     private ExecutorService executorService;
     private int nThreads = Runtime.getRuntime().availableProcessors();
+    private int batchSize = DEFAULT_BATCH_SIZE;
     private transient AtomicLong walkCounter = new AtomicLong(0);
+    private transient AtomicLong pairCounter = new AtomicLong(0);
+    private transient volatile double pairsPerSecond;
 
     public DeepWalk() {
 
@@ -57,6 +61,23 @@ public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
         return learningRate;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /** Total number of (input, output) vertex pairs trained on so far */
+    public long getPairCount() {
+        return pairCounter.get();
+    }
+
+    /** Training throughput, in (input, output) vertex pairs per second, for the last call of
+     * {@link #fit(GraphWalkIteratorProvider)} or {@link #fit(IGraph, int)}. Comparable with the words/sec reported by
+     * SequenceVectors-based models such as Word2Vec
+     */
+    public double getPairsPerSecond() {
+        return pairsPerSecond;
+    }
+
     public void setLearningRate(double learningRate) {
         this.learningRate = learningRate;
         if (lookupTable != null)
@@ -115,6 +136,8 @@ public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
         if (!initCalled)
             throw new UnsupportedOperationException("DeepWalk not initialized (call initialize before fit)");
         List<GraphWalkIterator<V>> iteratorList = iteratorProvider.getGraphWalkIterators(nThreads);
+        long startPairs = pairCounter.get();
+        long startTime = System.currentTimeMillis();
 
         executorService = Executors.newFixedThreadPool(nThreads, new ThreadFactory() {
             @Override
@@ -128,7 +151,7 @@ public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
         List<Future<Void>> list = new ArrayList<>(iteratorList.size());
         //log.info("Fitting Graph with {} threads", Math.max(nThreads,iteratorList.size()));
         for (GraphWalkIterator<V> iter : iteratorList) {
-            LearningCallable c = new LearningCallable(iter);
+            LearningCallable c = new LearningCallable(iter, startTime, startPairs);
             list.add(executorService.submit(c));
         }
 
@@ -147,6 +170,12 @@ public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
                 throw new RuntimeException(e);
             }
         }
+
+        long pairs = pairCounter.get() - startPairs;
+        long time = Math.max(1, System.currentTimeMillis() - startTime);
+        pairsPerSecond = pairs * 1000.0 / time;
+        log.info("Fit complete: {} vertex pairs in {} ms ({} pairs/sec, {} threads)", pairs, time,
+                        String.format("%.0f", pairsPerSecond), iteratorList.size());
     }
 
     /**Fit the DeepWalk model <b>using a single thread</b> using a given GraphWalkIterator. If parallel fitting is required,
@@ -156,38 +185,64 @@ public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
      * @param iterator iterator for graph walks
      */
     public void fit(GraphWalkIterator<V> iterator) {
+        fit(iterator, System.currentTimeMillis(), pairCounter.get());
+    }
+
+    /**
+     * @param startTime  Start time of the fit call, for progress reporting
+     * @param startPairs Value of the pair counter at the start of the fit call, for progress reporting
+     */
+    private void fit(GraphWalkIterator<V> iterator, long startTime, long startPairs) {
         if (!initCalled)
             throw new UnsupportedOperationException("DeepWalk not initialized (call initialize before fit)");
         int walkLength = iterator.walkLength();
 
+        //Buffers for this thread, reused for all walks
+        int[] walk = new int[walkLength + 1];
+        PairBatch batch = null;
+        if (lookupTable instanceof InMemoryGraphLookupTable
+                        && ((InMemoryGraphLookupTable) lookupTable).supportsBatchedIterate()) {
+            batch = new PairBatch((InMemoryGraphLookupTable) lookupTable, batchSize);
+        }
+
         while (iterator.hasNext()) {
             IVertexSequence<V> sequence = iterator.next();
 
             //Skipgram model:
-            int[] walk = new int[walkLength + 1];
             int i = 0;
             while (sequence.hasNext())
                 walk[i++] = sequence.next().vertexID();
 
-            skipGram(walk);
+            pairCounter.addAndGet(skipGram(walk, batch));
 
             long iter = walkCounter.incrementAndGet();
             if (iter % STATUS_UPDATE_FREQUENCY == 0) {
-                log.info("Processed {} random walks on graph", iter);
+                long time = Math.max(1, System.currentTimeMillis() - startTime);
+                log.info("Processed {} random walks on graph ({} pairs/sec)", iter,
+                                String.format("%.0f", (pairCounter.get() - startPairs) * 1000.0 / time));
             }
         }
+        if (batch != null)
+            batch.flush();
     }
 
-    private void skipGram(int[] walk) {
+    private int skipGram(int[] walk, PairBatch batch) {
+        int count = 0;
         for (int mid = windowSize; mid < walk.length - windowSize; mid++) {
             for (int pos = mid - windowSize; pos <= mid + windowSize; pos++) {
                 if (pos == mid)
                     continue;
 
                 //pair of vertices: walk[mid] -> walk[pos]
-                lookupTable.iterate(walk[mid], walk[pos]);
+                if (batch != null) {
+                    batch.add(walk[mid], walk[pos]);
+                } else {
+                    lookupTable.iterate(walk[mid], walk[pos]);
+                }
+                count++;
             }
         }
+        return count;
     }
 
     public GraphVectorLookupTable lookupTable() {
@@ -200,6 +255,7 @@ public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
         private long seed = System.currentTimeMillis();
         private double learningRate = 0.01;
         private int windowSize = 2;
+        private int batchSize = DEFAULT_BATCH_SIZE;
 
         /** Sets the size of the vectors to be learned for each vertex in the graph */
         public Builder<V, E> vectorSize(int vectorSize) {
@@ -219,6 +275,16 @@ public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
             return this;
         }
 
+        /** Number of (input, output) vertex pairs to process at once per thread, when using the batched training path
+         * (see {@link InMemoryGraphLookupTable#iterate(int[], int[], int, double[])}). Default: 1024
+         */
+        public Builder<V, E> batchSize(int batchSize) {
+            if (batchSize < 1)
+                throw new IllegalArgumentException("Batch size must be positive: got " + batchSize);
+            this.batchSize = batchSize;
+            return this;
+        }
+
         /** Seed for random number generation (used for repeatability).
          * Note however that parallel/async gradient descent might result in behaviour that
          * is not repeatable, in spite of setting seed
@@ -234,19 +300,53 @@ public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
             dw.windowSize = windowSize;
             dw.learningRate = learningRate;
             dw.seed = seed;
+            dw.batchSize = batchSize;
 
             return dw;
         }
     }
 
+    /** Buffer of (input, output) vertex pairs for one thread, used with
+     * {@link InMemoryGraphLookupTable#iterate(int[], int[], int, double[])}
+     */
+    private static class PairBatch {
+        private final InMemoryGraphLookupTable table;
+        private final int[] first;
+        private final int[] second;
+        private final double[] scratch;
+        private int size;
+
+        private PairBatch(InMemoryGraphLookupTable table, int batchSize) {
+            this.table = table;
+            this.first = new int[batchSize];
+            this.second = new int[batchSize];
+            this.scratch = new double[table.vectorSize()];
+        }
+
+        private void add(int in, int out) {
+            first[size] = in;
+            second[size++] = out;
+            if (size == first.length)
+                flush();
+        }
+
+        private void flush() {
+            if (size > 0)
+                table.iterate(first, second, size, scratch);
+            size = 0;
+        }
+    }
+
     @AllArgsConstructor
     private class LearningCallable implements Callable<Void> {
 
         private final GraphWalkIterator<V> iterator;
+        private final long startTime;
+        private final long startPairs;
 
         @Override
         public Void call() throws Exception {
-            fit(iterator);
+            fit(iterator, startTime, startPairs);
 
             return null;
         }
@@ -3,9 +3,12 @@ package org.deeplearning4j.graph.models.embeddings;
 import org.apache.commons.math3.util.FastMath;
 import org.deeplearning4j.graph.models.BinaryTree;
 import org.nd4j.linalg.api.blas.Level1;
+import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
+import java.nio.FloatBuffer;
+
 /** A standard in-memory implementation of a lookup table for vector representations of the vertices in a graph
  * @author Alex Black
  */
@@ -67,6 +70,64 @@ public class InMemoryGraphLookupTable implements GraphVectorLookupTable {
         }
     }
 
+    /** Whether {@link #iterate(int[], int[], int, double[])} can be used: i.e., CPU backend, with float vertex and
+     * inner node vectors in contiguous c order (as created by {@link #resetWeights()})
+     */
+    public boolean supportsBatchedIterate() {
+        String backend = Nd4j.getExecutioner().getEnvironmentInformation().getProperty("backend");
+        return !"CUDA".equals(backend) && isContiguousFloat(vertexVectors) && isContiguousFloat(outWeights);
+    }
+
+    private static boolean isContiguousFloat(INDArray arr) {
+        return arr.data().dataType() == DataBuffer.Type.FLOAT && arr.ordering() == 'c' && !arr.isView()
+                        && arr.elementWiseStride() == 1;
+    }
+
+    /** Batched equivalent of calling {@link #iterate(int, int)} for each of the first {@code numPairs} pairs
+     * (first[i], second[i]), in order.<br>
+     * Unlike {@link #iterate(int, int)}, this works directly on the float rows of the vertex and inner node vectors
+     * (with calculations in double precision), without creating any INDArrays or gradient arrays. Updates are applied
+     * without any locking: when called concurrently from multiple threads, this is asynchronous (Hogwild style) SGD,
+     * as per {@link #iterate(int, int)}.<br>
+     * Can only be used if {@link #supportsBatchedIterate()} returns true.
+     * @param first    first (input) vertex indices
+     * @param second   second (output) vertex indices
+     * @param numPairs number of pairs to process
+     * @param scratch  scratch array, of length at least {@link #vectorSize()}. Should be reused between calls
+     */
+    public void iterate(int[] first, int[] second, int numPairs, double[] scratch) {
+        FloatBuffer vecs = vertexVectors.data().asNioFloat();
+        FloatBuffer inner = outWeights.data().asNioFloat();
+        double lr = learningRate;
+        for (int p = 0; p < numPairs; p++) {
+            int vOffset = first[p] * vectorSize;
+            int codeLength = tree.getCodeLength(second[p]);
+            long code = tree.getCode(second[p]);
+            int[] innerNodesForVertex = tree.getPathInnerNodes(second[p]);
+
+            for (int j = 0; j < vectorSize; j++)
+                scratch[j] = 0.0;
+
+            for (int i = 0; i < codeLength; i++) {
+                int wOffset = innerNodesForVertex[i] * vectorSize;
+                double dot = 0.0;
+                for (int j = 0; j < vectorSize; j++)
+                    dot += inner.get(wOffset + j) * vecs.get(vOffset + j);
+
+                //Gradient scale for this inner node: as per vectorsAndGradients
+                double g = sigmoid(dot) - (getBit(code, i) ? 1.0 : 0.0);
+                for (int j = 0; j < vectorSize; j++) {
+                    float w = inner.get(wOffset + j);
+                    scratch[j] += g * w;
+                    inner.put(wOffset + j, (float) (w - lr * g * vecs.get(vOffset + j)));
+                }
+            }
+
+            for (int j = 0; j < vectorSize; j++)
+                vecs.put(vOffset + j, (float) (vecs.get(vOffset + j) - lr * scratch[j]));
+        }
+    }
+
     /** Returns vertex vector and vector gradients, plus inner node vectors and inner node gradients<br>
      * Specifically, out[0] are vectors, out[1] are gradients for the corresponding vectors<br>
      * out[0][0] is vector for first vertex; out[0][1] is gradient for this vertex vector<br>
@@ -0,0 +1,132 @@
+package org.deeplearning4j.graph.graph;
+
+import org.deeplearning4j.graph.api.Edge;
+import org.deeplearning4j.graph.api.IGraph;
+import org.deeplearning4j.graph.data.GraphLoader;
+import org.deeplearning4j.graph.data.impl.WeightedEdgeLineProcessor;
+import org.deeplearning4j.graph.vertexfactory.StringVertexFactory;
+import org.junit.Test;
+import org.nd4j.linalg.io.ClassPathResource;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestCSRGraph {
+
+    private static final String[] COMMENTS = new String[] {"//"};
+
+    @Test
+    public void testCSRGraphMatchesGraph() throws Exception {
+        String path = new ClassPathResource("WeightedGraph.txt").getTempFileFromArchive().getAbsolutePath();
+
+        for (boolean directed : new boolean[] {true, false}) {
+            Graph<String, Double> graph = GraphLoader.loadWeightedEdgeListFile(path, 9, ",", directed, COMMENTS);
+            CSRGraph<String> fromGraph = CSRGraph.fromGraph(graph);
+            CSRGraph<String> loaded = GraphLoader.loadCSRGraph(path, new WeightedEdgeLineProcessor(",", directed,
+                            COMMENTS), new CSRGraph.Builder<String>(9).vertexFactory(new StringVertexFactory())
+                                            .numThreads(3));
+
+            assertEquals(directed ? 13 : 26, loaded.numEdgeEntries());
+            assertEquals(directed, loaded.isDirected());
+            assertGraphsEqual(graph, fromGraph);
+            assertGraphsEqual(graph, loaded);
+        }
+    }
+
+    @Test
+    public void testMemoryMappedRoundTrip() throws Exception {
+        String path = new ClassPathResource("WeightedGraph.txt").getTempFileFromArchive().getAbsolutePath();
+        Graph<String, Double> graph = GraphLoader.loadWeightedEdgeListFile(path, 9, ",", false, COMMENTS);
+
+        File f = File.createTempFile("csrgraph", ".bin");
+        f.deleteOnExit();
+        CSRGraph<String> mapped = GraphLoader.loadCSRGraph(path, new WeightedEdgeLineProcessor(",", false, COMMENTS),
+                        new CSRGraph.Builder<String>(9).vertexFactory(new StringVertexFactory()).mmapFile(f));
+        assertGraphsEqual(graph, mapped);
+
+        CSRGraph<String> reloaded = CSRGraph.load(f, new StringVertexFactory());
+        assertEquals(9, reloaded.numVertices());
+        assertTrue(reloaded.isWeighted());
+        assertFalse(reloaded.isDirected());
+        assertGraphsEqual(graph, reloaded);
+        assertTrue(reloaded.hasEdge(0, 8));
+        assertTrue(reloaded.hasEdge(8, 0));
+        assertFalse(reloaded.hasEdge(0, 2));
+    }
+
+    @Test
+    public void testAliasSampling() throws Exception {
+        String path = new ClassPathResource("WeightedGraph.txt").getTempFileFromArchive().getAbsolutePath();
+        CSRGraph<String> graph = GraphLoader.loadCSRGraph(path, 9, new WeightedEdgeLineProcessor(",", false, COMMENTS),
+                        new StringVertexFactory());
+
+        //Vertex 4: edges to 1 (14), 3 (34), 5 (45) and 7 (47)
+        int[] counts = new int[9];
+        Random r = new Random(12345);
+        int n = 200000;
+        for (int i = 0; i < n; i++) {
+            counts[graph.sampleWeightedNeighbor(4, r)]++;
+        }
+        double sum = 14 + 34 + 45 + 47;
+        assertEquals(14 / sum, counts[1] / (double) n, 0.01);
+        assertEquals(34 / sum, counts[3] / (double) n, 0.01);
+        assertEquals(45 / sum, counts[5] / (double) n, 0.01);
+        assertEquals(47 / sum, counts[7] / (double) n, 0.01);
+        assertEquals(n, counts[1] + counts[3] + counts[5] + counts[7]);
+    }
+
+    @Test
+    public void testParallelLoadingLargeFile() throws Exception {
+        //Large enough to be split into multiple partitions
+        int numVertices = 5000;
+        File f = File.createTempFile("edges", ".txt");
+        f.deleteOnExit();
+        Random r = new Random(12345);
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(f))) {
+            bw.write("//Comment line\n");
+            for (int i = 0; i < 200000; i++) {
+                bw.write(r.nextInt(numVertices) + "," + r.nextInt(numVertices) + "," + r.nextInt(100) + "\n");
+            }
+        }
+
+        WeightedEdgeLineProcessor lp = new WeightedEdgeLineProcessor(",", true, COMMENTS);
+        Graph<String, Double> graph = GraphLoader.loadGraph(f.getAbsolutePath(), lp, new StringVertexFactory(),
+                        numVertices, true);
+        CSRGraph<String> csr = GraphLoader.loadCSRGraph(f.getAbsolutePath(), lp,
+                        new CSRGraph.Builder<String>(numVertices).vertexFactory(new StringVertexFactory())
+                                        .numThreads(4));
+
+        assertEquals(200000, csr.numEdgeEntries());
+        assertGraphsEqual(graph, csr);
+    }
+
+    private static void assertGraphsEqual(IGraph<String, Double> expected, CSRGraph<String> actual) {
+        assertEquals(expected.numVertices(), actual.numVertices());
+        for (int i = 0; i < expected.numVertices(); i++) {
+            assertEquals(expected.getVertex(i), actual.getVertex(i));
+            assertEquals(expected.getVertexDegree(i), actual.getVertexDegree(i));
+
+            //Compare as sorted (neighbour, weight) pairs
+            int degree = expected.getVertexDegree(i);
+            long[] exp = new long[degree];
+            List<Edge<Double>> edges = expected.getEdgesOut(i);
+            for (int j = 0; j < degree; j++) {
+                Edge<Double> e = edges.get(j);
+                int other = (e.getFrom() == i ? e.getTo() : e.getFrom());
+                exp[j] = ((long) other << 32) | Float.floatToIntBits(e.getValue().floatValue());
+            }
+            Arrays.sort(exp);
+            for (int j = 0; j < degree; j++) {
+                assertEquals((int) (exp[j] >>> 32), actual.getNeighbor(i, j));
+                assertEquals(Float.intBitsToFloat((int) exp[j]), actual.getEdgeWeight(i, j), 0.0);
+                assertTrue(actual.hasEdge(i, actual.getNeighbor(i, j)));
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.deeplearning4j.graph.iterator;
+
+import org.deeplearning4j.graph.api.IVertexSequence;
+import org.deeplearning4j.graph.api.NoEdgeHandling;
+import org.deeplearning4j.graph.graph.CSRGraph;
+import org.deeplearning4j.graph.graph.Graph;
+import org.deeplearning4j.graph.iterator.parallel.Node2VecGraphIteratorProvider;
+import org.deeplearning4j.graph.vertexfactory.StringVertexFactory;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestNode2VecWalkIterator {
+
+    private static CSRGraph<String> getSimpleGraph() {
+        Graph<String, Double> g = new Graph<>(6, new StringVertexFactory());
+        g.addEdge(0, 1, 1.0, false);
+        g.addEdge(1, 2, 2.0, false);
+        g.addEdge(1, 3, 1.0, false);
+        g.addEdge(1, 4, 3.0, false);
+        g.addEdge(0, 3, 1.0, false);
+        g.addEdge(4, 5, 1.0, false);
+        return CSRGraph.fromGraph(g);
+    }
+
+    @Test
+    public void testTransitionProbabilities() {
+        CSRGraph<String> graph = getSimpleGraph();
+        double p = 0.5;
+        double q = 2.0;
+
+        //Walk 0 -> 1; neighbours of 1: 0 (return: w=1, a=1/p), 2 (w=2, a=1/q), 3 (adjacent to 0: w=1, a=1),
+        // 4 (w=3, a=1/q)
+        double[] unnormalized = {1.0 / p, 0, 2.0 / q, 1.0, 3.0 / q, 0};
+        double sum = 0;
+        for (double d : unnormalized)
+            sum += d;
+
+        //Default: cached alias tables; no cache: rejection sampling
+        Node2VecTransitions tables = new Node2VecTransitions(graph, p, q);
+        Node2VecTransitions rejection = new Node2VecTransitions(graph, p, q, 0, 0);
+
+        for (Node2VecTransitions t : new Node2VecTransitions[] {tables, rejection}) {
+            Random r = new Random(12345);
+            int n = 200000;
+            int[] counts = new int[6];
+            for (int i = 0; i < n; i++)
+                counts[t.next(0, 1, r)]++;
+            for (int i = 0; i < 6; i++) {
+                assertEquals(String.valueOf(i), unnormalized[i] / sum, counts[i] / (double) n, 0.01);
+            }
+        }
+        assertEquals(1, tables.getCachedTableCount());
+        assertTrue(tables.getCacheBytes() > 0);
+        assertEquals(0, rejection.getCachedTableCount());
+    }
+
+    @Test
+    public void testWalks() {
+        int nVertices = 200;
+        Random r = new Random(12345);
+        Graph<String, Double> g = new Graph<>(nVertices, new StringVertexFactory());
+        for (int i = 0; i < nVertices; i++) {
+            for (int j = 0; j < 5; j++) {
+                g.addEdge(i, r.nextInt(nVertices), 1.0 + r.nextInt(5), false);
+            }
+        }
+        CSRGraph<String> graph = CSRGraph.fromGraph(g);
+
+        int walkLength = 10;
+        //Small cache budget: mix of cached tables and rejection sampling
+        Node2VecTransitions transitions = new Node2VecTransitions(graph, 0.25, 4.0, 10000, 8);
+        List<GraphWalkIterator<String>> iters = new Node2VecGraphIteratorProvider<>(graph, transitions, walkLength,
+                        12345, NoEdgeHandling.EXCEPTION_ON_DISCONNECTED).getGraphWalkIterators(3);
+        assertEquals(3, iters.size());
+
+        boolean[] started = new boolean[nVertices];
+        for (GraphWalkIterator<String> iter : iters) {
+            while (iter.hasNext()) {
+                IVertexSequence<String> seq = iter.next();
+                assertEquals(walkLength + 1, seq.sequenceLength());
+                int prev = seq.next().vertexID();
+                assertFalse(started[prev]);
+                started[prev] = true;
+                while (seq.hasNext()) {
+                    int curr = seq.next().vertexID();
+                    assertTrue(graph.hasEdge(prev, curr));
+                    prev = curr;
+                }
+            }
+        }
+        for (boolean b : started)
+            assertTrue(b);
+        assertTrue(transitions.getCachedTableCount() > 0);
+        assertTrue(transitions.getCacheBytes() <= 10000);
+    }
+}
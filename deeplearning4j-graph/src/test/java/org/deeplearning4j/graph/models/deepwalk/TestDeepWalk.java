@@ -4,15 +4,22 @@ import org.apache.commons.io.FilenameUtils;
 import org.deeplearning4j.graph.api.Edge;
 import org.deeplearning4j.graph.api.IGraph;
 import org.deeplearning4j.graph.data.GraphLoader;
+import org.deeplearning4j.graph.graph.CSRGraph;
 import org.deeplearning4j.graph.graph.Graph;
 import org.deeplearning4j.graph.iterator.GraphWalkIterator;
 import org.deeplearning4j.graph.iterator.RandomWalkIterator;
 import org.deeplearning4j.graph.iterator.parallel.GraphWalkIteratorProvider;
+import org.deeplearning4j.graph.iterator.parallel.Node2VecGraphIteratorProvider;
 import org.deeplearning4j.graph.iterator.parallel.WeightedRandomWalkGraphIteratorProvider;
 import org.deeplearning4j.graph.models.GraphVectors;
+import org.deeplearning4j.graph.models.embeddings.InMemoryGraphLookupTable;
 import org.deeplearning4j.graph.models.loader.GraphVectorSerializer;
 import org.deeplearning4j.graph.vertexfactory.StringVertexFactory;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.buffer.util.DataTypeUtil;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.io.ClassPathResource;
@@ -26,6 +33,18 @@ import static org.junit.Assert.*;
 
 public class TestDeepWalk {
 
+    private DataBuffer.Type initialType;
+
+    @Before
+    public void before() {
+        initialType = Nd4j.dataType();
+    }
+
+    @After
+    public void after() {
+        DataTypeUtil.setDTypeForContext(initialType);
+    }
+
     @Test
     public void testBasic() throws IOException {
         //Very basic test. Load graph, build tree, call fit, make sure it doesn't throw any exceptions
@@ -244,4 +263,74 @@ public class TestDeepWalk {
         deepWalk.fit(iteratorProvider);
 
     }
+
+    @Test
+    public void testBatchedIterateMatchesIterate() {
+        DataTypeUtil.setDTypeForContext(DataBuffer.Type.FLOAT);
+        int nVertices = 50;
+        int vectorSize = 8;
+        Graph<String, String> graph = generateRandomGraph(nVertices, 4);
+        int[] degrees = new int[nVertices];
+        for (int i = 0; i < nVertices; i++)
+            degrees[i] = graph.getVertexDegree(i);
+        GraphHuffman tree = new GraphHuffman(nVertices);
+        tree.buildTree(degrees);
+
+        InMemoryGraphLookupTable standard = new InMemoryGraphLookupTable(nVertices, vectorSize, tree, 0.1);
+        InMemoryGraphLookupTable batched = new InMemoryGraphLookupTable(nVertices, vectorSize, tree, 0.1);
+        batched.setVertexVectors(standard.getVertexVectors().dup());
+        batched.getOutWeights().assign(standard.getOutWeights());
+        assertTrue(batched.supportsBatchedIterate());
+
+        Random r = new Random(12345);
+        int nPairs = 500;
+        int[] first = new int[nPairs];
+        int[] second = new int[nPairs];
+        for (int i = 0; i < nPairs; i++) {
+            first[i] = r.nextInt(nVertices);
+            second[i] = r.nextInt(nVertices);
+            standard.iterate(first[i], second[i]);
+        }
+        batched.iterate(first, second, nPairs, new double[vectorSize]);
+
+        assertTrue(standard.getVertexVectors().equalsWithEps(batched.getVertexVectors(), 1e-4));
+        assertTrue(standard.getOutWeights().equalsWithEps(batched.getOutWeights(), 1e-4));
+    }
+
+    @Test
+    public void testPairsPerSecond() {
+        DataTypeUtil.setDTypeForContext(DataBuffer.Type.FLOAT);
+        IGraph<String, String> graph = generateRandomGraph(100, 5);
+
+        DeepWalk<String, String> deepWalk = new DeepWalk.Builder<String, String>().learningRate(0.01).vectorSize(10)
+                        .windowSize(2).batchSize(100).build();
+        deepWalk.initialize(graph);
+        deepWalk.fit(graph, 10);
+
+        //100 walks of 11 vertices: 7 center positions, 4 pairs each
+        assertEquals(100 * 7 * 4, deepWalk.getPairCount());
+        assertTrue(deepWalk.getPairsPerSecond() > 0);
+    }
+
+    @Test
+    public void testDeepWalkNode2VecWalks() {
+        Graph<String, Double> g = new Graph<>(100, new StringVertexFactory());
+        Random r = new Random(12345);
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 5; j++) {
+                g.addEdge(i, r.nextInt(100), 1.0 + r.nextInt(3), false);
+            }
+        }
+        CSRGraph<String> graph = CSRGraph.fromGraph(g);
+
+        DeepWalk<String, Double> deepWalk = new DeepWalk.Builder<String, Double>().learningRate(0.01).vectorSize(10)
+                        .windowSize(2).build();
+        deepWalk.initialize(graph);
+        deepWalk.fit(new Node2VecGraphIteratorProvider<>(graph, 10, 0.5, 2.0));
+
+        assertEquals(100 * 7 * 4, deepWalk.getPairCount());
+        for (int i = 0; i < 100; i++) {
+            assertArrayEquals(new int[] {1, 10}, deepWalk.getVertexVector(i).shape());
+        }
+    }
 }
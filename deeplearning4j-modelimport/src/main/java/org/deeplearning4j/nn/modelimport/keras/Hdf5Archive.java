@@ -54,6 +54,12 @@ public class Hdf5Archive {
         }
     }
 
+    /**
+     * The HDF5 library is not thread safe (unless built with --enable-threadsafe, which the javacpp presets are not),
+     * so all reads of data sets - from any archive - are serialized on this lock.
+     */
+    public static final Object LOCK = new Object();
+
     private hdf5.H5File file;
     private hdf5.DataType dataType = new hdf5.DataType(hdf5.PredType.NATIVE_FLOAT());
 
@@ -77,7 +83,7 @@ public class Hdf5Archive {
     }
 
     /**
-     * Read data set as ND4J array from group path.
+     * Read data set as ND4J array from group path. Safe to call concurrently from multiple threads: see {@link #LOCK}
      *
      * @param datasetName   Name of data set
      * @param groups        Array of zero or more ancestor groups from root to parent.
@@ -87,10 +93,17 @@ public class Hdf5Archive {
     public INDArray readDataSet(String datasetName, String... groups) throws UnsupportedKerasConfigurationException {
         if (groups.length == 0)
             return readDataSet(this.file.asCommonFG(), datasetName);
-        hdf5.Group[] groupArray = openGroups(groups);
-        INDArray a = readDataSet(groupArray[groupArray.length - 1].asCommonFG(), datasetName);
-        closeGroups(groupArray);
-        return a;
+        hdf5.Group[] groupArray;
+        synchronized (LOCK) {
+            groupArray = openGroups(groups);
+        }
+        try {
+            return readDataSet(groupArray[groupArray.length - 1].asCommonFG(), datasetName);
+        } finally {
+            synchronized (LOCK) {
+                closeGroups(groupArray);
+            }
+        }
     }
 
     /**
@@ -176,7 +189,10 @@ public class Hdf5Archive {
     }
 
     /**
-     * Read data set as ND4J array from HDF5 group.
+     * Read data set as ND4J array from HDF5 group. The data set is read with a single bulk read into
+     * native memory, and from there into a new array (in c order) with the same shape as the data set.
+     * Only the HDF5 read itself holds {@link #LOCK}: the copy into the returned array does not, so that
+     * threads reading different data sets can overlap.
      *
      * @param fileGroup     HDF5 file or group (as CommonFG)
      * @param datasetName   Name of data set
@@ -185,68 +201,44 @@ public class Hdf5Archive {
      */
     private INDArray readDataSet(hdf5.CommonFG fileGroup, String datasetName)
                     throws UnsupportedKerasConfigurationException {
-        hdf5.DataSet dataset = fileGroup.openDataSet(datasetName);
-        hdf5.DataSpace space = dataset.getSpace();
-        int nbDims = space.getSimpleExtentNdims();
-        long[] dims = new long[nbDims];
-        space.getSimpleExtentDims(dims);
-        float[] dataBuffer = null;
-        FloatPointer fp = null;
-        int j = 0;
-        INDArray data = null;
-        switch (nbDims) {
-            case 4: /* 2D Convolution weights */
-                dataBuffer = new float[(int) (dims[0] * dims[1] * dims[2] * dims[3])];
-                fp = new FloatPointer(dataBuffer);
-                dataset.read(fp, dataType);
-                fp.get(dataBuffer);
-                data = Nd4j.create((int) dims[0], (int) dims[1], (int) dims[2], (int) dims[3]);
-                j = 0;
-                for (int i1 = 0; i1 < dims[0]; i1++)
-                    for (int i2 = 0; i2 < dims[1]; i2++)
-                        for (int i3 = 0; i3 < dims[2]; i3++)
-                            for (int i4 = 0; i4 < dims[3]; i4++)
-                                data.putScalar(i1, i2, i3, i4, dataBuffer[j++]);
-                break;
-            case 3:
-                dataBuffer = new float[(int) (dims[0] * dims[1] * dims[2])];
-                fp = new FloatPointer(dataBuffer);
-                dataset.read(fp, dataType);
-                fp.get(dataBuffer);
-                data = Nd4j.create((int) dims[0], (int) dims[1], (int) dims[2]);
-                j = 0;
-                for (int i1 = 0; i1 < dims[0]; i1++)
-                    for (int i2 = 0; i2 < dims[1]; i2++)
-                        for (int i3 = 0; i3 < dims[2]; i3++)
-                            data.putScalar(i1, i2, i3, dataBuffer[j++]);
-                break;
-            case 2: /* Dense and Recurrent weights */
-                dataBuffer = new float[(int) (dims[0] * dims[1])];
-                fp = new FloatPointer(dataBuffer);
-                dataset.read(fp, dataType);
-                fp.get(dataBuffer);
-                data = Nd4j.create((int) dims[0], (int) dims[1]);
-                j = 0;
-                for (int i1 = 0; i1 < dims[0]; i1++)
-                    for (int i2 = 0; i2 < dims[1]; i2++)
-                        data.putScalar(i1, i2, dataBuffer[j++]);
-                break;
-            case 1: /* Bias */
-                dataBuffer = new float[(int) dims[0]];
-                fp = new FloatPointer(dataBuffer);
+        int[] shape;
+        int length;
+        FloatPointer fp;
+        synchronized (LOCK) {
+            hdf5.DataSet dataset = fileGroup.openDataSet(datasetName);
+            hdf5.DataSpace space = dataset.getSpace();
+            try {
+                int nbDims = space.getSimpleExtentNdims();
+                if (nbDims < 1 || nbDims > 4)
+                    throw new UnsupportedKerasConfigurationException("Cannot import weights with rank " + nbDims);
+                long[] dims = new long[nbDims];
+                space.getSimpleExtentDims(dims);
+                long l = 1;
+                for (long d : dims)
+                    l *= d;
+                if (l > Integer.MAX_VALUE)
+                    throw new UnsupportedKerasConfigurationException("Cannot import weights with length " + l
+                                    + " (data set " + datasetName + ")");
+                length = (int) l;
+                if (nbDims == 1) {
+                    /* Bias: row vector, as per Nd4j.create(int) */
+                    shape = new int[] {1, length};
+                } else {
+                    shape = new int[nbDims];
+                    for (int i = 0; i < nbDims; i++)
+                        shape[i] = (int) dims[i];
+                }
+                fp = new FloatPointer(length);
                 dataset.read(fp, dataType);
-                fp.get(dataBuffer);
-                data = Nd4j.create((int) dims[0]);
-                j = 0;
-                for (int i1 = 0; i1 < dims[0]; i1++)
-                    data.putScalar(i1, dataBuffer[j++]);
-                break;
-            default:
-                throw new UnsupportedKerasConfigurationException("Cannot import weights with rank " + nbDims);
+            } finally {
+                space.deallocate();
+                dataset.deallocate();
+            }
         }
-        space.deallocate();
-        dataset.deallocate();
-        return data;
+        float[] dataBuffer = new float[length];
+        fp.get(dataBuffer);
+        fp.deallocate();
+        return Nd4j.create(dataBuffer, shape, 'c');
     }
 
     /**
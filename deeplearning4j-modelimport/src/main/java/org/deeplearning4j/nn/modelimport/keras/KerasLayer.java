@@ -250,6 +250,13 @@ public class KerasLayer {
         //no op
     }
 
+    /**
+     * Release the weights stored in this Keras layer, for example once they have been copied to a DL4J layer.
+     */
+    public void clearWeights() {
+        this.weights = null;
+    }
+
     /**
      * Copy Keras layer weights to DL4J Layer.
      *
@@ -69,6 +69,8 @@ public class KerasModel {
     boolean useTruncatedBPTT = false; // whether to use truncated BPTT
     int truncatedBPTT = 0; // truncated BPTT value
     int kerasMajorVersion;
+    Hdf5Archive weightsArchive; // archive to read weights from when building the model (may be null)
+    String weightsRoot; // root group for weights in weightsArchive (may be null)
 
     public KerasModel() {
     }
@@ -77,6 +79,15 @@ public class KerasModel {
         return this.modelBuilder;
     }
 
+    /**
+     * Keras layers in this model, by layer name.
+     *
+     * @return map from layer name to KerasLayer
+     */
+    public Map<String, KerasLayer> getLayers() {
+        return this.layers;
+    }
+
     /**
      * (Recommended) Builder-pattern constructor for (Functional API) Model.
      *
@@ -161,9 +172,9 @@ public class KerasModel {
         /* Infer output types for each layer. */
         inferOutputTypes();
 
-        /* Store weights in layers. */
-        if (weightsArchive != null)
-            KerasModelUtils.importWeights(weightsArchive, weightsRoot, layers);
+        /* Weights are read when the model is built: see KerasModelUtils.importWeights(Model, ...) */
+        this.weightsArchive = weightsArchive;
+        this.weightsRoot = weightsRoot;
     }
 
     /**
@@ -376,8 +387,13 @@ public class KerasModel {
             throws InvalidKerasConfigurationException, UnsupportedKerasConfigurationException {
         ComputationGraph model = new ComputationGraph(getComputationGraphConfiguration());
         model.init();
-        if (importWeights)
-            model = (ComputationGraph) KerasModelUtils.copyWeightsToModel(model, this.layers);
+        if (importWeights) {
+            if (this.weightsArchive != null)
+                model = (ComputationGraph) KerasModelUtils.importWeights(model, this.weightsArchive, this.weightsRoot,
+                        this.layers);
+            else
+                model = (ComputationGraph) KerasModelUtils.copyWeightsToModel(model, this.layers);
+        }
         return model;
     }
 }
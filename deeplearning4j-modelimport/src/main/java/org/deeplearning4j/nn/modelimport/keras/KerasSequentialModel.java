@@ -127,9 +127,9 @@ public class KerasSequentialModel extends KerasModel {
         /* Infer output types for each layer. */
         inferOutputTypes();
 
-        /* Store weights in layers. */
-        if (weightsArchive != null)
-            KerasModelUtils.importWeights(weightsArchive, weightsRoot, layers);
+        /* Weights are read when the model is built: see KerasModelUtils.importWeights(Model, ...) */
+        this.weightsArchive = weightsArchive;
+        this.weightsRoot = weightsRoot;
     }
 
     public KerasSequentialModel() {
@@ -221,8 +221,13 @@ public class KerasSequentialModel extends KerasModel {
             throws InvalidKerasConfigurationException, UnsupportedKerasConfigurationException {
         MultiLayerNetwork model = new MultiLayerNetwork(getMultiLayerConfiguration());
         model.init();
-        if (importWeights)
-            model = (MultiLayerNetwork) KerasModelUtils.copyWeightsToModel(model, this.layers);
+        if (importWeights) {
+            if (this.weightsArchive != null)
+                model = (MultiLayerNetwork) KerasModelUtils.importWeights(model, this.weightsArchive, this.weightsRoot,
+                        this.layers);
+            else
+                model = (MultiLayerNetwork) KerasModelUtils.copyWeightsToModel(model, this.layers);
+        }
         return model;
     }
 }
@@ -36,6 +36,11 @@ import org.nd4j.shade.jackson.dataformat.yaml.YAMLFactory;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -147,6 +152,147 @@ public class KerasModelUtils {
      */
     public static void importWeights(Hdf5Archive weightsArchive, String weightsRoot, Map<String, KerasLayer> layers)
             throws InvalidKerasConfigurationException, UnsupportedKerasConfigurationException {
+        Map<String, List<WeightsDataSet>> dataSets = findWeights(weightsArchive, weightsRoot, layers);
+        for (Map.Entry<String, List<WeightsDataSet>> entry : dataSets.entrySet()) {
+            layers.get(entry.getKey()).setWeights(readWeights(weightsArchive, entry.getValue()));
+        }
+    }
+
+    /**
+     * Import weights directly into an existing (initialized) model, one layer at a time, using one thread per
+     * available processor. See {@link #importWeights(Model, Hdf5Archive, String, Map, int)}
+     *
+     * @param model          DL4J Model (MultiLayerNetwork or ComputationGraph), already initialized
+     * @param weightsArchive Hdf5Archive
+     * @param weightsRoot    weights root group, or null
+     * @param layers         Keras layers, by name
+     * @return DL4J Model
+     */
+    public static Model importWeights(Model model, Hdf5Archive weightsArchive, String weightsRoot,
+                                      Map<String, KerasLayer> layers)
+            throws InvalidKerasConfigurationException, UnsupportedKerasConfigurationException {
+        return importWeights(model, weightsArchive, weightsRoot, layers, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Import weights directly into an existing (initialized) model. Unlike {@link #importWeights(Hdf5Archive, String,
+     * Map)} followed by {@link #copyWeightsToModel(Model, Map)}, the weights for the whole model are never held in
+     * memory alongside the model's own parameters: the weights for each layer are read from the archive, converted to
+     * the DL4J layout and copied into the layer's parameter view of the model's (flattened) parameters, then
+     * released before the weights of later layers are read.<br>
+     * Layers are imported in parallel. Reads from the archive are serialized (see {@link Hdf5Archive#LOCK}), but
+     * overlap with the layout conversion and copying of the other layers.
+     *
+     * @param model          DL4J Model (MultiLayerNetwork or ComputationGraph), already initialized
+     * @param weightsArchive Hdf5Archive
+     * @param weightsRoot    weights root group, or null
+     * @param layers         Keras layers, by name
+     * @param numThreads     maximum number of layers to import concurrently
+     * @return DL4J Model
+     */
+    public static Model importWeights(Model model, final Hdf5Archive weightsArchive, String weightsRoot,
+                                      Map<String, KerasLayer> layers, int numThreads)
+            throws InvalidKerasConfigurationException, UnsupportedKerasConfigurationException {
+        Layer[] layersFromModel;
+        if (model instanceof MultiLayerNetwork)
+            layersFromModel = ((MultiLayerNetwork) model).getLayers();
+        else
+            layersFromModel = ((ComputationGraph) model).getLayers();
+
+        Map<String, Layer> modelLayers = new HashMap<>();
+        for (Layer layer : layersFromModel) {
+            String layerName = layer.conf().getLayer().getLayerName();
+            if (!layers.containsKey(layerName))
+                throw new InvalidKerasConfigurationException(
+                        "No weights found for layer in model (named " + layerName + ")");
+            modelLayers.put(layerName, layer);
+        }
+
+        Map<String, List<WeightsDataSet>> dataSets = findWeights(weightsArchive, weightsRoot, layers);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Map.Entry<String, List<WeightsDataSet>> entry : dataSets.entrySet()) {
+            String layerName = entry.getKey();
+            if (!modelLayers.containsKey(layerName))
+                throw new InvalidKerasConfigurationException(
+                        "Attemping to copy weights for layer not in model (named " + layerName + ")");
+            final KerasLayer kerasLayer = layers.get(layerName);
+            final Layer layer = modelLayers.get(layerName);
+            final List<WeightsDataSet> layerDataSets = entry.getValue();
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    kerasLayer.setWeights(readWeights(weightsArchive, layerDataSets));
+                    kerasLayer.copyWeightsToLayer(layer);
+                    kerasLayer.clearWeights();
+                    return null;
+                }
+            });
+        }
+
+        numThreads = Math.min(numThreads, tasks.size());
+        if (numThreads <= 1) {
+            for (Callable<Void> task : tasks) {
+                try {
+                    task.call();
+                } catch (Exception e) {
+                    throw rethrow(e);
+                }
+            }
+            return model;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<Void>> futures = executor.invokeAll(tasks);
+            for (Future<Void> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while importing weights", e);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return model;
+    }
+
+    private static RuntimeException rethrow(Throwable t)
+            throws InvalidKerasConfigurationException, UnsupportedKerasConfigurationException {
+        if (t instanceof InvalidKerasConfigurationException)
+            throw (InvalidKerasConfigurationException) t;
+        if (t instanceof UnsupportedKerasConfigurationException)
+            throw (UnsupportedKerasConfigurationException) t;
+        if (t instanceof RuntimeException)
+            return (RuntimeException) t;
+        if (t instanceof Error)
+            throw (Error) t;
+        return new RuntimeException(t);
+    }
+
+    /**
+     * Read the weights for one layer.
+     */
+    private static Map<String, INDArray> readWeights(Hdf5Archive weightsArchive, List<WeightsDataSet> dataSets)
+            throws UnsupportedKerasConfigurationException {
+        Map<String, INDArray> weights = new HashMap<String, INDArray>();
+        for (WeightsDataSet d : dataSets) {
+            weights.put(d.paramName, weightsArchive.readDataSet(d.dataSetName, d.groups));
+        }
+        return weights;
+    }
+
+    /**
+     * Find the data sets containing the weights for each Keras layer, checking that all layers with parameters have
+     * weights (and that all weights are for layers in the model).
+     *
+     * @return Data sets to read, by layer name
+     */
+    private static Map<String, List<WeightsDataSet>> findWeights(Hdf5Archive weightsArchive, String weightsRoot,
+                                                                 Map<String, KerasLayer> layers)
+            throws InvalidKerasConfigurationException, UnsupportedKerasConfigurationException {
+        Map<String, List<WeightsDataSet>> out = new LinkedHashMap<>();
         // check to ensure naming scheme doesn't include forward slash
         boolean includesSlash = false;
         for (String layerName : layers.keySet()) {
@@ -159,7 +305,7 @@ public class KerasModelUtils {
         } else {
             layerGroups = new ArrayList<>(layers.keySet());
         }
-        /* Set weights in KerasLayer for each entry in weights map. */
+        /* Find weights for each Keras layer. */
         for (String layerName : layerGroups) {
             List<String> layerParamNames;
 
@@ -217,24 +363,22 @@ public class KerasModelUtils {
                 throw new InvalidKerasConfigurationException(
                         "Found " + layerParamNames.size() + " weights for layer with " + layer.getNumParams()
                                 + " trainable params (named " + layerName + ")");
-            Map<String, INDArray> weights = new HashMap<String, INDArray>();
+            List<WeightsDataSet> layerDataSets = new ArrayList<>();
 
             for (String layerParamName : layerParamNames) {
                 String paramName = KerasModelUtils.findParameterName(layerParamName, layerFragments);
-                INDArray paramValue;
                 if (foundTfGroups) {
-                    paramValue = weightsArchive.readDataSet(layerParamName, rootPrefix + baseAttributes);
+                    layerDataSets.add(new WeightsDataSet(paramName, layerParamName, rootPrefix + baseAttributes));
                 } else {
                     if (layerFragments.length > 1) {
-                        paramValue = weightsArchive.readDataSet(
-                                layerFragments[0] + "/" + layerParamName, rootPrefix, layerName);
+                        layerDataSets.add(new WeightsDataSet(paramName, layerFragments[0] + "/" + layerParamName,
+                                rootPrefix, layerName));
                     } else {
-                        paramValue = weightsArchive.readDataSet(layerParamName, rootPrefix, layerName);
+                        layerDataSets.add(new WeightsDataSet(paramName, layerParamName, rootPrefix, layerName));
                     }
                 }
-                weights.put(paramName, paramValue);
             }
-            layer.setWeights(weights);
+            out.put(layerName, layerDataSets);
         }
 
         /* Look for layers in model with no corresponding entries in weights map. */
@@ -244,6 +388,22 @@ public class KerasModelUtils {
             if (layers.get(layerName).getNumParams() > 0)
                 throw new InvalidKerasConfigurationException("Could not find weights required for layer " + layerName);
         }
+        return out;
+    }
+
+    /**
+     * Location of the weights for one parameter of a Keras layer.
+     */
+    private static class WeightsDataSet {
+        private final String paramName;
+        private final String dataSetName;
+        private final String[] groups;
+
+        private WeightsDataSet(String paramName, String dataSetName, String... groups) {
+            this.paramName = paramName;
+            this.dataSetName = dataSetName;
+            this.groups = groups;
+        }
     }
 
     /**
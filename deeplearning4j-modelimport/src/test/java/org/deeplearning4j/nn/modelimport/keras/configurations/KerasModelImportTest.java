@@ -18,15 +18,21 @@
 package org.deeplearning4j.nn.modelimport.keras.configurations;
 
 import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.modelimport.keras.KerasModel;
 import org.deeplearning4j.nn.modelimport.keras.KerasModelImport;
+import org.deeplearning4j.nn.modelimport.keras.KerasSequentialModel;
 import org.deeplearning4j.nn.modelimport.keras.exceptions.InvalidKerasConfigurationException;
 import org.deeplearning4j.nn.modelimport.keras.exceptions.UnsupportedKerasConfigurationException;
+import org.deeplearning4j.nn.modelimport.keras.utils.KerasModelBuilder;
+import org.deeplearning4j.nn.modelimport.keras.utils.KerasModelUtils;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
 
+import static org.junit.Assert.assertEquals;
+
 /**
  * Test import of Keras models.
  *
@@ -61,6 +67,28 @@ public class KerasModelImportTest {
         assert (model != null);
     }
 
+    @Test
+    public void testStreamingWeightImportMatchesLegacyImport() throws Exception {
+        ClassLoader classLoader = getClass().getClassLoader();
+        String modelFilename = new File(classLoader.getResource("tfscope/model.h5").getFile()).getAbsolutePath();
+        KerasModelBuilder builder = new KerasModel().modelBuilder().modelHdf5Filename(modelFilename);
+        KerasSequentialModel kerasModel = builder.buildSequential();
+
+        //Default: weights read directly into the initialized model, layers in parallel
+        MultiLayerNetwork streamed = kerasModel.getMultiLayerNetwork();
+        MultiLayerNetwork singleThread = kerasModel.getMultiLayerNetwork(false);
+        KerasModelUtils.importWeights(singleThread, builder.getWeightsArchive(), builder.getWeightsRoot(),
+                kerasModel.getLayers(), 1);
+
+        //Legacy: weights for all layers read first, then copied into the model
+        MultiLayerNetwork legacy = kerasModel.getMultiLayerNetwork(false);
+        KerasModelUtils.importWeights(builder.getWeightsArchive(), builder.getWeightsRoot(), kerasModel.getLayers());
+        KerasModelUtils.copyWeightsToModel(legacy, kerasModel.getLayers());
+
+        assertEquals(legacy.params(), streamed.params());
+        assertEquals(legacy.params(), singleThread.params());
+    }
+
     private MultiLayerNetwork loadModel(String modelJsonFilename, String modelWeightFilename) {
         ClassLoader classLoader = getClass().getClassLoader();
         File modelJsonFile = new File(classLoader.getResource(modelJsonFilename).getFile());
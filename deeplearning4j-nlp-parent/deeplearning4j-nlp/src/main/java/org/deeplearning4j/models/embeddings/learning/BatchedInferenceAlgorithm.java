@@ -0,0 +1,30 @@
+package org.deeplearning4j.models.embeddings.learning;
+
+import org.deeplearning4j.models.sequencevectors.sequence.Sequence;
+import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.aggregates.Aggregate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SequenceLearningAlgorithm implementations that support this interface are able to emit inference aggregates
+ * without executing them, so aggregates for multiple documents can be executed as single batch.
+ *
+ * PLEASE NOTE: Aggregates produced here never update elements vectors, only inference vector.
+ */
+public interface BatchedInferenceAlgorithm<T extends SequenceElement> {
+
+    /**
+     * This method appends aggregates for one inference iteration over given sequence to the target list
+     *
+     * @param sequence sequence to be inferred
+     * @param nextRandom random state, will be advanced
+     * @param learningRate learning rate for this iteration
+     * @param inferenceVector vector being inferred
+     * @param target list aggregates will be appended to
+     */
+    void buildInferenceAggregates(Sequence<T> sequence, AtomicLong nextRandom, double learningRate,
+                    INDArray inferenceVector, List<Aggregate> target);
+}
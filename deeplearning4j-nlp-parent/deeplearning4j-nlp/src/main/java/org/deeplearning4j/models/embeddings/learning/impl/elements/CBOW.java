@@ -134,6 +134,38 @@ public class CBOW<T extends SequenceElement> implements ElementsLearningAlgorith
 
     public void iterateSample(T currentWord, int[] windowWords, AtomicLong nextRandom, double alpha,
                     boolean isInference, int numLabels, boolean trainWords, INDArray inferenceVector) {
+        if (batches.get() == null)
+            batches.set(new ArrayList<Aggregate>());
+
+        AggregateCBOW cbow = buildAggregate(currentWord, windowWords, nextRandom, alpha, numLabels, trainWords,
+                        inferenceVector);
+
+        if (!isInference) {
+            batches.get().add(cbow);
+            if (batches.get().size() > 4096) {
+                Nd4j.getExecutioner().exec(batches.get());
+                batches.get().clear();
+            }
+        } else
+            Nd4j.getExecutioner().exec(cbow);
+
+    }
+
+    /**
+     * This method builds CBOW aggregate for given word and its context, without executing it.
+     * Caller is responsible for execution, which allows aggregates to be grouped into larger batches.
+     *
+     * @param currentWord
+     * @param windowWords
+     * @param nextRandom
+     * @param alpha
+     * @param numLabels
+     * @param trainWords
+     * @param inferenceVector
+     * @return
+     */
+    public AggregateCBOW buildAggregate(T currentWord, int[] windowWords, AtomicLong nextRandom, double alpha,
+                    int numLabels, boolean trainWords, INDArray inferenceVector) {
         int[] idxSyn1 = null;
         int[] codes = null;
 
@@ -160,24 +192,13 @@ public class CBOW<T extends SequenceElement> implements ElementsLearningAlgorith
             }
         }
 
-        if (batches.get() == null)
-            batches.set(new ArrayList<Aggregate>());
-
         AggregateCBOW cbow = new AggregateCBOW(syn0.get(), syn1.get(), syn1Neg.get(), expTable.get(), table.get(),
                         currentWord.getIndex(), windowWords, idxSyn1, codes, (int) negative, currentWord.getIndex(),
                         lookupTable.layerSize(), alpha, nextRandom.get(), vocabCache.numWords(), numLabels, trainWords,
                         inferenceVector);
         nextRandom.set(Math.abs(nextRandom.get() * 25214903917L + 11));
 
-        if (!isInference) {
-            batches.get().add(cbow);
-            if (batches.get().size() > 4096) {
-                Nd4j.getExecutioner().exec(batches.get());
-                batches.get().clear();
-            }
-        } else
-            Nd4j.getExecutioner().exec(cbow);
-
+        return cbow;
     }
 
     public void cbow(int i, List<T> sentence, int b, AtomicLong nextRandom, double alpha, int currentWindow) {
@@ -2,6 +2,7 @@ package org.deeplearning4j.models.embeddings.learning.impl.sequence;
 
 import lombok.NonNull;
 import org.deeplearning4j.models.embeddings.WeightLookupTable;
+import org.deeplearning4j.models.embeddings.learning.BatchedInferenceAlgorithm;
 import org.deeplearning4j.models.embeddings.learning.ElementsLearningAlgorithm;
 import org.deeplearning4j.models.embeddings.learning.SequenceLearningAlgorithm;
 import org.deeplearning4j.models.embeddings.learning.impl.elements.SkipGram;
@@ -11,6 +12,8 @@ import org.deeplearning4j.models.sequencevectors.sequence.Sequence;
 import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
 import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.aggregates.Aggregate;
+import org.nd4j.linalg.api.ops.aggregates.impl.AggregateSkipGram;
 import org.nd4j.linalg.api.rng.Random;
 import org.nd4j.linalg.factory.Nd4j;
 import org.slf4j.Logger;
@@ -23,7 +26,7 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  * @author raver119@gmail.com
  */
-public class DBOW<T extends SequenceElement> implements SequenceLearningAlgorithm<T> {
+public class DBOW<T extends SequenceElement> implements SequenceLearningAlgorithm<T>, BatchedInferenceAlgorithm<T> {
     protected VocabCache<T> vocabCache;
     protected WeightLookupTable<T> lookupTable;
     protected VectorsConfiguration configuration;
@@ -164,6 +167,27 @@ public class DBOW<T extends SequenceElement> implements SequenceLearningAlgorith
         return ret;
     }
 
+    @Override
+    public void buildInferenceAggregates(@NonNull Sequence<T> sequence, @NonNull AtomicLong nextRandom,
+                    double learningRate, @NonNull INDArray inferenceVector, @NonNull List<Aggregate> target) {
+        List<T> sentence = skipGram.applySubsampling(sequence, nextRandom).getElements();
+
+        if (sequence.getSequenceLabel() == null || sentence.isEmpty())
+            return;
+
+        for (T lastWord : sequence.getSequenceLabels()) {
+            for (T word : sentence) {
+                if (word == null)
+                    continue;
+
+                AggregateSkipGram sg =
+                                skipGram.buildAggregate(word, lastWord, nextRandom, learningRate, true, inferenceVector);
+                if (sg != null)
+                    target.add(sg);
+            }
+        }
+    }
+
     @Override
     public void finish() {
         if (skipGram != null && skipGram.getBatch() != null && skipGram.getBatch().size() > 0) {
@@ -4,6 +4,7 @@ import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.deeplearning4j.models.embeddings.WeightLookupTable;
 import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
+import org.deeplearning4j.models.embeddings.learning.BatchedInferenceAlgorithm;
 import org.deeplearning4j.models.embeddings.learning.ElementsLearningAlgorithm;
 import org.deeplearning4j.models.embeddings.learning.SequenceLearningAlgorithm;
 import org.deeplearning4j.models.embeddings.learning.impl.elements.CBOW;
@@ -13,6 +14,7 @@ import org.deeplearning4j.models.sequencevectors.sequence.Sequence;
 import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
 import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.aggregates.Aggregate;
 import org.nd4j.linalg.api.rng.Random;
 import org.nd4j.linalg.factory.Nd4j;
 
@@ -26,7 +28,7 @@ import java.util.concurrent.atomic.AtomicLong;
  * @author raver119@gmail.com
  */
 @Slf4j
-public class DM<T extends SequenceElement> implements SequenceLearningAlgorithm<T> {
+public class DM<T extends SequenceElement> implements SequenceLearningAlgorithm<T>, BatchedInferenceAlgorithm<T> {
     private VocabCache<T> vocabCache;
     private WeightLookupTable<T> lookupTable;
     private VectorsConfiguration configuration;
@@ -104,10 +106,23 @@ public class DM<T extends SequenceElement> implements SequenceLearningAlgorithm<
 
     public void dm(int i, Sequence<T> sequence, int b, AtomicLong nextRandom, double alpha, List<T> labels,
                     boolean isInference, INDArray inferenceVector) {
-        int end = window * 2 + 1 - b;
-
         T currentWord = sequence.getElementByIndex(i);
 
+        int[] windowWords = windowWords(i, sequence, b, labels);
+
+        // pass for underlying
+        cbow.iterateSample(currentWord, windowWords, nextRandom, alpha, isInference, labels == null ? 0 : labels.size(),
+                        configuration.isTrainElementsVectors(), inferenceVector);
+
+        if (cbow.getBatch() != null && cbow.getBatch().size() >= configuration.getBatchSize()) {
+            Nd4j.getExecutioner().exec(cbow.getBatch());
+            cbow.getBatch().clear();
+        }
+    }
+
+    protected int[] windowWords(int i, Sequence<T> sequence, int b, List<T> labels) {
+        int end = window * 2 + 1 - b;
+
         List<Integer> intsList = new ArrayList<>();
         for (int a = b; a < end; a++) {
             if (a != window) {
@@ -131,14 +146,7 @@ public class DM<T extends SequenceElement> implements SequenceLearningAlgorithm<
             windowWords[x] = intsList.get(x);
         }
 
-        // pass for underlying
-        cbow.iterateSample(currentWord, windowWords, nextRandom, alpha, isInference, labels == null ? 0 : labels.size(),
-                        configuration.isTrainElementsVectors(), inferenceVector);
-
-        if (cbow.getBatch() != null && cbow.getBatch().size() >= configuration.getBatchSize()) {
-            Nd4j.getExecutioner().exec(cbow.getBatch());
-            cbow.getBatch().clear();
-        }
+        return windowWords;
     }
 
     @Override
@@ -184,6 +192,18 @@ public class DM<T extends SequenceElement> implements SequenceLearningAlgorithm<
         return ret;
     }
 
+    @Override
+    public void buildInferenceAggregates(@NonNull Sequence<T> sequence, @NonNull AtomicLong nextRandom,
+                    double learningRate, @NonNull INDArray inferenceVector, @NonNull List<Aggregate> target) {
+        for (int i = 0; i < sequence.size(); i++) {
+            nextRandom.set(Math.abs(nextRandom.get() * 25214903917L + 11));
+            int[] windowWords = windowWords(i, sequence, (int) nextRandom.get() % window, null);
+
+            // elements vectors stay frozen during inference
+            target.add(cbow.buildAggregate(sequence.getElementByIndex(i), windowWords, nextRandom, learningRate, 0,
+                            false, inferenceVector));
+        }
+    }
 
     @Override
     public void finish() {
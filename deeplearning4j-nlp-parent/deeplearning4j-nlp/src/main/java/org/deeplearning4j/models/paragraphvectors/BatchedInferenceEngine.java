@@ -0,0 +1,565 @@
+package org.deeplearning4j.models.paragraphvectors;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.models.embeddings.learning.BatchedInferenceAlgorithm;
+import org.deeplearning4j.models.embeddings.learning.SequenceLearningAlgorithm;
+import org.deeplearning4j.models.embeddings.loader.VectorsConfiguration;
+import org.deeplearning4j.models.sequencevectors.sequence.Sequence;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.aggregates.Aggregate;
+import org.nd4j.linalg.api.rng.Random;
+import org.nd4j.linalg.exception.ND4JIllegalStateException;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class provides high-throughput inference for ParagraphVectors models.
+ *
+ * Incoming documents are tokenized on caller thread, and put into bounded queue. Each worker takes up to batchLimit
+ * documents from this queue, and executes inference aggregates for all of them as single batch on every iteration.
+ * Model weights are shared by all workers, and stay frozen during inference: only inferred vectors are updated.
+ *
+ * PLEASE NOTE: Model should use SequenceLearningAlgorithm that implements BatchedInferenceAlgorithm, i.e. DM or DBOW
+ */
+@Slf4j
+public class BatchedInferenceEngine {
+    public final static int DEFAULT_NUM_WORKERS = Math.max(Runtime.getRuntime().availableProcessors() / 2, 1);
+    public final static int DEFAULT_BATCH_LIMIT = 64;
+    public final static int DEFAULT_QUEUE_LIMIT = 1024;
+
+    private ParagraphVectors model;
+    private SequenceLearningAlgorithm<VocabWord> learner;
+    private TokenizerFactory tokenizerFactory;
+    private VocabCache<VocabWord> vocab;
+    private int layerSize;
+    private long seed;
+
+    private int workers;
+    private int batchLimit;
+    private int queueLimit;
+    private double learningRate;
+    private double minLearningRate;
+    private int iterations;
+
+    private BlockingQueue<InferenceRequest> queue;
+    private InferenceWorker[] zoo;
+    private final AtomicBoolean isShutdown = new AtomicBoolean(false);
+
+    private final LatencyStats stats = new LatencyStats();
+
+    protected BatchedInferenceEngine() {
+        //
+    }
+
+    protected void init() {
+        learner = model.getInferenceLearner();
+        if (!(learner instanceof BatchedInferenceAlgorithm))
+            throw new ND4JIllegalStateException("SequenceLearningAlgorithm [" + learner.getCodeName()
+                            + "] doesn't support batched inference");
+
+        tokenizerFactory = model.getTokenizerFactory();
+        if (tokenizerFactory == null)
+            throw new IllegalStateException("TokenizerFactory should be defined, prior to inference");
+
+        vocab = model.vocab();
+        layerSize = model.lookupTable().layerSize();
+        seed = model.getConfiguration().getSeed();
+
+        queue = new LinkedBlockingQueue<>(queueLimit);
+
+        zoo = new InferenceWorker[workers];
+        for (int i = 0; i < workers; i++) {
+            zoo[i] = new InferenceWorker(i);
+            zoo[i].start();
+        }
+    }
+
+    /**
+     * This method submits document for inference. If queue is full, this method blocks until space is available.
+     *
+     * @param text
+     * @return Future, that will hold inferred vector
+     */
+    public Future<INDArray> submit(@NonNull String text) {
+        InferenceRequest request = buildRequest(text);
+        try {
+            queue.put(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        cancelIfShutdown();
+        return request;
+    }
+
+    /**
+     * This method submits document for inference, waiting up to given timeout if queue is full.
+     *
+     * @param text
+     * @param timeout
+     * @param timeUnit
+     * @return Future, that will hold inferred vector, or null if queue was full for whole timeout
+     */
+    public Future<INDArray> trySubmit(@NonNull String text, long timeout, @NonNull TimeUnit timeUnit) {
+        InferenceRequest request = buildRequest(text);
+        try {
+            if (!queue.offer(request, timeout, timeUnit)) {
+                stats.rejected.incrementAndGet();
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        cancelIfShutdown();
+        return request;
+    }
+
+    /**
+     * This method does inference for given documents, and blocks until all of them are processed.
+     *
+     * @param documents
+     * @return INDArrays in the same order as input texts
+     */
+    public List<INDArray> infer(@NonNull List<String> documents) {
+        List<Future<INDArray>> futures = new ArrayList<>(documents.size());
+        for (String document : documents)
+            futures.add(submit(document));
+
+        List<INDArray> results = new ArrayList<>(documents.size());
+        for (Future<INDArray> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * This method returns number of requests waiting in queue
+     *
+     * @return
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * This method returns latency statistics collected since engine was built
+     *
+     * @return
+     */
+    public LatencyStats getStats() {
+        return stats;
+    }
+
+    /**
+     * This method stops all workers. Requests still waiting in queue will be cancelled.
+     */
+    public void shutdown() {
+        if (!isShutdown.compareAndSet(false, true))
+            return;
+
+        for (InferenceWorker worker : zoo)
+            worker.interrupt();
+
+        for (InferenceWorker worker : zoo) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        cancelQueued();
+    }
+
+    /**
+     * Request might be enqueued after shutdown() has drained the queue: workers are gone by then, so such requests
+     * (and anything else still queued) are cancelled here, on the caller side.
+     */
+    protected void cancelIfShutdown() {
+        if (isShutdown.get())
+            cancelQueued();
+    }
+
+    protected void cancelQueued() {
+        List<InferenceRequest> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        for (InferenceRequest request : leftovers)
+            request.cancel(false);
+    }
+
+    protected InferenceRequest buildRequest(String text) {
+        if (isShutdown.get())
+            throw new ND4JIllegalStateException("BatchedInferenceEngine was shut down");
+
+        // tokenization is done on caller side, so it's parallel by design
+        List<String> tokens = tokenizerFactory.create(text).getTokens();
+        Sequence<VocabWord> sequence = new Sequence<>();
+        for (String token : tokens) {
+            if (vocab.containsWord(token))
+                sequence.addElement(vocab.wordFor(token));
+        }
+
+        if (sequence.isEmpty())
+            throw new ND4JIllegalStateException("Text passed for inference has no matches in model vocabulary.");
+
+        sequence.setSequenceLabel(new VocabWord(1.0, String.valueOf(text.hashCode())));
+
+        return new InferenceRequest(sequence);
+    }
+
+    protected void processBatch(List<InferenceRequest> batch, List<Aggregate> aggregates, AtomicLong nextRandom) {
+        long startTime = System.nanoTime();
+        BatchedInferenceAlgorithm<VocabWord> algorithm = (BatchedInferenceAlgorithm<VocabWord>) learner;
+
+        INDArray[] vectors = new INDArray[batch.size()];
+        for (int e = 0; e < batch.size(); e++) {
+            Sequence<VocabWord> sequence = batch.get(e).sequence;
+            Random random = Nd4j.getRandomFactory().getNewRandomInstance(seed * sequence.hashCode(), layerSize + 1);
+            vectors[e] = Nd4j.rand(new int[] {1, layerSize}, random).subi(0.5).divi(layerSize);
+        }
+
+        double alpha = learningRate;
+        for (int iter = 0; iter < iterations; iter++) {
+            aggregates.clear();
+            for (int e = 0; e < batch.size(); e++)
+                algorithm.buildInferenceAggregates(batch.get(e).sequence, nextRandom, alpha, vectors[e], aggregates);
+
+            // single execution for all documents within this batch
+            if (!aggregates.isEmpty())
+                Nd4j.getExecutioner().exec(aggregates);
+
+            alpha = ((alpha - minLearningRate) / (iterations - iter)) + minLearningRate;
+        }
+        aggregates.clear();
+
+        long endTime = System.nanoTime();
+        stats.batches.incrementAndGet();
+        stats.computeTime.addAndGet(endTime - startTime);
+
+        for (int e = 0; e < batch.size(); e++) {
+            InferenceRequest request = batch.get(e);
+            stats.record(endTime - request.submitTime);
+            request.complete(vectors[e], null);
+        }
+    }
+
+
+    public static class Builder {
+        private ParagraphVectors model;
+        private int workers = DEFAULT_NUM_WORKERS;
+        private int batchLimit = DEFAULT_BATCH_LIMIT;
+        private int queueLimit = DEFAULT_QUEUE_LIMIT;
+        private double learningRate;
+        private double minLearningRate;
+        private int iterations;
+
+        public Builder(@NonNull ParagraphVectors model) {
+            this.model = model;
+
+            VectorsConfiguration configuration = model.getConfiguration();
+            this.learningRate = configuration.getLearningRate();
+            this.minLearningRate = configuration.getMinLearningRate();
+            this.iterations = configuration.getIterations() * configuration.getEpochs();
+        }
+
+        /**
+         * This method defines number of threads used for inference
+         *
+         * @param workers
+         * @return
+         */
+        public Builder workers(int workers) {
+            if (workers < 1)
+                throw new IllegalStateException("Workers should be positive value");
+
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * This method defines max number of documents, that'll be processed within single batch
+         *
+         * @param limit
+         * @return
+         */
+        public Builder batchLimit(int limit) {
+            if (limit < 1)
+                throw new IllegalStateException("Batch limit should be positive value");
+
+            this.batchLimit = limit;
+            return this;
+        }
+
+        /**
+         * This method defines max number of documents waiting in queue. Once this limit is hit, submit() calls block.
+         *
+         * Default value: 1024
+         *
+         * @param limit
+         * @return
+         */
+        public Builder queueLimit(int limit) {
+            if (limit < 1)
+                throw new IllegalStateException("Queue limit should be positive value");
+
+            this.queueLimit = limit;
+            return this;
+        }
+
+        /**
+         * This method defines learning rate used for inference. Default value is taken from model configuration.
+         *
+         * @param learningRate
+         * @param minLearningRate
+         * @return
+         */
+        public Builder learningRate(double learningRate, double minLearningRate) {
+            this.learningRate = learningRate;
+            this.minLearningRate = minLearningRate;
+            return this;
+        }
+
+        /**
+         * This method defines number of iterations used for inference. Default value is iterations * epochs from
+         * model configuration.
+         *
+         * @param iterations
+         * @return
+         */
+        public Builder iterations(int iterations) {
+            if (iterations < 1)
+                throw new IllegalStateException("Iterations should be positive value");
+
+            this.iterations = iterations;
+            return this;
+        }
+
+        public BatchedInferenceEngine build() {
+            BatchedInferenceEngine engine = new BatchedInferenceEngine();
+            engine.model = this.model;
+            engine.workers = this.workers;
+            engine.batchLimit = this.batchLimit;
+            engine.queueLimit = this.queueLimit;
+            engine.learningRate = this.learningRate;
+            engine.minLearningRate = this.minLearningRate;
+            engine.iterations = this.iterations;
+
+            engine.init();
+
+            return engine;
+        }
+    }
+
+
+    /**
+     * Latency statistics for processed requests. Latency is measured from submission till result availability,
+     * so it includes time spent in queue.
+     */
+    public static class LatencyStats {
+        // bucket i holds requests with latency within [2^i, 2^(i+1)) microseconds
+        private static final int NUM_BUCKETS = 32;
+
+        private final AtomicLong requests = new AtomicLong(0);
+        private final AtomicLong rejected = new AtomicLong(0);
+        private final AtomicLong batches = new AtomicLong(0);
+        private final AtomicLong totalLatency = new AtomicLong(0);
+        private final AtomicLong maxLatency = new AtomicLong(0);
+        private final AtomicLong computeTime = new AtomicLong(0);
+        private final AtomicLongArray histogram = new AtomicLongArray(NUM_BUCKETS);
+
+        protected void record(long latencyNanos) {
+            requests.incrementAndGet();
+            totalLatency.addAndGet(latencyNanos);
+
+            long max = maxLatency.get();
+            while (latencyNanos > max && !maxLatency.compareAndSet(max, latencyNanos))
+                max = maxLatency.get();
+
+            long micros = Math.max(latencyNanos / 1000, 1);
+            int bucket = Math.min(63 - Long.numberOfLeadingZeros(micros), NUM_BUCKETS - 1);
+            histogram.incrementAndGet(bucket);
+        }
+
+        public long getNumberOfRequests() {
+            return requests.get();
+        }
+
+        public long getNumberOfRejectedRequests() {
+            return rejected.get();
+        }
+
+        public long getNumberOfBatches() {
+            return batches.get();
+        }
+
+        public double getAverageBatchSize() {
+            long b = batches.get();
+            return b == 0 ? 0.0 : (double) requests.get() / b;
+        }
+
+        public double getAverageLatencyMillis() {
+            long r = requests.get();
+            return r == 0 ? 0.0 : totalLatency.get() / (double) r / 1e6;
+        }
+
+        public double getMaxLatencyMillis() {
+            return maxLatency.get() / 1e6;
+        }
+
+        public double getTotalComputeTimeMillis() {
+            return computeTime.get() / 1e6;
+        }
+
+        /**
+         * This method returns upper bound of given latency percentile, with power-of-two precision
+         *
+         * @param percentile value within (0, 100]
+         * @return
+         */
+        public double getLatencyPercentileMillis(double percentile) {
+            long total = requests.get();
+            if (total == 0)
+                return 0.0;
+
+            long threshold = (long) Math.ceil(total * percentile / 100.0);
+            long cumulative = 0;
+            for (int i = 0; i < NUM_BUCKETS; i++) {
+                cumulative += histogram.get(i);
+                if (cumulative >= threshold)
+                    return (1L << (i + 1)) / 1e3;
+            }
+            return getMaxLatencyMillis();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("requests: %d; rejected: %d; batches: %d; avg batch: %.1f; avg latency: %.3f ms; "
+                            + "p99 latency: <= %.3f ms; max latency: %.3f ms", getNumberOfRequests(),
+                            getNumberOfRejectedRequests(), getNumberOfBatches(), getAverageBatchSize(),
+                            getAverageLatencyMillis(), getLatencyPercentileMillis(99), getMaxLatencyMillis());
+        }
+    }
+
+
+    protected static class InferenceRequest implements Future<INDArray> {
+        private final Sequence<VocabWord> sequence;
+        private final long submitTime = System.nanoTime();
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final AtomicBoolean completed = new AtomicBoolean(false);
+        private volatile INDArray result;
+        private volatile Throwable error;
+        private volatile boolean cancelled;
+
+        protected InferenceRequest(Sequence<VocabWord> sequence) {
+            this.sequence = sequence;
+        }
+
+        protected boolean complete(INDArray result, Throwable error) {
+            if (!completed.compareAndSet(false, true))
+                return false;
+
+            this.result = result;
+            this.error = error;
+            latch.countDown();
+            return true;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (!completed.compareAndSet(false, true))
+                return false;
+
+            cancelled = true;
+            latch.countDown();
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return latch.getCount() == 0;
+        }
+
+        @Override
+        public INDArray get() throws InterruptedException, ExecutionException {
+            latch.await();
+            return report();
+        }
+
+        @Override
+        public INDArray get(long timeout, TimeUnit unit)
+                        throws InterruptedException, ExecutionException, TimeoutException {
+            if (!latch.await(timeout, unit))
+                throw new TimeoutException();
+            return report();
+        }
+
+        private INDArray report() throws ExecutionException {
+            if (cancelled)
+                throw new CancellationException();
+            if (error != null)
+                throw new ExecutionException(error);
+            return result;
+        }
+    }
+
+
+    private class InferenceWorker extends Thread implements Runnable {
+        private final int id;
+
+        private InferenceWorker(int id) {
+            this.id = id;
+            this.setDaemon(true);
+            this.setName("ParagraphVectors inference thread " + id);
+        }
+
+        @Override
+        public void run() {
+            List<InferenceRequest> batch = new ArrayList<>(batchLimit);
+            List<Aggregate> aggregates = new ArrayList<>();
+            AtomicLong nextRandom = new AtomicLong(seed + id);
+
+            while (!isShutdown.get()) {
+                try {
+                    InferenceRequest first = queue.take();
+                    batch.add(first);
+                    queue.drainTo(batch, batchLimit - 1);
+                } catch (InterruptedException e) {
+                    break;
+                }
+
+                try {
+                    processBatch(batch, aggregates, nextRandom);
+                } catch (Throwable t) {
+                    log.error("Inference batch failed", t);
+                    for (InferenceRequest request : batch)
+                        request.complete(null, t);
+                }
+
+                batch.clear();
+            }
+        }
+    }
+}
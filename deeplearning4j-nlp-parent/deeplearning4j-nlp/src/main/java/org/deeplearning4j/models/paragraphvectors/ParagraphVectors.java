@@ -212,41 +212,45 @@ public class ParagraphVectors extends Word2Vec {
     public INDArray inferVector(@NonNull List<VocabWord> document, double learningRate, double minLearningRate,
                     int iterations) {
 
+        SequenceLearningAlgorithm<VocabWord> learner = getInferenceLearner();
+
+        if (document.isEmpty())
+            throw new ND4JIllegalStateException("Impossible to apply inference to empty list of words");
+
+
+        Sequence<VocabWord> sequence = new Sequence<>();
+        sequence.addElements(document);
+        sequence.setSequenceLabel(new VocabWord(1.0, String.valueOf(new Random().nextInt())));
+
+        INDArray inf = learner.inferSequence(sequence, seed, learningRate, minLearningRate, iterations);
+
+        return inf;
+    }
+
+    /**
+     * This method returns initialized SequenceLearningAlgorithm used for inference.
+     * PV-DM learner is created if model has none.
+     *
+     * @return
+     */
+    protected SequenceLearningAlgorithm<VocabWord> getInferenceLearner() {
         if (this.vocab == null || this.vocab.numWords() == 0)
             reassignExistingModel();
 
-        SequenceLearningAlgorithm<VocabWord> learner = sequenceLearningAlgorithm;
-
-        if (learner == null) {
+        if (sequenceLearningAlgorithm == null) {
             synchronized (this) {
                 if (sequenceLearningAlgorithm == null) {
                     log.info("Creating new PV-DM learner...");
-                    learner = new DM<VocabWord>();
+                    SequenceLearningAlgorithm<VocabWord> learner = new DM<VocabWord>();
                     learner.configure(vocab, lookupTable, configuration);
                     sequenceLearningAlgorithm = learner;
-                } else {
-                    learner = sequenceLearningAlgorithm;
                 }
             }
         }
 
-        learner = sequenceLearningAlgorithm;
-
-
-
-        if (document.isEmpty())
-            throw new ND4JIllegalStateException("Impossible to apply inference to empty list of words");
-
-
-        Sequence<VocabWord> sequence = new Sequence<>();
-        sequence.addElements(document);
-        sequence.setSequenceLabel(new VocabWord(1.0, String.valueOf(new Random().nextInt())));
-
         initLearners();
 
-        INDArray inf = learner.inferSequence(sequence, seed, learningRate, minLearningRate, iterations);
-
-        return inf;
+        return sequenceLearningAlgorithm;
     }
 
     /**
@@ -0,0 +1,238 @@
+package org.deeplearning4j.text.tokenization.tokenizer;
+
+import lombok.NonNull;
+import org.deeplearning4j.text.tokenization.tokenizer.preprocessor.CommonPreprocessor;
+import org.deeplearning4j.text.tokenization.tokenizer.preprocessor.LowCasePreProcessor;
+
+/**
+ * Whitespace tokenizer, that works over CharSequence/char[] windows and emits token spans into reusable TokenSpans
+ * buffer, instead of creating String per token.
+ *
+ * Splitting rules are the same as in DefaultTokenizer (i.e. StringTokenizer with default delimiters).
+ * CommonPreprocessor and LowCasePreProcessor are applied in-place on chars, without String creation.
+ * Any other TokenPreProcess is still supported, but falls back to String-based processing per token.
+ *
+ * PLEASE NOTE: tokens that become empty after preprocessing are dropped.
+ * PLEASE NOTE: lower-casing is done per char, so it may differ from String.toLowerCase() for locale-specific cases.
+ *
+ * This class is stateless, so single instance can be shared across threads, as long as each thread uses own
+ * TokenSpans buffer.
+ */
+public class SpanTokenizer {
+
+    public enum Normalization {
+        /**
+         * Tokens are passed as is
+         */
+        NONE,
+        /**
+         * Same as LowCasePreProcessor
+         */
+        LOWERCASE,
+        /**
+         * Same as CommonPreprocessor: punctuation and digits are stripped, and token is lower-cased
+         */
+        COMMON,
+        /**
+         * Arbitrary TokenPreProcess, applied through String
+         */
+        CUSTOM
+    }
+
+    private final Normalization normalization;
+    private final TokenPreProcess preProcessor;
+
+    public SpanTokenizer() {
+        this(Normalization.NONE);
+    }
+
+    public SpanTokenizer(@NonNull Normalization normalization) {
+        if (normalization == Normalization.CUSTOM)
+            throw new IllegalArgumentException("Use SpanTokenizer(TokenPreProcess) for custom preprocessing");
+
+        this.normalization = normalization;
+        this.preProcessor = null;
+    }
+
+    /**
+     * This constructor picks allocation-free path for known preprocessors, and falls back to String processing
+     * for everything else.
+     *
+     * @param preProcessor TokenPreProcess to apply, or null
+     */
+    public SpanTokenizer(TokenPreProcess preProcessor) {
+        if (preProcessor == null) {
+            this.normalization = Normalization.NONE;
+            this.preProcessor = null;
+        } else if (preProcessor.getClass() == CommonPreprocessor.class) {
+            this.normalization = Normalization.COMMON;
+            this.preProcessor = null;
+        } else if (preProcessor.getClass() == LowCasePreProcessor.class) {
+            this.normalization = Normalization.LOWERCASE;
+            this.preProcessor = null;
+        } else {
+            this.normalization = Normalization.CUSTOM;
+            this.preProcessor = preProcessor;
+        }
+    }
+
+    public Normalization getNormalization() {
+        return normalization;
+    }
+
+    /**
+     * This method tokenizes given text into spans. Buffer is cleared first.
+     *
+     * @param text text to tokenize
+     * @param spans reusable buffer
+     * @return number of tokens
+     */
+    public int tokenize(@NonNull CharSequence text, @NonNull TokenSpans spans) {
+        return tokenize(text, 0, text.length(), spans);
+    }
+
+    /**
+     * This method tokenizes [from, to) window of given text into spans. Buffer is cleared first.
+     *
+     * @param text text to tokenize
+     * @param from window start, inclusive
+     * @param to window end, exclusive
+     * @param spans reusable buffer
+     * @return number of tokens
+     */
+    public int tokenize(@NonNull CharSequence text, int from, int to, @NonNull TokenSpans spans) {
+        spans.clear();
+
+        int i = from;
+        while (i < to) {
+            while (i < to && isDelimiter(text.charAt(i)))
+                i++;
+
+            if (i >= to)
+                break;
+
+            int tokenStart = i;
+            while (i < to && !isDelimiter(text.charAt(i)))
+                i++;
+
+            emit(text, tokenStart, i, spans);
+        }
+
+        return spans.size();
+    }
+
+    /**
+     * This method tokenizes [offset, offset + length) window of given char array into spans. Buffer is cleared first.
+     *
+     * @param text text to tokenize
+     * @param offset window start
+     * @param length window length
+     * @param spans reusable buffer
+     * @return number of tokens
+     */
+    public int tokenize(@NonNull char[] text, int offset, int length, @NonNull TokenSpans spans) {
+        spans.clear();
+
+        int to = offset + length;
+        int i = offset;
+        while (i < to) {
+            while (i < to && isDelimiter(text[i]))
+                i++;
+
+            if (i >= to)
+                break;
+
+            int tokenStart = i;
+            while (i < to && !isDelimiter(text[i]))
+                i++;
+
+            int start = spans.position();
+            if (normalization == Normalization.CUSTOM) {
+                appendProcessed(new String(text, tokenStart, i - tokenStart), spans);
+            } else {
+                for (int p = tokenStart; p < i; p++)
+                    appendChar(text[p], spans);
+            }
+            commit(start, spans);
+        }
+
+        return spans.size();
+    }
+
+    protected void emit(CharSequence text, int from, int to, TokenSpans spans) {
+        int start = spans.position();
+
+        if (normalization == Normalization.CUSTOM) {
+            appendProcessed(text.subSequence(from, to).toString(), spans);
+        } else {
+            for (int i = from; i < to; i++)
+                appendChar(text.charAt(i), spans);
+        }
+
+        commit(start, spans);
+    }
+
+    protected void appendChar(char c, TokenSpans spans) {
+        switch (normalization) {
+            case NONE:
+                spans.appendChar(c);
+                break;
+            case LOWERCASE:
+                spans.appendChar(Character.toLowerCase(c));
+                break;
+            case COMMON:
+                if (!isPunct(c))
+                    spans.appendChar(Character.toLowerCase(c));
+                break;
+            default:
+                throw new IllegalStateException("Unexpected normalization: " + normalization);
+        }
+    }
+
+    protected void appendProcessed(String token, TokenSpans spans) {
+        String processed = preProcessor.preProcess(token);
+        if (processed != null)
+            spans.appendString(processed);
+    }
+
+    protected void commit(int start, TokenSpans spans) {
+        int end = spans.position();
+        if (end > start)
+            spans.addSpan(start, end);
+        else
+            spans.rewind(start);
+    }
+
+    /**
+     * Same delimiters as StringTokenizer defaults: " \t\n\r\f"
+     */
+    protected static boolean isDelimiter(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+
+    /**
+     * Same chars as StringCleaning.stripPunct() removes
+     */
+    protected static boolean isPunct(char c) {
+        switch (c) {
+            case '.':
+            case ':':
+            case ',':
+            case '"':
+            case '\'':
+            case '(':
+            case ')':
+            case '[':
+            case ']':
+            case '|':
+            case '/':
+            case '?':
+            case '!':
+            case ';':
+                return true;
+            default:
+                // \d in StringCleaning pattern matches ASCII digits only
+                return c >= '0' && c <= '9';
+        }
+    }
+}
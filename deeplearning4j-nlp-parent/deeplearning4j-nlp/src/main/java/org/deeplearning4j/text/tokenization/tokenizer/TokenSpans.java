@@ -0,0 +1,166 @@
+package org.deeplearning4j.text.tokenization.tokenizer;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffer for tokens produced by SpanTokenizer.
+ *
+ * Token characters are stored in single char[] buffer, and each token is described by [start, end) span within it.
+ * Buffer grows on demand, and is meant to be reused across sentences, so steady-state tokenization doesn't allocate.
+ */
+public class TokenSpans {
+    private char[] chars;
+    private int length;
+
+    private int[] starts;
+    private int[] ends;
+    private int[] indices;
+    private int size;
+
+    public TokenSpans() {
+        this(1024, 128);
+    }
+
+    public TokenSpans(int charsCapacity, int tokensCapacity) {
+        this.chars = new char[Math.max(charsCapacity, 16)];
+        this.starts = new int[Math.max(tokensCapacity, 4)];
+        this.ends = new int[starts.length];
+        this.indices = new int[starts.length];
+    }
+
+    /**
+     * This method resets buffer, without releasing memory
+     */
+    public void clear() {
+        length = 0;
+        size = 0;
+    }
+
+    /**
+     * Number of tokens in this buffer
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Backing char buffer. Only the [start(i), end(i)) ranges are meaningful.
+     */
+    public char[] chars() {
+        return chars;
+    }
+
+    public int start(int token) {
+        return starts[token];
+    }
+
+    public int end(int token) {
+        return ends[token];
+    }
+
+    public int length(int token) {
+        return ends[token] - starts[token];
+    }
+
+    /**
+     * Vocabulary index for given token, as resolved by VocabSpanResolver. -1 means token wasn't found in vocabulary.
+     */
+    public int index(int token) {
+        return indices[token];
+    }
+
+    /**
+     * This method returns copy of resolved vocabulary indices, for tokens that were found in vocabulary
+     *
+     * @return
+     */
+    public int[] resolvedIndices() {
+        int cnt = 0;
+        for (int i = 0; i < size; i++)
+            if (indices[i] >= 0)
+                cnt++;
+
+        int[] result = new int[cnt];
+        int pos = 0;
+        for (int i = 0; i < size; i++)
+            if (indices[i] >= 0)
+                result[pos++] = indices[i];
+
+        return result;
+    }
+
+    /**
+     * This method creates String for given token. It allocates, so it's meant for debugging and fallback paths only.
+     */
+    public String token(int token) {
+        return new String(chars, starts[token], ends[token] - starts[token]);
+    }
+
+    /**
+     * This method checks if given token is equal to given CharSequence, without allocations
+     */
+    public boolean tokenEquals(int token, CharSequence other) {
+        int len = ends[token] - starts[token];
+        if (len != other.length())
+            return false;
+
+        int offset = starts[token];
+        for (int i = 0; i < len; i++)
+            if (chars[offset + i] != other.charAt(i))
+                return false;
+
+        return true;
+    }
+
+    protected void setIndex(int token, int index) {
+        indices[token] = index;
+    }
+
+    /**
+     * Current write position within char buffer
+     */
+    protected int position() {
+        return length;
+    }
+
+    protected void appendChar(char c) {
+        if (length == chars.length)
+            chars = Arrays.copyOf(chars, chars.length * 2);
+
+        chars[length++] = c;
+    }
+
+    /**
+     * This method discards chars appended after given position
+     */
+    protected void rewind(int position) {
+        length = position;
+    }
+
+    protected void appendString(String str) {
+        int len = str.length();
+        if (length + len > chars.length)
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + len));
+
+        str.getChars(0, len, chars, length);
+        length += len;
+    }
+
+    protected void addSpan(int start, int end) {
+        if (size == starts.length) {
+            int newSize = starts.length * 2;
+            starts = Arrays.copyOf(starts, newSize);
+            ends = Arrays.copyOf(ends, newSize);
+            indices = Arrays.copyOf(indices, newSize);
+        }
+
+        starts[size] = start;
+        ends[size] = end;
+        indices[size] = -1;
+        size++;
+    }
+}
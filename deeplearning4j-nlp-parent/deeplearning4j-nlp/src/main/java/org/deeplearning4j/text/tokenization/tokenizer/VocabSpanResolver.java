@@ -0,0 +1,150 @@
+package org.deeplearning4j.text.tokenization.tokenizer;
+
+import lombok.NonNull;
+import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
+import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+
+/**
+ * Open-addressing hash table, that maps char spans straight to vocabulary indices, without creating intermediate
+ * String objects.
+ *
+ * Hash function is the same as String.hashCode(), so building table doesn't need extra pass over labels.
+ * Table is immutable after construction, so it can be shared across threads.
+ */
+public class VocabSpanResolver {
+    private final String[] labels;
+    private final int[] hashes;
+    private final int[] indices;
+    private final int mask;
+    private final int size;
+
+    public <T extends SequenceElement> VocabSpanResolver(@NonNull VocabCache<T> vocabCache) {
+        int numWords = vocabCache.numWords();
+
+        int capacity = 16;
+        while (capacity < numWords * 2)
+            capacity <<= 1;
+
+        labels = new String[capacity];
+        hashes = new int[capacity];
+        indices = new int[capacity];
+        mask = capacity - 1;
+
+        int cnt = 0;
+        for (T element : vocabCache.vocabWords()) {
+            String label = element.getLabel();
+            if (label == null || element.getIndex() < 0)
+                continue;
+
+            int hash = label.hashCode();
+            int slot = mix(hash) & mask;
+            while (labels[slot] != null) {
+                if (labels[slot].equals(label))
+                    break;
+                slot = (slot + 1) & mask;
+            }
+
+            if (labels[slot] == null)
+                cnt++;
+
+            labels[slot] = label;
+            hashes[slot] = hash;
+            indices[slot] = element.getIndex();
+        }
+
+        size = cnt;
+    }
+
+    /**
+     * Number of entries in this table
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * This method returns vocabulary index for given chars, or -1 if they aren't in vocabulary
+     *
+     * @param chars
+     * @param start inclusive
+     * @param end exclusive
+     * @return
+     */
+    public int indexOf(@NonNull char[] chars, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++)
+            hash = 31 * hash + chars[i];
+
+        int slot = mix(hash) & mask;
+        String label;
+        while ((label = labels[slot]) != null) {
+            if (hashes[slot] == hash && matches(label, chars, start, end))
+                return indices[slot];
+
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    /**
+     * This method returns vocabulary index for given CharSequence, or -1 if it isn't in vocabulary
+     *
+     * @param sequence
+     * @return
+     */
+    public int indexOf(@NonNull CharSequence sequence) {
+        int len = sequence.length();
+        int hash = 0;
+        for (int i = 0; i < len; i++)
+            hash = 31 * hash + sequence.charAt(i);
+
+        int slot = mix(hash) & mask;
+        String label;
+        while ((label = labels[slot]) != null) {
+            if (hashes[slot] == hash && label.contentEquals(sequence))
+                return indices[slot];
+
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    /**
+     * This method resolves all spans within given buffer to vocabulary indices. Unknown tokens get index -1.
+     *
+     * @param spans
+     * @return number of tokens that were found in vocabulary
+     */
+    public int resolve(@NonNull TokenSpans spans) {
+        char[] chars = spans.chars();
+        int found = 0;
+        for (int i = 0; i < spans.size(); i++) {
+            int idx = indexOf(chars, spans.start(i), spans.end(i));
+            spans.setIndex(i, idx);
+            if (idx >= 0)
+                found++;
+        }
+
+        return found;
+    }
+
+    private static boolean matches(String label, char[] chars, int start, int end) {
+        int len = end - start;
+        if (label.length() != len)
+            return false;
+
+        for (int i = 0; i < len; i++)
+            if (label.charAt(i) != chars[start + i])
+                return false;
+
+        return true;
+    }
+
+    private static int mix(int hash) {
+        // String.hashCode() has weak low bits for short strings, so we spread them
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -20,6 +20,7 @@ package org.deeplearning4j.text.tokenization.tokenizerfactory;
 
 import org.deeplearning4j.text.tokenization.tokenizer.DefaultStreamTokenizer;
 import org.deeplearning4j.text.tokenization.tokenizer.DefaultTokenizer;
+import org.deeplearning4j.text.tokenization.tokenizer.SpanTokenizer;
 import org.deeplearning4j.text.tokenization.tokenizer.TokenPreProcess;
 import org.deeplearning4j.text.tokenization.tokenizer.Tokenizer;
 
@@ -47,6 +48,16 @@ public class DefaultTokenizerFactory implements TokenizerFactory {
         return t;
     }
 
+    /**
+     * This method returns allocation-free tokenizer, that splits text the same way as tokenizers created by this
+     * factory, with the same TokenPreProcess applied, but emits token spans instead of Strings.
+     *
+     * @return SpanTokenizer instance, that can be shared across threads
+     */
+    public SpanTokenizer createSpanTokenizer() {
+        return new SpanTokenizer(tokenPreProcess);
+    }
+
     @Override
     public void setTokenPreProcessor(TokenPreProcess preProcessor) {
         this.tokenPreProcess = preProcessor;
@@ -50,6 +50,7 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.exception.ND4JIllegalStateException;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.ops.transforms.Transforms;
 import org.slf4j.Logger;
@@ -930,6 +931,98 @@ public class ParagraphVectorsTest {
         log.info("vec1/vec2: {}", Transforms.cosineSim(vec1, vec2));
     }
 
+    @Test
+    public void testBatchedInferenceEngine() throws Exception {
+        ClassPathResource resource = new ClassPathResource("/big/raw_sentences.txt");
+        SentenceIterator iter = new BasicLineIterator(resource.getFile());
+
+        TokenizerFactory t = new DefaultTokenizerFactory();
+        t.setTokenPreProcessor(new CommonPreprocessor());
+
+        LabelsSource source = new LabelsSource("DOC_");
+
+        ParagraphVectors pv = new ParagraphVectors.Builder().minWordFrequency(1).iterations(2).seed(119).epochs(1)
+                        .layerSize(100).learningRate(0.025).labelsSource(source).windowSize(5).iterate(iter)
+                        .trainWordVectors(true).tokenizerFactory(t).negativeSample(0).useHierarchicSoftmax(true)
+                        .sampling(0).sequenceLearningAlgorithm(new DM<VocabWord>()).build();
+
+        pv.fit();
+
+        BatchedInferenceEngine engine = new BatchedInferenceEngine.Builder(pv).workers(2).batchLimit(16)
+                        .queueLimit(32).build();
+
+        List<String> documents = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            documents.add(i % 2 == 0 ? "This is my day" : "We are going home now");
+
+        List<INDArray> vectors = engine.infer(documents);
+        engine.shutdown();
+
+        assertEquals(documents.size(), vectors.size());
+        for (INDArray vector : vectors) {
+            assertArrayEquals(new int[] {1, 100}, vector.shape());
+        }
+
+        BatchedInferenceEngine.LatencyStats stats = engine.getStats();
+        log.info("Inference stats: {}", stats);
+
+        assertEquals(documents.size(), stats.getNumberOfRequests());
+        assertTrue(stats.getNumberOfBatches() > 0 && stats.getNumberOfBatches() <= documents.size());
+        assertTrue(stats.getLatencyPercentileMillis(50) <= stats.getLatencyPercentileMillis(99));
+
+        double simSame = Transforms.cosineSim(vectors.get(0), vectors.get(2));
+        double simOther = Transforms.cosineSim(vectors.get(0), vectors.get(1));
+        log.info("Same text similarity: {}; different text similarity: {}", simSame, simOther);
+        assertTrue(simSame > simOther);
+    }
+
+    @Test
+    public void testBatchedInferenceMatchesInferVector() throws Exception {
+        ClassPathResource resource = new ClassPathResource("/big/raw_sentences.txt");
+        SentenceIterator iter = new BasicLineIterator(resource.getFile());
+
+        TokenizerFactory t = new DefaultTokenizerFactory();
+        t.setTokenPreProcessor(new CommonPreprocessor());
+
+        //PV-DBOW with hierarchic softmax only, and no subsampling: inference doesn't depend on random numbers, other
+        // than initial vector, which is derived from model seed and document
+        ParagraphVectors pv = new ParagraphVectors.Builder().minWordFrequency(1).iterations(1).seed(119).epochs(1)
+                        .layerSize(100).learningRate(0.025).labelsSource(new LabelsSource("DOC_")).windowSize(5)
+                        .iterate(iter).trainWordVectors(false).tokenizerFactory(t).negativeSample(0)
+                        .useHierarchicSoftmax(true).sampling(0).sequenceLearningAlgorithm(new DBOW<VocabWord>())
+                        .build();
+
+        pv.fit();
+
+        int iterations = 5;
+        BatchedInferenceEngine engine = new BatchedInferenceEngine.Builder(pv).workers(2).batchLimit(8)
+                        .learningRate(0.025, 0.001).iterations(iterations).build();
+
+        String[] texts = {"This is my day", "We are going home now", "They said it was good for him"};
+        List<String> documents = new ArrayList<>();
+        for (int i = 0; i < 30; i++)
+            documents.add(texts[i % texts.length]);
+
+        List<INDArray> batched = engine.infer(documents);
+        engine.shutdown();
+
+        for (int i = 0; i < texts.length; i++) {
+            INDArray expected = pv.inferVector(texts[i], 0.025, 0.001, iterations);
+            for (int j = i; j < documents.size(); j += texts.length) {
+                double sim = Transforms.cosineSim(expected, batched.get(j));
+                assertTrue("Text " + i + ", document " + j + ": similarity " + sim, sim > 0.99);
+            }
+        }
+
+        //No new requests after shutdown
+        try {
+            engine.submit(texts[0]);
+            fail("Expected exception");
+        } catch (ND4JIllegalStateException e) {
+            //OK
+        }
+    }
+
     @Ignore
     @Test
     public void testGoogleModelForInference() throws Exception {
@@ -0,0 +1,104 @@
+package org.deeplearning4j.text.tokenization.tokenizer;
+
+import org.apache.commons.io.FileUtils;
+import org.datavec.api.util.ClassPathResource;
+import org.deeplearning4j.models.word2vec.Huffman;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.wordstore.inmemory.AbstractCache;
+import org.deeplearning4j.text.tokenization.tokenizer.preprocessor.CommonPreprocessor;
+import org.deeplearning4j.text.tokenization.tokenizer.preprocessor.EndingPreProcessor;
+import org.deeplearning4j.text.tokenization.tokenizer.preprocessor.LowCasePreProcessor;
+import org.deeplearning4j.text.tokenization.tokenizerfactory.DefaultTokenizerFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SpanTokenizerTest {
+
+    @Test
+    public void testEquivalence1() throws Exception {
+        String text = FileUtils.readFileToString(new ClassPathResource("reuters/5250").getFile());
+
+        for (TokenPreProcess preProcess : new TokenPreProcess[] {null, new CommonPreprocessor(),
+                        new LowCasePreProcessor(), new EndingPreProcessor()}) {
+            DefaultTokenizerFactory factory = new DefaultTokenizerFactory();
+            factory.setTokenPreProcessor(preProcess);
+
+            List<String> expected = new ArrayList<>();
+            for (String token : factory.create(text).getTokens()) {
+                // span tokenizer drops tokens that became empty after preprocessing
+                if (!token.isEmpty())
+                    expected.add(token);
+            }
+
+            SpanTokenizer tokenizer = factory.createSpanTokenizer();
+            TokenSpans spans = new TokenSpans(16, 4);
+            int numTokens = tokenizer.tokenize(text, spans);
+
+            assertEquals(expected.size(), numTokens);
+            for (int i = 0; i < numTokens; i++) {
+                assertEquals(expected.get(i), spans.token(i));
+                assertTrue(spans.tokenEquals(i, expected.get(i)));
+            }
+
+            // char[] path should give the same result
+            char[] chars = ("  " + text + "  ").toCharArray();
+            TokenSpans spans2 = new TokenSpans();
+            assertEquals(numTokens, tokenizer.tokenize(chars, 2, text.length(), spans2));
+            for (int i = 0; i < numTokens; i++)
+                assertEquals(expected.get(i), spans2.token(i));
+        }
+    }
+
+    @Test
+    public void testBufferReuse1() {
+        SpanTokenizer tokenizer = new SpanTokenizer(SpanTokenizer.Normalization.COMMON);
+        TokenSpans spans = new TokenSpans();
+
+        assertEquals(5, tokenizer.tokenize("Mary had a little lamb.", spans));
+        assertEquals("lamb", spans.token(4));
+
+        assertEquals(2, tokenizer.tokenize("\tHello,\n\r WORLD!! 123 ", spans));
+        assertEquals("hello", spans.token(0));
+        assertEquals("world", spans.token(1));
+
+        assertEquals(0, tokenizer.tokenize("   ", spans));
+        assertTrue(spans.isEmpty());
+    }
+
+    @Test
+    public void testVocabResolution1() {
+        AbstractCache<VocabWord> cache = new AbstractCache.Builder<VocabWord>().build();
+
+        cache.addToken(new VocabWord(1.0, "mary"));
+        cache.addToken(new VocabWord(2.0, "had"));
+        cache.addToken(new VocabWord(3.0, "lamb"));
+
+        Huffman huffman = new Huffman(cache.tokens());
+        huffman.build();
+        huffman.applyIndexes(cache);
+
+        VocabSpanResolver resolver = new VocabSpanResolver(cache);
+        assertEquals(3, resolver.size());
+
+        SpanTokenizer tokenizer = new SpanTokenizer(new CommonPreprocessor());
+        TokenSpans spans = new TokenSpans();
+        tokenizer.tokenize("Mary had a little Lamb.", spans);
+
+        assertEquals(3, resolver.resolve(spans));
+        assertEquals(cache.indexOf("mary"), spans.index(0));
+        assertEquals(cache.indexOf("had"), spans.index(1));
+        assertEquals(-1, spans.index(2));
+        assertEquals(-1, spans.index(3));
+        assertEquals(cache.indexOf("lamb"), spans.index(4));
+
+        assertArrayEquals(new int[] {cache.indexOf("mary"), cache.indexOf("had"), cache.indexOf("lamb")},
+                        spans.resolvedIndices());
+
+        assertEquals(cache.indexOf("had"), resolver.indexOf("had"));
+        assertEquals(-1, resolver.indexOf("ha"));
+    }
+}
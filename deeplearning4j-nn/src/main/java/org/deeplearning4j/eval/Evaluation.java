@@ -60,7 +60,11 @@ import java.util.*;
  * Cost arrays (a row vector, of size equal to the number of outputs) modify the evaluation process: instead of simply
  * doing predictedClass = argMax(probabilities), we do predictedClass = argMax(cost * probabilities). Consequently, an
  * array of all 1s (or, indeed any array of equal values) will result in the same performance as no cost array; non-
- * equal values will bias the predictions for or against certain classes.
+ * equal values will bias the predictions for or against certain classes.<br>
+ * <br>
+ * Multi-class predictions are accumulated into a primitive (actual, predicted) count matrix, in one pass over the
+ * argmax indices of each minibatch. The {@link ConfusionMatrix} and the true/false positive/negative counts are then
+ * updated from these counts once per minibatch, instead of once per example.
  *
  * @author Adam Gibson
  */
@@ -207,6 +211,73 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
         return confusion;
     }
 
+    /**
+     * Add the count for the specified (actual, predicted) pair to the counts matrix
+     *
+     * @param counts Counts matrix, [actual][predicted], with rows created lazily. May be null
+     * @return The counts matrix, reallocated if required
+     */
+    private int[][] addCount(int[][] counts, int actual, int predicted, int count) {
+        int required = Math.max(actual, predicted) + 1;
+        if (counts == null || counts.length < required) {
+            int n = Math.max(required, counts == null ? confusion.getClasses().size() : counts.length);
+            counts = (counts == null ? new int[n][] : Arrays.copyOf(counts, n));
+        }
+        int[] row = counts[actual];
+        if (row == null || row.length < counts.length) {
+            row = (row == null ? new int[counts.length] : Arrays.copyOf(row, counts.length));
+            counts[actual] = row;
+        }
+        row[predicted] += count;
+        return counts;
+    }
+
+    /**
+     * Add the (actual, predicted) counts to the confusion matrix, and derive the true/false positive/negative counts
+     * for each class from them: for class c, TP = counts[c][c], FP = (column sum) - TP, FN = (row sum) - TP and
+     * TN = total - TP - FP - FN. This is done in one pass over the counts, instead of per example
+     *
+     * @param counts Counts matrix, as per {@link #addCount(int[][], int, int, int)}. May be null
+     */
+    private void addCounts(int[][] counts) {
+        if (counts == null)
+            return;
+
+        int nClasses = counts.length;
+        long[] actualTotal = new long[nClasses];
+        long[] predictedTotal = new long[nClasses];
+        long total = 0;
+        for (int actual = 0; actual < nClasses; actual++) {
+            int[] row = counts[actual];
+            if (row == null)
+                continue;
+            for (int predicted = 0; predicted < row.length; predicted++) {
+                int count = row[predicted];
+                if (count == 0)
+                    continue;
+                confusion.add(actual, predicted, count);
+                actualTotal[actual] += count;
+                predictedTotal[predicted] += count;
+                total += count;
+            }
+        }
+
+        for (int c = 0; c < nClasses; c++) {
+            long tp = (counts[c] != null && c < counts[c].length ? counts[c][c] : 0);
+            long fp = predictedTotal[c] - tp;
+            long fn = actualTotal[c] - tp;
+            long tn = total - tp - fp - fn;
+            if (tp > 0)
+                truePositives.incrementCount(c, tp);
+            if (fp > 0)
+                falsePositives.incrementCount(c, fp);
+            if (fn > 0)
+                falseNegatives.incrementCount(c, fn);
+            if (tn > 0)
+                trueNegatives.incrementCount(c, tn);
+        }
+    }
+
     private static List<String> createLabels(int numClasses) {
         if (numClasses == 1)
             numClasses = 2; //Binary (single output variable) case...
@@ -378,55 +449,18 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
                 guessIndex = Nd4j.argMax(guesses, 1);
             }
             INDArray realOutcomeIndex = Nd4j.argMax(realOutcomes, 1);
-            int nExamples = guessIndex.length();
-
-            for (int i = 0; i < nExamples; i++) {
-                int actual = (int) realOutcomeIndex.getDouble(i);
-                int predicted = (int) guessIndex.getDouble(i);
-                confusion().add(actual, predicted);
+            int[] actual = toIndices(realOutcomeIndex);
+            int[] predicted = toIndices(guessIndex);
 
-                if (recordMetaData != null && recordMetaData.size() > i) {
-                    Object m = recordMetaData.get(i);
-                    addToMetaConfusionMatrix(actual, predicted, m);
-                }
+            int[][] counts = null;
+            for (int i = 0; i < actual.length; i++) {
+                counts = addCount(counts, actual[i], predicted[i], 1);
+            }
+            addCounts(counts);
 
-                // instead of looping through each label for confusion
-                // matrix, instead infer those values by determining if true/false negative/positive,
-                // then just add across matrix
-
-                // if actual == predicted, then it's a true positive, assign true negative to every other label
-                if (actual == predicted) {
-                    truePositives.incrementCount(actual, 1);
-                    for (int col = 0; col < nCols; col++) {
-                        if (col == actual) {
-                            continue;
-                        }
-                        trueNegatives.incrementCount(col, 1); // all cols prior
-                    }
-                } else {
-                    falsePositives.incrementCount(predicted, 1);
-                    falseNegatives.incrementCount(actual, 1);
-
-                    // first determine intervals for adding true negatives
-                    int lesserIndex, greaterIndex;
-                    if (actual < predicted) {
-                        lesserIndex = actual;
-                        greaterIndex = predicted;
-                    } else {
-                        lesserIndex = predicted;
-                        greaterIndex = actual;
-                    }
-
-                    // now loop through intervals
-                    for (int col = 0; col < lesserIndex; col++) {
-                        trueNegatives.incrementCount(col, 1); // all cols prior
-                    }
-                    for (int col = lesserIndex + 1; col < greaterIndex; col++) {
-                        trueNegatives.incrementCount(col, 1); // all cols after
-                    }
-                    for (int col = greaterIndex + 1; col < nCols; col++) {
-                        trueNegatives.incrementCount(col, 1); // all cols after
-                    }
+            if (recordMetaData != null) {
+                for (int i = 0; i < actual.length && i < recordMetaData.size(); i++) {
+                    addToMetaConfusionMatrix(actual[i], predicted[i], recordMetaData.get(i));
                 }
             }
         }
@@ -468,32 +502,16 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
                             "Cannot evaluate single example without initializing confusion matrix first");
         }
 
-        addToConfusion(actualIdx, predictedIdx);
-
-        // If they are equal
-        if (predictedIdx == actualIdx) {
-            // Then add 1 to True Positive
-            // (For a particular label)
-            incrementTruePositives(predictedIdx);
-
-            // And add 1 for each negative class that is accurately predicted (True Negative)
-            //(For a particular label)
-            for (Integer clazz : confusion().getClasses()) {
-                if (clazz != predictedIdx)
-                    trueNegatives.incrementCount(clazz, 1.0f);
-            }
-        } else {
-            // Otherwise the real label is predicted as negative (False Negative)
-            incrementFalseNegatives(actualIdx);
-            // Otherwise the prediction is predicted as falsely positive (False Positive)
-            incrementFalsePositives(predictedIdx);
-            // Otherwise true negatives
-            for (Integer clazz : confusion().getClasses()) {
-                if (clazz != predictedIdx && clazz != actualIdx)
-                    trueNegatives.incrementCount(clazz, 1.0f);
+        addCounts(addCount(null, actualIdx, predictedIdx, 1));
+    }
 
-            }
-        }
+    /**
+     * @param indices Column vector of class indices
+     * @return Indices as an int[], copied in one bulk operation
+     */
+    private static int[] toIndices(INDArray indices) {
+        INDArray arr = (indices.isView() ? indices.dup() : indices);
+        return arr.data().asInt();
     }
 
     public String stats() {
@@ -26,9 +26,10 @@ import java.util.Map;
 
 /**
  * ROC (Receiver Operating Characteristic) for binary classifiers.<br>
- * ROC has 2 modes of operation:
+ * ROC has 3 modes of operation:
  * (a) Thresholded (default, less memory)<br>
- * (b) Exact (use numSteps == 0. May not scale to very large datasets)
+ * (b) Exact (use numSteps == 0. May not scale to very large datasets)<br>
+ * (c) Histogram (use numSteps == {@link #HISTOGRAM}. Fixed memory, with bounded AUC error - see {@link ROCHistogram})
  *
  * <p>
  * Thresholded Is an approximate method, that (for large datasets) may use significantly less memory than exact..
@@ -39,6 +40,10 @@ import java.util.Map;
  * Note that in some cases (very skewed probability predictions, for example) the threshold approach can be inaccurate,
  * often underestimating the true area.
  * <p>
+ * Histogram mode counts predictions in a fixed number of bins that are spaced logarithmically towards both 0 and 1.
+ * This uses a fixed (small) amount of memory regardless of the number of examples, can be merged cheaply (for
+ * distributed evaluation), and retains resolution for skewed predictions.
+ * <p>
  * The data is assumed to be binary classification - nColumns == 1 (single binary output variable) or nColumns == 2
  * (probability distribution over 2 classes, with column 1 being values for 'positive' examples)
  *
@@ -47,12 +52,16 @@ import java.util.Map;
 @EqualsAndHashCode(callSuper = true,
                 exclude = {"auc", "auprc", "probAndLabel", "exactAllocBlockSize", "rocCurve", "prCurve"})
 @Data
-@ToString(exclude = {"probAndLabel", "exactAllocBlockSize", "rocCurve", "prCurve"})
+@ToString(exclude = {"probAndLabel", "exactAllocBlockSize", "rocCurve", "prCurve", "histogram"})
 @JsonIgnoreProperties({"probAndLabel", "exactAllocBlockSize"})
 @JsonSerialize(using = ROCSerializer.class)
 @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, include = JsonTypeInfo.As.PROPERTY)
 public class ROC extends BaseEvaluation<ROC> {
     private static final int DEFAULT_EXACT_ALLOC_BLOCK_SIZE = 2048;
+    /**
+     * Value for thresholdSteps to use histogram mode: see {@link ROCHistogram}
+     */
+    public static final int HISTOGRAM = -1;
 
     private int thresholdSteps;
     private long countActualPositive;
@@ -66,9 +75,10 @@ public class ROC extends BaseEvaluation<ROC> {
 
     private boolean isExact;
     private INDArray probAndLabel;
-    private int exampleCount = 0;
+    private long exampleCount = 0;
     private boolean rocRemoveRedundantPts;
     private int exactAllocBlockSize;
+    private ROCHistogram histogram;
 
     public ROC() {
         //Default to exact
@@ -76,14 +86,16 @@ public class ROC extends BaseEvaluation<ROC> {
     }
 
     /**
-     * @param thresholdSteps Number of threshold steps to use for the ROC calculation. If set to 0: use exact calculation
+     * @param thresholdSteps Number of threshold steps to use for the ROC calculation. If set to 0: use exact calculation.
+     *                       If set to {@link #HISTOGRAM}: use histogram (fixed memory) calculation
      */
     public ROC(int thresholdSteps) {
         this(thresholdSteps, true);
     }
 
     /**
-     * @param thresholdSteps Number of threshold steps to use for the ROC calculation. If set to 0: use exact calculation
+     * @param thresholdSteps Number of threshold steps to use for the ROC calculation. If set to 0: use exact calculation.
+     *                       If set to {@link #HISTOGRAM}: use histogram (fixed memory) calculation
      * @param rocRemoveRedundantPts Usually set to true. If true,  remove any redundant points from ROC and P-R curves
      */
     public ROC(int thresholdSteps, boolean rocRemoveRedundantPts) {
@@ -91,7 +103,8 @@ public class ROC extends BaseEvaluation<ROC> {
     }
 
     /**
-     * @param thresholdSteps Number of threshold steps to use for the ROC calculation. If set to 0: use exact calculation
+     * @param thresholdSteps Number of threshold steps to use for the ROC calculation. If set to 0: use exact calculation.
+     *                       If set to {@link #HISTOGRAM}: use histogram (fixed memory) calculation
      * @param rocRemoveRedundantPts Usually set to true. If true,  remove any redundant points from ROC and P-R curves
      * @param exactAllocBlockSize if using exact mode, the block size relocation. Users can likely use the default
      *                            setting in almost all cases
@@ -109,20 +122,32 @@ public class ROC extends BaseEvaluation<ROC> {
             }
 
             isExact = false;
-        } else {
+        } else if (thresholdSteps == 0) {
             //Exact
 
             isExact = true;
+        } else {
+            //Histogram
+            this.thresholdSteps = HISTOGRAM;
+            histogram = new ROCHistogram();
+            isExact = false;
         }
         this.rocRemoveRedundantPts = rocRemoveRedundantPts;
         this.exactAllocBlockSize = exactAllocBlockSize;
     }
 
+    /**
+     * @return True if this ROC instance uses histogram mode
+     */
+    public boolean isHistogram() {
+        return thresholdSteps < 0;
+    }
+
     protected INDArray getProbAndLabelUsed() {
         if (probAndLabel == null || exampleCount == 0) {
             return null;
         }
-        return probAndLabel.get(NDArrayIndex.interval(0, exampleCount), NDArrayIndex.all());
+        return probAndLabel.get(NDArrayIndex.interval(0, (int) exampleCount), NDArrayIndex.all());
     }
 
     private double getAuc() {
@@ -149,6 +174,8 @@ public class ROC extends BaseEvaluation<ROC> {
 
         if (isExact) {
             probAndLabel = null;
+        } else if (isHistogram()) {
+            histogram = new ROCHistogram();
         } else {
             double step = 1.0 / thresholdSteps;
             for (int i = 0; i <= thresholdSteps; i++) {
@@ -204,8 +231,8 @@ public class ROC extends BaseEvaluation<ROC> {
                 INDArray newProbAndLabel = Nd4j.create(new int[] {newSize, 2}, 'c');
                 if (exampleCount > 0) {
                     //If statement to handle edge case: no examples, but we need to re-allocate right away
-                    newProbAndLabel.get(NDArrayIndex.interval(0, exampleCount), NDArrayIndex.all()).assign(
-                                    probAndLabel.get(NDArrayIndex.interval(0, exampleCount), NDArrayIndex.all()));
+                    newProbAndLabel.get(NDArrayIndex.interval(0, (int) exampleCount), NDArrayIndex.all()).assign(
+                                    probAndLabel.get(NDArrayIndex.interval(0, (int) exampleCount), NDArrayIndex.all()));
                 }
                 probAndLabel = newProbAndLabel;
             }
@@ -221,12 +248,29 @@ public class ROC extends BaseEvaluation<ROC> {
                 labelClass1 = labels.getColumn(1);
             }
             int currMinibatchSize = labels.size(0);
-            probAndLabel.get(NDArrayIndex.interval(exampleCount, exampleCount + currMinibatchSize),
+            int offset = (int) exampleCount;
+            probAndLabel.get(NDArrayIndex.interval(offset, offset + currMinibatchSize),
                             NDArrayIndex.point(0)).assign(probClass1);
 
-            probAndLabel.get(NDArrayIndex.interval(exampleCount, exampleCount + currMinibatchSize),
+            probAndLabel.get(NDArrayIndex.interval(offset, offset + currMinibatchSize),
                             NDArrayIndex.point(1)).assign(labelClass1);
 
+            int countClass1CurrMinibatch = labelClass1.sumNumber().intValue();
+            countActualPositive += countClass1CurrMinibatch;
+            countActualNegative += labels.size(0) - countClass1CurrMinibatch;
+        } else if (isHistogram()) {
+            //Histogram approach: add to the (fixed size) histogram counts for later computation/use
+            INDArray probClass1;
+            INDArray labelClass1;
+            if (singleOutput) {
+                probClass1 = predictions;
+                labelClass1 = labels;
+            } else {
+                probClass1 = predictions.getColumn(1);
+                labelClass1 = labels.getColumn(1);
+            }
+            histogram.add(probClass1, labelClass1);
+
             int countClass1CurrMinibatch = labelClass1.sumNumber().intValue();
             countActualPositive += countClass1CurrMinibatch;
             countActualNegative += labels.size(0) - countClass1CurrMinibatch;
@@ -249,8 +293,8 @@ public class ROC extends BaseEvaluation<ROC> {
             }
 
             //Increment global counts - actual positive/negative observed
-            countActualPositive += positiveActualClassColumn.sumNumber().intValue();
-            countActualNegative += negativeActualClassColumn.sumNumber().intValue();
+            countActualPositive += positiveActualClassColumn.sumNumber().longValue();
+            countActualNegative += negativeActualClassColumn.sumNumber().longValue();
 
             //Here: calculate true positive rate (TPR) vs. false positive rate (FPR) at different threshold
 
@@ -326,9 +370,9 @@ public class ROC extends BaseEvaluation<ROC> {
         double[] thresholdOut;
         double[] precisionOut;
         double[] recallOut;
-        int[] tpCountOut;
-        int[] fpCountOut;
-        int[] fnCountOut;
+        long[] tpCountOut;
+        long[] fpCountOut;
+        long[] fnCountOut;
 
         if (isExact) {
             INDArray pl = getProbAndLabelUsed();
@@ -373,24 +417,24 @@ public class ROC extends BaseEvaluation<ROC> {
             recallOut = rec.data().asDouble();
 
             //Counts. Note the edge cases
-            tpCountOut = new int[thresholdOut.length];
-            fpCountOut = new int[thresholdOut.length];
-            fnCountOut = new int[thresholdOut.length];
+            tpCountOut = new long[thresholdOut.length];
+            fpCountOut = new long[thresholdOut.length];
+            fnCountOut = new long[thresholdOut.length];
 
             for (int i = 1; i < tpCountOut.length - 1; i++) {
-                tpCountOut[i] = cumSumPos.getInt(i - 1);
+                tpCountOut[i] = (long) cumSumPos.getDouble(i - 1);
                 fpCountOut[i] = i - tpCountOut[i]; //predicted positive - true positive
-                fnCountOut[i] = (int) countActualPositive - tpCountOut[i];
+                fnCountOut[i] = countActualPositive - tpCountOut[i];
             }
 
             //Edge cases: last idx -> threshold of 0.0, all predicted positive
-            tpCountOut[tpCountOut.length - 1] = (int) countActualPositive;
-            fpCountOut[tpCountOut.length - 1] = (int) (exampleCount - countActualPositive);
+            tpCountOut[tpCountOut.length - 1] = countActualPositive;
+            fpCountOut[tpCountOut.length - 1] = exampleCount - countActualPositive;
             fnCountOut[tpCountOut.length - 1] = 0;
             //Edge case: first idx -> threshold of 1.0, all predictions negative
             tpCountOut[0] = 0;
-            fpCountOut[0] = 0; //(int)(exampleCount - countActualPositive);  //All negatives are predicted positive
-            fnCountOut[0] = (int) countActualPositive;
+            fpCountOut[0] = 0; //(exampleCount - countActualPositive);  //All negatives are predicted positive
+            fnCountOut[0] = countActualPositive;
 
             //Finally: 2 things to do
             //(a) Reverse order: lowest to highest threshold
@@ -404,10 +448,65 @@ public class ROC extends BaseEvaluation<ROC> {
             ArrayUtils.reverse(fnCountOut);
 
             if (rocRemoveRedundantPts) {
-                Pair<double[][], int[][]> pair = removeRedundant(thresholdOut, precisionOut, recallOut, tpCountOut,
+                Pair<double[][], long[][]> pair = removeRedundant(thresholdOut, precisionOut, recallOut, tpCountOut,
                                 fpCountOut, fnCountOut);
                 double[][] temp = pair.getFirst();
-                int[][] temp2 = pair.getSecond();
+                long[][] temp2 = pair.getSecond();
+                thresholdOut = temp[0];
+                precisionOut = temp[1];
+                recallOut = temp[2];
+                tpCountOut = temp2[0];
+                fpCountOut = temp2[1];
+                fnCountOut = temp2[2];
+            }
+        } else if (isHistogram()) {
+            //Iterate over the non-empty bins, from highest to lowest threshold: all examples in bins >= the current bin
+            // are predicted positive. Same edge cases as exact mode
+            int[] bins = nonEmptyHistogramBins();
+            int length = bins.length;
+            thresholdOut = new double[length + 2];
+            precisionOut = new double[length + 2];
+            recallOut = new double[length + 2];
+            tpCountOut = new long[length + 2];
+            fpCountOut = new long[length + 2];
+            fnCountOut = new long[length + 2];
+
+            thresholdOut[0] = 1.0;
+            precisionOut[0] = 1.0;
+            recallOut[0] = 0.0;
+            fnCountOut[0] = countActualPositive;
+            long cumSumPos = 0;
+            long cumSumNeg = 0;
+            for (int i = 0; i < length; i++) {
+                int bin = bins[length - 1 - i];
+                cumSumPos += histogram.getCountPositive()[bin];
+                cumSumNeg += histogram.getCountNegative()[bin];
+                thresholdOut[i + 1] = ROCHistogram.binLowerBound(bin);
+                precisionOut[i + 1] = cumSumPos / (double) (cumSumPos + cumSumNeg);
+                recallOut[i + 1] = (countActualPositive == 0 ? 1.0 : cumSumPos / (double) countActualPositive);
+                tpCountOut[i + 1] = cumSumPos;
+                fpCountOut[i + 1] = cumSumNeg;
+                fnCountOut[i + 1] = countActualPositive - cumSumPos;
+            }
+            thresholdOut[length + 1] = 0.0;
+            precisionOut[length + 1] = countActualPositive / (double) exampleCount;
+            recallOut[length + 1] = 1.0;
+            tpCountOut[length + 1] = countActualPositive;
+            fpCountOut[length + 1] = exampleCount - countActualPositive;
+
+            //Lowest to highest threshold, as per exact mode
+            ArrayUtils.reverse(thresholdOut);
+            ArrayUtils.reverse(precisionOut);
+            ArrayUtils.reverse(recallOut);
+            ArrayUtils.reverse(tpCountOut);
+            ArrayUtils.reverse(fpCountOut);
+            ArrayUtils.reverse(fnCountOut);
+
+            if (rocRemoveRedundantPts) {
+                Pair<double[][], long[][]> pair = removeRedundant(thresholdOut, precisionOut, recallOut, tpCountOut,
+                                fpCountOut, fnCountOut);
+                double[][] temp = pair.getFirst();
+                long[][] temp2 = pair.getSecond();
                 thresholdOut = temp[0];
                 precisionOut = temp[1];
                 recallOut = temp[2];
@@ -419,9 +518,9 @@ public class ROC extends BaseEvaluation<ROC> {
             thresholdOut = new double[counts.size()];
             precisionOut = new double[counts.size()];
             recallOut = new double[counts.size()];
-            tpCountOut = new int[counts.size()];
-            fpCountOut = new int[counts.size()];
-            fnCountOut = new int[counts.size()];
+            tpCountOut = new long[counts.size()];
+            fpCountOut = new long[counts.size()];
+            fnCountOut = new long[counts.size()];
 
             int i = 0;
             for (Map.Entry<Double, CountsForThreshold> entry : counts.entrySet()) {
@@ -451,15 +550,15 @@ public class ROC extends BaseEvaluation<ROC> {
                 precisionOut[i] = precision;
                 recallOut[i] = recall;
 
-                tpCountOut[i] = (int) tpCount;
-                fpCountOut[i] = (int) fpCount;
-                fnCountOut[i] = (int) (countActualPositive - tpCount);
+                tpCountOut[i] = tpCount;
+                fpCountOut[i] = fpCount;
+                fnCountOut[i] = countActualPositive - tpCount;
                 i++;
             }
         }
 
-        prCurve = new PrecisionRecallCurve(thresholdOut, precisionOut, recallOut, tpCountOut, fpCountOut, fnCountOut,
-                        exampleCount);
+        prCurve = PrecisionRecallCurve.fromLongCounts(thresholdOut, precisionOut, recallOut, tpCountOut, fpCountOut,
+                        fnCountOut, exampleCount);
         return prCurve;
     }
 
@@ -512,7 +611,7 @@ public class ROC extends BaseEvaluation<ROC> {
             //Note: we can have multiple FPR for a given TPR, and multiple TPR for a given FPR
             //These can be omitted, without changing the area (as long as we keep the edge points)
             if (rocRemoveRedundantPts) {
-                Pair<double[][], int[][]> p = removeRedundant(tOut, x_fpr_out, y_tpr_out, null, null, null);
+                Pair<double[][], long[][]> p = removeRedundant(tOut, x_fpr_out, y_tpr_out, null, null, null);
                 double[][] temp = p.getFirst();
                 tOut = temp[0];
                 x_fpr_out = temp[1];
@@ -521,6 +620,38 @@ public class ROC extends BaseEvaluation<ROC> {
 
             this.rocCurve = new RocCurve(tOut, x_fpr_out, y_tpr_out);
 
+            return rocCurve;
+        } else if (isHistogram()) {
+            //As per exact mode: iterate from highest to lowest threshold, with the same edge cases
+            int[] bins = nonEmptyHistogramBins();
+            int length = bins.length;
+            double[] tOut = new double[length + 2];
+            double[] x_fpr_out = new double[length + 2];
+            double[] y_tpr_out = new double[length + 2];
+
+            tOut[0] = 1.0;
+            long cumSumPos = 0;
+            long cumSumNeg = 0;
+            for (int i = 0; i < length; i++) {
+                int bin = bins[length - 1 - i];
+                cumSumPos += histogram.getCountPositive()[bin];
+                cumSumNeg += histogram.getCountNegative()[bin];
+                tOut[i + 1] = ROCHistogram.binLowerBound(bin);
+                x_fpr_out[i + 1] = cumSumNeg / (double) countActualNegative;
+                y_tpr_out[i + 1] = cumSumPos / (double) countActualPositive;
+            }
+            x_fpr_out[length + 1] = 1.0;
+            y_tpr_out[length + 1] = 1.0;
+
+            if (rocRemoveRedundantPts) {
+                Pair<double[][], long[][]> p = removeRedundant(tOut, x_fpr_out, y_tpr_out, null, null, null);
+                double[][] temp = p.getFirst();
+                tOut = temp[0];
+                x_fpr_out = temp[1];
+                y_tpr_out = temp[2];
+            }
+
+            this.rocCurve = new RocCurve(tOut, x_fpr_out, y_tpr_out);
             return rocCurve;
         } else {
 
@@ -540,19 +671,55 @@ public class ROC extends BaseEvaluation<ROC> {
         }
     }
 
-    private static Pair<double[][], int[][]> removeRedundant(double[] threshold, double[] x, double[] y, int[] tpCount,
-                    int[] fpCount, int[] fnCount) {
+    /**
+     * @return Indices of the histogram bins with at least one example, in ascending order
+     */
+    private int[] nonEmptyHistogramBins() {
+        long[] pos = histogram.getCountPositive();
+        long[] neg = histogram.getCountNegative();
+        int count = 0;
+        for (int i = 0; i < pos.length; i++) {
+            if (pos[i] > 0 || neg[i] > 0)
+                count++;
+        }
+        int[] out = new int[count];
+        int j = 0;
+        for (int i = 0; i < pos.length; i++) {
+            if (pos[i] > 0 || neg[i] > 0)
+                out[j++] = i;
+        }
+        return out;
+    }
+
+    /**
+     * Upper bound on the absolute error of {@link #calculateAUC()} relative to exact mode, for histogram mode only.
+     * See {@link ROCHistogram#calculateAUCErrorBound()}
+     *
+     * @return AUC error bound (histogram mode), or 0.0 (exact mode)
+     */
+    public double calculateAUCErrorBound() {
+        if (isExact) {
+            return 0.0;
+        }
+        if (!isHistogram()) {
+            throw new UnsupportedOperationException("AUC error bound is only available for exact and histogram modes");
+        }
+        return histogram.calculateAUCErrorBound();
+    }
+
+    private static Pair<double[][], long[][]> removeRedundant(double[] threshold, double[] x, double[] y,
+                    long[] tpCount, long[] fpCount, long[] fnCount) {
         double[] t_compacted = new double[threshold.length];
         double[] x_compacted = new double[x.length];
         double[] y_compacted = new double[y.length];
-        int[] tp_compacted = null;
-        int[] fp_compacted = null;
-        int[] fn_compacted = null;
+        long[] tp_compacted = null;
+        long[] fp_compacted = null;
+        long[] fn_compacted = null;
         boolean hasInts = false;
         if (tpCount != null) {
-            tp_compacted = new int[tpCount.length];
-            fp_compacted = new int[fpCount.length];
-            fn_compacted = new int[fnCount.length];
+            tp_compacted = new long[tpCount.length];
+            fp_compacted = new long[fpCount.length];
+            fn_compacted = new long[fnCount.length];
             hasInts = true;
         }
         int lastOutPos = -1;
@@ -592,7 +759,7 @@ public class ROC extends BaseEvaluation<ROC> {
         }
 
         return new Pair<>(new double[][] {t_compacted, x_compacted, y_compacted},
-                        hasInts ? new int[][] {tp_compacted, fp_compacted, fn_compacted} : null);
+                        hasInts ? new long[][] {tp_compacted, fp_compacted, fn_compacted} : null);
     }
 
     /**
@@ -642,6 +809,8 @@ public class ROC extends BaseEvaluation<ROC> {
         this.countActualNegative += other.countActualNegative;
         this.auc = null;
         this.auprc = null;
+        this.rocCurve = null;
+        this.prCurve = null;
 
         if (isExact) {
             if (other.exampleCount == 0) {
@@ -658,14 +827,18 @@ public class ROC extends BaseEvaluation<ROC> {
                 //Allocate new array
                 int newSize = this.probAndLabel.size(0) + Math.max(other.probAndLabel.size(0), exactAllocBlockSize);
                 INDArray newProbAndLabel = Nd4j.create(newSize, 2);
-                newProbAndLabel.assign(probAndLabel.get(NDArrayIndex.interval(0, exampleCount), NDArrayIndex.all()));
+                newProbAndLabel.assign(
+                                probAndLabel.get(NDArrayIndex.interval(0, (int) exampleCount), NDArrayIndex.all()));
                 probAndLabel = newProbAndLabel;
             }
 
-            INDArray toPut = other.probAndLabel.get(NDArrayIndex.interval(0, other.exampleCount), NDArrayIndex.all());
-            probAndLabel.put(new INDArrayIndex[] {
-                            NDArrayIndex.interval(exampleCount, exampleCount + other.exampleCount), NDArrayIndex.all()},
-                            toPut);
+            int offset = (int) exampleCount;
+            int otherCount = (int) other.exampleCount;
+            INDArray toPut = other.probAndLabel.get(NDArrayIndex.interval(0, otherCount), NDArrayIndex.all());
+            probAndLabel.put(new INDArrayIndex[] {NDArrayIndex.interval(offset, offset + otherCount),
+                            NDArrayIndex.all()}, toPut);
+        } else if (isHistogram()) {
+            histogram.merge(other.histogram);
         } else {
             for (Double d : this.counts.keySet()) {
                 CountsForThreshold cft = this.counts.get(d);
@@ -40,14 +40,16 @@ public class ROCBinary extends BaseEvaluation<ROCBinary> {
     }
 
     /**
-     * @param thresholdSteps Number of threshold steps to use for the ROC calculation. Set to 0 for exact ROC calculation
+     * @param thresholdSteps Number of threshold steps to use for the ROC calculation. Set to 0 for exact ROC calculation,
+     *                       or {@link ROC#HISTOGRAM} for histogram (fixed memory) ROC calculation
      */
     public ROCBinary(int thresholdSteps) {
         this(thresholdSteps, true);
     }
 
     /**
-     * @param thresholdSteps Number of threshold steps to use for the ROC calculation. If set to 0: use exact calculation
+     * @param thresholdSteps Number of threshold steps to use for the ROC calculation. If set to 0: use exact calculation.
+     *                       If set to {@link ROC#HISTOGRAM}: use histogram (fixed memory) calculation
      * @param rocRemoveRedundantPts Usually set to true. If true,  remove any redundant points from ROC and P-R curves
      */
     public ROCBinary(int thresholdSteps, boolean rocRemoveRedundantPts) {
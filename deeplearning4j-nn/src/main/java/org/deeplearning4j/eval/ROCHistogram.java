@@ -0,0 +1,127 @@
+package org.deeplearning4j.eval;
+
+import lombok.Data;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.io.Serializable;
+
+/**
+ * Fixed size histogram of predicted probabilities, with separate counts for positive and negative examples.
+ * Used by {@link ROC} in histogram mode (thresholdSteps = {@link ROC#HISTOGRAM}): a bounded memory alternative to
+ * exact mode, for evaluating very large numbers of predictions. Merging is a simple addition of the counts.
+ * <p>
+ * Bins are spaced logarithmically towards both 0 and 1, with {@link #BINS_PER_OCTAVE} bins per power of 2: i.e., for
+ * a probability p, bins are defined on min(p, 1-p) with a relative width of 1/64 (about 1.6%), down to
+ * 2<sup>{@link #MIN_EXPONENT}</sup> (about 6e-8). Unlike the thresholded approach, this retains resolution for skewed
+ * predictions (for example, click-through rates), using {@link #NUM_BINS} bins in total.<br>
+ * Predictions in the same bin are considered tied for the purposes of ROC and precision-recall curves. The AUC error
+ * due to this is bounded: see {@link #calculateAUCErrorBound()}
+ */
+@Data
+public class ROCHistogram implements Serializable {
+
+    public static final int BINS_PER_OCTAVE = 64;
+    public static final int MIN_EXPONENT = -24;
+
+    private static final int MANTISSA_BITS = 6; //log2(BINS_PER_OCTAVE)
+    private static final double MIN_Q = Math.pow(2, MIN_EXPONENT);
+    private static final int HALF_BINS = (-1 - MIN_EXPONENT) * BINS_PER_OCTAVE + 1;
+    public static final int NUM_BINS = 2 * HALF_BINS;
+
+    private long[] countPositive;
+    private long[] countNegative;
+
+    public ROCHistogram() {
+        countPositive = new long[NUM_BINS];
+        countNegative = new long[NUM_BINS];
+    }
+
+    /**
+     * @param probability Predicted probability
+     * @return Histogram bin for the probability. Bin indices are increasing in probability
+     */
+    public static int binIndex(double probability) {
+        boolean lower = probability <= 0.5;
+        double q = (lower ? probability : 1.0 - probability);
+        int idx;
+        if (!(q > MIN_Q)) {
+            //Also handles NaN and out of range values
+            idx = 0;
+        } else {
+            int bits = Float.floatToIntBits((float) q);
+            int exponent = ((bits >>> 23) & 0xFF) - 127;
+            int mantissa = (bits >>> (23 - MANTISSA_BITS)) & (BINS_PER_OCTAVE - 1);
+            idx = (exponent - MIN_EXPONENT) * BINS_PER_OCTAVE + mantissa;
+        }
+        return lower ? idx : NUM_BINS - 1 - idx;
+    }
+
+    /**
+     * @param bin Bin index
+     * @return Lower bound (probability) of the specified bin
+     */
+    public static double binLowerBound(int bin) {
+        if (bin < HALF_BINS) {
+            return lowerQ(bin);
+        }
+        return 1.0 - lowerQ(NUM_BINS - bin);
+    }
+
+    private static double lowerQ(int idx) {
+        if (idx == 0)
+            return 0.0;
+        int exponent = idx / BINS_PER_OCTAVE + MIN_EXPONENT;
+        int mantissa = idx % BINS_PER_OCTAVE;
+        return Math.pow(2, exponent) * (1.0 + mantissa / (double) BINS_PER_OCTAVE);
+    }
+
+    /**
+     * Add the specified examples to the histogram
+     *
+     * @param probabilities Predicted probabilities (of the positive class), column vector
+     * @param labels        Labels: 1 for positive, 0 for negative. Column vector, same length as probabilities
+     */
+    public void add(INDArray probabilities, INDArray labels) {
+        double[] p = probabilities.dup().data().asDouble();
+        double[] l = labels.dup().data().asDouble();
+        for (int i = 0; i < p.length; i++) {
+            int bin = binIndex(p[i]);
+            if (l[i] > 0.5) {
+                countPositive[bin]++;
+            } else {
+                countNegative[bin]++;
+            }
+        }
+    }
+
+    /**
+     * Add the counts from the other histogram to this one
+     *
+     * @param other Histogram to merge into this one
+     */
+    public void merge(ROCHistogram other) {
+        for (int i = 0; i < NUM_BINS; i++) {
+            countPositive[i] += other.countPositive[i];
+            countNegative[i] += other.countNegative[i];
+        }
+    }
+
+    /**
+     * Upper bound on the absolute AUC error due to binning. Pairs of (positive, negative) examples in the same bin are
+     * treated as ties (i.e., counted as 0.5 for AUC purposes), whereas the exact AUC would count them as either 0 or
+     * 1, hence: error <= 0.5 * sum_bins(countPositive * countNegative) / (totalPositive * totalNegative)
+     *
+     * @return Upper bound on the AUC error, relative to exact AUC calculation
+     */
+    public double calculateAUCErrorBound() {
+        double tiedPairs = 0.0;
+        double totalPositive = 0.0;
+        double totalNegative = 0.0;
+        for (int i = 0; i < NUM_BINS; i++) {
+            tiedPairs += countPositive[i] * (double) countNegative[i];
+            totalPositive += countPositive[i];
+            totalNegative += countNegative[i];
+        }
+        return 0.5 * tiedPairs / (totalPositive * totalNegative);
+    }
+}
@@ -4,6 +4,7 @@ import com.google.common.base.Preconditions;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.nd4j.shade.jackson.annotation.JsonCreator;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 
 import java.util.Arrays;
@@ -14,23 +15,29 @@ import java.util.Arrays;
  * @author Alex Black
  */
 @Data
-@EqualsAndHashCode(exclude = {"area"}, callSuper = false)
+@EqualsAndHashCode(exclude = {"area"}, callSuper = false, doNotUseGetters = true)
 public class PrecisionRecallCurve extends BaseCurve {
 
     private double[] threshold;
     private double[] precision;
     private double[] recall;
-    private int[] tpCount;
-    private int[] fpCount;
-    private int[] fnCount;
-    private int totalCount;
+    private long[] tpCount;
+    private long[] fpCount;
+    private long[] fnCount;
+    private long totalCount;
 
     private Double area;
 
-    public PrecisionRecallCurve(@JsonProperty("threshold") double[] threshold,
+    public PrecisionRecallCurve(double[] threshold, double[] precision, double[] recall, int[] tpCount,
+                    int[] fpCount, int[] fnCount, int totalCount) {
+        this(threshold, precision, recall, toLong(tpCount), toLong(fpCount), toLong(fnCount), (long) totalCount);
+    }
+
+    @JsonCreator
+    private PrecisionRecallCurve(@JsonProperty("threshold") double[] threshold,
                     @JsonProperty("precision") double[] precision, @JsonProperty("recall") double[] recall,
-                    @JsonProperty("tpCount") int[] tpCount, @JsonProperty("fpCount") int[] fpCount,
-                    @JsonProperty("fnCount") int[] fnCount, @JsonProperty("totalCount") int totalCount) {
+                    @JsonProperty("tpCount") long[] tpCount, @JsonProperty("fpCount") long[] fpCount,
+                    @JsonProperty("fnCount") long[] fnCount, @JsonProperty("totalCount") long totalCount) {
         this.threshold = threshold;
         this.precision = precision;
         this.recall = recall;
@@ -40,6 +47,76 @@ public class PrecisionRecallCurve extends BaseCurve {
         this.totalCount = totalCount;
     }
 
+    /**
+     * Create a precision recall curve with long counts, for counts that may exceed Integer.MAX_VALUE (for example,
+     * from a histogram ROC merged over a large data set)
+     */
+    public static PrecisionRecallCurve fromLongCounts(double[] threshold, double[] precision, double[] recall,
+                    long[] tpCount, long[] fpCount, long[] fnCount, long totalCount) {
+        return new PrecisionRecallCurve(threshold, precision, recall, tpCount, fpCount, fnCount, totalCount);
+    }
+
+    /**
+     * @return True positive counts for each point. Counts above Integer.MAX_VALUE are returned as Integer.MAX_VALUE;
+     *         use {@link #getTpCountLong()} for the exact counts
+     */
+    public int[] getTpCount() {
+        return saturate(tpCount);
+    }
+
+    /**
+     * @return False positive counts for each point, saturated as per {@link #getTpCount()}
+     */
+    public int[] getFpCount() {
+        return saturate(fpCount);
+    }
+
+    /**
+     * @return False negative counts for each point, saturated as per {@link #getTpCount()}
+     */
+    public int[] getFnCount() {
+        return saturate(fnCount);
+    }
+
+    /**
+     * @return Total number of examples, saturated as per {@link #getTpCount()}
+     */
+    public int getTotalCount() {
+        return saturate(totalCount);
+    }
+
+    public long[] getTpCountLong() {
+        return tpCount;
+    }
+
+    public long[] getFpCountLong() {
+        return fpCount;
+    }
+
+    public long[] getFnCountLong() {
+        return fnCount;
+    }
+
+    public long getTotalCountLong() {
+        return totalCount;
+    }
+
+    public void setTpCount(int[] tpCount) {
+        this.tpCount = toLong(tpCount);
+    }
+
+    public void setFpCount(int[] fpCount) {
+        this.fpCount = toLong(fpCount);
+    }
+
+    public void setFnCount(int[] fnCount) {
+        this.fnCount = toLong(fnCount);
+    }
+
+    public void setTotalCount(int totalCount) {
+        this.totalCount = totalCount;
+    }
+
     @Override
     public int numPoints() {
         return threshold.length;
@@ -188,7 +265,7 @@ public class PrecisionRecallCurve extends BaseCurve {
     public Confusion getConfusionMatrixAtThreshold(double threshold) {
         Point p = getPointAtThreshold(threshold);
         int idx = p.idx;
-        int tn = totalCount - (tpCount[idx] + fpCount[idx] + fnCount[idx]);
+        long tn = totalCount - (tpCount[idx] + fpCount[idx] + fnCount[idx]);
         return new Confusion(p, tpCount[idx], fpCount[idx], fnCount[idx], tn);
     }
 
@@ -219,13 +296,87 @@ public class PrecisionRecallCurve extends BaseCurve {
         private final double recall;
     }
 
-    @AllArgsConstructor
     @Data
+    @EqualsAndHashCode(doNotUseGetters = true)
     public static class Confusion {
         private final Point point;
-        private final int tpCount;
-        private final int fpCount;
-        private final int fnCount;
-        private final int tnCount;
+        private final long tpCount;
+        private final long fpCount;
+        private final long fnCount;
+        private final long tnCount;
+
+        public Confusion(Point point, int tpCount, int fpCount, int fnCount, int tnCount) {
+            this(point, (long) tpCount, (long) fpCount, (long) fnCount, (long) tnCount);
+        }
+
+        public Confusion(Point point, long tpCount, long fpCount, long fnCount, long tnCount) {
+            this.point = point;
+            this.tpCount = tpCount;
+            this.fpCount = fpCount;
+            this.fnCount = fnCount;
+            this.tnCount = tnCount;
+        }
+
+        /**
+         * @return True positive count. Counts above Integer.MAX_VALUE are returned as Integer.MAX_VALUE; use
+         *         {@link #getTpCountLong()} for the exact count
+         */
+        public int getTpCount() {
+            return saturate(tpCount);
+        }
+
+        public int getFpCount() {
+            return saturate(fpCount);
+        }
+
+        public int getFnCount() {
+            return saturate(fnCount);
+        }
+
+        public int getTnCount() {
+            return saturate(tnCount);
+        }
+
+        public long getTpCountLong() {
+            return tpCount;
+        }
+
+        public long getFpCountLong() {
+            return fpCount;
+        }
+
+        public long getFnCountLong() {
+            return fnCount;
+        }
+
+        public long getTnCountLong() {
+            return tnCount;
+        }
+    }
+
+    private static int saturate(long count) {
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    private static int[] saturate(long[] counts) {
+        if (counts == null) {
+            return null;
+        }
+        int[] out = new int[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            out[i] = saturate(counts[i]);
+        }
+        return out;
+    }
+
+    private static long[] toLong(int[] counts) {
+        if (counts == null) {
+            return null;
+        }
+        long[] out = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            out[i] = counts[i];
+        }
+        return out;
     }
 }
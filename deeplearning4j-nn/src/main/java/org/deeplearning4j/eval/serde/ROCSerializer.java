@@ -38,6 +38,10 @@ public class ROCSerializer extends JsonSerializer<ROC> {
             jsonGenerator.writeObjectField("rocCurve", roc.getRocCurve());
             jsonGenerator.writeObjectField("prCurve", roc.getPrecisionRecallCurve());
         }
+        if (roc.isHistogram()) {
+            //Histogram mode: store the (fixed size) histogram, so curves can be calculated and instances merged later
+            jsonGenerator.writeObjectField("histogram", roc.getHistogram());
+        }
         jsonGenerator.writeBooleanField("isExact", roc.isExact());
         jsonGenerator.writeNumberField("exampleCount", roc.getExampleCount());
         jsonGenerator.writeBooleanField("rocRemoveRedundantPts", roc.isRocRemoveRedundantPts());
@@ -26,6 +26,7 @@ import org.deeplearning4j.nn.conf.layers.BaseLayer;
 import org.deeplearning4j.nn.conf.layers.BasePretrainNetwork;
 import org.deeplearning4j.nn.conf.layers.Layer;
 import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.conf.memory.ActivationLivenessReport;
 import org.deeplearning4j.nn.conf.memory.MemoryReport;
 import org.deeplearning4j.nn.conf.memory.NetworkMemoryReport;
 import org.nd4j.linalg.activations.Activation;
@@ -504,6 +505,101 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
                         inputTypes);
     }
 
+    /**
+     * Get an {@link ActivationLivenessReport} for the given computation graph configuration. This reports the
+     * activation memory required for inference when all activations are held until the end of the forward pass,
+     * versus the peak activation memory when the activations of each vertex are released as soon as their last
+     * consumer (in topological order) has done its forward pass. The ComputationGraph output methods reuse released
+     * activation arrays when using workspaces (inference workspace mode SEPARATE), so the external workspace holds
+     * approximately the peak live activations. Arrays are only reused for activations of the same length, so the
+     * actual peak may be somewhat higher than reported
+     *
+     * @param inputTypes Input types for the network
+     * @return Activation liveness report for the network
+     */
+    public ActivationLivenessReport getActivationLivenessReport(InputType... inputTypes) {
+        List<String> topologicalOrdering = topologicalOrdering();
+        Map<String, Integer> position = new HashMap<>();
+        for (int i = 0; i < topologicalOrdering.size(); i++) {
+            position.put(topologicalOrdering.get(i), i);
+        }
+
+        //Last consumer of each vertex's activations: the consumer with the largest position in topological order
+        Map<String, String> lastConsumers = new LinkedHashMap<>();
+        for (String s : topologicalOrdering) {
+            lastConsumers.put(s, null);
+        }
+        for (Map.Entry<String, List<String>> e : vertexInputs.entrySet()) {
+            int consumerPos = position.get(e.getKey());
+            for (String in : e.getValue()) {
+                String current = lastConsumers.get(in);
+                if (current == null || position.get(current) < consumerPos) {
+                    lastConsumers.put(in, e.getKey());
+                }
+            }
+        }
+
+        //Network outputs are held until the end; other activations until the forward pass of their last consumer
+        int[] releaseAfter = new int[topologicalOrdering.size()];
+        for (int i = 0; i < topologicalOrdering.size(); i++) {
+            String s = topologicalOrdering.get(i);
+            String consumer = lastConsumers.get(s);
+            if (networkOutputs.contains(s)) {
+                releaseAfter[i] = topologicalOrdering.size();
+                lastConsumers.put(s, null);
+            } else {
+                releaseAfter[i] = (consumer == null ? i : position.get(consumer));
+            }
+        }
+
+        Map<String, Long> activationSizes = new LinkedHashMap<>();
+        Map<String, InputType> vertexOutputs = new HashMap<>();
+        int currLayerIdx = -1;
+        for (String s : topologicalOrdering) {
+            InputType outputType;
+            int inputIdx = networkInputs.indexOf(s);
+            if (inputIdx != -1) {
+                outputType = inputTypes[inputIdx];
+            } else {
+                GraphVertex gv = vertices.get(s);
+                if (gv instanceof LayerVertex) {
+                    currLayerIdx++;
+                }
+                List<InputType> inputTypeList = new ArrayList<>();
+                List<String> inputs = vertexInputs.get(s);
+                if (inputs != null) {
+                    for (String inputVertexName : inputs) {
+                        inputTypeList.add(vertexOutputs.get(inputVertexName));
+                    }
+                }
+                outputType = gv.getOutputType(currLayerIdx,
+                                inputTypeList.toArray(new InputType[inputTypeList.size()]));
+            }
+            vertexOutputs.put(s, outputType);
+            activationSizes.put(s, (long) outputType.arrayElementsPerExample());
+        }
+
+        //Sweep over the forward pass: size of the activations live at each step (including the current output)
+        long total = 0;
+        long live = 0;
+        long peak = 0;
+        String peakVertex = null;
+        long[] releasedAtStep = new long[topologicalOrdering.size() + 1];
+        for (int i = 0; i < topologicalOrdering.size(); i++) {
+            long size = activationSizes.get(topologicalOrdering.get(i));
+            total += size;
+            live += size;
+            releasedAtStep[releaseAfter[i]] += size;
+            if (live > peak) {
+                peak = live;
+                peakVertex = topologicalOrdering.get(i);
+            }
+            live -= releasedAtStep[i];
+        }
+
+        return new ActivationLivenessReport(inputTypes, activationSizes, lastConsumers, total, peak, peakVertex);
+    }
+
 
     @Data
     public static class GraphBuilder {
@@ -79,6 +79,8 @@ public class ConvolutionLayer extends FeedForwardLayer {
     protected FwdAlgo cudnnFwdAlgo;
     protected BwdFilterAlgo cudnnBwdFilterAlgo;
     protected BwdDataAlgo cudnnBwdDataAlgo;
+    /** If true: retain the im2col buffer between iterations, and calculate the backprop epsilons in-place in it */
+    protected boolean im2colBufferReuse = false;
 
     /**
      * ConvolutionLayer
@@ -105,6 +107,7 @@ public class ConvolutionLayer extends FeedForwardLayer {
         this.cudnnFwdAlgo = builder.cudnnFwdAlgo;
         this.cudnnBwdFilterAlgo = builder.cudnnBwdFilterAlgo;
         this.cudnnBwdDataAlgo = builder.cudnnBwdDataAlgo;
+        this.im2colBufferReuse = builder.im2colBufferReuse;
 
         initializeConstraints(builder);
     }
@@ -230,7 +233,8 @@ public class ConvolutionLayer extends FeedForwardLayer {
             long trainWorkingSizePerEx;
             long cacheMemSizePerEx = 0;
             if (cm == CacheMode.NONE) {
-                trainWorkingSizePerEx = 2 * im2colSizePerEx;
+                //With buffer reuse, epsNext2d/eps6d is calculated in-place in the im2col array
+                trainWorkingSizePerEx = (im2colBufferReuse ? 1 : 2) * im2colSizePerEx;
             } else {
                 //im2col is cached, but epsNext2d/eps6d is not
                 cacheMemSizePerEx = im2colSizePerEx;
@@ -485,6 +489,7 @@ public class ConvolutionLayer extends FeedForwardLayer {
         protected FwdAlgo cudnnFwdAlgo;
         protected BwdFilterAlgo cudnnBwdFilterAlgo;
         protected BwdDataAlgo cudnnBwdDataAlgo;
+        protected boolean im2colBufferReuse = false;
 
 
         protected BaseConvBuilder(int[] kernelSize, int[] stride, int[] padding) {
@@ -562,5 +567,21 @@ public class ConvolutionLayer extends FeedForwardLayer {
             this.cudnnBwdDataAlgo = cudnnBwdDataAlgo;
             return (T) this;
         }
+
+        /**
+         * If true: during backprop, the epsilons (prior to the col2im reduction) are calculated in-place in the im2col
+         * buffer, which is no longer required once the weight gradients have been calculated, instead of in a new
+         * array of the same size. The im2col buffer used for backprop is also retained by the layer and reused
+         * between iterations, instead of being allocated each iteration.<br>
+         * This reduces the peak training working memory of the layer by the size of the im2col array (when the im2col
+         * array is not cached: see {@link org.deeplearning4j.nn.conf.CacheMode}), at the cost of keeping that buffer
+         * allocated between iterations. Default: false
+         *
+         * @param im2colBufferReuse Whether the im2col buffer should be reused
+         */
+        public T im2colBufferReuse(boolean im2colBufferReuse) {
+            this.im2colBufferReuse = im2colBufferReuse;
+            return (T) this;
+        }
     }
 }
@@ -25,7 +25,10 @@ import java.util.Map;
  * with all but one value being zero).<br>
  * <b>Note</b>: can only be used as the first layer for a network<br>
  * <b>Note 2</b>: For a given example index i, the output is activationFunction(weights.getRow(i) + bias), hence the
- * weight rows can be considered a vector/embedding for each example.
+ * weight rows can be considered a vector/embedding for each example.<br>
+ * <b>Note 3</b>: With {@link Builder#sparseGradients(boolean)} enabled, the updater is applied to the weights only for
+ * the rows (indices) present in the minibatch - see
+ * {@link Builder#sparseGradients(boolean)} for details.
  *
  * @author Alex Black
  */
@@ -35,10 +38,12 @@ import java.util.Map;
 @EqualsAndHashCode(callSuper = true)
 public class EmbeddingLayer extends FeedForwardLayer {
     private boolean hasBias = true; //Default for pre-0.9.2 implementations
+    private boolean sparseGradients = false;
 
     private EmbeddingLayer(Builder builder) {
         super(builder);
         this.hasBias = builder.hasBias;
+        this.sparseGradients = builder.sparseGradients;
         initializeConstraints(builder);
     }
 
@@ -88,6 +93,7 @@ public class EmbeddingLayer extends FeedForwardLayer {
     public static class Builder extends FeedForwardLayer.Builder<Builder> {
 
         private boolean hasBias = false;
+        private boolean sparseGradients = false;
 
         /**
          * If true: include bias parameters in the layer. False (default): no bias.
@@ -99,6 +105,27 @@ public class EmbeddingLayer extends FeedForwardLayer {
             return this;
         }
 
+        /**
+         * If true: use sparse (row-wise) weight gradients. Default: false.<br>
+         * When enabled, the rows (indices) present in the minibatch are recorded during backprop, and the updater
+         * (including l1/l2) is applied to the weight gradient only for those rows, reading and writing the updater
+         * state only for those rows; between iterations, only those rows of the weight gradient are zeroed. The
+         * resulting update is written to the gradient array, and applied to the parameters as usual (other rows of the
+         * weight update are zero). Note that some costs still scale with the vocabulary size (nIn): applying the update
+         * to the parameters, and (unless the fused updater is used) dividing the gradient by the minibatch size.<br>
+         * Note that this is a "lazy" update: for updaters with state (Adam, Nesterovs, RmsProp) the state for rows
+         * not present in the minibatch is not decayed, and momentum/l1/l2 is not applied to those rows. Results
+         * therefore differ from the standard (dense) update, except for SGD without l1/l2.<br>
+         * The row-wise update is used for the Sgd, Adam, Nesterovs, RmsProp and NoOp updaters on CPU, when no gradient
+         * normalization is configured for the layer; otherwise, the standard update is used.
+         *
+         * @param sparseGradients If true: use sparse weight gradients
+         */
+        public Builder sparseGradients(boolean sparseGradients) {
+            this.sparseGradients = sparseGradients;
+            return this;
+        }
+
         @Override
         @SuppressWarnings("unchecked")
         public EmbeddingLayer build() {
@@ -0,0 +1,108 @@
+package org.deeplearning4j.nn.conf.memory;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+
+import java.io.Serializable;
+import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A report of the activation memory required for inference (forward pass only) of a
+ * {@link org.deeplearning4j.nn.graph.ComputationGraph}, with and without liveness-based release of activations.<br>
+ * Without release, the activations of every vertex are held until the end of the forward pass. With release, the
+ * activations of each vertex are released as soon as the last vertex (in topological order) that consumes them has
+ * done its forward pass; network outputs are held until the end. The peak live activation memory is then the maximum,
+ * over all steps of the forward pass, of the total size of the activations held at that step.
+ * <p>
+ * All sizes are in number of array elements per example; use {@link #getTotalActivationBytes(int, DataBuffer.Type)}
+ * and {@link #getPeakLiveActivationBytes(int, DataBuffer.Type)} for bytes.
+ */
+@Getter
+@EqualsAndHashCode
+public class ActivationLivenessReport implements Serializable {
+
+    private static final DecimalFormat BYTES_FORMAT = new DecimalFormat("#,###");
+
+    private final InputType[] networkInputTypes;
+    /** Activation size (elements per example) for each vertex, in topological order */
+    private final Map<String, Long> activationSizes;
+    /** Name of the last vertex consuming the activations of each vertex. Null for network outputs */
+    private final Map<String, String> lastConsumers;
+    private final long totalActivationsPerExample;
+    private final long peakLiveActivationsPerExample;
+    /** Name of the vertex during whose forward pass the peak live activation memory occurs */
+    private final String peakVertex;
+
+    public ActivationLivenessReport(@NonNull InputType[] networkInputTypes, @NonNull Map<String, Long> activationSizes,
+                    @NonNull Map<String, String> lastConsumers, long totalActivationsPerExample,
+                    long peakLiveActivationsPerExample, String peakVertex) {
+        this.networkInputTypes = networkInputTypes;
+        this.activationSizes = activationSizes;
+        this.lastConsumers = lastConsumers;
+        this.totalActivationsPerExample = totalActivationsPerExample;
+        this.peakLiveActivationsPerExample = peakLiveActivationsPerExample;
+        this.peakVertex = peakVertex;
+    }
+
+    /**
+     * @param minibatchSize Minibatch size
+     * @param dataType      Data type
+     * @return Total activation memory in bytes, when all activations are held until the end of the forward pass
+     */
+    public long getTotalActivationBytes(int minibatchSize, @NonNull DataBuffer.Type dataType) {
+        return totalActivationsPerExample * minibatchSize * getBytesPerElement(dataType);
+    }
+
+    /**
+     * @param minibatchSize Minibatch size
+     * @param dataType      Data type
+     * @return Peak live activation memory in bytes, when activations are released after their last consumer
+     */
+    public long getPeakLiveActivationBytes(int minibatchSize, @NonNull DataBuffer.Type dataType) {
+        return peakLiveActivationsPerExample * minibatchSize * getBytesPerElement(dataType);
+    }
+
+    /**
+     * @return Ratio of total activation memory to peak live activation memory (i.e., >= 1.0)
+     */
+    public double getReductionFactor() {
+        if (peakLiveActivationsPerExample == 0)
+            return 1.0;
+        return totalActivationsPerExample / (double) peakLiveActivationsPerExample;
+    }
+
+    private static int getBytesPerElement(DataBuffer.Type dataType) {
+        switch (dataType) {
+            case DOUBLE:
+                return 8;
+            case FLOAT:
+                return 4;
+            case HALF:
+                return 2;
+            default:
+                throw new UnsupportedOperationException("Data type not supported: " + dataType);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("----- Inference Activation Liveness Report -----\n")
+                        .append("  Network Input:                            ").append(Arrays.toString(networkInputTypes))
+                        .append("\n").append("  # Vertices:                               ")
+                        .append(activationSizes.size()).append("\n")
+                        .append("  Total Activations, per example (FP32):    ")
+                        .append(BYTES_FORMAT.format(getTotalActivationBytes(1, DataBuffer.Type.FLOAT)))
+                        .append(" bytes\n").append("  Peak Live Activations, per example (FP32): ")
+                        .append(BYTES_FORMAT.format(getPeakLiveActivationBytes(1, DataBuffer.Type.FLOAT)))
+                        .append(" bytes (at vertex \"").append(peakVertex).append("\")\n")
+                        .append("  Reduction Factor:                         ")
+                        .append(String.format("%.2f", getReductionFactor())).append("\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,41 @@
+package org.deeplearning4j.nn.gradient;
+
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Sparse gradient for a 2d parameter, where only a subset of the rows have non-zero gradients - for example, the
+ * weights of an embedding layer, where only the rows for the indices in the minibatch have a non-zero gradient.<br>
+ * Stores the (sorted, unique) indices of the non-zero rows only: the gradient values themselves are in the (dense)
+ * gradient view array of the parameter.
+ */
+@Getter
+public class SparseRowGradient implements Serializable {
+
+    private final int[] rows;
+    private final int numColumns;
+
+    public SparseRowGradient(int[] rows, int numColumns) {
+        this.rows = rows;
+        this.numColumns = numColumns;
+    }
+
+    /**
+     * Create the sparse gradient for a parameter where example i contributes to row rowIndices[i]
+     *
+     * @param rowIndices Row index for each example. May contain duplicates
+     * @param numColumns Number of columns of the parameter
+     */
+    public static SparseRowGradient fromRowIndices(int[] rowIndices, int numColumns) {
+        int[] rows = rowIndices.clone();
+        Arrays.sort(rows);
+        int nUnique = 0;
+        for (int i = 0; i < rows.length; i++) {
+            if (i == 0 || rows[i] != rows[i - 1])
+                rows[nUnique++] = rows[i];
+        }
+        return new SparseRowGradient(Arrays.copyOf(rows, nUnique), numColumns);
+    }
+}
@@ -143,6 +143,11 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
      * (and hence also backward pass, which is the opposite to this) is conducted in the network.
      */
     protected int[] topologicalOrder;
+    /**
+     * Activation release schedule for inference, derived from the topological order. See
+     * {@link #getActivationReleaseSchedule()}
+     */
+    protected int[][] activationReleaseSchedule;
     /**
      * A list of layers. Each of these layers is present in a GraphVertex, but are here for easy reference.
      * This array also defines the order in which the getLayer(int) method returns layers.
@@ -1449,25 +1454,7 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
 
                     layerActivations.put(current.getVertexName(), input);
 
-                    for (VertexIndices v : inputsTo) {
-                        int vIdx = v.getVertexIndex();
-                        int vIdxInputNum = v.getVertexEdgeNumber();
-                        //This input: the 'vIdxInputNum'th input to vertex 'vIdx'
-                        // we're pushing input copies to outer workspace
-                        // FIXME: do we REALLY need this dup()?
-                        if (Nd4j.getWorkspaceManager().checkIfWorkspaceExists(workspaceExternal)
-                                && Nd4j.getMemoryManager().getCurrentWorkspace() != Nd4j.getWorkspaceManager()
-                                .getWorkspaceForCurrentThread(
-                                        ComputationGraph.workspaceExternal)) {
-                            try (MemoryWorkspace wsB = Nd4j.getWorkspaceManager()
-                                    .getWorkspaceForCurrentThread(workspaceExternal).notifyScopeBorrowed()) {
-                                // FIXME: we don't really want detach here
-                                vertices[vIdx].setInput(vIdxInputNum, input);
-                            }
-                        } else {
-                            vertices[vIdx].setInput(vIdxInputNum, input);
-                        }
-                    }
+                    setInputsOfNextVertices(inputsTo, input);
 
                 } else {
                     //Do forward pass:
@@ -1490,27 +1477,7 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                     }
 
                     //Now, set the inputs for the next vertices:
-                    VertexIndices[] outputsTo = current.getOutputVertices();
-                    if (outputsTo != null) {
-                        for (VertexIndices v : outputsTo) {
-                            int vIdx = v.getVertexIndex();
-                            int inputNum = v.getVertexEdgeNumber();
-                            //This (jth) connection from the output: is the 'inputNum'th input to vertex 'vIdx'
-                            if (Nd4j.getWorkspaceManager().checkIfWorkspaceExists(workspaceExternal)
-                                    && Nd4j.getMemoryManager().getCurrentWorkspace() != Nd4j
-                                    .getWorkspaceManager().getWorkspaceForCurrentThread(
-                                            ComputationGraph.workspaceExternal)) {
-                                try (MemoryWorkspace wsB = Nd4j.getWorkspaceManager()
-                                        .getWorkspaceForCurrentThread(workspaceExternal)
-                                        .notifyScopeBorrowed()) {
-                                    // FIXME: we don't really want detach here.
-                                    vertices[vIdx].setInput(inputNum, out);
-                                }
-                            } else {
-                                vertices[vIdx].setInput(inputNum, out);
-                            }
-                        }
-                    }
+                    setInputsOfNextVertices(current.getOutputVertices(), out);
                 }
             }
         }
@@ -1522,6 +1489,170 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
         return layerActivations;
     }
 
+    /**
+     * Forward pass for inference, returning the network outputs only. Unlike {@link #feedForward()}, activations are
+     * not held until the end of the forward pass. When using workspaces (inference workspace mode SEPARATE), each
+     * activation array is returned to a free list as soon as the last vertex consuming it (as per
+     * {@link #getActivationReleaseSchedule()}) has done its forward pass, and the free arrays are reused for the
+     * activations of later vertices with the same length - so that the external workspace holds approximately the
+     * peak live activations, rather than all activations. See
+     * {@link ComputationGraphConfiguration#getActivationLivenessReport(InputType...)} for the peak live activation
+     * memory. Without workspaces, or in SINGLE mode, all activations remain referenced by the vertex inputs until the
+     * next forward pass, as per {@link #feedForward()}.<br>
+     * Network inputs should be set (via {@link #setInputs(INDArray...)}) before calling this method.
+     *
+     * @param train If true: forward pass at training time; false: at test time
+     * @return Network outputs (order: same as defined in network configuration)
+     */
+    protected INDArray[] feedForwardOutputsOnly(boolean train) {
+        int[][] releaseSchedule = getActivationReleaseSchedule();
+        INDArray[] live = new INDArray[vertices.length];
+
+        MemoryWorkspace workspace = configuration.getTrainingWorkspaceMode() == WorkspaceMode.NONE
+                ? new DummyWorkspace()
+                : configuration.getTrainingWorkspaceMode() == WorkspaceMode.SINGLE
+                ? Nd4j.getWorkspaceManager().getWorkspaceForCurrentThread(workspaceExternal)
+                : Nd4j.getWorkspaceManager().getWorkspaceForCurrentThread(
+                workspaceConfigurationFeedForward, workspaceFeedForward);
+
+        //Activation arrays can only be reused when they are copied from the feed forward workspace into the (open)
+        //external workspace: otherwise, activations may be views of other arrays, or referenced after this method
+        boolean recycle = configuration.getTrainingWorkspaceMode() == WorkspaceMode.SEPARATE
+                && Nd4j.getWorkspaceManager().checkIfWorkspaceExists(workspaceExternal)
+                && Nd4j.getMemoryManager().getCurrentWorkspace() == Nd4j.getWorkspaceManager()
+                .getWorkspaceForCurrentThread(workspaceExternal);
+        boolean[] recyclable = new boolean[vertices.length];
+        List<INDArray> freeArrays = new ArrayList<>();
+
+        for (int i = 0; i < topologicalOrder.length; i++) {
+            GraphVertex current = vertices[topologicalOrder[i]];
+            try (MemoryWorkspace ws = workspace.notifyScopeEntered()) {
+                INDArray out;
+                if (current.isInputVertex()) {
+                    out = inputs[current.getVertexIndex()].leverageTo(workspaceExternal);
+                } else if (recycle) {
+                    out = copyToExternal(current.doForward(train), freeArrays);
+                    recyclable[current.getVertexIndex()] = true;
+                } else {
+                    out = current.doForward(train).leverageTo(workspaceExternal);
+                }
+                live[current.getVertexIndex()] = out;
+
+                setInputsOfNextVertices(current.getOutputVertices(), out);
+            }
+
+            //Release the activations for which the current vertex was the last consumer
+            for (int vIdx : releaseSchedule[i]) {
+                if (recyclable[vIdx])
+                    freeArrays.add(live[vIdx]);
+                live[vIdx] = null;
+            }
+        }
+
+        if (!train)
+            if (configuration.getTrainingWorkspaceMode() == WorkspaceMode.SEPARATE)
+                Nd4j.getWorkspaceManager().getWorkspaceForCurrentThread(workspaceFeedForward).initializeWorkspace();
+
+        INDArray[] outputs = new INDArray[numOutputArrays];
+        int i = 0;
+        for (String s : configuration.getNetworkOutputs()) {
+            outputs[i++] = live[verticesMap.get(s).getVertexIndex()];
+        }
+        return outputs;
+    }
+
+    /**
+     * Copy the given activations into the external workspace, reusing a released activation array of the same length
+     * and order if one is available
+     */
+    private INDArray copyToExternal(INDArray activations, List<INDArray> freeArrays) {
+        try (MemoryWorkspace wsB = Nd4j.getWorkspaceManager().getWorkspaceForCurrentThread(workspaceExternal)
+                .notifyScopeBorrowed()) {
+            for (int j = 0; j < freeArrays.size(); j++) {
+                INDArray free = freeArrays.get(j);
+                if (free.length() == activations.length() && free.ordering() == activations.ordering()) {
+                    freeArrays.remove(j);
+                    return free.reshape(activations.ordering(), activations.shape()).assign(activations);
+                }
+            }
+            return Nd4j.createUninitialized(activations.shape(), activations.ordering()).assign(activations);
+        }
+    }
+
+    /**
+     * Get the activation release schedule for inference, calculated once from the topological order: element i
+     * contains the indices of the vertices whose activations are no longer required after the forward pass of vertex
+     * topologicalOrder[i] (i.e., vertex topologicalOrder[i] is the last consumer of those activations). Activations
+     * that are not consumed by any vertex are released straight after they are calculated. Network outputs are never
+     * released.
+     *
+     * @return Activation release schedule, indexed by position in the topological order
+     */
+    protected int[][] getActivationReleaseSchedule() {
+        if (activationReleaseSchedule != null)
+            return activationReleaseSchedule;
+
+        int[] position = new int[vertices.length];
+        for (int i = 0; i < topologicalOrder.length; i++) {
+            position[topologicalOrder[i]] = i;
+        }
+
+        Set<Integer> networkOutputIdxs = new HashSet<>();
+        for (String s : configuration.getNetworkOutputs()) {
+            networkOutputIdxs.add(verticesMap.get(s).getVertexIndex());
+        }
+
+        List<List<Integer>> release = new ArrayList<>(topologicalOrder.length);
+        for (int i = 0; i < topologicalOrder.length; i++) {
+            release.add(new ArrayList<Integer>());
+        }
+        for (GraphVertex gv : vertices) {
+            int vIdx = gv.getVertexIndex();
+            if (networkOutputIdxs.contains(vIdx))
+                continue;
+            int lastConsumer = position[vIdx];
+            VertexIndices[] outputsTo = gv.getOutputVertices();
+            if (outputsTo != null) {
+                for (VertexIndices v : outputsTo) {
+                    lastConsumer = Math.max(lastConsumer, position[v.getVertexIndex()]);
+                }
+            }
+            release.get(lastConsumer).add(vIdx);
+        }
+
+        int[][] schedule = new int[topologicalOrder.length][0];
+        for (int i = 0; i < schedule.length; i++) {
+            List<Integer> l = release.get(i);
+            schedule[i] = new int[l.size()];
+            for (int j = 0; j < schedule[i].length; j++) {
+                schedule[i][j] = l.get(j);
+            }
+        }
+        activationReleaseSchedule = schedule;
+        return schedule;
+    }
+
+    private void setInputsOfNextVertices(VertexIndices[] outputsTo, INDArray out) {
+        if (outputsTo == null)
+            return;
+        for (VertexIndices v : outputsTo) {
+            int vIdx = v.getVertexIndex();
+            int inputNum = v.getVertexEdgeNumber();
+            //This connection from the output: is the 'inputNum'th input to vertex 'vIdx'
+            if (Nd4j.getWorkspaceManager().checkIfWorkspaceExists(workspaceExternal)
+                    && Nd4j.getMemoryManager().getCurrentWorkspace() != Nd4j.getWorkspaceManager()
+                    .getWorkspaceForCurrentThread(ComputationGraph.workspaceExternal)) {
+                try (MemoryWorkspace wsB = Nd4j.getWorkspaceManager()
+                        .getWorkspaceForCurrentThread(workspaceExternal).notifyScopeBorrowed()) {
+                    // FIXME: we don't really want detach here.
+                    vertices[vIdx].setInput(inputNum, out);
+                }
+            } else {
+                vertices[vIdx].setInput(inputNum, out);
+            }
+        }
+    }
+
     /**
      * Return an array of network outputs (predictions) at test time, given the specified network inputs
      * Network outputs are for output layers only.
@@ -1573,13 +1704,7 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
 
     protected INDArray[] silentOutput(boolean train, INDArray... input) {
         setInputs(input);
-        Map<String, INDArray> activations = feedForward(false, false, false, false);
-        INDArray[] outputs = new INDArray[numOutputArrays];
-        int i = 0;
-        for (String s : configuration.getNetworkOutputs()) {
-            outputs[i++] = activations.get(s);
-        }
-        return outputs;
+        return feedForwardOutputsOnly(false);
     }
 
     /**
@@ -1600,6 +1725,58 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
         return output(train, input)[0];
     }
 
+    /**
+     * Create a new inference context for this graph. A context holds all of the state for a forward pass, and shares
+     * this graph's parameters: one context per thread allows multiple threads to use
+     * {@link #output(GraphInferenceContext, INDArray...)} with this graph concurrently, without creating copies of
+     * the graph.
+     *
+     * @return A new inference context, for use by one thread at a time
+     */
+    public GraphInferenceContext createInferenceContext() {
+        if (!initCalled)
+            init();
+        return new GraphInferenceContext(this);
+    }
+
+    /**
+     * Return the network outputs at test time, using the given inference context. Unlike {@link #output(INDArray...)},
+     * this method does not modify the state of this graph: it is safe to call concurrently from multiple threads, as
+     * long as each thread uses its own context (and the graph is not being trained at the same time).
+     *
+     * @param context Inference context, created by {@link #createInferenceContext()} on this graph
+     * @param input   Inputs to the network
+     * @return Output activations (order: same as defined in network configuration)
+     */
+    public INDArray[] output(GraphInferenceContext context, INDArray... input) {
+        return output(context, input, null);
+    }
+
+    /**
+     * Return the network outputs at test time with (optional) feature mask arrays, using the given inference context.
+     * See {@link #output(GraphInferenceContext, INDArray...)}
+     *
+     * @param context     Inference context, created by {@link #createInferenceContext()} on this graph
+     * @param input       Inputs to the network
+     * @param inputMasks  Mask arrays for the inputs. May be null
+     * @return Output activations (order: same as defined in network configuration)
+     */
+    public INDArray[] output(GraphInferenceContext context, INDArray[] input, INDArray[] inputMasks) {
+        if (context.getGraph() != this)
+            throw new IllegalArgumentException("Invalid inference context: context was created by another graph");
+
+        ComputationGraph worker = context.getWorker();
+        if (inputMasks == null)
+            return worker.output(false, input);
+
+        worker.setLayerMaskArrays(inputMasks, null);
+        try {
+            return worker.output(false, input);
+        } finally {
+            worker.clearLayerMaskArrays();
+        }
+    }
+
     /**
      * Calculate the gradient of the network with respect to some external errors.
      * Note that this is typically used for things like reinforcement learning, not typical networks that include
@@ -0,0 +1,50 @@
+package org.deeplearning4j.nn.graph;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * Caller-owned state for inference with a {@link ComputationGraph}: see
+ * {@link ComputationGraph#createInferenceContext()} and
+ * {@link ComputationGraph#output(GraphInferenceContext, INDArray...)}.<br>
+ * A context holds everything that a forward pass modifies - network inputs, vertex inputs and activations, mask
+ * arrays and workspaces - in its own set of vertices. Those vertices use the parameter arrays of the graph that
+ * created the context directly (parameters are not copied), so any number of threads can do inference concurrently
+ * with a single graph, using one context per thread.
+ * <p>
+ * A context must not be used by more than one thread at the same time. Contexts are cheap to keep around, and should
+ * be reused between calls where possible: the vertices are created on first use.
+ * If the graph's parameters array is replaced (for example, by re-initializing the graph) the context is updated
+ * automatically on the next call.
+ */
+public class GraphInferenceContext {
+
+    private final ComputationGraph graph;
+    private INDArray params;
+    private ComputationGraph worker;
+
+    GraphInferenceContext(ComputationGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * @return The graph that created this context
+     */
+    public ComputationGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Get the graph instance (sharing the parameters of the original graph) used to hold the state for this context,
+     * creating it if necessary
+     */
+    ComputationGraph getWorker() {
+        INDArray current = graph.params();
+        if (worker == null || current != params) {
+            ComputationGraph w = new ComputationGraph(graph.getConfiguration().clone());
+            w.init(current, false);
+            worker = w;
+            params = current;
+        }
+        return worker;
+    }
+}
@@ -36,7 +36,9 @@ import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.shape.Shape;
 import org.nd4j.linalg.convolution.Convolution;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.primitives.Pair;
+import org.nd4j.linalg.util.ArrayUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,6 +61,7 @@ public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
 
     protected transient INDArray dummyBias;     //Used only when: hasBias == false AND helpers are used
     protected transient INDArray dummyBiasGrad; //As above
+    protected transient INDArray im2colBuffer;  //Used only when: im2colBufferReuse == true
 
     public ConvolutionLayer(NeuralNetConfiguration conf) {
         super(conf);
@@ -199,7 +202,7 @@ public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
         //to get old order from required order: permute(0,3,4,5,1,2)
         INDArray im2col2d = p.getSecond(); //Re-use im2col2d array from forward pass if available; recalculate if not
         if (im2col2d == null) {
-            INDArray col = Nd4j.createUninitialized(new int[] {miniBatch, outH, outW, inDepth, kH, kW}, 'c');
+            INDArray col = getIm2colArray(true, new int[] {miniBatch, outH, outW, inDepth, kH, kW});
             INDArray col2 = col.permute(0, 3, 4, 5, 1, 2);
             Convolution.im2col(input, kH, kW, strides[0], strides[1], pad[0], pad[1], dilation[0], dilation[1],
                             convolutionMode == ConvolutionMode.Same, col2);
@@ -218,7 +221,16 @@ public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
 
         //Calculate epsilons for layer below, in 2d format (note: this is in 'image patch' format before col2im reduction)
         //Note: cc -> f mmul here, then reshape to 6d in f order
-        INDArray epsNext2d = w2d.mmul(delta2d); //TODO can we reuse im2col array instead of allocating new result array?
+        INDArray epsNext2d;
+        if (layerConf().isIm2colBufferReuse() && im2col2d != i2d) {
+            //im2col2d isn't required after the weight gradient calculation (and isn't the cached copy): reuse it.
+            //im2col2d is c order [miniBatch*outH*outW, inDepth*kH*kW], hence its transpose is f order
+            // [inDepth*kH*kW, miniBatch*outH*outW] - exactly the buffer layout of the mmul result below
+            epsNext2d = im2col2d.transpose();
+            Nd4j.gemm(w2d, delta2d, epsNext2d, false, false, 1.0, 0.0);
+        } else {
+            epsNext2d = w2d.mmul(delta2d);
+        }
         INDArray eps6d = Shape.newShapeNoCopy(epsNext2d, new int[] {kW, kH, inDepth, outW, outH, miniBatch}, true);
 
         //Calculate epsilonNext by doing im2col reduction.
@@ -361,7 +373,7 @@ public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
         //To get this: create an array of the order we want, permute it to the order required by im2col implementation, and then do im2col on that
         //to get old order from required order: permute(0,3,4,5,1,2)
         //Post reshaping: rows are such that minibatch varies slowest, outW fastest as we step through the rows post-reshape
-        INDArray col = Nd4j.createUninitialized(new int[] {miniBatch, outH, outW, inDepth, kH, kW}, 'c');
+        INDArray col = getIm2colArray(forBackprop, new int[] {miniBatch, outH, outW, inDepth, kH, kW});
         INDArray col2 = col.permute(0, 3, 4, 5, 1, 2);
         Convolution.im2col(input, kH, kW, strides[0], strides[1], pad[0], pad[1], dilation[0], dilation[1],
                         convolutionMode == ConvolutionMode.Same, col2);
@@ -407,6 +419,31 @@ public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
         return new Pair<>(z, forBackprop ? im2col2d : null);
     }
 
+    /**
+     * Get a (c order, uninitialized) array for the im2col operation. When im2colBufferReuse is enabled and the array
+     * is for backprop, this is a view of a buffer that is retained by the layer (outside of any workspaces) and reused
+     * between iterations; the buffer is only reallocated when a larger array is required.
+     */
+    protected INDArray getIm2colArray(boolean forBackprop, int[] shape) {
+        if (!forBackprop || !layerConf().isIm2colBufferReuse()) {
+            return Nd4j.createUninitialized(shape, 'c');
+        }
+
+        int length = ArrayUtil.prod(shape);
+        if (im2colBuffer == null || im2colBuffer.length() < length) {
+            try (MemoryWorkspace wsO = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+                im2colBuffer = Nd4j.createUninitialized(new int[] {1, length}, 'c');
+            }
+        }
+        INDArray view = im2colBuffer.get(NDArrayIndex.point(0), NDArrayIndex.interval(0, length));
+        INDArray ret = Shape.newShapeNoCopy(view, shape, false);
+        if (ret == null) {
+            //Should never happen (view is contiguous), but fall back to a new array if so
+            ret = Nd4j.createUninitialized(shape, 'c');
+        }
+        return ret;
+    }
+
     @Override
     public INDArray activate(boolean training) {
         if (input == null) {
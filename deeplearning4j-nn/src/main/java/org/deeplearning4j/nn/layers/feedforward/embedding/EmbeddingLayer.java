@@ -25,6 +25,7 @@ import org.deeplearning4j.exception.DL4JInvalidInputException;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.gradient.SparseRowGradient;
 import org.deeplearning4j.nn.layers.BaseLayer;
 import org.deeplearning4j.nn.params.DefaultParamInitializer;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -45,6 +46,11 @@ import org.nd4j.linalg.primitives.Pair;
 public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.EmbeddingLayer> {
     private static final int[] DIM_1 = new int[]{1};
 
+    //Sparse gradients only: the weight gradient (rows present) for the last minibatch
+    private SparseRowGradient sparseGradient;
+    //Sparse gradients only: rows of the weight gradient view that may be non-zero, or null if not known
+    private int[] nonZeroGradientRows;
+
     public EmbeddingLayer(NeuralNetConfiguration conf) {
         super(conf);
     }
@@ -61,16 +67,30 @@ public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.
         }
 
         INDArray weightGradients = gradientViews.get(DefaultParamInitializer.WEIGHT_KEY);
-        weightGradients.assign(0);
 
         int[] indexes = new int[input.length()];
         for (int i = 0; i < indexes.length; i++) {
             indexes[i] = input.getInt(i, 0);
         }
 
+        if (isSparseGradients() && nonZeroGradientRows != null) {
+            //Only the rows written by the last iteration can be non-zero: no need to zero the entire view
+            for (int row : nonZeroGradientRows) {
+                weightGradients.getRow(row).assign(0);
+            }
+        } else {
+            weightGradients.assign(0);
+        }
         ScatterUpdate op = new ScatterUpdate(weightGradients, delta, indexes, DIM_1, ScatterUpdate.UpdateOp.ADD);
         Nd4j.getExecutioner().exec(op);
 
+        if (isSparseGradients()) {
+            //Gradient view holds the full gradient as usual; the rows present in the minibatch are also recorded, so
+            // that the updater can be applied row-wise, for those rows only
+            sparseGradient = SparseRowGradient.fromRowIndices(indexes, weightGradients.columns());
+            nonZeroGradientRows = null;
+        }
+
         Gradient ret = new DefaultGradient();
         ret.gradientForVariable().put(DefaultParamInitializer.WEIGHT_KEY, weightGradients);
 
@@ -83,6 +103,47 @@ public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.
         return new Pair<>(ret, null); //Don't bother returning epsilons: no layer below this one...
     }
 
+    /**
+     * @return True if sparse (row-wise) weight gradients are enabled for this layer
+     * @see org.deeplearning4j.nn.conf.layers.EmbeddingLayer.Builder#sparseGradients(boolean)
+     */
+    public boolean isSparseGradients() {
+        return layerConf().isSparseGradients();
+    }
+
+    /**
+     * @return The sparse weight gradient (rows present in the minibatch) from the last call to
+     * {@link #backpropGradient(INDArray)}, or null if sparse gradients are not enabled. The same gradient is also in
+     * the weight gradient view array
+     */
+    public SparseRowGradient getSparseGradient() {
+        return sparseGradient;
+    }
+
+    /**
+     * Clear the sparse weight gradient, after it has been applied by the updater
+     */
+    public void clearSparseGradient() {
+        sparseGradient = null;
+    }
+
+    /**
+     * Set the rows of the weight gradient view that may be non-zero. If set, only these rows are zeroed before the
+     * next call to {@link #backpropGradient(INDArray)}, instead of the entire view. This is set by the row-wise updater;
+     * anything else that modifies other rows of the gradient view must set it to null.
+     *
+     * @param rows Rows of the weight gradient view that may be non-zero, or null if not known
+     */
+    public void setNonZeroGradientRows(int[] rows) {
+        this.nonZeroGradientRows = rows;
+    }
+
+    @Override
+    public void setBackpropGradientsViewArray(INDArray gradients) {
+        super.setBackpropGradientsViewArray(gradients);
+        nonZeroGradientRows = null;
+    }
+
     @Override
     public INDArray preOutput(boolean training) {
         if (input.columns() != 1) {
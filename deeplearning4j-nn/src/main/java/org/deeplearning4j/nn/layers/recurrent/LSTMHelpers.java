@@ -186,6 +186,16 @@ public class LSTMHelpers {
             }
         }
 
+        //Input projections (input activations + forget, output, input modulation gates) don't depend on the previous
+        // time step: calculate them for all time steps with a single GEMM - [miniBatch*T,nIn] x [nIn,4*layerSize] -
+        // instead of one small GEMM per time step. Only the recurrent part is calculated in the time loop.
+        //Rows time*miniBatch to (time+1)*miniBatch-1 are the projections for the given time step
+        INDArray inputProjections = null;
+        if (timeSeriesLength > 1) {
+            inputProjections = Nd4j.create(new int[] {miniBatchSize * timeSeriesLength, 4 * hiddenLayerSize}, 'f');
+            Nd4j.gemm(stackTimeSteps(input), inputWeights, inputProjections, false, false, 1.0, 0.0);
+        }
+
         for (int iTimeIndex = 0; iTimeIndex < timeSeriesLength; iTimeIndex++) {
             int time = iTimeIndex;
 
@@ -193,17 +203,23 @@ public class LSTMHelpers {
                 time = timeSeriesLength - iTimeIndex - 1;
             }
 
-
-            INDArray miniBatchData = (is2dInput ? input : input.tensorAlongDimension(time, 1, 0)); //[Expected shape: [m,nIn]. Also deals with edge case of T=1, with 'time series' data of shape [m,nIn], equiv. to [m,nIn,1]
-            miniBatchData = Shape.toMmulCompatible(miniBatchData);
-
             // if we're using cache here - let's create ifogActivations within cache workspace, so all views from this array will be valid in cache
             if (cacheMode != CacheMode.NONE)
                 Nd4j.getWorkspaceManager().getWorkspaceForCurrentThread(ComputationGraph.workspaceCache)
                                 .notifyScopeBorrowed();
 
             //Calculate activations for: network input + forget, output, input modulation gates. Next 3 lines are first part of those
-            INDArray ifogActivations = miniBatchData.mmul(inputWeights); //Shape: [miniBatch,4*layerSize]
+            INDArray ifogActivations; //Shape: [miniBatch,4*layerSize]
+            if (inputProjections != null) {
+                //Copy: ifogActivations is modified in-place, and needs to be f order + contiguous for the axpy ops below
+                ifogActivations = inputProjections.get(
+                                NDArrayIndex.interval(time * miniBatchSize, (time + 1) * miniBatchSize),
+                                NDArrayIndex.all()).dup('f');
+            } else {
+                //Single time step (including rnnTimeStep): [m,nIn] or [m,nIn,1] input
+                INDArray miniBatchData = (is2dInput ? input : input.tensorAlongDimension(time, 1, 0));
+                ifogActivations = Shape.toMmulCompatible(miniBatchData).mmul(inputWeights);
+            }
 
             if (cacheMode != CacheMode.NONE)
                 Nd4j.getWorkspaceManager().getWorkspaceForCurrentThread(ComputationGraph.workspaceCache)
@@ -418,8 +434,12 @@ public class LSTMHelpers {
 
 
         INDArray wIFOG = recurrentWeights.get(NDArrayIndex.all(), NDArrayIndex.interval(0, 4 * hiddenLayerSize));
-        //F order here so that content for time steps are together
-        INDArray epsilonNext = Nd4j.create(new int[] {miniBatchSize, prevLayerSize, timeSeriesLength}, 'f'); //i.e., what would be W^L*(delta^L)^T. Shape: [m,n^(L-1),T]
+
+        //Deltas for all time steps, stacked as per the input projections in the forward pass: rows time*m to
+        // (time+1)*m-1 are the deltas for the given time step. Input weight gradients, bias gradients and epsilonNext
+        // don't depend on the next time step, so are calculated after the time loop with a single GEMM each.
+        //Zero initialized: time steps not used for truncated BPTT have no contribution
+        INDArray deltaifogAll = Nd4j.create(new int[] {miniBatchSize * timeSeriesLength, 4 * hiddenLayerSize}, 'f');
 
         INDArray nablaCellStateNext = null;
 
@@ -608,21 +628,13 @@ public class LSTMHelpers {
                 //Later, the deltaifogNext is used to calculate: input weight gradients, recurrent weight gradients, bias gradients
             }
 
-            INDArray prevLayerActivationSlice =
-                            Shape.toMmulCompatible(is2dInput ? input : input.tensorAlongDimension(time, 1, 0));
-            if (iTimeIndex > 0 || prevHiddenUnitActivation != null) { //For time == 0 && no prevMemCellState, equivalent to muli by 0
-                //Note that prevHiddenUnitActivations may be non-null at t=0 for TBPTT
-                //Again, deltaifog_current == deltaifogNext at this point... same array
-                Nd4j.gemm(prevLayerActivationSlice, deltaifogNext, iwGradientsOut, true, false, 1.0, 1.0);
-            } else {
-                INDArray iwGradients_i =
-                                iwGradientsOut.get(NDArrayIndex.all(), NDArrayIndex.interval(0, hiddenLayerSize));
-                Nd4j.gemm(prevLayerActivationSlice, deltai, iwGradients_i, true, false, 1.0, 1.0);
-                INDArray iwGradients_og = iwGradientsOut.get(NDArrayIndex.all(),
-                                NDArrayIndex.interval(2 * hiddenLayerSize, 4 * hiddenLayerSize));
-                INDArray deltaog = deltaifogNext.get(NDArrayIndex.all(),
-                                NDArrayIndex.interval(2 * hiddenLayerSize, 4 * hiddenLayerSize));
-                Nd4j.gemm(prevLayerActivationSlice, deltaog, iwGradients_og, true, false, 1.0, 1.0);
+            INDArray deltaifogTime = deltaifogAll.get(
+                            NDArrayIndex.interval(time * miniBatchSize, (time + 1) * miniBatchSize), NDArrayIndex.all());
+            deltaifogTime.assign(deltaifogNext);
+            if (iTimeIndex == 0 && prevHiddenUnitActivation == null) {
+                //No contribution from forget gate at t=0 (deltaf is not calculated for this time step)
+                deltaifogTime.get(NDArrayIndex.all(), NDArrayIndex.interval(hiddenLayerSize, 2 * hiddenLayerSize))
+                                .assign(0);
             }
 
             if (iTimeIndex > 0 || prevHiddenUnitActivation != null) {
@@ -647,45 +659,24 @@ public class LSTMHelpers {
                 l1BLAS.axpy(hiddenLayerSize, 1.0, dLdwOO, rwGradientsOO); //rwGradients[5].addi(dLdwOO);    //dL/dw_{OOxy}
             }
 
-            if (iTimeIndex > 0 || prevHiddenUnitActivation != null) { //For time == 0 && no prevMemCellState, equivalent to muli by 0
-                //Note that prevHiddenUnitActivation may be non-null at t=0 for TBPTT
-                l1BLAS.axpy(4 * hiddenLayerSize, 1.0, deltaifogNext.sum(0), bGradientsOut);
-            } else {
-                l1BLAS.axpy(hiddenLayerSize, 1.0, deltai.sum(0), bGradientsOut); //Sneaky way to do bGradients_i += deltai.sum(0)
-                INDArray ogBiasToAdd = deltaifogNext.get(NDArrayIndex.all(),
-                                NDArrayIndex.interval(2 * hiddenLayerSize, 4 * hiddenLayerSize)).sum(0);
-                INDArray ogBiasGrad = bGradientsOut.get(NDArrayIndex.point(0),
-                                NDArrayIndex.interval(2 * hiddenLayerSize, 4 * hiddenLayerSize));
-                l1BLAS.axpy(2 * hiddenLayerSize, 1.0, ogBiasToAdd, ogBiasGrad);
-            }
-
-            //Calculate epsilonNext - i.e., equiv. to what would be (w^L*(d^(Lt))^T)^T in a normal network
-            //But here, need to add 4 weights * deltas for the IFOG gates
-            INDArray epsilonNextSlice = epsilonNext.tensorAlongDimension(time, 1, 0); //This slice: f order and contiguous, due to epsilonNext being defined as f order.
-            if (iTimeIndex > 0 || prevHiddenUnitActivation != null) {
-                //Note that prevHiddenUnitActivation may be non-null at t=0 for TBPTT
-                Nd4j.gemm(deltaifogNext, inputWeights, epsilonNextSlice, false, true, 1.0, 1.0);
-            } else {
-                //No contribution from forget gate at t=0
-                INDArray wi = inputWeights.get(NDArrayIndex.all(), NDArrayIndex.interval(0, hiddenLayerSize));
-                Nd4j.gemm(deltai, wi, epsilonNextSlice, false, true, 1.0, 1.0);
-                INDArray deltaog = deltaifogNext.get(NDArrayIndex.all(),
-                                NDArrayIndex.interval(2 * hiddenLayerSize, 4 * hiddenLayerSize));
-                INDArray wog = inputWeights.get(NDArrayIndex.all(),
-                                NDArrayIndex.interval(2 * hiddenLayerSize, 4 * hiddenLayerSize));
-                Nd4j.gemm(deltaog, wog, epsilonNextSlice, false, true, 1.0, 1.0); //epsilonNextSlice.addi(deltao.mmul(woTranspose)).addi(deltag.mmul(wgTranspose));
-            }
-
-            if (maskArray != null) {
-                //Mask array is present: bidirectional RNN -> need to zero out these errors to avoid sending anything
-                // but 0s to the layer below at this time step (for the given example)
-                epsilonNextSlice.muliColumnVector(timeStepMaskColumn);
-            }
-
             if (workspace != null)
                 workspace.close();
         }
 
+        //Input weight gradients: sum over time steps of input^T * deltaifog, as a single GEMM
+        Nd4j.gemm(stackTimeSteps(input), deltaifogAll, iwGradientsOut, true, false, 1.0, 1.0);
+        l1BLAS.axpy(4 * hiddenLayerSize, 1.0, deltaifogAll.sum(0), bGradientsOut);
+
+        //Calculate epsilonNext - i.e., equiv. to what would be (w^L*(d^(Lt))^T)^T in a normal network
+        //But here, need to add 4 weights * deltas for the IFOG gates. Masked time steps have zero deltas, and hence
+        // zero epsilons
+        INDArray epsilonStacked = Nd4j.create(new int[] {miniBatchSize * timeSeriesLength, prevLayerSize}, 'f');
+        Nd4j.gemm(deltaifogAll, inputWeights, epsilonStacked, false, true, 1.0, 0.0);
+        //F order here so that content for time steps are together
+        INDArray epsilonNext = Nd4j.create(new int[] {miniBatchSize, prevLayerSize, timeSeriesLength}, 'f'); //i.e., what would be W^L*(delta^L)^T. Shape: [m,n^(L-1),T]
+        epsilonNext.assign(epsilonStacked.reshape('f', miniBatchSize, timeSeriesLength, prevLayerSize)
+                        .permute(0, 2, 1));
+
         Gradient retGradient = new DefaultGradient();
         retGradient.gradientForVariable().put(inputWeightKey, iwGradientsOut);
         retGradient.gradientForVariable().put(recurrentWeightKey, rwGradientsOut);
@@ -695,6 +686,21 @@ public class LSTMHelpers {
     }
 
 
+    /**
+     * Stack the time steps of a time series input of shape [miniBatch,nIn,T] as rows of a 2d array of shape
+     * [miniBatch*T,nIn] (f order), such that rows time*miniBatch to (time+1)*miniBatch-1 are the input at the given
+     * time step. This allows the input projections for all time steps to be calculated with a single GEMM.
+     */
+    private static INDArray stackTimeSteps(INDArray input) {
+        if (input.rank() < 3)
+            return Shape.toMmulCompatible(input);
+        int miniBatchSize = input.size(0);
+        int nIn = input.size(1);
+        int timeSeriesLength = input.size(2);
+        //[m,nIn,T] -> [m,T,nIn] (f order) -> [m*T,nIn] with row index = example + m * time. The reshape is a view
+        return input.permute(0, 2, 1).dup('f').reshape('f', miniBatchSize * timeSeriesLength, nIn);
+    }
+
     public static LayerMemoryReport getMemoryReport(AbstractLSTM lstmLayer, InputType inputType) {
         boolean isGraves = lstmLayer instanceof org.deeplearning4j.nn.conf.layers.GravesLSTM;
         return getMemoryReport(isGraves, lstmLayer, inputType);
@@ -736,7 +742,9 @@ public class LSTMHelpers {
 
         //Memory use during forward pass:
         //ifogActivations: nTimeSteps * [minibatch,4*layerSize] (not cached during inference fwd pass)
+        //Input projections for all time steps: [minibatch*nTimeSteps,4*layerSize], plus the input, stacked by time step
         int workingMemInferencePerEx = tsLength * 4 * lstmLayer.getNOut(); //Reduced by factor of tsLength if using workspace
+        workingMemInferencePerEx += tsLength * (4 * lstmLayer.getNOut() + lstmLayer.getNIn());
 
         //For training, we also have
         //nTimeSteps * 5 * [minibatch, nOut] - 4 x gate pre-outs, memory cell state - may be cached
@@ -0,0 +1,50 @@
+package org.deeplearning4j.nn.multilayer;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * Caller-owned state for inference with a {@link MultiLayerNetwork}: see
+ * {@link MultiLayerNetwork#createInferenceContext()} and
+ * {@link MultiLayerNetwork#output(MultiLayerInferenceContext, INDArray)}.<br>
+ * A context holds everything that a forward pass modifies - layer inputs, activations, mask arrays and workspaces -
+ * in its own set of layer instances. Those layers use the parameter arrays of the network that created the context
+ * directly (parameters are not copied), so any number of threads can do inference concurrently with a single
+ * network, using one context per thread.
+ * <p>
+ * A context must not be used by more than one thread at the same time. Contexts are cheap to keep around, and should
+ * be reused between calls where possible: the layers are created on first use.
+ * If the network's parameters array is replaced (for example, by re-initializing the network) the context is updated
+ * automatically on the next call.
+ */
+public class MultiLayerInferenceContext {
+
+    private final MultiLayerNetwork network;
+    private INDArray params;
+    private MultiLayerNetwork worker;
+
+    MultiLayerInferenceContext(MultiLayerNetwork network) {
+        this.network = network;
+    }
+
+    /**
+     * @return The network that created this context
+     */
+    public MultiLayerNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * Get the network instance (sharing the parameters of the original network) used to hold the state for this
+     * context, creating it if necessary
+     */
+    MultiLayerNetwork getWorker() {
+        INDArray current = network.params();
+        if (worker == null || current != params) {
+            MultiLayerNetwork w = new MultiLayerNetwork(network.getLayerWiseConfigurations().clone());
+            w.init(current, false);
+            worker = w;
+            params = current;
+        }
+        return worker;
+    }
+}
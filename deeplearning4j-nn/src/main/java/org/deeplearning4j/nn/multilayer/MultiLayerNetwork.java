@@ -1948,6 +1948,55 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
         return output(input, TrainingMode.TEST);
     }
 
+    /**
+     * Create a new inference context for this network. A context holds all of the state for a forward pass, and
+     * shares this network's parameters: one context per thread allows multiple threads to use
+     * {@link #output(MultiLayerInferenceContext, INDArray)} with this network concurrently, without creating copies
+     * of the network.
+     *
+     * @return A new inference context, for use by one thread at a time
+     */
+    public MultiLayerInferenceContext createInferenceContext() {
+        if (!initCalled)
+            init();
+        return new MultiLayerInferenceContext(this);
+    }
+
+    /**
+     * Calculate the output of the network at test time, using the given inference context. Unlike
+     * {@link #output(INDArray)}, this method does not modify the state of this network: it is safe to call
+     * concurrently from multiple threads, as long as each thread uses its own context (and the network is not being
+     * trained at the same time).
+     *
+     * @param context Inference context, created by {@link #createInferenceContext()} on this network
+     * @param input   Input to the network
+     * @return Network output
+     */
+    public INDArray output(MultiLayerInferenceContext context, INDArray input) {
+        return output(context, input, null, null);
+    }
+
+    /**
+     * Calculate the output of the network at test time with masking arrays, using the given inference context.
+     * See {@link #output(MultiLayerInferenceContext, INDArray)}
+     *
+     * @param context      Inference context, created by {@link #createInferenceContext()} on this network
+     * @param input        Input to the network
+     * @param featuresMask Features mask array. May be null
+     * @param labelsMask   Labels mask array. May be null
+     * @return Network output
+     */
+    public INDArray output(MultiLayerInferenceContext context, INDArray input, INDArray featuresMask,
+                    INDArray labelsMask) {
+        if (context.getNetwork() != this)
+            throw new IllegalArgumentException("Invalid inference context: context was created by another network");
+
+        MultiLayerNetwork worker = context.getWorker();
+        if (featuresMask == null && labelsMask == null)
+            return worker.output(input, false);
+        return worker.output(input, false, featuresMask, labelsMask);
+    }
+
     /**
      * Label the probabilities of the input
      *
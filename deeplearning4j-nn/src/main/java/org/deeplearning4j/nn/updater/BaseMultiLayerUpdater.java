@@ -41,6 +41,11 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
     protected Map<String, Layer> layersByName;
     protected final List<UpdaterBlock> updaterBlocks;
     protected INDArray updaterStateViewArray;
+    /**
+     * If true (and supported): apply the updater using {@link FusedUpdater}, a single pass per updater block for gradient
+     * normalization, updater, L1/L2 and minibatch division. See {@link #setFusedUpdate(boolean)}
+     */
+    protected boolean fusedUpdate = false;
 
     public BaseMultiLayerUpdater(T network) {
         this(network, null);
@@ -89,8 +94,11 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
                     }
 
                     //First: decide whether to add to the existing updater block, or create a new one
-                    if (currentBlock == null || !UpdaterUtils.updaterConfigurationsEquals(lastLayer, lastVariable,
-                                    layers[i], var)) {
+                    //Parameters with sparse row gradients are always in a block of their own
+                    boolean sparseRows = SparseRowUpdater.isSparseRowParam(layers[i], var);
+                    if (currentBlock == null || sparseRows || currentBlock.isSparseRows()
+                                    || !UpdaterUtils.updaterConfigurationsEquals(lastLayer, lastVariable, layers[i],
+                                                    var)) {
                         //Create a new block
                         List<UpdaterBlock.ParamState> list = new ArrayList<>();
                         list.add(new UpdaterBlock.ParamState(layers[i], var, paramsViewSoFar,
@@ -98,6 +106,7 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
                         currentBlock = new UpdaterBlock(paramsViewSoFar, paramsViewSoFar + paramSizeThisVariable,
                                         currentUpdaterOffset, currentUpdaterOffset + updaterStateSizeThisVariable,
                                         list);
+                        currentBlock.setSparseRows(sparseRows);
 
                         updaterBlocks.add(currentBlock);
                     } else {
@@ -204,6 +213,20 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
         return updaterStateViewArray;
     }
 
+    /**
+     * Enable or disable fused updates. When enabled, each updater block that is supported by {@link FusedUpdater}
+     * (SGD, Adam, Nesterovs, RmsProp and NoOp updaters; float/double precision; CPU backend) applies gradient
+     * normalization, the updater, L1/L2 regularization and division by the minibatch size in a single pass over
+     * the block's gradient, parameter and updater state views, instead of a separate op (pass) for each.
+     * Other updater blocks (and external gradients) use the standard update path.<br>
+     * Default: false
+     *
+     * @param fusedUpdate Whether fused updates should be used, when supported
+     */
+    public void setFusedUpdate(boolean fusedUpdate) {
+        this.fusedUpdate = fusedUpdate;
+    }
+
     @Override
     public void update(Layer layer, Gradient gradient, int iteration, int epoch, int batchSize) {
         update(gradient, iteration, epoch, batchSize);
@@ -227,6 +250,11 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
         // hence should be the same object under normal circumstances
         boolean isExternal = gradient.gradient() != getFlattenedGradientsView();
 
+        if (fusedUpdate && !isExternal && isFusedUpdateSupported()) {
+            updateFused(iteration, epoch, batchSize);
+            return;
+        }
+
         //Split up the gradients on a per-layer basis, for pre-apply
         Map<String, Gradient> layerGradients = new HashMap<>();
 
@@ -276,6 +304,9 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
                     if (isExternal) {
                         //RL4J etc type case: calculate gradients in 1 net, update them in another
                         ub.updateExternalGradient(iteration, epoch, gradient.gradient(), getParams());
+                    } else if (SparseRowUpdater.isSupported(ub)) {
+                        //Division by minibatch size: applied to the whole gradient view, below
+                        SparseRowUpdater.update(ub, iteration, epoch, 1.0);
                     } else {
                         //Standard case
                         ub.update(iteration, epoch);
@@ -285,6 +316,8 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
                 if (isExternal) {
                     //RL4J etc type case: calculate gradients in 1 net, update them in another
                     ub.updateExternalGradient(iteration, epoch, gradient.gradient(), getParams());
+                } else if (SparseRowUpdater.isSupported(ub)) {
+                    SparseRowUpdater.update(ub, iteration, epoch, 1.0);
                 } else {
                     //Standard case
                     ub.update(iteration, epoch);
@@ -304,6 +337,40 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
         }
     }
 
+    /**
+     * @return True if all updater blocks are supported by {@link FusedUpdater}
+     */
+    protected boolean isFusedUpdateSupported() {
+        for (UpdaterBlock ub : updaterBlocks) {
+            if (!ub.skipDueToPretrainConfig() && !SparseRowUpdater.isSupported(ub) && !FusedUpdater.isSupported(ub))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Fused equivalent of {@link #update(Gradient, int, int, int)}, for the standard (non-external) gradient case.
+     * Gradient normalization, the updater, L1/L2 and division by the minibatch size are all applied by
+     * {@link FusedUpdater}, in one pass per updater block
+     */
+    protected void updateFused(int iteration, int epoch, int batchSize) {
+        double divisor = (isMiniBatch() ? batchSize : 1.0);
+        Map<Layer, Double> layerScales = new HashMap<>();
+        for (UpdaterBlock ub : updaterBlocks) {
+            if (ub.skipDueToPretrainConfig()) {
+                //Not updated, but still divided by minibatch size - same as the standard path
+                if (isMiniBatch() && ub.getGradientView() != null)
+                    ub.getGradientView().divi(batchSize);
+                continue;
+            }
+            if (SparseRowUpdater.isSupported(ub)) {
+                SparseRowUpdater.update(ub, iteration, epoch, divisor);
+            } else {
+                FusedUpdater.update(ub, iteration, epoch, divisor, layerScales);
+            }
+        }
+    }
+
     protected boolean isSingleLayerUpdater() {
         return false;
     }
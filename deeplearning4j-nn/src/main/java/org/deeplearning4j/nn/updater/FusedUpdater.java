@@ -0,0 +1,315 @@
+package org.deeplearning4j.nn.updater;
+
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.GradientNormalization;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.BaseLayer;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.learning.config.*;
+
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.util.Map;
+
+/**
+ * Fused update for an {@link UpdaterBlock}, as used by {@link BaseMultiLayerUpdater} when fused updates are enabled.<br>
+ * The standard update path does the following, each as one or more separate passes over the gradient view:
+ * gradient normalization/clipping (per layer), the updater (Adam, Nesterovs, etc), l1/l2 (per parameter), and
+ * division by the minibatch size. Here, all of these steps are applied in a single pass over the gradient, parameter
+ * and updater state views of the block, directly on the (host) buffers, with identical results (other than floating
+ * point rounding - calculations are done in double precision).<br>
+ * Norms required for L2 based gradient normalization are calculated before the fused pass.
+ * <p>
+ * Supported: {@link Sgd}, {@link Adam}, {@link Nesterovs}, {@link RmsProp} and {@link NoOp} updaters, with float or
+ * double precision, on CPU backends. Other blocks use the standard update path.
+ */
+public class FusedUpdater {
+
+    private static final int SGD = 0;
+    private static final int ADAM = 1;
+    private static final int NESTEROVS = 2;
+    private static final int RMSPROP = 3;
+    private static final int NOOP = 4;
+
+    private FusedUpdater() {}
+
+    /**
+     * @param ub Updater block
+     * @return True if the fused update can be used for the specified updater block
+     */
+    public static boolean isSupported(UpdaterBlock ub) {
+        if (!isCpuBackend())
+            return false;
+        if (ub.getGradientView() == null)
+            return true; //Nothing to update
+        UpdaterBlock.ParamState p0 = ub.getLayersAndVariablesInBlock().get(0);
+        if (!(p0.getLayer().conf().getLayer() instanceof BaseLayer))
+            return false;
+        if (updaterType(p0.getLayer().conf().getLayer().getUpdaterByParam(p0.getParamName())) < 0)
+            return false;
+
+        DataBuffer.Type type = ub.getGradientView().data().dataType();
+        if (type != DataBuffer.Type.FLOAT && type != DataBuffer.Type.DOUBLE)
+            return false;
+        if (!isContiguous(ub.getGradientView(), type) || !isContiguous(ub.getUpdaterView(), type))
+            return false;
+        for (UpdaterBlock.ParamState p : ub.getLayersAndVariablesInBlock()) {
+            if (!isContiguous(p.getParamView(), type))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return True if the current backend is a CPU backend: the fused update works on the (host) data buffers directly
+     */
+    static boolean isCpuBackend() {
+        return !"CUDA".equals(Nd4j.getExecutioner().getEnvironmentInformation().getProperty("backend"));
+    }
+
+    private static boolean isContiguous(INDArray arr, DataBuffer.Type type) {
+        return arr == null || (arr.elementWiseStride() == 1 && arr.data().dataType() == type);
+    }
+
+    /**
+     * @return True if the updater is supported by {@link Kernel}
+     */
+    static boolean isSupportedUpdater(IUpdater u) {
+        return updaterType(u) >= 0;
+    }
+
+    private static int updaterType(IUpdater u) {
+        if (u instanceof Sgd)
+            return SGD;
+        if (u instanceof Adam)
+            return ADAM;
+        if (u instanceof Nesterovs)
+            return NESTEROVS;
+        if (u instanceof RmsProp)
+            return RMSPROP;
+        if (u instanceof NoOp)
+            return NOOP;
+        return -1;
+    }
+
+    /**
+     * Apply the fused update to the specified block
+     *
+     * @param ub          Updater block to update. Must be supported, as per {@link #isSupported(UpdaterBlock)}
+     * @param iteration   Current iteration count
+     * @param epoch       Current epoch count
+     * @param divisor     Value to divide the final update by (minibatch size, or 1.0)
+     * @param layerScales Cache of per-layer gradient normalization scale factors, shared between blocks in one update
+     */
+    public static void update(UpdaterBlock ub, int iteration, int epoch, double divisor,
+                    Map<Layer, Double> layerScales) {
+        INDArray gradView = ub.getGradientView();
+        if (gradView == null)
+            return;
+        //Instantiating the standard updater initializes the updater state, if required (for example, RmsProp)
+        ub.init();
+
+        UpdaterBlock.ParamState p0 = ub.getLayersAndVariablesInBlock().get(0);
+        Kernel kernel = new Kernel(p0.getLayer().conf().getLayer().getUpdaterByParam(p0.getParamName()), iteration,
+                        epoch);
+
+        Buf grad = Buf.of(gradView);
+        Buf state = (ub.getUpdaterView() == null ? null : Buf.of(ub.getUpdaterView()));
+        int blockLength = (int) gradView.length();
+        int blockStart = ub.getParamOffsetStart();
+
+        for (UpdaterBlock.ParamState p : ub.getLayersAndVariablesInBlock()) {
+            int start = p.getParamOffsetStart() - blockStart;
+            int end = p.getParamOffsetEnd() - blockStart;
+            if (end <= start)
+                continue;
+
+            NeuralNetConfiguration conf = p.getLayer().conf();
+            double l1 = conf.getL1ByParam(p.getParamName());
+            double l2 = conf.getL2ByParam(p.getParamName());
+            Buf param = Buf.of(p.getParamView());
+            int paramOffset = -start;
+
+            //Gradient normalization: scale factor and/or element-wise clipping
+            double scale = 1.0;
+            double clip = Double.POSITIVE_INFINITY;
+            BaseLayer bLayer = (BaseLayer) conf.getLayer();
+            GradientNormalization gn = bLayer.getGradientNormalization();
+            if (gn != null && gn != GradientNormalization.None && !conf.isPretrain()) {
+                double threshold = bLayer.getGradientNormalizationThreshold();
+                switch (gn) {
+                    case RenormalizeL2PerLayer:
+                    case ClipL2PerLayer:
+                        Double s = layerScales.get(p.getLayer());
+                        if (s == null) {
+                            s = scaleFor(gn, p.getLayer().getGradientsViewArray().norm2Number().doubleValue(),
+                                            threshold);
+                            layerScales.put(p.getLayer(), s);
+                        }
+                        scale = s;
+                        break;
+                    case RenormalizeL2PerParamType:
+                    case ClipL2PerParamType:
+                        scale = scaleFor(gn, p.getGradView().norm2Number().doubleValue(), threshold);
+                        break;
+                    case ClipElementWiseAbsoluteValue:
+                        clip = threshold;
+                        break;
+                }
+            }
+
+            for (int i = start; i < end; i++) {
+                double g = grad.get(i);
+                if (g > clip)
+                    g = clip;
+                else if (g < -clip)
+                    g = -clip;
+                g *= scale;
+
+                double upd = kernel.apply(g, state, i, blockLength);
+                if (l2 > 0 || l1 > 0) {
+                    double w = param.get(paramOffset + i);
+                    upd += l2 * w + l1 * Math.signum(w);
+                }
+                grad.put(i, upd / divisor);
+            }
+        }
+    }
+
+    private static double scaleFor(GradientNormalization gn, double l2, double threshold) {
+        switch (gn) {
+            case RenormalizeL2PerLayer:
+            case RenormalizeL2PerParamType:
+                return 1.0 / l2;
+            default:
+                //Clip
+                return l2 > threshold ? threshold / l2 : 1.0;
+        }
+    }
+
+    /**
+     * Per-element updater calculation: the updater type and its coefficients (learning rate, etc) for one iteration
+     */
+    static class Kernel {
+        private final int type;
+        private double lr;
+        private double c1; //Adam: beta1. Nesterovs: momentum. RmsProp: decay
+        private double c2; //Adam: beta2
+        private double eps;
+        private double alphat;
+
+        Kernel(IUpdater u, int iteration, int epoch) {
+            type = updaterType(u);
+            switch (type) {
+                case SGD:
+                    lr = u.getLearningRate(iteration, epoch);
+                    break;
+                case ADAM:
+                    Adam adam = (Adam) u;
+                    lr = adam.getLearningRate(iteration, epoch);
+                    c1 = adam.getBeta1();
+                    c2 = adam.getBeta2();
+                    eps = adam.getEpsilon();
+                    alphat = lr * Math.sqrt(1.0 - Math.pow(c2, iteration + 1)) / (1.0 - Math.pow(c1, iteration + 1));
+                    if (Double.isNaN(alphat) || alphat == 0.0)
+                        alphat = eps;
+                    break;
+                case NESTEROVS:
+                    Nesterovs n = (Nesterovs) u;
+                    lr = n.getLearningRate(iteration, epoch);
+                    c1 = n.currentMomentum(iteration, epoch);
+                    break;
+                case RMSPROP:
+                    RmsProp r = (RmsProp) u;
+                    lr = r.getLearningRate(iteration, epoch);
+                    c1 = r.getRmsDecay();
+                    eps = r.getEpsilon();
+                    break;
+            }
+        }
+
+        /**
+         * Apply the updater to one element, updating the updater state for that element
+         *
+         * @param g           Gradient value
+         * @param state       Updater state view (null if the updater has no state)
+         * @param i           Index of the element in the block
+         * @param blockLength Number of parameters in the block
+         * @return The update for the element (before l1/l2 and division by minibatch size)
+         */
+        double apply(double g, Buf state, int i, int blockLength) {
+            switch (type) {
+                case SGD:
+                    return lr * g;
+                case ADAM: {
+                    double m = c1 * state.get(i) + (1.0 - c1) * g;
+                    double v = c2 * state.get(blockLength + i) + (1.0 - c2) * g * g;
+                    state.put(i, m);
+                    state.put(blockLength + i, v);
+                    return alphat * m / (Math.sqrt(v) + eps);
+                }
+                case NESTEROVS: {
+                    double vPrev = state.get(i);
+                    double v = c1 * vPrev - lr * g;
+                    state.put(i, v);
+                    return c1 * vPrev + (-c1 - 1.0) * v;
+                }
+                case RMSPROP: {
+                    double cache = c1 * state.get(i) + (1.0 - c1) * g * g;
+                    state.put(i, cache);
+                    return lr * g / (Math.sqrt(cache) + eps);
+                }
+                default:
+                    return g;
+            }
+        }
+    }
+
+    /**
+     * Element access to a contiguous (element-wise stride 1) array, directly on its host buffer
+     */
+    static abstract class Buf {
+        protected final int offset;
+
+        private Buf(int offset) {
+            this.offset = offset;
+        }
+
+        abstract double get(int i);
+
+        abstract void put(int i, double value);
+
+        static Buf of(INDArray arr) {
+            int offset = (int) arr.offset();
+            if (arr.data().dataType() == DataBuffer.Type.DOUBLE) {
+                final DoubleBuffer db = arr.data().asNioDouble();
+                return new Buf(offset) {
+                    @Override
+                    double get(int i) {
+                        return db.get(this.offset + i);
+                    }
+
+                    @Override
+                    void put(int i, double value) {
+                        db.put(this.offset + i, value);
+                    }
+                };
+            } else {
+                final FloatBuffer fb = arr.data().asNioFloat();
+                return new Buf(offset) {
+                    @Override
+                    double get(int i) {
+                        return fb.get(this.offset + i);
+                    }
+
+                    @Override
+                    void put(int i, double value) {
+                        fb.put(this.offset + i, (float) value);
+                    }
+                };
+            }
+        }
+    }
+}
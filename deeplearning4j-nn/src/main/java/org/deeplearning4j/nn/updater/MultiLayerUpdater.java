@@ -59,6 +59,8 @@ public class MultiLayerUpdater extends BaseMultiLayerUpdater<MultiLayerNetwork>
 
     @Override
     public Updater clone() {
-        return new MultiLayerUpdater(network, null);
+        MultiLayerUpdater u = new MultiLayerUpdater(network, null);
+        u.setFusedUpdate(fusedUpdate);
+        return u;
     }
 }
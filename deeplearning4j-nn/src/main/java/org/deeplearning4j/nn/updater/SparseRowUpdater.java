@@ -0,0 +1,141 @@
+package org.deeplearning4j.nn.updater;
+
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.conf.GradientNormalization;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.BaseLayer;
+import org.deeplearning4j.nn.gradient.SparseRowGradient;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.layers.feedforward.embedding.EmbeddingLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.params.DefaultParamInitializer;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * Row-wise ("lazy") update for parameters with sparse row gradients - i.e., the weights of an {@link EmbeddingLayer}
+ * with sparse gradients enabled - as used by {@link BaseMultiLayerUpdater}.<br>
+ * Sparse row parameters are always in an {@link UpdaterBlock} of their own. For such a block, the updater and l1/l2
+ * (and division by the minibatch size, for the fused update) are applied only for the rows in the
+ * {@link SparseRowGradient}: only the updater state for those rows is read or written. As for the standard update, the
+ * result is written to the gradient view, and is then applied to the parameters by the optimizer's step function (or
+ * gradients accumulator, for distributed training). Other rows of the gradient view are zero: hence, the layer only
+ * needs to zero the rows written here before computing the next gradient.<br>
+ * Supported: the same updaters as {@link FusedUpdater}, with float or double precision, on CPU backends, and without
+ * gradient normalization. Otherwise, the standard update path is used.
+ */
+public class SparseRowUpdater {
+
+    private SparseRowUpdater() {}
+
+    /**
+     * @return True if the specified layer parameter has sparse row gradients
+     */
+    public static boolean isSparseRowParam(Layer layer, String paramName) {
+        return layer instanceof EmbeddingLayer && ((EmbeddingLayer) layer).isSparseGradients()
+                        && DefaultParamInitializer.WEIGHT_KEY.equals(paramName);
+    }
+
+    /**
+     * @param ub Updater block
+     * @return True if the updater block is a sparse row block, and the row-wise update can be used for it
+     */
+    public static boolean isSupported(UpdaterBlock ub) {
+        if (!ub.isSparseRows() || !FusedUpdater.isCpuBackend())
+            return false;
+        UpdaterBlock.ParamState p = ub.getLayersAndVariablesInBlock().get(0);
+        BaseLayer bLayer = (BaseLayer) p.getLayer().conf().getLayer();
+        if (!FusedUpdater.isSupportedUpdater(bLayer.getUpdaterByParam(p.getParamName())))
+            return false;
+        GradientNormalization gn = bLayer.getGradientNormalization();
+        if (gn != null && gn != GradientNormalization.None)
+            return false;
+
+        DataBuffer.Type type = p.getParamView().data().dataType();
+        if (type != DataBuffer.Type.FLOAT && type != DataBuffer.Type.DOUBLE)
+            return false;
+        return isContiguous(p.getParamView(), type) && isContiguous(ub.getGradientView(), type)
+                        && isContiguous(ub.getUpdaterView(), type);
+    }
+
+    private static boolean isContiguous(INDArray arr, DataBuffer.Type type) {
+        return arr == null || (arr.elementWiseStride() == 1 && arr.data().dataType() == type);
+    }
+
+    /**
+     * Apply the row-wise update to the specified block
+     *
+     * @param ub        Updater block to update. Must be supported, as per {@link #isSupported(UpdaterBlock)}
+     * @param iteration Current iteration count
+     * @param epoch     Current epoch count
+     * @param divisor   Value to divide the final update by (minibatch size, or 1.0 if the gradient view is divided
+     *                  by the minibatch size afterwards)
+     */
+    public static void update(UpdaterBlock ub, int iteration, int epoch, double divisor) {
+        UpdaterBlock.ParamState p = ub.getLayersAndVariablesInBlock().get(0);
+        EmbeddingLayer layer = (EmbeddingLayer) p.getLayer();
+        SparseRowGradient gradient = layer.getSparseGradient();
+        if (gradient == null || p.getParamView() == null || ub.getGradientView() == null)
+            return;
+        //Instantiating the standard updater initializes the updater state, if required (for example, RmsProp)
+        ub.init();
+
+        NeuralNetConfiguration conf = layer.conf();
+        FusedUpdater.Kernel kernel =
+                        new FusedUpdater.Kernel(conf.getLayer().getUpdaterByParam(p.getParamName()), iteration, epoch);
+        double l1 = conf.getL1ByParam(p.getParamName());
+        double l2 = conf.getL2ByParam(p.getParamName());
+
+        FusedUpdater.Buf param = FusedUpdater.Buf.of(p.getParamView());
+        FusedUpdater.Buf grad = FusedUpdater.Buf.of(ub.getGradientView());
+        FusedUpdater.Buf state = (ub.getUpdaterView() == null ? null : FusedUpdater.Buf.of(ub.getUpdaterView()));
+        int blockLength = (int) p.getParamView().length();
+
+        //Element (r,c) of the weights is at r*rowStride + c*colStride in the block
+        INDArray w = layer.getParam(p.getParamName());
+        int rowStride = (w.ordering() == 'f' ? 1 : w.columns());
+        int colStride = (w.ordering() == 'f' ? w.rows() : 1);
+
+        int[] rows = gradient.getRows();
+        int nCols = gradient.getNumColumns();
+        for (int k = 0; k < rows.length; k++) {
+            int rowOffset = rows[k] * rowStride;
+            for (int c = 0; c < nCols; c++) {
+                int i = rowOffset + c * colStride;
+                double upd = kernel.apply(grad.get(i), state, i, blockLength);
+                if (l2 > 0 || l1 > 0) {
+                    double pv = param.get(i);
+                    upd += l2 * pv + l1 * Math.signum(pv);
+                }
+                grad.put(i, upd / divisor);
+            }
+        }
+        layer.clearSparseGradient();
+        layer.setNonZeroGradientRows(rows);
+    }
+
+    /**
+     * Notify the sparse row layers of the specified model that the gradient view may have been modified outside of
+     * the rows written by the row-wise update - for example, when updates from other workers are decoded into it by a
+     * gradients accumulator
+     *
+     * @param model Model (MultiLayerNetwork, ComputationGraph or Layer)
+     */
+    public static void gradientViewModified(Model model) {
+        Layer[] layers;
+        if (model instanceof MultiLayerNetwork) {
+            layers = ((MultiLayerNetwork) model).getLayers();
+        } else if (model instanceof ComputationGraph) {
+            layers = ((ComputationGraph) model).getLayers();
+        } else if (model instanceof Layer) {
+            layers = new Layer[] {(Layer) model};
+        } else {
+            return;
+        }
+        for (Layer l : layers) {
+            if (l instanceof EmbeddingLayer)
+                ((EmbeddingLayer) l).setNonZeroGradientRows(null);
+        }
+    }
+}
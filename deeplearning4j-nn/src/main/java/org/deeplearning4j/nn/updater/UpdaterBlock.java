@@ -31,6 +31,10 @@ public class UpdaterBlock {
     private INDArray updaterView;
     private INDArray gradientView;
     private boolean updaterViewRequiresInitialization;
+    /**
+     * True if this block contains a single parameter with sparse row gradients - see {@link SparseRowUpdater}
+     */
+    private boolean sparseRows;
 
     private GradientUpdater gradientUpdater;
 
@@ -22,6 +22,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.updater.SparseRowUpdater;
 import org.deeplearning4j.optimize.api.IterationListener;
 import org.deeplearning4j.optimize.api.StepFunction;
 import org.deeplearning4j.optimize.api.TerminationCondition;
@@ -72,6 +73,7 @@ public class StochasticGradientDescent extends BaseOptimizer {
                 //INDArray pendingUpdate = accumulator.getUpdate();
                 //stepFunction.step(params, pendingUpdate);
                 accumulator.applyUpdate(stepFunction, params, gradient.gradient());
+                SparseRowUpdater.gradientViewModified(model);
 
                 // if there's no update available - just go on then
             } else {
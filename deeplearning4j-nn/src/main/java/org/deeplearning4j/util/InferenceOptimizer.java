@@ -0,0 +1,337 @@
+package org.deeplearning4j.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.InputPreProcessor;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.graph.ElementWiseVertex;
+import org.deeplearning4j.nn.conf.graph.GraphVertex;
+import org.deeplearning4j.nn.conf.graph.LayerVertex;
+import org.deeplearning4j.nn.conf.graph.MergeVertex;
+import org.deeplearning4j.nn.conf.graph.PreprocessorVertex;
+import org.deeplearning4j.nn.conf.graph.ScaleVertex;
+import org.deeplearning4j.nn.conf.graph.ShiftVertex;
+import org.deeplearning4j.nn.conf.layers.ActivationLayer;
+import org.deeplearning4j.nn.conf.layers.BaseLayer;
+import org.deeplearning4j.nn.conf.layers.BatchNormalization;
+import org.deeplearning4j.nn.conf.layers.ConvolutionLayer;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.DropoutLayer;
+import org.deeplearning4j.nn.conf.preprocessor.ComposableInputPreProcessor;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.params.BatchNormalizationParamInitializer;
+import org.deeplearning4j.nn.params.DefaultParamInitializer;
+import org.nd4j.linalg.activations.impl.ActivationIdentity;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.impl.broadcast.BroadcastMulOp;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import java.util.*;
+
+/**
+ * Offline optimization of trained networks, for inference only. The following changes are made:<br>
+ * - {@link DropoutLayer}s are removed (dropout is a no-op at inference time). For ComputationGraph, vertices that are
+ * an identity operation are also removed: {@link ScaleVertex} with a scale factor of 1, {@link ShiftVertex} with a
+ * shift factor of 0, and {@link MergeVertex} / {@link ElementWiseVertex} with a single input<br>
+ * - {@link BatchNormalization} layers are folded into the weights and bias of the preceding {@link DenseLayer} or
+ * {@link ConvolutionLayer}, when that layer has identity activation and its output is used only by the batch
+ * normalization layer. A bias is added to the preceding layer if it did not have one<br>
+ * - {@link ActivationLayer}s are fused into the preceding {@link DenseLayer} or {@link ConvolutionLayer}, under the
+ * same conditions<br>
+ * <br>
+ * The original network is not modified. The returned network is an ordinary MultiLayerNetwork or ComputationGraph
+ * (for example, it can be saved with {@link ModelSerializer}) whose output (in inference mode) is the same as the
+ * original network's, up to floating point rounding. Note however that training the returned network is not
+ * equivalent to training the original network.
+ */
+@Slf4j
+public class InferenceOptimizer {
+
+    private InferenceOptimizer() {}
+
+    /**
+     * Optimize the specified network for inference. See {@link InferenceOptimizer} for details.
+     *
+     * @param network Network to optimize. Is not modified
+     * @return The optimized network
+     */
+    public static MultiLayerNetwork optimize(MultiLayerNetwork network) {
+        MultiLayerConfiguration conf = network.getLayerWiseConfigurations().clone();
+        List<NeuralNetConfiguration> confs = new ArrayList<>(conf.getConfs());
+        List<InputPreProcessor> preProcessors = new ArrayList<>();
+        List<Map<String, INDArray>> params = new ArrayList<>();
+        for (int i = 0; i < confs.size(); i++) {
+            preProcessors.add(conf.getInputPreProcess(i));
+            params.add(copyParams(network.getLayer(i)));
+        }
+
+        //Remove dropout layers. Any preprocessor on the dropout layer is moved to the next layer
+        int removed = 0;
+        for (int i = 0; i < confs.size() - 1; i++) {
+            if (!(confs.get(i).getLayer() instanceof DropoutLayer))
+                continue;
+            InputPreProcessor p = preProcessors.get(i);
+            if (p != null) {
+                InputPreProcessor next = preProcessors.get(i + 1);
+                preProcessors.set(i + 1, next == null ? p : new ComposableInputPreProcessor(p, next));
+            }
+            removeLayer(i--, confs, preProcessors, params);
+            removed++;
+        }
+
+        //Fold batch normalization, then fuse activation layers
+        int folded = 0;
+        for (int i = 1; i < confs.size(); i++) {
+            org.deeplearning4j.nn.conf.layers.Layer l = confs.get(i).getLayer();
+            BaseLayer prev = foldableLayer(confs.get(i - 1).getLayer());
+            if (l instanceof BatchNormalization && preProcessors.get(i) == null && prev != null
+                            && foldBatchNorm(prev, params.get(i - 1), (BatchNormalization) l, params.get(i))) {
+                removeLayer(i--, confs, preProcessors, params);
+                folded++;
+            }
+        }
+        int fused = 0;
+        for (int i = 1; i < confs.size(); i++) {
+            org.deeplearning4j.nn.conf.layers.Layer l = confs.get(i).getLayer();
+            BaseLayer prev = foldableLayer(confs.get(i - 1).getLayer());
+            if (l instanceof ActivationLayer && preProcessors.get(i) == null && prev != null) {
+                prev.setActivationFn(((ActivationLayer) l).getActivationFn());
+                removeLayer(i--, confs, preProcessors, params);
+                fused++;
+            }
+        }
+
+        conf.setConfs(confs);
+        Map<Integer, InputPreProcessor> preProcessorMap = new HashMap<>();
+        for (int i = 0; i < preProcessors.size(); i++) {
+            if (preProcessors.get(i) != null)
+                preProcessorMap.put(i, preProcessors.get(i));
+        }
+        conf.setInputPreProcessors(preProcessorMap);
+
+        MultiLayerNetwork out = new MultiLayerNetwork(conf);
+        out.init();
+        for (int i = 0; i < params.size(); i++) {
+            setParams(out.getLayer(i), params.get(i));
+        }
+        log.info("Optimized MultiLayerNetwork for inference: removed {} layers, folded {} batch normalization layers, "
+                        + "fused {} activation layers", removed, folded, fused);
+        return out;
+    }
+
+    /**
+     * Optimize the specified network for inference. See {@link InferenceOptimizer} for details.
+     *
+     * @param graph Network to optimize. Is not modified
+     * @return The optimized network
+     */
+    public static ComputationGraph optimize(ComputationGraph graph) {
+        ComputationGraphConfiguration conf = graph.getConfiguration().clone();
+        Map<String, GraphVertex> vertices = conf.getVertices();
+        Map<String, Map<String, INDArray>> params = new HashMap<>();
+        for (Map.Entry<String, GraphVertex> e : vertices.entrySet()) {
+            if (e.getValue() instanceof LayerVertex)
+                params.put(e.getKey(), copyParams(graph.getLayer(e.getKey())));
+        }
+
+        //Remove dropout layers and identity vertices
+        int removed = 0;
+        for (String name : new ArrayList<>(vertices.keySet())) {
+            GraphVertex v = vertices.get(name);
+            if (v instanceof LayerVertex && ((LayerVertex) v).getLayerConf().getLayer() instanceof DropoutLayer) {
+                InputPreProcessor p = ((LayerVertex) v).getPreProcessor();
+                if (p != null) {
+                    //Keep the preprocessor only
+                    vertices.put(name, new PreprocessorVertex(p));
+                    params.remove(name);
+                    removed++;
+                } else if (removeVertex(conf, name)) {
+                    params.remove(name);
+                    removed++;
+                }
+            } else if (isIdentityVertex(v, conf.getVertexInputs().get(name).size()) && removeVertex(conf, name)) {
+                removed++;
+            }
+        }
+
+        //Fold batch normalization, then fuse activation layers
+        int folded = 0;
+        for (String name : new ArrayList<>(vertices.keySet())) {
+            String input = singleLayerInput(conf, name);
+            if (input == null)
+                continue;
+            LayerVertex v = (LayerVertex) vertices.get(name);
+            BaseLayer prev = foldableLayer(((LayerVertex) vertices.get(input)).getLayerConf().getLayer());
+            if (v.getLayerConf().getLayer() instanceof BatchNormalization && prev != null
+                            && !conf.getNetworkOutputs().contains(name)
+                            && foldBatchNorm(prev, params.get(input),
+                                            (BatchNormalization) v.getLayerConf().getLayer(), params.get(name))) {
+                removeVertex(conf, name);
+                params.remove(name);
+                folded++;
+            }
+        }
+        int fused = 0;
+        for (String name : new ArrayList<>(vertices.keySet())) {
+            String input = singleLayerInput(conf, name);
+            if (input == null)
+                continue;
+            LayerVertex v = (LayerVertex) vertices.get(name);
+            BaseLayer prev = foldableLayer(((LayerVertex) vertices.get(input)).getLayerConf().getLayer());
+            if (v.getLayerConf().getLayer() instanceof ActivationLayer && prev != null
+                            && !conf.getNetworkOutputs().contains(name)) {
+                prev.setActivationFn(((ActivationLayer) v.getLayerConf().getLayer()).getActivationFn());
+                removeVertex(conf, name);
+                params.remove(name);
+                fused++;
+            }
+        }
+
+        ComputationGraph out = new ComputationGraph(conf);
+        out.init();
+        for (Map.Entry<String, Map<String, INDArray>> e : params.entrySet()) {
+            setParams(out.getLayer(e.getKey()), e.getValue());
+        }
+        log.info("Optimized ComputationGraph for inference: removed {} vertices, folded {} batch normalization layers, "
+                        + "fused {} activation layers", removed, folded, fused);
+        return out;
+    }
+
+    /**
+     * Fold the batch normalization layer into the weights and bias of the preceding layer. At inference time, batch
+     * normalization computes gamma * (x - mean) / sqrt(var) + beta per output (per channel for CNNs) - the stored
+     * global variance already includes epsilon. Hence for x = W*in + b: W' = W * s and b' = (b - mean) * s + beta,
+     * with s = gamma / sqrt(var)
+     *
+     * @return False if the layer can't be folded
+     */
+    private static boolean foldBatchNorm(BaseLayer prev, Map<String, INDArray> prevParams, BatchNormalization bn,
+                    Map<String, INDArray> bnParams) {
+        INDArray gamma = null;
+        INDArray beta = null;
+        if (bn.isLockGammaBeta()) {
+            //Only fold the default (gamma=1, beta=0) case, for which all implementations agree
+            if (bn.getGamma() != 1.0 || bn.getBeta() != 0.0)
+                return false;
+        } else {
+            gamma = bnParams.get(BatchNormalizationParamInitializer.GAMMA);
+            beta = bnParams.get(BatchNormalizationParamInitializer.BETA);
+        }
+        INDArray mean = bnParams.get(BatchNormalizationParamInitializer.GLOBAL_MEAN);
+        INDArray var = bnParams.get(BatchNormalizationParamInitializer.GLOBAL_VAR);
+
+        INDArray scale = Transforms.sqrt(var, true).rdivi(1.0);
+        if (gamma != null)
+            scale.muli(gamma);
+
+        //Output dimension of the weights: [nOut, nIn, kH, kW] for CNNs, [nIn, nOut] for dense layers
+        INDArray w = prevParams.get(DefaultParamInitializer.WEIGHT_KEY);
+        int outDimension = (prev instanceof ConvolutionLayer ? 0 : 1);
+        Nd4j.getExecutioner().exec(new BroadcastMulOp(w, scale, w, outDimension));
+
+        INDArray b = prevParams.get(DefaultParamInitializer.BIAS_KEY);
+        INDArray newBias = (b == null ? mean.neg() : b.sub(mean));
+        newBias.muli(scale);
+        if (beta != null)
+            newBias.addi(beta);
+        prevParams.put(DefaultParamInitializer.BIAS_KEY, newBias);
+        if (prev instanceof ConvolutionLayer)
+            ((ConvolutionLayer) prev).setHasBias(true);
+        else
+            ((DenseLayer) prev).setHasBias(true);
+        return true;
+    }
+
+    /**
+     * @return The layer (cast to BaseLayer) if batch normalization and activation layers can be folded into it, or
+     * null otherwise
+     */
+    private static BaseLayer foldableLayer(org.deeplearning4j.nn.conf.layers.Layer layer) {
+        if ((layer instanceof DenseLayer || layer instanceof ConvolutionLayer)
+                        && ((BaseLayer) layer).getActivationFn() instanceof ActivationIdentity)
+            return (BaseLayer) layer;
+        return null;
+    }
+
+    private static boolean isIdentityVertex(GraphVertex v, int numInputs) {
+        if (v instanceof ScaleVertex)
+            return ((ScaleVertex) v).getScaleFactor() == 1.0;
+        if (v instanceof ShiftVertex)
+            return ((ShiftVertex) v).getShiftFactor() == 0.0;
+        if (v instanceof MergeVertex)
+            return numInputs == 1;
+        if (v instanceof ElementWiseVertex)
+            return numInputs == 1 && ((ElementWiseVertex) v).getOp() != ElementWiseVertex.Op.Subtract;
+        return false;
+    }
+
+    /**
+     * @return The name of the (single) input of the specified layer vertex, if it has no preprocessor, the input is
+     * also a layer vertex, and the output of the input vertex is used only by the specified vertex. Null otherwise
+     */
+    private static String singleLayerInput(ComputationGraphConfiguration conf, String name) {
+        GraphVertex v = conf.getVertices().get(name);
+        List<String> inputs = conf.getVertexInputs().get(name);
+        if (!(v instanceof LayerVertex) || ((LayerVertex) v).getPreProcessor() != null || inputs == null
+                        || inputs.size() != 1)
+            return null;
+        String input = inputs.get(0);
+        if (!(conf.getVertices().get(input) instanceof LayerVertex) || conf.getNetworkOutputs().contains(input))
+            return null;
+        int count = 0;
+        for (List<String> l : conf.getVertexInputs().values()) {
+            for (String s : l) {
+                if (s.equals(input))
+                    count++;
+            }
+        }
+        return (count == 1 ? input : null);
+    }
+
+    /**
+     * Remove a vertex with a single input from the graph, connecting the vertices using its output to its input
+     * instead. Network outputs are not removed.
+     *
+     * @return True if the vertex was removed
+     */
+    private static boolean removeVertex(ComputationGraphConfiguration conf, String name) {
+        List<String> inputs = conf.getVertexInputs().get(name);
+        if (inputs == null || inputs.size() != 1 || conf.getNetworkOutputs().contains(name))
+            return false;
+        String input = inputs.get(0);
+        conf.getVertices().remove(name);
+        conf.getVertexInputs().remove(name);
+        for (List<String> l : conf.getVertexInputs().values()) {
+            for (int i = 0; i < l.size(); i++) {
+                if (l.get(i).equals(name))
+                    l.set(i, input);
+            }
+        }
+        return true;
+    }
+
+    private static void removeLayer(int idx, List<NeuralNetConfiguration> confs, List<InputPreProcessor> preProcessors,
+                    List<Map<String, INDArray>> params) {
+        confs.remove(idx);
+        preProcessors.remove(idx);
+        params.remove(idx);
+    }
+
+    private static Map<String, INDArray> copyParams(Layer layer) {
+        Map<String, INDArray> out = new LinkedHashMap<>();
+        for (Map.Entry<String, INDArray> e : layer.paramTable().entrySet()) {
+            out.put(e.getKey(), e.getValue().dup());
+        }
+        return out;
+    }
+
+    private static void setParams(Layer layer, Map<String, INDArray> params) {
+        for (Map.Entry<String, INDArray> e : params.entrySet()) {
+            layer.setParam(e.getKey(), e.getValue());
+        }
+    }
+}
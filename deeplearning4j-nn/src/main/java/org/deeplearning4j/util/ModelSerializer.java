@@ -39,6 +39,7 @@ public class ModelSerializer {
     public static final String OLD_UPDATER_BIN = "updater.bin";
     public static final String UPDATER_BIN = "updaterState.bin";
     public static final String NORMALIZER_BIN = "normalizer.bin";
+    public static final String QUANTIZED_COEFFICIENTS_BIN = "quantizedCoefficients.bin";
 
     private ModelSerializer() {}
 
@@ -127,6 +128,55 @@ public class ModelSerializer {
         zipfile.close();
     }
 
+    /**
+     * Write a model to a file, with the weights stored in quantized form (see {@link WeightQuantization}). The
+     * updater state is not saved. The model can be restored as usual with
+     * {@link #restoreMultiLayerNetwork(File)} or {@link #restoreComputationGraph(File)}
+     * @param model the model to write
+     * @param file the file to write to
+     * @param quantization the quantization to use for the weights
+     * @throws IOException
+     */
+    public static void writeModel(@NonNull Model model, @NonNull File file,
+                    @NonNull WeightQuantization.Type quantization) throws IOException {
+        try (BufferedOutputStream stream = new BufferedOutputStream(new FileOutputStream(file))) {
+            writeModel(model, stream, quantization);
+        }
+    }
+
+    /**
+     * Write a model to an output stream, with the weights stored in quantized form (see {@link WeightQuantization}).
+     * The updater state is not saved.
+     * @param model the model to save
+     * @param stream the output stream to write to
+     * @param quantization the quantization to use for the weights
+     * @throws IOException
+     */
+    public static void writeModel(@NonNull Model model, @NonNull OutputStream stream,
+                    @NonNull WeightQuantization.Type quantization) throws IOException {
+        ZipOutputStream zipfile = new ZipOutputStream(new CloseShieldOutputStream(stream));
+
+        String json = "";
+        if (model instanceof MultiLayerNetwork) {
+            json = ((MultiLayerNetwork) model).getLayerWiseConfigurations().toJson();
+        } else if (model instanceof ComputationGraph) {
+            json = ((ComputationGraph) model).getConfiguration().toJson();
+        }
+        ZipEntry config = new ZipEntry("configuration.json");
+        zipfile.putNextEntry(config);
+        zipfile.write(json.getBytes());
+
+        ZipEntry coefficients = new ZipEntry(QUANTIZED_COEFFICIENTS_BIN);
+        zipfile.putNextEntry(coefficients);
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(zipfile));
+        try {
+            WeightQuantization.write(model, quantization, dos);
+        } finally {
+            dos.flush();
+            dos.close();
+        }
+    }
+
     /**
      * Load a multi layer network from a file
      *
@@ -191,6 +241,16 @@ public class ModelSerializer {
             gotCoefficients = true;
         }
 
+        byte[] quantizedParams = null;
+        ZipEntry quantizedCoefficients = zipFile.getEntry(QUANTIZED_COEFFICIENTS_BIN);
+        if (coefficients == null && quantizedCoefficients != null) {
+            InputStream stream = zipFile.getInputStream(quantizedCoefficients);
+            quantizedParams = IOUtils.toByteArray(stream);
+
+            stream.close();
+            gotCoefficients = true;
+        }
+
         if (loadUpdater) {
             //This can be removed a few releases after 0.4.1...
             ZipEntry oldUpdaters = zipFile.getEntry(OLD_UPDATER_BIN);
@@ -238,7 +298,13 @@ public class ModelSerializer {
         if (gotConfig && gotCoefficients) {
             MultiLayerConfiguration confFromJson = MultiLayerConfiguration.fromJson(json);
             MultiLayerNetwork network = new MultiLayerNetwork(confFromJson);
-            network.init(params, false);
+            if (quantizedParams != null) {
+                network.init();
+                WeightQuantization.read(network,
+                                new DataInputStream(new ByteArrayInputStream(quantizedParams)));
+            } else {
+                network.init(params, false);
+            }
 
             if (gotUpdaterState && updaterState != null) {
                 network.getUpdater().setStateViewArray(network, updaterState, false);
@@ -414,6 +480,16 @@ public class ModelSerializer {
             gotCoefficients = true;
         }
 
+        byte[] quantizedParams = null;
+        ZipEntry quantizedCoefficients = zipFile.getEntry(QUANTIZED_COEFFICIENTS_BIN);
+        if (coefficients == null && quantizedCoefficients != null) {
+            InputStream stream = zipFile.getInputStream(quantizedCoefficients);
+            quantizedParams = IOUtils.toByteArray(stream);
+
+            stream.close();
+            gotCoefficients = true;
+        }
+
 
         if (loadUpdater) {
             ZipEntry oldUpdaters = zipFile.getEntry(OLD_UPDATER_BIN);
@@ -461,7 +537,12 @@ public class ModelSerializer {
         if (gotConfig && gotCoefficients) {
             ComputationGraphConfiguration confFromJson = ComputationGraphConfiguration.fromJson(json);
             ComputationGraph cg = new ComputationGraph(confFromJson);
-            cg.init(params, false);
+            if (quantizedParams != null) {
+                cg.init();
+                WeightQuantization.read(cg, new DataInputStream(new ByteArrayInputStream(quantizedParams)));
+            } else {
+                cg.init(params, false);
+            }
 
 
             if (gotUpdaterState && updaterState != null) {
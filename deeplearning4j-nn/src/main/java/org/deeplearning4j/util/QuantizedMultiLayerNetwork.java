@@ -0,0 +1,209 @@
+package org.deeplearning4j.util;
+
+import lombok.NonNull;
+import org.apache.commons.io.IOUtils;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.InputPreProcessor;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.WorkspaceMode;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.optimize.api.IterationListener;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.memory.conf.WorkspaceConfiguration;
+import org.nd4j.linalg.api.memory.enums.AllocationPolicy;
+import org.nd4j.linalg.api.memory.enums.LearningPolicy;
+import org.nd4j.linalg.api.memory.enums.ResetPolicy;
+import org.nd4j.linalg.api.memory.enums.SpillPolicy;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.memory.abstracts.DummyWorkspace;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Inference-only MultiLayerNetwork, with the weights kept in quantized form (see {@link WeightQuantization}).<br>
+ * Unlike restoring a quantized model with {@link ModelSerializer} (which dequantizes all weights when the model is
+ * loaded), the weights of each layer are dequantized only for the forward pass of that layer, into a parameters array
+ * that is shared by all layers. Consequently, the full precision parameters of at most one layer are held in memory at
+ * any time, at the cost of dequantizing the weights for every call to {@link #output(INDArray)}.<br>
+ * The output is the same as the output of the network returned by
+ * {@link WeightQuantization#quantize(MultiLayerNetwork, WeightQuantization.Type)}.<br>
+ * Note: instances of this class are not thread safe. Mask arrays are not supported.
+ */
+public class QuantizedMultiLayerNetwork {
+
+    private static final String WORKSPACE_DEQUANTIZE = "QUANTIZED_DEQUANTIZE";
+
+    private static final WorkspaceConfiguration workspaceConfigurationDequantize = WorkspaceConfiguration.builder()
+                    .initialSize(0).overallocationLimit(0.2).policyLearning(LearningPolicy.FIRST_LOOP)
+                    .policyReset(ResetPolicy.BLOCK_LEFT).policySpill(SpillPolicy.REALLOCATE)
+                    .policyAllocation(AllocationPolicy.OVERALLOCATE).build();
+
+    private final MultiLayerConfiguration conf;
+    private final Layer[] layers;
+    private final List<Map<String, WeightQuantization.StoredParam>> params;
+
+    private QuantizedMultiLayerNetwork(MultiLayerConfiguration conf,
+                    List<Map<String, WeightQuantization.StoredParam>> params) {
+        this.conf = conf;
+        this.params = params;
+
+        int nLayers = conf.getConfs().size();
+        if (params.size() != nLayers)
+            throw new IllegalArgumentException("Invalid parameters: expected parameters for " + nLayers
+                            + " layers, got " + params.size());
+
+        //All layers share one parameters array, large enough for the layer with the most parameters
+        int[] nParamsPerLayer = new int[nLayers];
+        int maxParams = 0;
+        for (int i = 0; i < nLayers; i++) {
+            NeuralNetConfiguration c = conf.getConf(i);
+            nParamsPerLayer[i] = c.getLayer().initializer().numParams(c);
+            maxParams = Math.max(maxParams, nParamsPerLayer[i]);
+        }
+        INDArray sharedParams = (maxParams > 0 ? Nd4j.create(1, maxParams) : null);
+
+        this.layers = new Layer[nLayers];
+        for (int i = 0; i < nLayers; i++) {
+            INDArray paramsView = null;
+            if (nParamsPerLayer[i] > 0) {
+                paramsView = sharedParams.get(NDArrayIndex.point(0), NDArrayIndex.interval(0, nParamsPerLayer[i]));
+            }
+            NeuralNetConfiguration c = conf.getConf(i);
+            layers[i] = c.getLayer().instantiate(c, Collections.<IterationListener>emptyList(), i, paramsView,
+                            false);
+        }
+    }
+
+    /**
+     * Create a quantized network from the specified network
+     *
+     * @param network Network to quantize. Not modified
+     * @param type    Quantization type
+     */
+    public static QuantizedMultiLayerNetwork fromNetwork(@NonNull MultiLayerNetwork network,
+                    @NonNull WeightQuantization.Type type) {
+        List<Map<String, WeightQuantization.StoredParam>> params = new ArrayList<>();
+        for (Layer l : network.getLayers()) {
+            Map<String, WeightQuantization.StoredParam> layerParams = new LinkedHashMap<>();
+            for (Map.Entry<String, INDArray> e : l.paramTable().entrySet()) {
+                WeightQuantization.StoredParam p = WeightQuantization.quantize(l, e.getKey(), e.getValue(), type);
+                if (!p.isQuantized())
+                    p = WeightQuantization.StoredParam.full(e.getValue().dup());
+                layerParams.put(e.getKey(), p);
+            }
+            params.add(layerParams);
+        }
+        return new QuantizedMultiLayerNetwork(network.getLayerWiseConfigurations().clone(), params);
+    }
+
+    /**
+     * Load a quantized network from a MultiLayerNetwork model file saved in quantized form - i.e., using
+     * {@link ModelSerializer#writeModel(org.deeplearning4j.nn.api.Model, File, WeightQuantization.Type)}
+     *
+     * @param file Model file
+     */
+    public static QuantizedMultiLayerNetwork restore(@NonNull File file) throws IOException {
+        try (ZipFile zipFile = new ZipFile(file)) {
+            ZipEntry config = zipFile.getEntry("configuration.json");
+            ZipEntry coefficients = zipFile.getEntry(ModelSerializer.QUANTIZED_COEFFICIENTS_BIN);
+            if (config == null || coefficients == null)
+                throw new IllegalStateException("Model file is not a quantized model: no configuration or quantized "
+                                + "parameters found");
+
+            String json;
+            try (InputStream is = zipFile.getInputStream(config)) {
+                json = IOUtils.toString(is, "UTF-8");
+            }
+            MultiLayerConfiguration conf = MultiLayerConfiguration.fromJson(json);
+
+            Map<String, Map<String, WeightQuantization.StoredParam>> stored;
+            try (DataInputStream dis = new DataInputStream(
+                            new BufferedInputStream(zipFile.getInputStream(coefficients)))) {
+                stored = WeightQuantization.readParams(dis);
+            }
+            List<Map<String, WeightQuantization.StoredParam>> params = new ArrayList<>();
+            for (int i = 0; i < conf.getConfs().size(); i++) {
+                Map<String, WeightQuantization.StoredParam> layerParams = stored.get(String.valueOf(i));
+                params.add(layerParams == null ? Collections.<String, WeightQuantization.StoredParam>emptyMap()
+                                : layerParams);
+            }
+            return new QuantizedMultiLayerNetwork(conf, params);
+        }
+    }
+
+    /**
+     * As per {@link #restore(File)}, from an input stream
+     */
+    public static QuantizedMultiLayerNetwork restore(@NonNull InputStream is) throws IOException {
+        File tmpFile = File.createTempFile("restore", "quantizedMultiLayer");
+        tmpFile.deleteOnExit();
+        try {
+            try (BufferedOutputStream bos = new BufferedOutputStream(new FileOutputStream(tmpFile))) {
+                IOUtils.copy(is, bos);
+            }
+            return restore(tmpFile);
+        } finally {
+            tmpFile.delete();
+        }
+    }
+
+    /**
+     * @return The configuration of the network
+     */
+    public MultiLayerConfiguration getLayerWiseConfigurations() {
+        return conf;
+    }
+
+    /**
+     * Calculate the output of the network (inference/test mode)
+     *
+     * @param input Network input
+     * @return Network output
+     */
+    public INDArray output(@NonNull INDArray input) {
+        MemoryWorkspace workspace = conf.getInferenceWorkspaceMode() == WorkspaceMode.NONE ? new DummyWorkspace()
+                        : Nd4j.getWorkspaceManager().getWorkspaceForCurrentThread(
+                                        ComputationGraph.workspaceConfigurationExternal,
+                                        ComputationGraph.workspaceExternal);
+
+        try (MemoryWorkspace wsE = workspace.notifyScopeEntered()) {
+            int miniBatchSize = input.size(0);
+            INDArray curr = input;
+            for (int i = 0; i < layers.length; i++) {
+                loadParams(i);
+                InputPreProcessor preProcessor = conf.getInputPreProcess(i);
+                if (preProcessor != null)
+                    curr = preProcessor.preProcess(curr, miniBatchSize);
+                layers[i].setInputMiniBatchSize(miniBatchSize);
+                curr = layers[i].activate(curr, false);
+            }
+            return curr.detach();
+        }
+    }
+
+    /**
+     * Set the (dequantized, if required) parameters of the specified layer in the shared parameters array
+     */
+    private void loadParams(int layerIdx) {
+        Layer l = layers[layerIdx];
+        for (Map.Entry<String, WeightQuantization.StoredParam> e : params.get(layerIdx).entrySet()) {
+            WeightQuantization.StoredParam p = e.getValue();
+            if (!p.isQuantized()) {
+                l.setParam(e.getKey(), p.toArray());
+                continue;
+            }
+            try (MemoryWorkspace ws = Nd4j.getWorkspaceManager()
+                            .getWorkspaceForCurrentThread(workspaceConfigurationDequantize, WORKSPACE_DEQUANTIZE)
+                            .notifyScopeEntered()) {
+                l.setParam(e.getKey(), p.toArray());
+            }
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package org.deeplearning4j.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import org.deeplearning4j.eval.Evaluation;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.params.DefaultParamInitializer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.api.DataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Weight-only quantization of network parameters, for reduced size model storage: see
+ * {@link ModelSerializer#writeModel(Model, java.io.File, Type)}.<br>
+ * Only the weight parameters ("W") of layers are quantized - i.e., the weights of dense, output, embedding and
+ * convolution layers (and the input weights of recurrent layers). All other parameters (biases, batch normalization
+ * parameters, recurrent weights etc.) are stored at full precision. Two quantization types are supported:<br>
+ * - {@link Type#FP16}: half precision (IEEE 754 binary16) floating point, 2 bytes per weight<br>
+ * - {@link Type#INT8}: symmetric, per channel 8-bit integers, 1 byte per weight plus one float scale per channel.
+ * Channels are the outputs of the layer (i.e., columns for 2d weights [nIn,nOut], output feature maps for convolution
+ * weights [nOut,nIn,kH,kW]), except for embedding layers, where each row (i.e., each embedding vector) of the weights
+ * [numEmbeddings,embeddingSize] is a channel. Weights are stored as round(w / scale) with scale = max(|w|) / 127 for
+ * the channel<br>
+ * <br>
+ * When a model is restored with {@link ModelSerializer}, the weights are dequantized once, and inference then uses
+ * full precision weights. Alternatively, {@link QuantizedMultiLayerNetwork} keeps the weights in quantized form, and
+ * dequantizes the weights of each layer only when required for that layer's forward pass.<br>
+ * Use {@link #quantize(MultiLayerNetwork, Type)} and
+ * {@link #evaluate(MultiLayerNetwork, MultiLayerNetwork, DataSetIterator)} to measure the effect of quantization on
+ * accuracy before saving a model in quantized form.
+ */
+public class WeightQuantization {
+
+    public enum Type {
+        FP16, INT8
+    }
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte ENCODING_FULL = 0;
+    private static final byte ENCODING_FP16 = 1;
+    private static final byte ENCODING_INT8 = 2;
+
+    private WeightQuantization() {}
+
+    /**
+     * Write the parameters of the model, with the weights quantized as specified
+     *
+     * @param model Model (MultiLayerNetwork or ComputationGraph) to write the parameters of
+     * @param type  Quantization type
+     * @param out   Stream to write to
+     */
+    public static void write(@NonNull Model model, @NonNull Type type, @NonNull DataOutputStream out)
+                    throws IOException {
+        Layer[] layers = getLayers(model);
+        int count = 0;
+        for (Layer l : layers) {
+            count += l.paramTable().size();
+        }
+
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(count);
+        for (int i = 0; i < layers.length; i++) {
+            for (Map.Entry<String, INDArray> e : layers[i].paramTable().entrySet()) {
+                out.writeUTF(layerId(model, layers[i], i));
+                out.writeUTF(e.getKey());
+                quantize(layers[i], e.getKey(), e.getValue(), type).write(out);
+            }
+        }
+    }
+
+    /**
+     * Read parameters written by {@link #write(Model, Type, DataOutputStream)}, and set them in the model. The model
+     * must have the same configuration as the model the parameters were written for.
+     *
+     * @param model Model (MultiLayerNetwork or ComputationGraph) to set the parameters of. Must be initialized
+     * @param in    Stream to read from
+     */
+    public static void read(@NonNull Model model, @NonNull DataInputStream in) throws IOException {
+        for (Map.Entry<String, Map<String, StoredParam>> e : readParams(in).entrySet()) {
+            Layer l = getLayer(model, e.getKey());
+            for (Map.Entry<String, StoredParam> e2 : e.getValue().entrySet()) {
+                l.setParam(e2.getKey(), e2.getValue().toArray());
+            }
+        }
+    }
+
+    /**
+     * Read parameters written by {@link #write(Model, Type, DataOutputStream)}, without dequantizing them
+     *
+     * @param in Stream to read from
+     * @return Parameters, keyed by layer ID (index for MultiLayerNetwork, name for ComputationGraph) and parameter name
+     */
+    static Map<String, Map<String, StoredParam>> readParams(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION)
+            throw new IOException("Unsupported quantized parameters format version: " + version);
+        int count = in.readInt();
+        Map<String, Map<String, StoredParam>> out = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String layerId = in.readUTF();
+            String paramName = in.readUTF();
+            Map<String, StoredParam> layerParams = out.get(layerId);
+            if (layerParams == null) {
+                layerParams = new LinkedHashMap<>();
+                out.put(layerId, layerParams);
+            }
+            layerParams.put(paramName, StoredParam.read(in));
+        }
+        return out;
+    }
+
+    /**
+     * Create a copy of the network, with the weights quantized and then dequantized. The output of the returned
+     * network is the same as the output of the network after saving in quantized form and restoring it.
+     *
+     * @param network Network to quantize. Not modified
+     * @param type    Quantization type
+     * @return Copy of the network, with quantized weights
+     */
+    public static MultiLayerNetwork quantize(@NonNull MultiLayerNetwork network, @NonNull Type type) {
+        MultiLayerNetwork out = network.clone();
+        quantizeWeights(out, type);
+        return out;
+    }
+
+    /**
+     * As per {@link #quantize(MultiLayerNetwork, Type)}, for ComputationGraph
+     */
+    public static ComputationGraph quantize(@NonNull ComputationGraph graph, @NonNull Type type) {
+        ComputationGraph out = graph.clone();
+        quantizeWeights(out, type);
+        return out;
+    }
+
+    /**
+     * Evaluate the effect of quantization on accuracy: evaluate both networks on the same data (for example, a network
+     * and the result of {@link #quantize(MultiLayerNetwork, Type)} for it, or the network restored from a quantized
+     * model file)
+     *
+     * @param original  Original (full precision) network
+     * @param quantized Quantized network
+     * @param data      Validation data
+     * @return Report with evaluations for both networks
+     */
+    public static QuantizationReport evaluate(@NonNull MultiLayerNetwork original,
+                    @NonNull MultiLayerNetwork quantized, @NonNull DataSetIterator data) {
+        return doEvaluate(original, quantized, data);
+    }
+
+    /**
+     * As per {@link #evaluate(MultiLayerNetwork, MultiLayerNetwork, DataSetIterator)}, for ComputationGraph (single
+     * input, single output)
+     */
+    public static QuantizationReport evaluate(@NonNull ComputationGraph original, @NonNull ComputationGraph quantized,
+                    @NonNull DataSetIterator data) {
+        return doEvaluate(original, quantized, data);
+    }
+
+    private static QuantizationReport doEvaluate(Model original, Model quantized, DataSetIterator data) {
+        Evaluation eOriginal = new Evaluation();
+        Evaluation eQuantized = new Evaluation();
+        double maxAbsDiff = 0.0;
+        if (data.resetSupported())
+            data.reset();
+        while (data.hasNext()) {
+            DataSet ds = data.next();
+            INDArray outOriginal = output(original, ds.getFeatures());
+            INDArray outQuantized = output(quantized, ds.getFeatures());
+            eOriginal.eval(ds.getLabels(), outOriginal);
+            eQuantized.eval(ds.getLabels(), outQuantized);
+            maxAbsDiff = Math.max(maxAbsDiff,
+                            Transforms.abs(outOriginal.sub(outQuantized)).maxNumber().doubleValue());
+        }
+        return new QuantizationReport(eOriginal, eQuantized, maxAbsDiff);
+    }
+
+    private static INDArray output(Model model, INDArray features) {
+        if (model instanceof MultiLayerNetwork)
+            return ((MultiLayerNetwork) model).output(features, false);
+        return ((ComputationGraph) model).outputSingle(false, features);
+    }
+
+    private static void quantizeWeights(Model model, Type type) {
+        for (Layer l : getLayers(model)) {
+            for (Map.Entry<String, INDArray> e : l.paramTable().entrySet()) {
+                StoredParam p = quantize(l, e.getKey(), e.getValue(), type);
+                if (p.isQuantized())
+                    e.getValue().assign(p.toArray());
+            }
+        }
+    }
+
+    /**
+     * Quantize the specified parameter of the layer, if it is a weight parameter
+     *
+     * @param layer     Layer the parameter belongs to
+     * @param paramName Name of the parameter
+     * @param p         Parameter values
+     * @param type      Quantization type
+     * @return Stored form of the parameter: quantized, or the (full precision) parameter array itself for other
+     *         parameters
+     */
+    static StoredParam quantize(Layer layer, String paramName, INDArray p, Type type) {
+        if (!DefaultParamInitializer.WEIGHT_KEY.equals(paramName) || (p.rank() != 2 && p.rank() != 4))
+            return StoredParam.full(p);
+
+        int[] shape = p.shape();
+        float[] data = p.dup('c').data().asFloat();
+        if (type == Type.FP16) {
+            short[] half = new short[data.length];
+            for (int i = 0; i < data.length; i++)
+                half[i] = floatToHalf(data[i]);
+            return StoredParam.fp16(shape, half);
+        }
+
+        int channelDim = channelDimension(layer, shape);
+        float[] scales = new float[shape[channelDim]];
+        for (int i = 0; i < data.length; i++) {
+            int c = channel(i, shape, channelDim);
+            scales[c] = Math.max(scales[c], Math.abs(data[i]));
+        }
+        for (int c = 0; c < scales.length; c++) {
+            scales[c] = (scales[c] == 0.0f ? 1.0f : scales[c] / 127.0f);
+        }
+        byte[] q = new byte[data.length];
+        for (int i = 0; i < data.length; i++) {
+            int v = Math.round(data[i] / scales[channel(i, shape, channelDim)]);
+            q[i] = (byte) Math.max(-127, Math.min(127, v));
+        }
+        return StoredParam.int8(shape, channelDim, scales, q);
+    }
+
+    /**
+     * Channel dimension for INT8 quantization: 0 (rows) for embedding layer weights [numEmbeddings,embeddingSize],
+     * otherwise the output dimension: 1 for 2d weights [nIn,nOut], 0 for convolution weights [nOut,nIn,kH,kW]
+     */
+    private static int channelDimension(Layer layer, int[] shape) {
+        if (shape.length == 2 && layer.conf().getLayer() instanceof org.deeplearning4j.nn.conf.layers.EmbeddingLayer)
+            return 0;
+        return (shape.length == 2 ? 1 : 0);
+    }
+
+    /**
+     * Channel index of the element at position i, for c order data
+     */
+    private static int channel(int i, int[] shape, int channelDim) {
+        if (shape.length == 2)
+            return (channelDim == 0 ? i / shape[1] : i % shape[1]);
+        return i / (shape[1] * shape[2] * shape[3]);
+    }
+
+    /**
+     * Convert a float to IEEE 754 half precision (binary16), rounding to nearest even. Values too large for half
+     * precision become infinity; values too small become (signed) zero.
+     */
+    static short floatToHalf(float f) {
+        int bits = Float.floatToIntBits(f);
+        int sign = (bits >>> 16) & 0x8000;
+        int exp = (bits >>> 23) & 0xff;
+        int mant = bits & 0x7fffff;
+        if (exp == 0xff) {
+            //Infinity or NaN
+            return (short) (sign | 0x7c00 | (mant != 0 ? 0x200 : 0));
+        }
+        int e = exp - 127 + 15;
+        if (e >= 0x1f) {
+            return (short) (sign | 0x7c00);
+        }
+        int shift;
+        int h;
+        if (e <= 0) {
+            //Subnormal half (or zero)
+            if (e < -10)
+                return (short) sign;
+            mant |= 0x800000;
+            shift = 14 - e;
+            h = mant >> shift;
+        } else {
+            shift = 13;
+            h = (e << 10) | (mant >> shift);
+        }
+        int rem = mant & ((1 << shift) - 1);
+        int half = 1 << (shift - 1);
+        if (rem > half || (rem == half && (h & 1) != 0))
+            h++; //Note: may carry into the exponent, which is correct
+        return (short) (sign | h);
+    }
+
+    /**
+     * Convert an IEEE 754 half precision (binary16) value to a float
+     */
+    static float halfToFloat(short h) {
+        int sign = (h & 0x8000) << 16;
+        int exp = (h >>> 10) & 0x1f;
+        int mant = h & 0x3ff;
+        if (exp == 0x1f)
+            return Float.intBitsToFloat(sign | 0x7f800000 | (mant << 13));
+        if (exp == 0) {
+            //Zero or subnormal: mant * 2^-24
+            float f = mant * 5.9604645e-8f;
+            return (sign != 0 ? -f : f);
+        }
+        return Float.intBitsToFloat(sign | ((exp + 112) << 23) | (mant << 13));
+    }
+
+    private static Layer[] getLayers(Model model) {
+        if (model instanceof MultiLayerNetwork)
+            return ((MultiLayerNetwork) model).getLayers();
+        if (model instanceof ComputationGraph)
+            return ((ComputationGraph) model).getLayers();
+        throw new IllegalArgumentException("Unsupported model type: " + model.getClass().getName());
+    }
+
+    private static String layerId(Model model, Layer layer, int idx) {
+        if (model instanceof MultiLayerNetwork)
+            return String.valueOf(idx);
+        return layer.conf().getLayer().getLayerName();
+    }
+
+    private static Layer getLayer(Model model, String layerId) {
+        if (model instanceof MultiLayerNetwork)
+            return ((MultiLayerNetwork) model).getLayer(Integer.parseInt(layerId));
+        return ((ComputationGraph) model).getLayer(layerId);
+    }
+
+    /**
+     * A parameter array in its stored form: quantized (FP16 or INT8) weights, or a full precision array for parameters
+     * that are not quantized
+     */
+    static class StoredParam {
+        private final byte encoding;
+        private final int[] shape;
+        private final INDArray full;
+        private final short[] half;
+        private final int channelDim;
+        private final float[] scales;
+        private final byte[] int8;
+
+        private StoredParam(byte encoding, int[] shape, INDArray full, short[] half, int channelDim, float[] scales,
+                        byte[] int8) {
+            this.encoding = encoding;
+            this.shape = shape;
+            this.full = full;
+            this.half = half;
+            this.channelDim = channelDim;
+            this.scales = scales;
+            this.int8 = int8;
+        }
+
+        static StoredParam full(INDArray arr) {
+            return new StoredParam(ENCODING_FULL, arr.shape(), arr, null, 0, null, null);
+        }
+
+        static StoredParam fp16(int[] shape, short[] half) {
+            return new StoredParam(ENCODING_FP16, shape, null, half, 0, null, null);
+        }
+
+        static StoredParam int8(int[] shape, int channelDim, float[] scales, byte[] int8) {
+            return new StoredParam(ENCODING_INT8, shape, null, null, channelDim, scales, int8);
+        }
+
+        boolean isQuantized() {
+            return encoding != ENCODING_FULL;
+        }
+
+        /**
+         * @return The parameter as a full precision array (dequantized, if required). Dequantized arrays are created
+         *         in the current workspace, if any
+         */
+        INDArray toArray() {
+            if (!isQuantized())
+                return full;
+            float[] data;
+            if (encoding == ENCODING_FP16) {
+                data = new float[half.length];
+                for (int i = 0; i < half.length; i++)
+                    data[i] = halfToFloat(half[i]);
+            } else {
+                data = new float[int8.length];
+                for (int i = 0; i < int8.length; i++)
+                    data[i] = int8[i] * scales[channel(i, shape, channelDim)];
+            }
+            return Nd4j.create(data, shape, 'c');
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeByte(encoding);
+            if (encoding == ENCODING_FULL) {
+                Nd4j.write(full, out);
+                return;
+            }
+            out.writeInt(shape.length);
+            for (int s : shape)
+                out.writeInt(s);
+            if (encoding == ENCODING_FP16) {
+                for (short h : half)
+                    out.writeShort(h);
+            } else {
+                out.writeByte(channelDim);
+                out.writeInt(scales.length);
+                for (float f : scales)
+                    out.writeFloat(f);
+                out.write(int8);
+            }
+        }
+
+        static StoredParam read(DataInputStream in) throws IOException {
+            byte encoding = in.readByte();
+            if (encoding == ENCODING_FULL)
+                return full(Nd4j.read(in));
+            if (encoding != ENCODING_FP16 && encoding != ENCODING_INT8)
+                throw new IOException("Invalid quantized parameter encoding: " + encoding);
+
+            int[] shape = new int[in.readInt()];
+            int length = 1;
+            for (int j = 0; j < shape.length; j++) {
+                shape[j] = in.readInt();
+                length *= shape[j];
+            }
+            if (encoding == ENCODING_FP16) {
+                short[] half = new short[length];
+                for (int j = 0; j < length; j++)
+                    half[j] = in.readShort();
+                return fp16(shape, half);
+            }
+            int channelDim = in.readByte();
+            float[] scales = new float[in.readInt()];
+            for (int j = 0; j < scales.length; j++)
+                scales[j] = in.readFloat();
+            byte[] q = new byte[length];
+            in.readFully(q);
+            return int8(shape, channelDim, scales, q);
+        }
+    }
+
+    /**
+     * Accuracy of a network before and after quantization: see
+     * {@link #evaluate(MultiLayerNetwork, MultiLayerNetwork, DataSetIterator)}
+     */
+    @AllArgsConstructor
+    @Getter
+    public static class QuantizationReport {
+        private final Evaluation originalEvaluation;
+        private final Evaluation quantizedEvaluation;
+        private final double maxAbsoluteOutputDifference;
+
+        /**
+         * @return Accuracy of the original network minus accuracy of the quantized network
+         */
+        public double getAccuracyDrop() {
+            return originalEvaluation.accuracy() - quantizedEvaluation.accuracy();
+        }
+
+        @Override
+        public String toString() {
+            return "QuantizationReport(originalAccuracy=" + originalEvaluation.accuracy() + ", quantizedAccuracy="
+                            + quantizedEvaluation.accuracy() + ", accuracyDrop=" + getAccuracyDrop()
+                            + ", maxAbsoluteOutputDifference=" + maxAbsoluteOutputDifference + ")";
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package org.deeplearning4j.parallelism;
+
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.SerializationUtils;
+import org.deeplearning4j.datasets.iterator.AsyncDataSetIterator;
+import org.deeplearning4j.datasets.iterator.AsyncMultiDataSetIterator;
+import org.deeplearning4j.eval.IEvaluation;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.graph.GraphInferenceContext;
+import org.deeplearning4j.nn.multilayer.MultiLayerInferenceContext;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.api.DataSet;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.dataset.api.iterator.MultiDataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Multi-threaded equivalent of {@link MultiLayerNetwork#doEvaluation(DataSetIterator, IEvaluation[])} and
+ * {@link ComputationGraph#doEvaluation(MultiDataSetIterator, IEvaluation[])}, for evaluating large data sets using
+ * all available cores (or devices).<br>
+ * Evaluation is pipelined: the calling thread loads the data (using asynchronous prefetching where supported) into a
+ * bounded queue, from which a pool of worker threads takes minibatches, performs inference and accumulates the
+ * results into per-worker copies ("shards") of the provided {@link IEvaluation} instances. Once all data has been
+ * processed, the shards are combined into the provided instances using {@link IEvaluation#merge(IEvaluation)}.
+ * <p>
+ * As per {@link ParallelInference}, workers are assigned to devices round robin. Workers on the same device as the
+ * model use the model's parameters directly, each with its own inference context (see
+ * {@link MultiLayerNetwork#createInferenceContext()}); workers on other devices use a copy of the model.<br>
+ * The model should not be trained while evaluation is in progress.
+ */
+@Slf4j
+public class ParallelEvaluation {
+
+    public final static int DEFAULT_NUM_WORKERS = Runtime.getRuntime().availableProcessors();
+    public final static int DEFAULT_QUEUE_LIMIT = 8;
+
+    private static final long POLL_MS = 100;
+
+    private final Model model;
+    private final int workers;
+    private final int queueLimit;
+    private final Object locker = new Object();
+
+    private ParallelEvaluation(Builder builder) {
+        this.model = builder.model;
+        this.workers = builder.workers;
+        this.queueLimit = builder.queueLimit;
+
+        if (model instanceof MultiLayerNetwork) {
+            ((MultiLayerNetwork) model).init();
+        } else if (model instanceof ComputationGraph) {
+            ComputationGraph cg = (ComputationGraph) model;
+            cg.init();
+            if (cg.getNumOutputArrays() != 1) {
+                throw new IllegalStateException("Cannot evaluate a ComputationGraph with " + cg.getNumOutputArrays()
+                                + " outputs: only single output graphs are supported");
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported model type: " + model.getClass()
+                            + ". Only MultiLayerNetwork and ComputationGraph are supported");
+        }
+    }
+
+    /**
+     * Perform evaluation on the given data, with the given {@link IEvaluation} instances
+     *
+     * @param iterator    Test data to evaluate on
+     * @param evaluations IEvaluation instances
+     * @param <T>         Type of the IEvaluation instances
+     * @return The input IEvaluation instances, after performing evaluation on the test data
+     */
+    @SafeVarargs
+    public final <T extends IEvaluation> T[] evaluate(@NonNull DataSetIterator iterator, T... evaluations) {
+        //No workspaces for prefetching: minibatches are handed off to (and retained by) the worker threads
+        if (iterator.resetSupported() && !iterator.hasNext())
+            iterator.reset();
+        DataSetIterator iter = iterator.asyncSupported() ? new AsyncDataSetIterator(iterator, 2, false) : iterator;
+        try {
+            return evaluate(new DataSetSource(iter), evaluations);
+        } finally {
+            if (iter instanceof AsyncDataSetIterator)
+                ((AsyncDataSetIterator) iter).shutdown();
+        }
+    }
+
+    /**
+     * Perform evaluation on the given data, with the given {@link IEvaluation} instances. Only the first labels array
+     * of each MultiDataSet is used
+     *
+     * @param iterator    Test data to evaluate on
+     * @param evaluations IEvaluation instances
+     * @param <T>         Type of the IEvaluation instances
+     * @return The input IEvaluation instances, after performing evaluation on the test data
+     */
+    @SafeVarargs
+    public final <T extends IEvaluation> T[] evaluate(@NonNull MultiDataSetIterator iterator, T... evaluations) {
+        if (iterator.resetSupported() && !iterator.hasNext())
+            iterator.reset();
+        MultiDataSetIterator iter =
+                        iterator.asyncSupported() ? new AsyncMultiDataSetIterator(iterator, 2, false) : iterator;
+        try {
+            return evaluate(new MultiDataSetSource(iter), evaluations);
+        } finally {
+            if (iter instanceof AsyncMultiDataSetIterator)
+                ((AsyncMultiDataSetIterator) iter).shutdown();
+        }
+    }
+
+    private <T extends IEvaluation> T[] evaluate(Source source, T[] evaluations) {
+        BlockingQueue<Batch> queue = new LinkedBlockingQueue<>(queueLimit);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        int numDevices = Nd4j.getAffinityManager().getNumberOfDevices();
+        int currentDevice = Nd4j.getAffinityManager().getDeviceForCurrentThread();
+        EvaluationWorker[] zoo = new EvaluationWorker[workers];
+        for (int i = 0; i < workers; i++) {
+            int cDevice = i % numDevices;
+            IEvaluation[] shards = new IEvaluation[evaluations.length];
+            for (int j = 0; j < evaluations.length; j++) {
+                shards[j] = SerializationUtils.clone(evaluations[j]);
+                shards[j].reset();
+            }
+            zoo[i] = new EvaluationWorker(i, queue, shards, cDevice == currentDevice, failure);
+            Nd4j.getAffinityManager().attachThreadToDevice(zoo[i], cDevice);
+            zoo[i].start();
+        }
+
+        try {
+            //Load data on this thread, while the workers do inference and evaluation
+            Batch next;
+            while (failure.get() == null && (next = source.next()) != null) {
+                while (failure.get() == null && !queue.offer(next, POLL_MS, TimeUnit.MILLISECONDS)) {
+                    //Wait until a worker is ready
+                }
+            }
+            for (int i = 0; i < workers; i++) {
+                while (failure.get() == null && !queue.offer(Batch.END, POLL_MS, TimeUnit.MILLISECONDS)) {
+                    //Wait until a worker is ready
+                }
+            }
+            for (EvaluationWorker w : zoo) {
+                if (failure.get() != null)
+                    w.interrupt();
+                w.join();
+            }
+        } catch (InterruptedException e) {
+            for (EvaluationWorker w : zoo)
+                w.interrupt();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during evaluation", e);
+        }
+
+        if (failure.get() != null) {
+            throw new RuntimeException("Error during parallel evaluation", failure.get());
+        }
+
+        long count = 0;
+        for (EvaluationWorker w : zoo) {
+            if (w.counter.get() == 0)
+                continue; //Shards may retain state after reset (RegressionEvaluation) - only merge if used
+            count += w.counter.get();
+            for (int j = 0; j < evaluations.length; j++) {
+                evaluations[j].merge(w.shards[j]);
+            }
+        }
+        log.debug("Evaluated {} minibatches using {} workers", count, workers);
+
+        return evaluations;
+    }
+
+    /**
+     * Minibatch of data to evaluate. For a MultiLayerNetwork, only the first feature and feature mask arrays are used
+     */
+    @AllArgsConstructor
+    private static class Batch {
+        private static final Batch END = new Batch(null, null, null, null);
+
+        private final INDArray[] features;
+        private final INDArray[] featuresMasks;
+        private final INDArray labels;
+        private final INDArray labelsMask;
+    }
+
+    private interface Source {
+        /**
+         * @return Next batch, or null if no more data is available
+         */
+        Batch next();
+    }
+
+    @AllArgsConstructor
+    private static class DataSetSource implements Source {
+        private final DataSetIterator iterator;
+
+        @Override
+        public Batch next() {
+            if (!iterator.hasNext())
+                return null;
+            DataSet ds = iterator.next();
+            if (ds.getFeatures() == null || ds.getLabels() == null)
+                return null;
+            INDArray fMask = ds.getFeaturesMaskArray();
+            return new Batch(new INDArray[] {ds.getFeatures()}, fMask == null ? null : new INDArray[] {fMask},
+                            ds.getLabels(), ds.getLabelsMaskArray());
+        }
+    }
+
+    @AllArgsConstructor
+    private static class MultiDataSetSource implements Source {
+        private final MultiDataSetIterator iterator;
+
+        @Override
+        public Batch next() {
+            if (!iterator.hasNext())
+                return null;
+            MultiDataSet mds = iterator.next();
+            if (mds.getFeatures() == null || mds.getLabels() == null)
+                return null;
+            return new Batch(mds.getFeatures(), mds.getFeaturesMaskArrays(), mds.getLabels(0),
+                            mds.getLabelsMaskArray(0));
+        }
+    }
+
+    private class EvaluationWorker extends Thread {
+        private final BlockingQueue<Batch> queue;
+        private final IEvaluation[] shards;
+        private final boolean rootDevice;
+        private final AtomicReference<Throwable> failure;
+        private final AtomicLong counter = new AtomicLong(0);
+
+        private EvaluationWorker(int id, BlockingQueue<Batch> queue, IEvaluation[] shards, boolean rootDevice,
+                        AtomicReference<Throwable> failure) {
+            this.queue = queue;
+            this.shards = shards;
+            this.rootDevice = rootDevice;
+            this.failure = failure;
+
+            this.setDaemon(true);
+            this.setName("EvaluationThread-" + id);
+        }
+
+        @Override
+        public void run() {
+            try {
+                //Model: the original (with a per-thread inference context) on the same device; otherwise a copy
+                Model m = model;
+                if (!rootDevice) {
+                    if (model instanceof ComputationGraph) {
+                        m = new ComputationGraph(ComputationGraphConfiguration
+                                        .fromJson(((ComputationGraph) model).getConfiguration().toJson()));
+                    } else {
+                        m = new MultiLayerNetwork(MultiLayerConfiguration
+                                        .fromJson(((MultiLayerNetwork) model).getLayerWiseConfigurations().toJson()));
+                    }
+                    m.init();
+                    synchronized (locker) {
+                        m.setParams(model.params().unsafeDuplication(true));
+                        Nd4j.getExecutioner().commit();
+                    }
+                }
+                MultiLayerInferenceContext mlnContext = null;
+                GraphInferenceContext graphContext = null;
+                if (m instanceof ComputationGraph) {
+                    graphContext = ((ComputationGraph) m).createInferenceContext();
+                } else {
+                    mlnContext = ((MultiLayerNetwork) m).createInferenceContext();
+                }
+
+                while (true) {
+                    Batch b = queue.take();
+                    if (b == Batch.END)
+                        break;
+
+                    INDArray out;
+                    if (graphContext != null) {
+                        out = ((ComputationGraph) m).output(graphContext, b.features, b.featuresMasks)[0];
+                    } else {
+                        out = ((MultiLayerNetwork) m).output(mlnContext, b.features[0],
+                                        b.featuresMasks == null ? null : b.featuresMasks[0], b.labelsMask);
+                    }
+
+                    for (IEvaluation e : shards) {
+                        e.eval(b.labels, out, b.labelsMask);
+                    }
+                    counter.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                //Evaluation was cancelled due to a failure elsewhere
+            } catch (Throwable t) {
+                log.error("Error in evaluation worker {}", getName(), t);
+                failure.compareAndSet(null, t);
+            }
+        }
+    }
+
+    public static class Builder {
+        private Model model;
+        private int workers = DEFAULT_NUM_WORKERS;
+        private int queueLimit = DEFAULT_QUEUE_LIMIT;
+
+        public Builder(@NonNull Model model) {
+            this.model = model;
+        }
+
+        /**
+         * Number of worker threads to use for inference and evaluation. Default: number of available processors
+         *
+         * @param workers Number of workers
+         */
+        public Builder workers(int workers) {
+            if (workers < 1)
+                throw new IllegalStateException("Workers should be positive value");
+
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * Maximum number of minibatches loaded but not yet taken by a worker. Default: 8
+         *
+         * @param limit Queue limit
+         */
+        public Builder queueLimit(int limit) {
+            if (limit < 1)
+                throw new IllegalStateException("Queue limit should be positive value");
+
+            this.queueLimit = limit;
+            return this;
+        }
+
+        public ParallelEvaluation build() {
+            return new ParallelEvaluation(this);
+        }
+    }
+}
@@ -6,6 +6,8 @@ import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.graph.GraphInferenceContext;
+import org.deeplearning4j.nn.multilayer.MultiLayerInferenceContext;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.parallelism.inference.InferenceMode;
 import org.deeplearning4j.parallelism.inference.InferenceObservable;
@@ -63,13 +65,12 @@ public class ParallelInference {
 
         int numDevices = Nd4j.getAffinityManager().getNumberOfDevices();
         int currentDevice = Nd4j.getAffinityManager().getDeviceForCurrentThread();
-        AtomicBoolean assignedRoot = new AtomicBoolean(false);
 
         zoo = new InferenceWorker[workers];
         for (int i = 0; i < workers; i++) {
             int cDevice = i % numDevices;
-            boolean cRoot = !assignedRoot.get() && cDevice == currentDevice;
-            assignedRoot.compareAndSet(false, cRoot);
+            //Workers on the same device as the model share its parameters; other devices get their own copy
+            boolean cRoot = cDevice == currentDevice;
 
             zoo[i] = new InferenceWorker(i, model, observables, cRoot);
 
@@ -272,6 +273,8 @@ public class ParallelInference {
         private AtomicBoolean isStopped = new AtomicBoolean(false);
         private Model protoModel;
         private Model replicatedModel;
+        private MultiLayerInferenceContext mlnContext;
+        private GraphInferenceContext graphContext;
         private AtomicLong counter = new AtomicLong(0);
         private boolean rootDevice;
 
@@ -306,6 +309,7 @@ public class ParallelInference {
                         }
                     } else {
                         this.replicatedModel = protoModel;
+                        this.graphContext = ((ComputationGraph) protoModel).createInferenceContext();
                     }
                 } else if (protoModel instanceof MultiLayerNetwork) {
                     if (!rootDevice) {
@@ -320,6 +324,7 @@ public class ParallelInference {
                         }
                     } else {
                         this.replicatedModel = protoModel;
+                        this.mlnContext = ((MultiLayerNetwork) protoModel).createInferenceContext();
                     }
                 }
 
@@ -330,7 +335,15 @@ public class ParallelInference {
                         counter.incrementAndGet();
 
                         // FIXME: get rid of instanceof here, model won't change during runtime anyway
-                        if (replicatedModel instanceof ComputationGraph) {
+                        if (graphContext != null) {
+                            INDArray[] output = ((ComputationGraph) protoModel).output(graphContext,
+                                            request.getInput());
+                            request.setOutput(output);
+                        } else if (mlnContext != null) {
+                            INDArray output = ((MultiLayerNetwork) protoModel).output(mlnContext,
+                                            request.getInput()[0]);
+                            request.setOutput(output);
+                        } else if (replicatedModel instanceof ComputationGraph) {
                             INDArray[] output = ((ComputationGraph) replicatedModel).output(false, request.getInput());
                             request.setOutput(output);
                         } else if (replicatedModel instanceof MultiLayerNetwork) {
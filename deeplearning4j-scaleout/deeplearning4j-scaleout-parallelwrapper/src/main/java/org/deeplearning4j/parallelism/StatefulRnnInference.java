@@ -0,0 +1,701 @@
+package org.deeplearning4j.parallelism;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.api.layers.RecurrentLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.util.ArrayUtil;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stateful, session-multiplexed RNN inference on top of rnnTimeStep, for serving many concurrent streaming sessions
+ * with a single {@link MultiLayerNetwork} or (single input, single output) {@link ComputationGraph}.<br>
+ * <br>
+ * Instead of one network copy per session (or swapping full state maps in and out per request), the hidden state of
+ * every active session is kept in a pool: one (off-heap) array per RNN layer state entry, with one row (slot) per
+ * session. A single worker thread takes the pending time step requests, batches one time step of up to
+ * {@code batchLimit} distinct sessions, gathers their state rows from the pool into the network, performs one
+ * rnnTimeStep forward pass for the whole batch, and scatters the updated state rows back into the pool.<br>
+ * <br>
+ * Session lifecycle:
+ * <ul>
+ * <li>A session is created on its first time step, with the default (zero) initial RNN state</li>
+ * <li>Sessions are removed by {@link #endSession(String)}, or evicted once idle for longer than the idle timeout</li>
+ * <li>The number of sessions is bounded by {@code maxSessions} and by the memory budget for the state pool. When
+ * no slot is available for a new session, the least recently used session (that is not part of the current batch)
+ * is evicted. An evicted session restarts from the initial state on its next time step; use
+ * {@link #isActive(String)} to check</li>
+ * </ul>
+ * Note that the network's stored RNN state is used by the worker thread: the network should not be used for
+ * rnnTimeStep elsewhere while this instance is running. Other inference methods (such as output) are unaffected.
+ */
+@Slf4j
+public class StatefulRnnInference {
+
+    public final static int DEFAULT_BATCH_LIMIT = 64;
+    public final static int DEFAULT_MAX_SESSIONS = 4096;
+    public final static long DEFAULT_MEMORY_BUDGET_BYTES = 512L * 1024 * 1024;
+
+    private static final int INITIAL_POOL_CAPACITY = 64;
+
+    private final Model model;
+    private final int batchLimit;
+    private final int maxSessions;
+    private final long memoryBudgetBytes;
+    private final long batchWindowNanos;
+    private final long idleTimeoutNanos;
+
+    private final BlockingQueue<Request> requests = new LinkedBlockingQueue<>();
+    private final Set<String> activeSessionIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong stepCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicBoolean shutdown = new AtomicBoolean(false);
+    private final Worker worker;
+
+    //Owned by the worker thread only
+    private final Deque<Request> deferred = new ArrayDeque<>();
+    private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Map<String, StatePool>> pools = new LinkedHashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private int nextSlot = 0;
+    private int poolCapacity = 0;
+    private int slotLimit;
+    private volatile long bytesPerSession = -1;
+
+    private StatefulRnnInference(Builder builder) {
+        this.model = builder.model;
+        this.batchLimit = builder.batchLimit;
+        this.maxSessions = builder.maxSessions;
+        this.memoryBudgetBytes = builder.memoryBudgetBytes;
+        this.batchWindowNanos = builder.batchWindowNanos;
+        this.idleTimeoutNanos = builder.idleTimeoutNanos;
+        this.slotLimit = maxSessions;
+
+        if (model instanceof ComputationGraph) {
+            ComputationGraph cg = (ComputationGraph) model;
+            if (cg.getNumInputArrays() != 1 || cg.getNumOutputArrays() != 1) {
+                throw new IllegalArgumentException("Only ComputationGraphs with 1 input and 1 output are supported. "
+                                + "Got " + cg.getNumInputArrays() + " inputs and " + cg.getNumOutputArrays()
+                                + " outputs");
+            }
+        } else if (!(model instanceof MultiLayerNetwork)) {
+            throw new IllegalArgumentException("Unsupported model type: " + model.getClass().getName());
+        }
+
+        worker = new Worker();
+        Nd4j.getAffinityManager().attachThreadToDevice(worker,
+                        Nd4j.getAffinityManager().getDeviceForCurrentThread());
+        worker.start();
+    }
+
+    /**
+     * Perform one time step for the given session, blocking until the output is available.
+     *
+     * @param sessionId ID of the session. A new session is created if no session with this ID is active
+     * @param input     Input for one time step, for one example: shape [1, inputSize]
+     * @return Network output for this session and time step: shape [1, outputSize]
+     */
+    public INDArray timeStep(@NonNull String sessionId, @NonNull INDArray input) {
+        try {
+            return timeStepAsync(sessionId, input).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Asynchronous version of {@link #timeStep(String, INDArray)}. Time steps submitted for the same session are
+     * executed in submission order.
+     *
+     * @param sessionId ID of the session. A new session is created if no session with this ID is active
+     * @param input     Input for one time step, for one example: shape [1, inputSize]
+     * @return Future for the network output, shape [1, outputSize]
+     */
+    public CompletableFuture<INDArray> timeStepAsync(@NonNull String sessionId, @NonNull INDArray input) {
+        if (shutdown.get()) {
+            throw new IllegalStateException("Cannot perform time step: instance has been shut down");
+        }
+        if (input.rank() != 2 || input.size(0) != 1) {
+            throw new IllegalArgumentException("Expected input with shape [1, inputSize] for one time step of one "
+                            + "session. Got input with shape " + Arrays.toString(input.shape()));
+        }
+        Request r = new Request(sessionId, input);
+        requests.add(r);
+        if (shutdown.get()) {
+            //Shut down concurrently: the queue may already have been drained, so fail this (and any other) request
+            failAll(new IllegalStateException("Instance has been shut down"));
+        }
+        return r.future;
+    }
+
+    /**
+     * End the specified session, releasing its slot in the state pool. Time steps already submitted for the session
+     * are executed first. No-op if the session is not active.
+     *
+     * @param sessionId ID of the session to end
+     */
+    public void endSession(@NonNull String sessionId) {
+        requests.add(new Request(sessionId, null));
+    }
+
+    /**
+     * @param sessionId ID of the session
+     * @return True if a session with the specified ID is currently active (has state in the pool)
+     */
+    public boolean isActive(@NonNull String sessionId) {
+        return activeSessionIds.contains(sessionId);
+    }
+
+    /**
+     * @return Number of currently active sessions
+     */
+    public int getActiveSessionCount() {
+        return activeSessionIds.size();
+    }
+
+    /**
+     * @return Number of sessions evicted so far, due to the idle timeout or the session/memory limits
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * @return Total number of session time steps performed so far
+     */
+    public long getStepCount() {
+        return stepCount.get();
+    }
+
+    /**
+     * @return Number of batched forward passes performed so far. getStepCount() / getBatchCount() is the average
+     *         batch size
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * @return Size of the RNN state for one session, in bytes. -1 if not yet known (no time steps performed yet)
+     */
+    public long getBytesPerSession() {
+        return bytesPerSession;
+    }
+
+    /**
+     * Stop the worker thread. Pending time steps are failed, and the state pool is released.
+     */
+    public void shutdown() {
+        if (shutdown.getAndSet(true))
+            return;
+        worker.interrupt();
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failAll(new IllegalStateException("Instance has been shut down"));
+    }
+
+    private void failAll(Exception e) {
+        Request r;
+        while ((r = requests.poll()) != null) {
+            if (r.future != null)
+                r.future.completeExceptionally(e);
+        }
+    }
+
+    private class Worker extends Thread {
+        private Worker() {
+            setDaemon(true);
+            setName("StatefulRnnInferenceThread");
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!shutdown.get()) {
+                    List<Request> batch = nextBatch();
+                    if (batch.isEmpty())
+                        continue;
+                    try {
+                        process(batch);
+                    } catch (Exception e) {
+                        log.error("Error during batched RNN time step", e);
+                        for (Request r : batch) {
+                            r.future.completeExceptionally(e);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                //Shutdown
+            } finally {
+                //Also reached if the worker fails unexpectedly: no further requests can be processed
+                shutdown.set(true);
+                IllegalStateException shutdownException = new IllegalStateException("Instance has been shut down");
+                for (Request r : deferred) {
+                    if (r.future != null)
+                        r.future.completeExceptionally(shutdownException);
+                }
+                deferred.clear();
+                pools.clear();
+                failAll(shutdownException);
+            }
+        }
+    }
+
+    /**
+     * Collect the next batch: at most one time step per session (later steps for a session are deferred to a later
+     * batch, preserving order), up to batchLimit sessions
+     */
+    private List<Request> nextBatch() throws InterruptedException {
+        List<Request> batch = new ArrayList<>();
+        Set<String> inBatch = new HashSet<>();
+        Set<String> blocked = new HashSet<>();
+
+        //Previously deferred requests first, in order
+        int nDeferred = deferred.size();
+        for (int i = 0; i < nDeferred; i++) {
+            Request r = deferred.pollFirst();
+            if (!offer(r, batch, inBatch, blocked)) {
+                deferred.addLast(r);
+            }
+        }
+
+        if (batch.isEmpty() && deferred.isEmpty()) {
+            //Block until at least one request is available
+            Request r = requests.take();
+            if (!offer(r, batch, inBatch, blocked))
+                deferred.addLast(r);
+        }
+
+        long end = System.nanoTime() + batchWindowNanos;
+        while (batch.size() < batchLimit) {
+            Request r;
+            long remaining = end - System.nanoTime();
+            if (remaining > 0) {
+                r = requests.poll(remaining, TimeUnit.NANOSECONDS);
+            } else {
+                r = requests.poll();
+            }
+            if (r == null)
+                break;
+            if (!offer(r, batch, inBatch, blocked))
+                deferred.addLast(r);
+        }
+        return batch;
+    }
+
+    private boolean offer(Request r, List<Request> batch, Set<String> inBatch, Set<String> blocked) {
+        if (blocked.contains(r.sessionId) || inBatch.contains(r.sessionId)) {
+            //Same session already in this batch (or an earlier request for it is deferred): keep order
+            blocked.add(r.sessionId);
+            return false;
+        }
+        if (r.input == null) {
+            //End of session
+            removeSession(r.sessionId, false);
+            return true;
+        }
+        if (batch.size() >= batchLimit) {
+            blocked.add(r.sessionId);
+            return false;
+        }
+        batch.add(r);
+        inBatch.add(r.sessionId);
+        return true;
+    }
+
+    private void process(List<Request> batch) {
+        Set<String> batchIds = new HashSet<>();
+        for (Request r : batch) {
+            batchIds.add(r.sessionId);
+        }
+        evictIdle(batchIds);
+
+        //Assign slots. Requests that can't get one (all slots used by this batch) are deferred
+        List<Request> toRun = new ArrayList<>(batch.size());
+        int[] slots = new int[batch.size()];
+        long now = System.nanoTime();
+        for (Request r : batch) {
+            Session s = sessions.get(r.sessionId);
+            if (s == null) {
+                int slot = allocateSlot(batchIds);
+                if (slot < 0) {
+                    deferred.addFirst(r);
+                    continue;
+                }
+                s = new Session(slot);
+                sessions.put(r.sessionId, s);
+                activeSessionIds.add(r.sessionId);
+            }
+            s.lastAccess = now;
+            slots[toRun.size()] = s.slot;
+            toRun.add(r);
+        }
+        if (toRun.isEmpty())
+            return;
+        slots = Arrays.copyOf(slots, toRun.size());
+        int n = slots.length;
+
+        //Gather the state rows for the batch into the network
+        if (pools.isEmpty()) {
+            clearStates();
+        } else {
+            Map<String, Map<String, INDArray>> states = new HashMap<>();
+            for (Map.Entry<String, Map<String, StatePool>> e : pools.entrySet()) {
+                Map<String, INDArray> layerState = new HashMap<>();
+                for (Map.Entry<String, StatePool> e2 : e.getValue().entrySet()) {
+                    layerState.put(e2.getKey(), e2.getValue().gather(slots));
+                }
+                states.put(e.getKey(), layerState);
+            }
+            setStates(states);
+        }
+
+        INDArray[] inputs = new INDArray[n];
+        for (int i = 0; i < n; i++) {
+            inputs[i] = toRun.get(i).input;
+        }
+        INDArray out = timeStep(Nd4j.vstack(inputs));
+
+        //Scatter the updated state rows back into the pool
+        Map<String, Map<String, INDArray>> newStates = getStates();
+        boolean newPools = false;
+        for (Map.Entry<String, Map<String, INDArray>> e : newStates.entrySet()) {
+            Map<String, StatePool> layerPools = pools.get(e.getKey());
+            if (layerPools == null) {
+                layerPools = new LinkedHashMap<>();
+                pools.put(e.getKey(), layerPools);
+            }
+            for (Map.Entry<String, INDArray> e2 : e.getValue().entrySet()) {
+                StatePool p = layerPools.get(e2.getKey());
+                if (p == null) {
+                    p = new StatePool(e2.getValue(), Math.max(poolCapacity, requiredCapacity(slots)));
+                    layerPools.put(e2.getKey(), p);
+                    newPools = true;
+                }
+                p.scatter(slots, e2.getValue());
+            }
+        }
+        if (newPools) {
+            updateSlotLimit();
+        }
+        clearStates();
+
+        stepCount.addAndGet(n);
+        batchCount.incrementAndGet();
+        for (int i = 0; i < n; i++) {
+            toRun.get(i).future.complete(out.getRow(i).dup());
+        }
+    }
+
+    private int allocateSlot(Set<String> batchIds) {
+        int slot;
+        if (!freeSlots.isEmpty()) {
+            slot = freeSlots.pollFirst();
+        } else if (nextSlot < slotLimit) {
+            slot = nextSlot++;
+        } else {
+            //Evict the least recently used session that isn't part of the current batch
+            String lru = null;
+            for (String id : sessions.keySet()) {
+                if (!batchIds.contains(id)) {
+                    lru = id;
+                    break;
+                }
+            }
+            if (lru == null)
+                return -1;
+            removeSession(lru, true);
+            slot = freeSlots.pollFirst();
+        }
+
+        ensureCapacity(slot + 1);
+        for (Map<String, StatePool> m : pools.values()) {
+            for (StatePool p : m.values()) {
+                p.zeroSlot(slot);
+            }
+        }
+        return slot;
+    }
+
+    private void removeSession(String sessionId, boolean evicted) {
+        Session s = sessions.remove(sessionId);
+        if (s == null)
+            return;
+        freeSlots.addLast(s.slot);
+        activeSessionIds.remove(sessionId);
+        if (evicted) {
+            evictionCount.incrementAndGet();
+            log.debug("Evicted session {}", sessionId);
+        }
+    }
+
+    private void evictIdle(Set<String> batchIds) {
+        //Sessions are in access order: least recently used first. Sessions with a time step in the current batch are
+        //not idle, regardless of when they were last accessed
+        if (idleTimeoutNanos <= 0)
+            return;
+        long threshold = System.nanoTime() - idleTimeoutNanos;
+        List<String> idle = new ArrayList<>();
+        for (Map.Entry<String, Session> e : sessions.entrySet()) {
+            if (e.getValue().lastAccess >= threshold)
+                break;
+            if (!batchIds.contains(e.getKey()))
+                idle.add(e.getKey());
+        }
+        for (String id : idle) {
+            removeSession(id, true);
+        }
+    }
+
+    private int requiredCapacity(int[] slots) {
+        int max = 0;
+        for (int s : slots) {
+            max = Math.max(max, s + 1);
+        }
+        return max;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= poolCapacity)
+            return;
+        int newCapacity = Math.max(poolCapacity, INITIAL_POOL_CAPACITY);
+        while (newCapacity < capacity) {
+            newCapacity *= 2;
+        }
+        newCapacity = Math.min(newCapacity, slotLimit);
+        for (Map<String, StatePool> m : pools.values()) {
+            for (StatePool p : m.values()) {
+                p.grow(newCapacity);
+            }
+        }
+        poolCapacity = newCapacity;
+    }
+
+    private void updateSlotLimit() {
+        long bytes = 0;
+        for (Map<String, StatePool> m : pools.values()) {
+            for (StatePool p : m.values()) {
+                bytes += p.bytesPerSlot();
+            }
+        }
+        bytesPerSession = bytes;
+        int budgetLimit = (int) Math.max(1, Math.min(Integer.MAX_VALUE, memoryBudgetBytes / Math.max(1, bytes)));
+        slotLimit = Math.max(Math.min(maxSessions, budgetLimit), nextSlot);
+        if (budgetLimit < nextSlot) {
+            log.warn("RNN state memory budget ({} bytes, {} bytes per session) is below the memory required for the "
+                            + "{} sessions already created", memoryBudgetBytes, bytes, nextSlot);
+        }
+        int capacity = Math.max(poolCapacity, nextSlot);
+        for (Map<String, StatePool> m : pools.values()) {
+            for (StatePool p : m.values()) {
+                p.grow(capacity);
+            }
+        }
+        poolCapacity = capacity;
+    }
+
+    private INDArray timeStep(INDArray input) {
+        if (model instanceof MultiLayerNetwork) {
+            return ((MultiLayerNetwork) model).rnnTimeStep(input);
+        } else {
+            return ((ComputationGraph) model).rnnTimeStep(input)[0];
+        }
+    }
+
+    private Map<String, Map<String, INDArray>> getStates() {
+        if (model instanceof ComputationGraph) {
+            return ((ComputationGraph) model).rnnGetPreviousStates();
+        }
+        MultiLayerNetwork net = (MultiLayerNetwork) model;
+        Map<String, Map<String, INDArray>> states = new LinkedHashMap<>();
+        Layer[] layers = net.getLayers();
+        for (int i = 0; i < layers.length; i++) {
+            if (layers[i] instanceof RecurrentLayer) {
+                states.put(String.valueOf(i), net.rnnGetPreviousState(i));
+            }
+        }
+        return states;
+    }
+
+    private void setStates(Map<String, Map<String, INDArray>> states) {
+        if (model instanceof ComputationGraph) {
+            ((ComputationGraph) model).rnnSetPreviousStates(states);
+        } else {
+            MultiLayerNetwork net = (MultiLayerNetwork) model;
+            for (Map.Entry<String, Map<String, INDArray>> e : states.entrySet()) {
+                net.rnnSetPreviousState(Integer.parseInt(e.getKey()), e.getValue());
+            }
+        }
+    }
+
+    private void clearStates() {
+        if (model instanceof ComputationGraph) {
+            ((ComputationGraph) model).rnnClearPreviousState();
+        } else {
+            ((MultiLayerNetwork) model).rnnClearPreviousState();
+        }
+    }
+
+    /**
+     * Pool for one state array (one layer, one state key): [capacity, stateSize] with one row per session slot.
+     * States with rank > 2 are stored flattened, and reshaped when gathered
+     */
+    private static class StatePool {
+        private final int[] stateShapeNoMb;
+        private final int stateSize;
+        private INDArray pool;
+
+        private StatePool(INDArray example, int capacity) {
+            int[] shape = example.shape();
+            this.stateShapeNoMb = Arrays.copyOfRange(shape, 1, shape.length);
+            this.stateSize = ArrayUtil.prod(stateShapeNoMb);
+            try (MemoryWorkspace ws = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+                pool = Nd4j.zeros(Math.max(capacity, 1), stateSize);
+            }
+        }
+
+        private INDArray gather(int[] slots) {
+            INDArray rows = Nd4j.pullRows(pool, 1, slots);
+            if (stateShapeNoMb.length == 1)
+                return rows;
+            return rows.reshape('c', ArrayUtil.combine(new int[] {slots.length}, stateShapeNoMb));
+        }
+
+        private void scatter(int[] slots, INDArray state) {
+            INDArray flat = (state.rank() == 2 ? state : state.reshape('c', slots.length, stateSize));
+            for (int i = 0; i < slots.length; i++) {
+                pool.putRow(slots[i], flat.getRow(i));
+            }
+        }
+
+        private void zeroSlot(int slot) {
+            if (slot < pool.size(0))
+                pool.getRow(slot).assign(0);
+        }
+
+        private void grow(int capacity) {
+            if (capacity <= pool.size(0))
+                return;
+            try (MemoryWorkspace ws = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+                INDArray newPool = Nd4j.zeros(capacity, stateSize);
+                newPool.get(NDArrayIndex.interval(0, pool.size(0)), NDArrayIndex.all()).assign(pool);
+                pool = newPool;
+            }
+        }
+
+        private long bytesPerSlot() {
+            return (long) stateSize * pool.data().getElementSize();
+        }
+    }
+
+    private static class Session {
+        private final int slot;
+        private long lastAccess;
+
+        private Session(int slot) {
+            this.slot = slot;
+        }
+    }
+
+    private static class Request {
+        private final String sessionId;
+        private final INDArray input;
+        private final CompletableFuture<INDArray> future;
+
+        private Request(String sessionId, INDArray input) {
+            this.sessionId = sessionId;
+            this.input = input;
+            this.future = (input == null ? null : new CompletableFuture<INDArray>());
+        }
+    }
+
+    public static class Builder {
+        private Model model;
+        private int batchLimit = DEFAULT_BATCH_LIMIT;
+        private int maxSessions = DEFAULT_MAX_SESSIONS;
+        private long memoryBudgetBytes = DEFAULT_MEMORY_BUDGET_BYTES;
+        private long batchWindowNanos = 0;
+        private long idleTimeoutNanos = 0;
+
+        /**
+         * @param model MultiLayerNetwork or ComputationGraph (single input, single output) to use for inference
+         */
+        public Builder(@NonNull Model model) {
+            this.model = model;
+        }
+
+        /**
+         * Maximum number of sessions (time steps) to combine into a single forward pass. Default: 64
+         */
+        public Builder batchLimit(int batchLimit) {
+            if (batchLimit < 1)
+                throw new IllegalArgumentException("Batch limit should be positive value");
+            this.batchLimit = batchLimit;
+            return this;
+        }
+
+        /**
+         * Maximum number of concurrently active sessions. Default: 4096
+         */
+        public Builder maxSessions(int maxSessions) {
+            if (maxSessions < 1)
+                throw new IllegalArgumentException("Max sessions should be positive value");
+            this.maxSessions = maxSessions;
+            return this;
+        }
+
+        /**
+         * Memory budget for the RNN state pool, in bytes: limits the number of active sessions to
+         * memoryBudgetBytes / (state size per session). Default: 512MB
+         */
+        public Builder memoryBudgetBytes(long memoryBudgetBytes) {
+            if (memoryBudgetBytes < 1)
+                throw new IllegalArgumentException("Memory budget should be positive value");
+            this.memoryBudgetBytes = memoryBudgetBytes;
+            return this;
+        }
+
+        /**
+         * Maximum amount of time to wait for more requests after the first request of a batch, in order to form a
+         * larger batch. Default: 0 (batch only the requests that are already waiting)
+         */
+        public Builder batchWindow(long time, @NonNull TimeUnit unit) {
+            this.batchWindowNanos = unit.toNanos(time);
+            return this;
+        }
+
+        /**
+         * Sessions that have been idle (no time steps) for longer than this are evicted. Default: 0 (no idle
+         * eviction; sessions are only evicted when a slot is needed for a new session)
+         */
+        public Builder idleTimeout(long time, @NonNull TimeUnit unit) {
+            this.idleTimeoutNanos = unit.toNanos(time);
+            return this;
+        }
+
+        public StatefulRnnInference build() {
+            if (batchLimit > maxSessions)
+                throw new IllegalStateException("Batch limit (" + batchLimit + ") cannot exceed max sessions ("
+                                + maxSessions + ")");
+            return new StatefulRnnInference(this);
+        }
+    }
+}
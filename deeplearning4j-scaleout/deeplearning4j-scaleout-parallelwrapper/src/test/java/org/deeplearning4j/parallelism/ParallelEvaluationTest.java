@@ -0,0 +1,94 @@
+package org.deeplearning4j.parallelism;
+
+import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
+import org.deeplearning4j.datasets.iterator.impl.MultiDataSetIteratorAdapter;
+import org.deeplearning4j.eval.Evaluation;
+import org.deeplearning4j.eval.IEvaluation;
+import org.deeplearning4j.eval.ROCMultiClass;
+import org.deeplearning4j.eval.RegressionEvaluation;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelEvaluationTest {
+
+    @Test
+    public void testParallelEvaluationMultiLayerNetwork() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(10).activation(Activation.TANH).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(10).nOut(3)
+                                        .activation(Activation.SOFTMAX).build())
+                        .build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        net.fit(new IrisDataSetIterator(10, 150));
+
+        DataSetIterator iter = new IrisDataSetIterator(7, 150);
+        IEvaluation[] expected = net.doEvaluation(iter,
+                        new IEvaluation[] {new Evaluation(), new ROCMultiClass(), new RegressionEvaluation()});
+
+        for (int workers : new int[] {1, 3, 8}) {
+            iter.reset();
+            ParallelEvaluation pe = new ParallelEvaluation.Builder(net).workers(workers).queueLimit(2).build();
+            IEvaluation[] actual = pe.evaluate(iter, new Evaluation(), new ROCMultiClass(), new RegressionEvaluation());
+            assertEvaluationsEqual("workers=" + workers, expected, actual);
+        }
+    }
+
+    @Test
+    public void testParallelEvaluationComputationGraph() {
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).graphBuilder()
+                        .addInputs("in")
+                        .addLayer("0", new DenseLayer.Builder().nIn(4).nOut(10).activation(Activation.TANH).build(),
+                                        "in")
+                        .addLayer("1", new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(10).nOut(3)
+                                        .activation(Activation.SOFTMAX).build(), "0")
+                        .setOutputs("1").build();
+        ComputationGraph net = new ComputationGraph(conf);
+        net.init();
+        net.fit(new IrisDataSetIterator(10, 150));
+
+        IEvaluation[] expected = net.doEvaluation(new IrisDataSetIterator(7, 150),
+                        new IEvaluation[] {new Evaluation(), new ROCMultiClass(), new RegressionEvaluation()});
+
+        ParallelEvaluation pe = new ParallelEvaluation.Builder(net).workers(4).build();
+        IEvaluation[] actual = pe.evaluate(new MultiDataSetIteratorAdapter(new IrisDataSetIterator(7, 150)),
+                        new Evaluation(), new ROCMultiClass(), new RegressionEvaluation());
+        assertEvaluationsEqual("ComputationGraph", expected, actual);
+    }
+
+    private static void assertEvaluationsEqual(String msg, IEvaluation[] expected, IEvaluation[] actual) {
+        Evaluation e = (Evaluation) expected[0];
+        Evaluation a = (Evaluation) actual[0];
+        assertEquals(msg, e.getNumRowCounter(), a.getNumRowCounter());
+        assertEquals(msg, e.accuracy(), a.accuracy(), 1e-10);
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(msg, e.getConfusionMatrix().getCount(i, j), a.getConfusionMatrix().getCount(i, j));
+            }
+        }
+
+        ROCMultiClass eRoc = (ROCMultiClass) expected[1];
+        ROCMultiClass aRoc = (ROCMultiClass) actual[1];
+        for (int i = 0; i < 3; i++) {
+            assertEquals(msg, eRoc.calculateAUC(i), aRoc.calculateAUC(i), 1e-6);
+        }
+
+        RegressionEvaluation eReg = (RegressionEvaluation) expected[2];
+        RegressionEvaluation aReg = (RegressionEvaluation) actual[2];
+        for (int i = 0; i < 3; i++) {
+            assertEquals(msg, eReg.meanSquaredError(i), aReg.meanSquaredError(i), 1e-6);
+            assertEquals(msg, eReg.meanAbsoluteError(i), aReg.meanAbsoluteError(i), 1e-6);
+        }
+    }
+}
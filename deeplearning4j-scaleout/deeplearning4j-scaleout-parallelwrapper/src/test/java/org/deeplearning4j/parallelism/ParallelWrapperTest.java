@@ -1,5 +1,6 @@
 package org.deeplearning4j.parallelism;
 
+import org.deeplearning4j.datasets.iterator.ExistingDataSetIterator;
 import org.deeplearning4j.datasets.iterator.impl.MnistDataSetIterator;
 import org.deeplearning4j.eval.Evaluation;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
@@ -7,21 +8,31 @@ import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.conf.inputs.InputType;
 import org.deeplearning4j.nn.conf.layers.ConvolutionLayer;
 import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.EmbeddingLayer;
 import org.deeplearning4j.nn.conf.layers.OutputLayer;
 import org.deeplearning4j.nn.conf.layers.SubsamplingLayer;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.weights.WeightInit;
+import org.deeplearning4j.optimize.solvers.accumulation.EncodedGradientsAccumulator;
 import org.deeplearning4j.optimize.listeners.ScoreIterationListener;
 import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.learning.config.Nesterovs;
+import org.nd4j.linalg.learning.config.Sgd;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
 
 /**
  * Created by agibsonccc on 11/12/16.
@@ -121,5 +132,48 @@ public class ParallelWrapperTest {
         wrapper.shutdown();
     }
 
+    @Test
+    public void testSparseEmbeddingGradientsSharedGradients() {
+        //Sparse (row-wise) embedding updates must go through the gradients accumulator, so that the updates
+        // calculated by other workers are also applied to each model
+        int nWorkers = 2;
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).updater(new Sgd(1.0))
+                        .weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new EmbeddingLayer.Builder().nIn(100).nOut(5).sparseGradients(true)
+                                        .activation(Activation.TANH).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(5).nOut(3)
+                                        .activation(Activation.SOFTMAX).build())
+                        .build();
+        MultiLayerNetwork model = new MultiLayerNetwork(conf);
+        model.init();
+        INDArray initialWeights = model.getParam("0_W").dup();
+
+        //Round robin dispatch: worker 0 (the original model) only sees indices 0 to 9, worker 1 only 10 to 19
+        List<DataSet> data = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            INDArray in = Nd4j.create(10, 1);
+            INDArray labels = Nd4j.create(10, 3);
+            for (int j = 0; j < 10; j++) {
+                in.putScalar(j, 0, (i % nWorkers) * 10 + j);
+                labels.putScalar(j, j % 3, 1.0);
+            }
+            data.add(new DataSet(in, labels));
+        }
+
+        ParallelWrapper wrapper = new ParallelWrapper.Builder(model).workers(nWorkers).prefetchBuffer(2)
+                        .trainingMode(ParallelWrapper.TrainingMode.SHARED_GRADIENTS)
+                        .gradientsAccumulator(new EncodedGradientsAccumulator(nWorkers, 1e-3)).build();
+        wrapper.fit(new ExistingDataSetIterator(data));
+        wrapper.shutdown();
+
+        INDArray weights = model.getParam("0_W");
+        for (int i = 0; i < 100; i++) {
+            if (i < 20) {
+                assertNotEquals("row " + i, initialWeights.getRow(i), weights.getRow(i));
+            } else {
+                assertEquals("row " + i, initialWeights.getRow(i), weights.getRow(i));
+            }
+        }
+    }
 
 }
@@ -0,0 +1,161 @@
+package org.deeplearning4j.parallelism;
+
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.GravesLSTM;
+import org.deeplearning4j.nn.conf.layers.RnnOutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class StatefulRnnInferenceTest {
+
+    private static final int N_IN = 3;
+
+    private static MultiLayerNetwork getNetwork() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).list()
+                        .layer(0, new GravesLSTM.Builder().nIn(N_IN).nOut(4).activation(Activation.TANH).build())
+                        .layer(1, new RnnOutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(4).nOut(2)
+                                        .activation(Activation.SOFTMAX).build())
+                        .build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        return net;
+    }
+
+    @Test
+    public void testConcurrentSessionsMatchSingleSession() throws Exception {
+        int nSessions = 8;
+        int nSteps = 10;
+        MultiLayerNetwork net = getNetwork();
+
+        //Reference: each session run separately with rnnTimeStep on its own network copy
+        final List<INDArray[]> inputs = new ArrayList<>();
+        List<INDArray[]> expected = new ArrayList<>();
+        for (int s = 0; s < nSessions; s++) {
+            MultiLayerNetwork copy = net.clone();
+            INDArray[] in = new INDArray[nSteps];
+            INDArray[] exp = new INDArray[nSteps];
+            for (int t = 0; t < nSteps; t++) {
+                in[t] = Nd4j.rand(1, N_IN);
+                exp[t] = copy.rnnTimeStep(in[t]);
+            }
+            inputs.add(in);
+            expected.add(exp);
+        }
+
+        final StatefulRnnInference inf = new StatefulRnnInference.Builder(net).batchLimit(4)
+                        .batchWindow(2, TimeUnit.MILLISECONDS).build();
+
+        ExecutorService exec = Executors.newFixedThreadPool(nSessions);
+        List<Future<INDArray[]>> futures = new ArrayList<>();
+        for (int s = 0; s < nSessions; s++) {
+            final int session = s;
+            futures.add(exec.submit(() -> {
+                INDArray[] in = inputs.get(session);
+                INDArray[] out = new INDArray[in.length];
+                for (int t = 0; t < in.length; t++) {
+                    out[t] = inf.timeStep("session" + session, in[t]);
+                }
+                return out;
+            }));
+        }
+
+        for (int s = 0; s < nSessions; s++) {
+            INDArray[] out = futures.get(s).get();
+            for (int t = 0; t < nSteps; t++) {
+                assertEquals("session " + s + ", step " + t, expected.get(s)[t], out[t]);
+            }
+        }
+        exec.shutdown();
+
+        assertEquals(nSessions, inf.getActiveSessionCount());
+        assertEquals(nSessions * nSteps, inf.getStepCount());
+        assertTrue(inf.getBatchCount() <= inf.getStepCount());
+        assertEquals(2 * 4 * 4, inf.getBytesPerSession()); //2 state arrays of size 4, float
+
+        inf.shutdown();
+    }
+
+    @Test
+    public void testEvictionAndEndSession() {
+        MultiLayerNetwork net = getNetwork();
+        INDArray in = Nd4j.rand(1, N_IN);
+        INDArray in2 = Nd4j.rand(1, N_IN);
+        MultiLayerNetwork copy = net.clone();
+        INDArray firstStep = copy.rnnTimeStep(in);
+        INDArray secondStep = copy.rnnTimeStep(in2);
+
+        //Memory budget for 2 sessions only: 2 state arrays of size 4, float -> 32 bytes per session
+        StatefulRnnInference inf = new StatefulRnnInference.Builder(net).batchLimit(1).memoryBudgetBytes(64).build();
+
+        assertEquals(firstStep, inf.timeStep("a", in));
+        assertEquals(firstStep, inf.timeStep("b", in));
+        assertEquals(secondStep, inf.timeStep("a", in2));
+        assertTrue(inf.isActive("a"));
+        assertTrue(inf.isActive("b"));
+
+        //No slot available: least recently used session ("b") is evicted
+        assertEquals(firstStep, inf.timeStep("c", in));
+        assertFalse(inf.isActive("b"));
+        assertEquals(1, inf.getEvictionCount());
+        assertEquals(2, inf.getActiveSessionCount());
+
+        //Evicted session restarts from the initial state
+        assertEquals(firstStep, inf.timeStep("b", in));
+        assertFalse(inf.isActive("a"));
+
+        //Ended sessions release their slot, without counting as an eviction
+        inf.endSession("c");
+        assertEquals(firstStep, inf.timeStep("d", in));
+        assertFalse(inf.isActive("c"));
+        assertTrue(inf.isActive("b"));
+        assertTrue(inf.isActive("d"));
+        assertEquals(2, inf.getEvictionCount());
+
+        inf.shutdown();
+    }
+
+    @Test
+    public void testIdleEvictionAndShutdown() throws Exception {
+        MultiLayerNetwork net = getNetwork();
+        INDArray in = Nd4j.rand(1, N_IN);
+        INDArray in2 = Nd4j.rand(1, N_IN);
+        MultiLayerNetwork copy = net.clone();
+        INDArray firstStep = copy.rnnTimeStep(in);
+        INDArray secondStep = copy.rnnTimeStep(in2);
+
+        StatefulRnnInference inf = new StatefulRnnInference.Builder(net).batchLimit(2)
+                        .idleTimeout(50, TimeUnit.MILLISECONDS).build();
+
+        assertEquals(firstStep, inf.timeStep("a", in));
+        assertEquals(firstStep, inf.timeStep("b", in));
+        Thread.sleep(100);
+
+        //"a" is past the idle timeout, but has a time step in the current batch: it should not be evicted
+        assertEquals(secondStep, inf.timeStep("a", in2));
+        assertTrue(inf.isActive("a"));
+        assertFalse(inf.isActive("b"));
+        assertEquals(1, inf.getEvictionCount());
+
+        inf.shutdown();
+        try {
+            inf.timeStepAsync("a", in);
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            //Expected
+        }
+    }
+}
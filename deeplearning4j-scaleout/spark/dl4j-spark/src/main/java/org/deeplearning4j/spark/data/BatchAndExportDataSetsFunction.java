@@ -21,6 +21,9 @@ import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.spark.api.java.function.Function2;
+import org.deeplearning4j.spark.data.chunk.ChunkCompression;
+import org.deeplearning4j.spark.data.chunk.DataSetChunkFormat;
+import org.deeplearning4j.spark.data.chunk.DataSetChunkWriter;
 import org.deeplearning4j.util.UIDProvider;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.primitives.Pair;
@@ -38,6 +41,12 @@ import java.util.*;
  * Naming convention for exported files:
  * "dataset_" + partitionIdx + JVM_UID + "_" + idx + ".bin"
  * where 'idx' is the index of the DataSet objects in this partition
+ * <p>
+ * Alternatively, multiple minibatches may be packed into each file, using the chunk format described in
+ * {@link DataSetChunkFormat} - see {@link #BatchAndExportDataSetsFunction(int, String, int, ChunkCompression)}.
+ * In this case, the files are named "dataset_" + partitionIdx + JVM_UID + "_chunk" + chunkIdx + ".bin", and
+ * the returned paths refer to individual entries in the chunk files, as per
+ * {@link DataSetChunkFormat#entryPath(String, int)}
  *
  * @author Alex Black
  */
@@ -47,14 +56,36 @@ public class BatchAndExportDataSetsFunction implements Function2<Integer, Iterat
     private final int minibatchSize;
     private final String exportBaseDirectory;
     private final String jvmuid;
+    private final int minibatchesPerChunk;
+    private final ChunkCompression compression;
+
+    private transient DataSetChunkWriter chunkWriter;
+    private transient String chunkPath;
+    private transient int chunkCount;
 
     /**
      * @param minibatchSize       Minibatch size to combine examples to (if necessary)
      * @param exportBaseDirectory Base directory for exporting
      */
     public BatchAndExportDataSetsFunction(int minibatchSize, String exportBaseDirectory) {
+        this(minibatchSize, exportBaseDirectory, 0, ChunkCompression.NONE);
+    }
+
+    /**
+     * @param minibatchSize       Minibatch size to combine examples to (if necessary)
+     * @param exportBaseDirectory Base directory for exporting
+     * @param minibatchesPerChunk Maximum number of minibatches to pack into each chunk file. If 0: don't use chunk
+     *                            files - export each minibatch to a separate file instead
+     * @param compression         Compression to use for the chunk files
+     */
+    public BatchAndExportDataSetsFunction(int minibatchSize, String exportBaseDirectory, int minibatchesPerChunk,
+                    ChunkCompression compression) {
+        if (minibatchesPerChunk < 0)
+            throw new IllegalArgumentException("Invalid minibatches per chunk: " + minibatchesPerChunk);
         this.minibatchSize = minibatchSize;
         this.exportBaseDirectory = exportBaseDirectory;
+        this.minibatchesPerChunk = minibatchesPerChunk;
+        this.compression = compression;
         String fullUID = UIDProvider.getJVMUID();
         this.jvmuid = (fullUID.length() <= 8 ? fullUID : fullUID.substring(0, 8));
     }
@@ -64,6 +95,7 @@ public class BatchAndExportDataSetsFunction implements Function2<Integer, Iterat
 
         List<String> outputPaths = new ArrayList<>();
         LinkedList<DataSet> tempList = new LinkedList<>();
+        chunkCount = 0;
 
         int count = 0;
         while (iterator.hasNext()) {
@@ -86,6 +118,7 @@ public class BatchAndExportDataSetsFunction implements Function2<Integer, Iterat
         if (countAndPaths.getSecond() != null && countAndPaths.getSecond().size() > 0) {
             outputPaths.addAll(countAndPaths.getSecond());
         }
+        closeChunk();
 
         return outputPaths.iterator();
     }
@@ -132,6 +165,9 @@ public class BatchAndExportDataSetsFunction implements Function2<Integer, Iterat
     }
 
     private String export(DataSet dataSet, int partitionIdx, int outputCount) throws Exception {
+        if (minibatchesPerChunk > 0)
+            return exportToChunk(dataSet, partitionIdx);
+
         String filename = "dataset_" + partitionIdx + jvmuid + "_" + outputCount + ".bin";
 
         URI uri = new URI(exportBaseDirectory
@@ -144,4 +180,33 @@ public class BatchAndExportDataSetsFunction implements Function2<Integer, Iterat
 
         return uri.getPath();
     }
+
+    private String exportToChunk(DataSet dataSet, int partitionIdx) throws Exception {
+        if (chunkWriter == null) {
+            String filename = "dataset_" + partitionIdx + jvmuid + "_chunk" + (chunkCount++) + ".bin";
+            URI uri = new URI(exportBaseDirectory
+                            + (exportBaseDirectory.endsWith("/") || exportBaseDirectory.endsWith("\\") ? "" : "/")
+                            + filename);
+            FileSystem file = FileSystem.get(uri, conf);
+            chunkWriter = new DataSetChunkWriter(file.create(new Path(uri)), compression);
+            chunkPath = uri.getPath();
+        }
+
+        int idx = chunkWriter.write(dataSet);
+        String path = DataSetChunkFormat.entryPath(chunkPath, idx);
+        if (chunkWriter.numEntries() >= minibatchesPerChunk)
+            closeChunk();
+        return path;
+    }
+
+    private void closeChunk() throws Exception {
+        if (chunkWriter != null) {
+            try {
+                chunkWriter.close();
+            } finally {
+                chunkWriter = null;
+                chunkPath = null;
+            }
+        }
+    }
 }
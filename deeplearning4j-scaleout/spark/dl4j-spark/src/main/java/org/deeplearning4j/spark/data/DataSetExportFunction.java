@@ -5,6 +5,9 @@ import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.spark.api.java.function.VoidFunction;
+import org.deeplearning4j.spark.data.chunk.ChunkCompression;
+import org.deeplearning4j.spark.data.chunk.DataSetChunkFormat;
+import org.deeplearning4j.spark.data.chunk.DataSetChunkWriter;
 import org.deeplearning4j.util.UIDProvider;
 import org.nd4j.linalg.dataset.DataSet;
 
@@ -15,6 +18,11 @@ import java.util.Iterator;
  * A function (used in forEachPartition) to save DataSet objects to disk/HDFS. Each DataSet object is given a random and
  * (probably) unique name, starting with "dataset_" and ending  with ".bin".<br>
  * Use with {@code JavaRDD<DataSet>.foreachPartition()}
+ * <p>
+ * Alternatively, multiple DataSet objects may be packed into each file using the chunk format described in
+ * {@link DataSetChunkFormat}, via {@link #DataSetExportFunction(URI, int, ChunkCompression)}. Chunk files can be
+ * loaded using {@link org.deeplearning4j.spark.iterator.PathSparkDataSetIterator} or
+ * {@link org.deeplearning4j.spark.iterator.PortableDataStreamDataSetIterator}
  *
  * @author Alex Black
  */
@@ -22,12 +30,28 @@ public class DataSetExportFunction implements VoidFunction<Iterator<DataSet>> {
     private static final Configuration conf = new Configuration();
 
     private final URI outputDir;
+    private final int dataSetsPerChunk;
+    private final ChunkCompression compression;
     private String uid = null;
 
     private int outputCount;
 
     public DataSetExportFunction(URI outputDir) {
+        this(outputDir, 0, ChunkCompression.NONE);
+    }
+
+    /**
+     * @param outputDir        Directory to export to
+     * @param dataSetsPerChunk Maximum number of DataSet objects to pack into each chunk file. If 0: don't use chunk
+     *                         files - export each DataSet to a separate file instead
+     * @param compression      Compression to use for the chunk files
+     */
+    public DataSetExportFunction(URI outputDir, int dataSetsPerChunk, ChunkCompression compression) {
+        if (dataSetsPerChunk < 0)
+            throw new IllegalArgumentException("Invalid DataSets per chunk: " + dataSetsPerChunk);
         this.outputDir = outputDir;
+        this.dataSetsPerChunk = dataSetsPerChunk;
+        this.compression = compression;
     }
 
     @Override
@@ -35,6 +59,10 @@ public class DataSetExportFunction implements VoidFunction<Iterator<DataSet>> {
         String jvmuid = UIDProvider.getJVMUID();
         uid = Thread.currentThread().getId() + jvmuid.substring(0, Math.min(8, jvmuid.length()));
 
+        if (dataSetsPerChunk > 0) {
+            exportChunks(iter);
+            return;
+        }
 
         while (iter.hasNext()) {
             DataSet next = iter.next();
@@ -49,4 +77,19 @@ public class DataSetExportFunction implements VoidFunction<Iterator<DataSet>> {
             }
         }
     }
+
+    private void exportChunks(Iterator<DataSet> iter) throws Exception {
+        while (iter.hasNext()) {
+            String filename = "dataset_" + uid + "_chunk" + (outputCount++) + ".bin";
+
+            String path = outputDir.getPath();
+            URI uri = new URI(path + (path.endsWith("/") || path.endsWith("\\") ? "" : "/") + filename);
+            FileSystem file = FileSystem.get(uri, conf);
+            try (DataSetChunkWriter writer = new DataSetChunkWriter(file.create(new Path(uri)), compression)) {
+                while (iter.hasNext() && writer.numEntries() < dataSetsPerChunk) {
+                    writer.write(iter.next());
+                }
+            }
+        }
+    }
 }
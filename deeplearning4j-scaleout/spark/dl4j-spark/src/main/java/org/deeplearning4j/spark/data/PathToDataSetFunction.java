@@ -5,6 +5,8 @@ import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.spark.api.java.function.Function;
+import org.deeplearning4j.spark.data.chunk.DataSetChunkFormat;
+import org.deeplearning4j.spark.data.chunk.DataSetChunkReader;
 import org.nd4j.linalg.dataset.DataSet;
 
 import java.io.IOException;
@@ -12,7 +14,9 @@ import java.net.URI;
 
 /**
  * Simple function used to load DataSets (serialized with DataSet.save()) from a given Path (as a String)
- * to a DataSet object - i.e., {@code RDD<String>} to {@code RDD<DataSet>}
+ * to a DataSet object - i.e., {@code RDD<String>} to {@code RDD<DataSet>}<br>
+ * Paths referring to a single entry in a chunk file (see {@link DataSetChunkFormat#entryPath(String, int)}) are
+ * also supported.
  *
  * @author Alex Black
  */
@@ -23,14 +27,24 @@ public class PathToDataSetFunction implements Function<String, DataSet> {
 
     @Override
     public DataSet call(String path) throws Exception {
+        boolean entryPath = DataSetChunkFormat.isEntryPath(path);
+        String filePath = (entryPath ? DataSetChunkFormat.chunkPath(path) : path);
         if (fileSystem == null) {
             try {
-                fileSystem = FileSystem.get(new URI(path), new Configuration());
+                fileSystem = FileSystem.get(new URI(filePath), new Configuration());
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
         }
 
+        if (entryPath) {
+            try (DataSetChunkReader reader = new DataSetChunkReader(fileSystem, filePath)) {
+                return reader.read(DataSetChunkFormat.entryIndex(path));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
         DataSet ds = new DataSet();
         try (FSDataInputStream inputStream = fileSystem.open(new Path(path), BUFFER_SIZE)) {
             ds.load(inputStream);
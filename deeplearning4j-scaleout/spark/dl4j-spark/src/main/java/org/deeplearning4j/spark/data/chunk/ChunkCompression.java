@@ -0,0 +1,13 @@
+package org.deeplearning4j.spark.data.chunk;
+
+/**
+ * Compression to use for the minibatches in a chunk file written by {@link DataSetChunkWriter}.
+ * <p>
+ * NONE: minibatches are stored as serialized by {@link org.nd4j.linalg.dataset.DataSet#save(java.io.OutputStream)}.
+ * Local chunk files without compression can be read with no copying of the data, via memory mapping.<br>
+ * DEFLATE: minibatches are compressed using the fastest deflate level. This is usually worthwhile for sparse or
+ * one-hot data (labels, masks etc) when I/O or network bandwidth is the bottleneck.
+ */
+public enum ChunkCompression {
+    NONE, DEFLATE
+}
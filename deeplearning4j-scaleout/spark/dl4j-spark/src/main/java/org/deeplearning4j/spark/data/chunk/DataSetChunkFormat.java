@@ -0,0 +1,131 @@
+package org.deeplearning4j.spark.data.chunk;
+
+import org.nd4j.linalg.dataset.DataSet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Constants and utility methods for the chunk file format used by {@link DataSetChunkWriter},
+ * {@link DataSetChunkReader} and {@link DataSetChunkStreamIterator}.<br>
+ * A chunk file packs multiple minibatches (each serialized with {@link DataSet#save(java.io.OutputStream)}, and
+ * optionally compressed) into a single file, with an index at the end of the file for random access:
+ * <pre>
+ * Header:  int magic, byte version, byte compression
+ * Entries: (int storedLength, int numExamples, byte[storedLength] data) x numEntries
+ *          int -1 (end of entries marker)
+ * Index:   int numEntries, (long dataOffset, int storedLength, int numExamples) x numEntries
+ * Footer:  long indexOffset, int magic
+ * </pre>
+ * Entries can be read sequentially (streaming - no index required) or randomly via the index.<br>
+ * A single entry in a chunk file is referred to by a path of the form "chunkPath#entryIdx" - see
+ * {@link #entryPath(String, int)}
+ */
+public class DataSetChunkFormat {
+
+    public static final int MAGIC = 0x444C3443; //"DL4C"
+    public static final byte VERSION = 1;
+    public static final int HEADER_LENGTH = 6;
+    public static final int FOOTER_LENGTH = 12;
+    public static final int INDEX_ENTRY_LENGTH = 16;
+    public static final int END_OF_ENTRIES = -1;
+    public static final char ENTRY_SEPARATOR = '#';
+
+    private DataSetChunkFormat() {}
+
+    /**
+     * @param chunkPath Path of the chunk file
+     * @param entryIdx  Index of the entry in the chunk file
+     * @return Path referring to a single entry in a chunk file
+     */
+    public static String entryPath(String chunkPath, int entryIdx) {
+        return chunkPath + ENTRY_SEPARATOR + entryIdx;
+    }
+
+    /**
+     * @param path Path to check
+     * @return True if the path refers to a single entry in a chunk file, as per {@link #entryPath(String, int)}
+     */
+    public static boolean isEntryPath(String path) {
+        int idx = path.lastIndexOf(ENTRY_SEPARATOR);
+        if (idx <= 0 || idx == path.length() - 1)
+            return false;
+        for (int i = idx + 1; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9')
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param entryPath Entry path, as per {@link #entryPath(String, int)}
+     * @return Path of the chunk file
+     */
+    public static String chunkPath(String entryPath) {
+        return entryPath.substring(0, entryPath.lastIndexOf(ENTRY_SEPARATOR));
+    }
+
+    /**
+     * @param entryPath Entry path, as per {@link #entryPath(String, int)}
+     * @return Index of the entry in the chunk file
+     */
+    public static int entryIndex(String entryPath) {
+        return Integer.parseInt(entryPath.substring(entryPath.lastIndexOf(ENTRY_SEPARATOR) + 1));
+    }
+
+    /**
+     * Check if the next 4 bytes of the stream are the chunk file magic number. The stream must support
+     * {@link InputStream#mark(int)}; the stream is reset to its current position before returning.
+     *
+     * @param in Input stream to check
+     * @return True if the stream is (probably) a chunk file
+     */
+    public static boolean isChunkStream(InputStream in) throws IOException {
+        if (!in.markSupported())
+            throw new IllegalArgumentException("Input stream must support mark/reset");
+        in.mark(4);
+        try {
+            int magic = 0;
+            for (int i = 0; i < 4; i++) {
+                int b = in.read();
+                if (b < 0)
+                    return false;
+                magic = (magic << 8) | b;
+            }
+            return magic == MAGIC;
+        } finally {
+            in.reset();
+        }
+    }
+
+    /**
+     * Deserialize a single (stored) entry
+     *
+     * @param stored      Stored bytes of the entry
+     * @param compression Compression used for the entry
+     * @return The DataSet
+     */
+    public static DataSet decode(InputStream stored, ChunkCompression compression) {
+        DataSet ds = new DataSet();
+        switch (compression) {
+            case NONE:
+                ds.load(stored);
+                break;
+            case DEFLATE:
+                ds.load(new InflaterInputStream(stored));
+                break;
+            default:
+                throw new IllegalStateException("Unknown compression: " + compression);
+        }
+        return ds;
+    }
+
+    static ChunkCompression compressionFor(int ordinal) throws IOException {
+        ChunkCompression[] values = ChunkCompression.values();
+        if (ordinal < 0 || ordinal >= values.length)
+            throw new IOException("Invalid or unsupported chunk compression: " + ordinal);
+        return values[ordinal];
+    }
+}
@@ -0,0 +1,203 @@
+package org.deeplearning4j.spark.data.chunk;
+
+import lombok.NonNull;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
+import org.apache.hadoop.fs.Path;
+import org.nd4j.linalg.dataset.DataSet;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Random access reader for chunk files written by {@link DataSetChunkWriter}.<br>
+ * Files on the local file system are memory mapped, and uncompressed entries are deserialized directly from the
+ * mapped buffer. Files on other file systems (HDFS etc) are read using positioned reads, one entry at a time.<br>
+ * For reading all entries of a chunk file in order, {@link DataSetChunkStreamIterator} may be used instead (it does
+ * not require the index, and hence doesn't need a seekable stream).
+ * <p>
+ * {@link #read(int)} is synchronized, so a single reader may be shared between threads.
+ */
+public class DataSetChunkReader implements Closeable {
+
+    public static final int BUFFER_SIZE = 4194304; //4 MB
+
+    private final String path;
+    private ByteBuffer mapped;
+    private FSDataInputStream in;
+
+    private ChunkCompression compression;
+    private long[] offsets;
+    private int[] storedLengths;
+    private int[] numExamples;
+
+    /**
+     * @param fileSystem File system for the path
+     * @param path       Path of the chunk file (not an entry path)
+     */
+    public DataSetChunkReader(@NonNull FileSystem fileSystem, @NonNull String path) throws IOException {
+        this.path = path;
+        Path p = new Path(path);
+        long length;
+        File localFile = (fileSystem instanceof LocalFileSystem ? ((LocalFileSystem) fileSystem).pathToFile(p) : null);
+        if (localFile != null && localFile.length() <= Integer.MAX_VALUE) {
+            try (RandomAccessFile raf = new RandomAccessFile(localFile, "r"); FileChannel channel = raf.getChannel()) {
+                length = channel.size();
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            }
+        } else {
+            length = fileSystem.getFileStatus(p).getLen();
+            in = fileSystem.open(p, BUFFER_SIZE);
+        }
+
+        try {
+            readIndex(length);
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void readIndex(long length) throws IOException {
+        if (length < DataSetChunkFormat.HEADER_LENGTH + DataSetChunkFormat.FOOTER_LENGTH)
+            throw new IOException("Not a valid chunk file (too short): " + path);
+
+        ByteBuffer header = readBytes(0, DataSetChunkFormat.HEADER_LENGTH);
+        if (header.getInt() != DataSetChunkFormat.MAGIC)
+            throw new IOException("Not a valid chunk file (invalid header): " + path);
+        byte version = header.get();
+        if (version != DataSetChunkFormat.VERSION)
+            throw new IOException("Unsupported chunk file version " + version + ": " + path);
+        compression = DataSetChunkFormat.compressionFor(header.get());
+
+        ByteBuffer footer = readBytes(length - DataSetChunkFormat.FOOTER_LENGTH, DataSetChunkFormat.FOOTER_LENGTH);
+        long indexOffset = footer.getLong();
+        if (footer.getInt() != DataSetChunkFormat.MAGIC || indexOffset < DataSetChunkFormat.HEADER_LENGTH
+                        || indexOffset > length - DataSetChunkFormat.FOOTER_LENGTH - 4)
+            throw new IOException("Not a valid chunk file (invalid footer - file incomplete?): " + path);
+
+        ByteBuffer index = readBytes(indexOffset, (int) (length - DataSetChunkFormat.FOOTER_LENGTH - indexOffset));
+        int n = index.getInt();
+        if (index.remaining() != n * DataSetChunkFormat.INDEX_ENTRY_LENGTH)
+            throw new IOException("Not a valid chunk file (invalid index): " + path);
+        offsets = new long[n];
+        storedLengths = new int[n];
+        numExamples = new int[n];
+        for (int i = 0; i < n; i++) {
+            offsets[i] = index.getLong();
+            storedLengths[i] = index.getInt();
+            numExamples[i] = index.getInt();
+        }
+    }
+
+    private ByteBuffer readBytes(long position, int length) throws IOException {
+        if (mapped != null) {
+            ByteBuffer b = mapped.duplicate();
+            b.position((int) position);
+            b.limit((int) position + length);
+            return b.slice();
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(position, bytes);
+        return ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * @return Number of entries (minibatches) in the chunk file
+     */
+    public int numEntries() {
+        return offsets.length;
+    }
+
+    /**
+     * @param entry Index of the entry
+     * @return Number of examples in the specified entry, without loading it
+     */
+    public int numExamples(int entry) {
+        return numExamples[entry];
+    }
+
+    public ChunkCompression getCompression() {
+        return compression;
+    }
+
+    /**
+     * Load the specified entry
+     *
+     * @param entry Index of the entry
+     * @return The DataSet
+     */
+    public synchronized DataSet read(int entry) throws IOException {
+        if (entry < 0 || entry >= offsets.length)
+            throw new IllegalArgumentException("Invalid entry index " + entry + " for chunk file with " + offsets.length
+                            + " entries: " + path);
+        if (mapped == null && in == null)
+            throw new IllegalStateException("Reader has been closed");
+
+        InputStream stored;
+        if (mapped != null) {
+            stored = new ByteBufferInputStream(readBytes(offsets[entry], storedLengths[entry]));
+        } else {
+            byte[] bytes = new byte[storedLengths[entry]];
+            in.readFully(offsets[entry], bytes);
+            stored = new ByteArrayInputStream(bytes);
+        }
+        return DataSetChunkFormat.decode(stored, compression);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        //Mapped buffers are released when garbage collected
+        mapped = null;
+        if (in != null) {
+            try {
+                in.close();
+            } finally {
+                in = null;
+            }
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0)
+                return 0;
+            if (!buffer.hasRemaining())
+                return -1;
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int toSkip = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + toSkip);
+            return toSkip;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
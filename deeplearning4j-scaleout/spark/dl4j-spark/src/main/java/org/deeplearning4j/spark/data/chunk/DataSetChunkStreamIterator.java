@@ -0,0 +1,111 @@
+package org.deeplearning4j.spark.data.chunk;
+
+import lombok.NonNull;
+import org.nd4j.linalg.dataset.DataSet;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Sequentially reads all entries from a chunk file (written by {@link DataSetChunkWriter}) as a stream: no index or
+ * seeking is required, so this can be used with any input stream - for example, {@code PortableDataStream.open()}.
+ * Only one entry is held in memory at a time. The stream is closed once all entries have been read.
+ */
+public class DataSetChunkStreamIterator implements Iterator<DataSet>, Closeable {
+
+    private final DataInputStream in;
+    private final ChunkCompression compression;
+    private byte[] buffer = new byte[65536];
+    private int nextLength;
+    private int nextNumExamples;
+    private boolean closed;
+
+    /**
+     * @param in Input stream, positioned at the start of the chunk file
+     */
+    public DataSetChunkStreamIterator(@NonNull InputStream in) throws IOException {
+        if (!(in instanceof BufferedInputStream))
+            in = new BufferedInputStream(in, DataSetChunkReader.BUFFER_SIZE);
+        this.in = new DataInputStream(in);
+        try {
+            if (this.in.readInt() != DataSetChunkFormat.MAGIC)
+                throw new IOException("Not a valid chunk file (invalid header)");
+            byte version = this.in.readByte();
+            if (version != DataSetChunkFormat.VERSION)
+                throw new IOException("Unsupported chunk file version: " + version);
+            compression = DataSetChunkFormat.compressionFor(this.in.readByte());
+            advance();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void advance() throws IOException {
+        nextLength = in.readInt();
+        if (nextLength == DataSetChunkFormat.END_OF_ENTRIES) {
+            close();
+            return;
+        }
+        if (nextLength < 0)
+            throw new IOException("Not a valid chunk file (invalid entry length: " + nextLength + ")");
+        nextNumExamples = in.readInt();
+    }
+
+    /**
+     * @return Number of examples in the next entry, or -1 if there are no more entries
+     */
+    public int peekNumExamples() {
+        return closed ? -1 : nextNumExamples;
+    }
+
+    public ChunkCompression getCompression() {
+        return compression;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !closed;
+    }
+
+    @Override
+    public DataSet next() {
+        if (closed)
+            throw new NoSuchElementException("No more entries");
+        try {
+            if (buffer.length < nextLength)
+                buffer = new byte[Math.max(nextLength, 2 * buffer.length)];
+            in.readFully(buffer, 0, nextLength);
+            DataSet ds = DataSetChunkFormat.decode(new ByteArrayInputStream(buffer, 0, nextLength), compression);
+            advance();
+            return ds;
+        } catch (IOException e) {
+            try {
+                close();
+            } catch (IOException e2) {
+                e.addSuppressed(e2);
+            }
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        buffer = null;
+        in.close();
+    }
+}
@@ -0,0 +1,154 @@
+package org.deeplearning4j.spark.data.chunk;
+
+import lombok.NonNull;
+import org.nd4j.linalg.dataset.DataSet;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes multiple DataSet objects (minibatches) to a single chunk file, in the format described in
+ * {@link DataSetChunkFormat}. The index is written when the writer is closed: the file is not readable
+ * until then.<br>
+ * Buffers (and the compressor, if any) are reused between entries. Not thread safe.
+ */
+public class DataSetChunkWriter implements Closeable {
+
+    private final DataOutputStream out;
+    private final ChunkCompression compression;
+    private final ExposedByteArrayOutputStream rawBuffer = new ExposedByteArrayOutputStream();
+    private final ExposedByteArrayOutputStream compressedBuffer;
+    private final Deflater deflater;
+
+    private long position;
+    private int numEntries;
+    private long[] offsets = new long[16];
+    private int[] storedLengths = new int[16];
+    private int[] numExamples = new int[16];
+    private boolean closed;
+
+    /**
+     * @param out         Output stream to write to. Closed when this writer is closed
+     * @param compression Compression to use for each entry
+     */
+    public DataSetChunkWriter(@NonNull OutputStream out, @NonNull ChunkCompression compression) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.compression = compression;
+        if (compression == ChunkCompression.DEFLATE) {
+            compressedBuffer = new ExposedByteArrayOutputStream();
+            deflater = new Deflater(Deflater.BEST_SPEED);
+        } else {
+            compressedBuffer = null;
+            deflater = null;
+        }
+
+        this.out.writeInt(DataSetChunkFormat.MAGIC);
+        this.out.writeByte(DataSetChunkFormat.VERSION);
+        this.out.writeByte(compression.ordinal());
+        position = DataSetChunkFormat.HEADER_LENGTH;
+    }
+
+    /**
+     * Append the DataSet to the chunk file
+     *
+     * @param dataSet DataSet to write
+     * @return Index of the entry in the chunk file
+     */
+    public int write(@NonNull DataSet dataSet) throws IOException {
+        if (closed)
+            throw new IllegalStateException("Cannot write: writer has been closed");
+
+        rawBuffer.reset();
+        dataSet.save(rawBuffer);
+
+        ExposedByteArrayOutputStream stored = rawBuffer;
+        if (compression == ChunkCompression.DEFLATE) {
+            compressedBuffer.reset();
+            deflater.reset();
+            DeflaterOutputStream dos = new DeflaterOutputStream(compressedBuffer, deflater, 65536);
+            dos.write(rawBuffer.buffer(), 0, rawBuffer.size());
+            dos.finish();
+            stored = compressedBuffer;
+        }
+
+        if (numEntries == offsets.length) {
+            int newLength = 2 * offsets.length;
+            offsets = Arrays.copyOf(offsets, newLength);
+            storedLengths = Arrays.copyOf(storedLengths, newLength);
+            numExamples = Arrays.copyOf(numExamples, newLength);
+        }
+
+        int length = stored.size();
+        out.writeInt(length);
+        out.writeInt(dataSet.numExamples());
+        position += 8;
+        offsets[numEntries] = position;
+        storedLengths[numEntries] = length;
+        numExamples[numEntries] = dataSet.numExamples();
+
+        out.write(stored.buffer(), 0, length);
+        position += length;
+
+        return numEntries++;
+    }
+
+    /**
+     * @return Number of entries written so far
+     */
+    public int numEntries() {
+        return numEntries;
+    }
+
+    /**
+     * @return Number of bytes written so far (excluding the index)
+     */
+    public long bytesWritten() {
+        return position;
+    }
+
+    /**
+     * Write the index and close the underlying stream
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+
+        try {
+            out.writeInt(DataSetChunkFormat.END_OF_ENTRIES);
+            long indexOffset = position + 4;
+            out.writeInt(numEntries);
+            for (int i = 0; i < numEntries; i++) {
+                out.writeLong(offsets[i]);
+                out.writeInt(storedLengths[i]);
+                out.writeInt(numExamples[i]);
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(DataSetChunkFormat.MAGIC);
+            out.flush();
+        } finally {
+            out.close();
+            if (deflater != null)
+                deflater.end();
+        }
+    }
+
+    //Avoids copying the serialized bytes: DataSet.save may close the stream, which is a no-op here
+    private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+        private ExposedByteArrayOutputStream() {
+            super(65536);
+        }
+
+        private byte[] buffer() {
+            return buf;
+        }
+    }
+}
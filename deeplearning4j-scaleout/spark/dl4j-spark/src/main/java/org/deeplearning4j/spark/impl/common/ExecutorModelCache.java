@@ -0,0 +1,264 @@
+package org.deeplearning4j.spark.impl.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.broadcast.Broadcast;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A JVM-wide (i.e., per Spark executor) cache of networks used for scoring, feed-forward and evaluation functions.<br>
+ * Without this cache, every partition of every scoring/evaluation job builds a new network from the configuration
+ * and broadcast parameters. With it, networks are built at most once per concurrent task on each executor, and are
+ * reused by subsequent partitions and jobs for as long as the parameters don't change.
+ * <p>
+ * Entries are keyed by a fingerprint of the network configuration and parameters, see
+ * {@link #fingerprint(String, INDArray)}. The fingerprint is computed on the driver, so that executors with a cached
+ * entry don't need to fetch the broadcast parameters at all.<br>
+ * Each entry holds a single copy of the parameters, shared (read only) by a pool of network instances: networks
+ * are not thread safe, so each instance is used by only one task at a time. Entries are reference counted (by
+ * number of instances currently in use), and entries not in use are evicted in least-recently-used order once there
+ * are more than {@link #getMaxEntries()} entries.
+ * <p>
+ * The maximum number of entries can be set using the system property {@link #MAX_ENTRIES_PROPERTY} on the
+ * executors (default: {@link #DEFAULT_MAX_ENTRIES}). Set to 0 to disable caching of networks between partitions.
+ */
+@Slf4j
+public class ExecutorModelCache {
+
+    public static final String MAX_ENTRIES_PROPERTY = "org.deeplearning4j.spark.modelcache.maxentries";
+    public static final int DEFAULT_MAX_ENTRIES = 2;
+
+    private static ExecutorModelCache instance;
+
+    private final int maxEntries;
+    //Access-ordered: iteration order is least recently used first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static class Entry {
+        private INDArray params;
+        private final Deque<Model> idle = new ArrayDeque<>();
+        private int refCount;
+    }
+
+    public ExecutorModelCache(int maxEntries) {
+        if (maxEntries < 0)
+            throw new IllegalArgumentException("Invalid max entries: " + maxEntries + " (must be >= 0)");
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return The cache instance for this JVM
+     */
+    public static synchronized ExecutorModelCache getInstance() {
+        if (instance == null) {
+            int maxEntries = DEFAULT_MAX_ENTRIES;
+            String property = System.getProperty(MAX_ENTRIES_PROPERTY);
+            if (property != null) {
+                try {
+                    maxEntries = Integer.parseInt(property);
+                } catch (NumberFormatException e) {
+                    log.warn("Invalid value for system property {}: \"{}\". Using default of {}", MAX_ENTRIES_PROPERTY,
+                                    property, DEFAULT_MAX_ENTRIES);
+                }
+            }
+            instance = new ExecutorModelCache(maxEntries);
+        }
+        return instance;
+    }
+
+    /**
+     * Compute the fingerprint (cache key) for the given network configuration and parameters.
+     * This should be done on the driver, once per job
+     *
+     * @param jsonConfig Network configuration, as JSON
+     * @param params     Network parameters
+     * @return Cache key
+     */
+    public static String fingerprint(String jsonConfig, INDArray params) {
+        //64-bit FNV-1a over the parameter values, read in bulk from the (contiguous) data buffer
+        if (params.offset() != 0 || params.elementWiseStride() != 1 || params.length() != params.data().length())
+            params = params.dup();
+        long hash = 0xcbf29ce484222325L;
+        long length = params.length();
+        DataBuffer buffer = params.data();
+        switch (buffer.dataType()) {
+            case FLOAT:
+                FloatBuffer fb = buffer.asNioFloat();
+                for (int i = 0; i < length; i++) {
+                    hash ^= Float.floatToIntBits(fb.get(i));
+                    hash *= 0x100000001b3L;
+                }
+                break;
+            case DOUBLE:
+                DoubleBuffer db = buffer.asNioDouble();
+                for (int i = 0; i < length; i++) {
+                    hash ^= Double.doubleToLongBits(db.get(i));
+                    hash *= 0x100000001b3L;
+                }
+                break;
+            default:
+                double[] d = buffer.asDouble();
+                for (int i = 0; i < length; i++) {
+                    hash ^= Double.doubleToLongBits(d[i]);
+                    hash *= 0x100000001b3L;
+                }
+        }
+        return Integer.toHexString(jsonConfig.hashCode()) + "_" + jsonConfig.length() + "_" + length + "_"
+                        + Long.toHexString(hash);
+    }
+
+    /**
+     * @return Maximum number of cached entries (distinct networks)
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @return Current number of entries (distinct networks), including those in use
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get a MultiLayerNetwork for exclusive use by the caller. Must be returned via {@link #release(String, Model)}
+     * after use, preferably in a finally block.
+     *
+     * @param key        Key, as per {@link #fingerprint(String, INDArray)}. If null: a new network is always created
+     * @param jsonConfig MultiLayerConfiguration, as JSON
+     * @param params     Network parameters
+     */
+    public MultiLayerNetwork getMultiLayerNetwork(String key, Broadcast<String> jsonConfig,
+                    Broadcast<INDArray> params) {
+        Entry e = acquire(key);
+        if (e != null) {
+            synchronized (e) {
+                if (!e.idle.isEmpty())
+                    return (MultiLayerNetwork) e.idle.pop();
+            }
+        }
+
+        MultiLayerNetwork network = new MultiLayerNetwork(MultiLayerConfiguration.fromJson(jsonConfig.getValue()));
+        try {
+            network.init(getParams(e, params), false);
+        } catch (RuntimeException ex) {
+            release(key, null);
+            throw ex;
+        }
+        return network;
+    }
+
+    /**
+     * Get a ComputationGraph for exclusive use by the caller. Must be returned via {@link #release(String, Model)}
+     * after use, preferably in a finally block.
+     *
+     * @param key        Key, as per {@link #fingerprint(String, INDArray)}. If null: a new network is always created
+     * @param jsonConfig ComputationGraphConfiguration, as JSON
+     * @param params     Network parameters
+     */
+    public ComputationGraph getComputationGraph(String key, Broadcast<String> jsonConfig,
+                    Broadcast<INDArray> params) {
+        Entry e = acquire(key);
+        if (e != null) {
+            synchronized (e) {
+                if (!e.idle.isEmpty())
+                    return (ComputationGraph) e.idle.pop();
+            }
+        }
+
+        ComputationGraph graph = new ComputationGraph(ComputationGraphConfiguration.fromJson(jsonConfig.getValue()));
+        try {
+            graph.init(getParams(e, params), false);
+        } catch (RuntimeException ex) {
+            release(key, null);
+            throw ex;
+        }
+        return graph;
+    }
+
+    /**
+     * Return a network obtained from this cache. The network should not be used after calling this method.
+     *
+     * @param key   Key the network was obtained with
+     * @param model Network to return. May be null (decrements the reference count only)
+     */
+    public synchronized void release(String key, Model model) {
+        if (key == null)
+            return;
+
+        Entry e = entries.get(key);
+        if (e == null) {
+            log.warn("Released network for unknown key {}", key);
+            return;
+        }
+
+        e.refCount--;
+        if (model != null) {
+            synchronized (e) {
+                e.idle.push(model);
+            }
+        }
+        evict();
+    }
+
+    /**
+     * Remove all entries that are not currently in use
+     */
+    public synchronized void clear() {
+        Iterator<Map.Entry<String, Entry>> iter = entries.entrySet().iterator();
+        while (iter.hasNext()) {
+            if (iter.next().getValue().refCount <= 0)
+                iter.remove();
+        }
+    }
+
+    private synchronized Entry acquire(String key) {
+        if (key == null)
+            return null;
+
+        Entry e = entries.get(key);
+        if (e == null) {
+            e = new Entry();
+            entries.put(key, e);
+        }
+        e.refCount++;
+        return e;
+    }
+
+    private INDArray getParams(Entry e, Broadcast<INDArray> params) {
+        if (e == null)
+            return params.value().unsafeDuplication();
+
+        //One copy of the parameters per entry, shared by all instances: they are only read during inference
+        synchronized (e) {
+            if (e.params == null)
+                e.params = params.value().unsafeDuplication();
+            return e.params;
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> iter = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && iter.hasNext()) {
+            Map.Entry<String, Entry> next = iter.next();
+            if (next.getValue().refCount <= 0) {
+                iter.remove();
+                log.debug("Evicted cached network {}", next.getKey());
+            }
+        }
+    }
+}
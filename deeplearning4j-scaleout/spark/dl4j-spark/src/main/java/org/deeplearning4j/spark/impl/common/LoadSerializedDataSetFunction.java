@@ -2,19 +2,36 @@ package org.deeplearning4j.spark.impl.common;
 
 import org.apache.spark.api.java.function.Function;
 import org.apache.spark.input.PortableDataStream;
+import org.deeplearning4j.spark.data.chunk.DataSetChunkFormat;
+import org.deeplearning4j.spark.data.chunk.DataSetChunkStreamIterator;
 import org.nd4j.linalg.dataset.DataSet;
 
+import java.io.BufferedInputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * This is a function that is used to load a {@link DataSet} object using {@link DataSet#load(InputStream)}.
+ * This is a function that is used to load a {@link DataSet} object using {@link DataSet#load(InputStream)}.<br>
+ * Chunk files (see {@link DataSetChunkFormat}) are also supported; all DataSets in the chunk file are merged into
+ * a single DataSet. Use {@link org.deeplearning4j.spark.iterator.PortableDataStreamDataSetIterator} to load them
+ * one at a time instead.
  *
  * @author Alex Black
  */
 public class LoadSerializedDataSetFunction implements Function<PortableDataStream, DataSet> {
     @Override
     public DataSet call(PortableDataStream pds) throws Exception {
-        try (InputStream is = pds.open()) {
+        try (InputStream is = new BufferedInputStream(pds.open())) {
+            if (DataSetChunkFormat.isChunkStream(is)) {
+                List<DataSet> list = new ArrayList<>();
+                try (DataSetChunkStreamIterator iter = new DataSetChunkStreamIterator(is)) {
+                    while (iter.hasNext())
+                        list.add(iter.next());
+                }
+                return (list.size() == 1 ? list.get(0) : DataSet.merge(list));
+            }
+
             DataSet d = new DataSet();
             d.load(is);
             return d;
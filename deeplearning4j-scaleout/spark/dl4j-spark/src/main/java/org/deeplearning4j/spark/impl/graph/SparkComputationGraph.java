@@ -24,6 +24,7 @@ import org.apache.spark.api.java.JavaDoubleRDD;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.broadcast.Broadcast;
 import org.apache.spark.rdd.RDD;
 import org.deeplearning4j.eval.*;
 import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
@@ -33,6 +34,7 @@ import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.spark.api.TrainingMaster;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
 import org.deeplearning4j.spark.impl.SparkListenable;
+import org.deeplearning4j.spark.impl.common.ExecutorModelCache;
 import org.deeplearning4j.spark.impl.common.reduce.IntDoubleReduceFunction;
 import org.deeplearning4j.spark.impl.graph.dataset.DataSetToMultiDataSetFn;
 import org.deeplearning4j.spark.impl.graph.dataset.PairDataSetToMultiDataSetFn;
@@ -72,6 +74,9 @@ public class SparkComputationGraph extends SparkListenable {
     private ComputationGraphConfiguration conf;
     private ComputationGraph network;
     private double lastScore;
+    //Parameter broadcast reused by the scoring and evaluation methods, while the parameter fingerprint is unchanged
+    private transient Broadcast<INDArray> paramsBroadcast;
+    private transient String paramsBroadcastKey;
 
     private transient AtomicInteger iterationsCount = new AtomicInteger(0);
 
@@ -421,8 +426,10 @@ public class SparkComputationGraph extends SparkListenable {
      */
     public JavaDoubleRDD scoreExamplesMultiDataSet(JavaRDD<MultiDataSet> data, boolean includeRegularizationTerms,
                     int batchSize) {
-        return data.mapPartitionsToDouble(new ScoreExamplesFunction(sc.broadcast(network.params()),
-                        sc.broadcast(conf.toJson()), includeRegularizationTerms, batchSize));
+        String json = conf.toJson();
+        String modelCacheKey = modelCacheKey(json);
+        return data.mapPartitionsToDouble(new ScoreExamplesFunction(paramsBroadcast(modelCacheKey),
+                        sc.broadcast(json), includeRegularizationTerms, batchSize, modelCacheKey));
     }
 
     /**
@@ -472,8 +479,10 @@ public class SparkComputationGraph extends SparkListenable {
      * @return             Network output given the input, by key
      */
     public <K> JavaPairRDD<K, INDArray[]> feedForwardWithKey(JavaPairRDD<K, INDArray[]> featuresData, int batchSize) {
-        return featuresData.mapPartitionsToPair(new GraphFeedForwardWithKeyFunction<K>(sc.broadcast(network.params()),
-                        sc.broadcast(conf.toJson()), batchSize));
+        String json = conf.toJson();
+        String modelCacheKey = modelCacheKey(json);
+        return featuresData.mapPartitionsToPair(new GraphFeedForwardWithKeyFunction<K>(paramsBroadcast(modelCacheKey),
+                        sc.broadcast(json), batchSize, modelCacheKey));
     }
 
     private void update(int mr, long mg) {
@@ -499,8 +508,10 @@ public class SparkComputationGraph extends SparkListenable {
      */
     public <K> JavaPairRDD<K, Double> scoreExamplesMultiDataSet(JavaPairRDD<K, MultiDataSet> data,
                     boolean includeRegularizationTerms, int batchSize) {
-        return data.mapPartitionsToPair(new ScoreExamplesWithKeyFunction<K>(sc.broadcast(network.params()),
-                        sc.broadcast(conf.toJson()), includeRegularizationTerms, batchSize));
+        String json = conf.toJson();
+        String modelCacheKey = modelCacheKey(json);
+        return data.mapPartitionsToPair(new ScoreExamplesWithKeyFunction<K>(paramsBroadcast(modelCacheKey),
+                        sc.broadcast(json), includeRegularizationTerms, batchSize, modelCacheKey));
     }
 
 
@@ -716,8 +727,10 @@ public class SparkComputationGraph extends SparkListenable {
      * @return                 Evaluations
      */
     public <T extends IEvaluation> T[] doEvaluation(JavaRDD<DataSet> data, int evalBatchSize, T... emptyEvaluations) {
-        IEvaluateFlatMapFunction<T> evalFn = new IEvaluateFlatMapFunction<>(true, sc.broadcast(conf.toJson()),
-                        sc.broadcast(network.params()), evalBatchSize, emptyEvaluations);
+        String json = conf.toJson();
+        String modelCacheKey = modelCacheKey(json);
+        IEvaluateFlatMapFunction<T> evalFn = new IEvaluateFlatMapFunction<>(true, sc.broadcast(json),
+                        paramsBroadcast(modelCacheKey), modelCacheKey, evalBatchSize, emptyEvaluations);
         JavaRDD<T[]> evaluations = data.mapPartitions(evalFn);
         return evaluations.treeAggregate(null, new IEvaluateAggregateFunction<T>(),
                         new IEvaluateAggregateFunction<T>());
@@ -736,10 +749,36 @@ public class SparkComputationGraph extends SparkListenable {
     @SuppressWarnings("unchecked")
     public <T extends IEvaluation> T[] doEvaluationMDS(JavaRDD<MultiDataSet> data, int evalBatchSize,
                     T... emptyEvaluations) {
-        IEvaluateMDSFlatMapFunction<T> evalFn = new IEvaluateMDSFlatMapFunction<>(sc.broadcast(conf.toJson()),
-                        sc.broadcast(network.params()), evalBatchSize, emptyEvaluations);
+        String json = conf.toJson();
+        String modelCacheKey = modelCacheKey(json);
+        IEvaluateMDSFlatMapFunction<T> evalFn = new IEvaluateMDSFlatMapFunction<>(sc.broadcast(json),
+                        paramsBroadcast(modelCacheKey), modelCacheKey, evalBatchSize, emptyEvaluations);
         JavaRDD<T[]> evaluations = data.mapPartitions(evalFn);
         return evaluations.treeAggregate(null, new IEvaluateAggregateFunction<T>(),
                         new IEvaluateAggregateFunction<T>());
     }
+
+    /**
+     * Key for the {@link ExecutorModelCache}, used by the scoring and evaluation functions so that executors can
+     * reuse networks built by earlier partitions/jobs, as long as the parameters haven't changed since. This is a
+     * fingerprint of the current parameters, computed on every call, so that direct modification of the parameters
+     * (for example, via {@code getNetwork().setParams(...)}) is always detected
+     */
+    protected String modelCacheKey(String jsonConfig) {
+        return ExecutorModelCache.fingerprint(jsonConfig, network.params());
+    }
+
+    /**
+     * Broadcast of the network parameters, used by the scoring and evaluation methods. Reused between calls while
+     * the model cache key (i.e., the parameters) is unchanged
+     *
+     * @param modelCacheKey Current key, as per {@link #modelCacheKey(String)}
+     */
+    protected synchronized Broadcast<INDArray> paramsBroadcast(String modelCacheKey) {
+        if (paramsBroadcast == null || !modelCacheKey.equals(paramsBroadcastKey)) {
+            paramsBroadcast = sc.broadcast(network.params());
+            paramsBroadcastKey = modelCacheKey;
+        }
+        return paramsBroadcast;
+    }
 }
@@ -24,8 +24,8 @@ import org.datavec.spark.functions.FlatMapFunctionAdapter;
 import org.datavec.spark.transform.BaseFlatMapFunctionAdaptee;
 import org.deeplearning4j.datasets.iterator.IteratorMultiDataSetIterator;
 import org.deeplearning4j.eval.IEvaluation;
-import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.spark.impl.common.ExecutorModelCache;
 import org.deeplearning4j.spark.iterator.SparkAMDSI;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.api.MultiDataSet;
@@ -45,7 +45,16 @@ public class IEvaluateMDSFlatMapFunction<T extends IEvaluation>
 
     public IEvaluateMDSFlatMapFunction(Broadcast<String> json, Broadcast<INDArray> params, int evalBatchSize,
                     T... evaluations) {
-        super(new IEvaluateMDSFlatMapFunctionAdapter<>(json, params, evalBatchSize, evaluations));
+        this(json, params, null, evalBatchSize, evaluations);
+    }
+
+    /**
+     * @param modelKey Key for the {@link ExecutorModelCache}, as per
+     *                 {@link ExecutorModelCache#fingerprint(String, INDArray)}. If null: don't use the cache
+     */
+    public IEvaluateMDSFlatMapFunction(Broadcast<String> json, Broadcast<INDArray> params, String modelKey,
+                    int evalBatchSize, T... evaluations) {
+        super(new IEvaluateMDSFlatMapFunctionAdapter<>(json, params, modelKey, evalBatchSize, evaluations));
     }
 }
 
@@ -63,20 +72,23 @@ class IEvaluateMDSFlatMapFunctionAdapter<T extends IEvaluation>
 
     protected Broadcast<String> json;
     protected Broadcast<INDArray> params;
+    protected String modelKey;
     protected int evalBatchSize;
     protected T[] evaluations;
 
     /**
      * @param json Network configuration (json format)
      * @param params Network parameters
+     * @param modelKey Key for the {@link ExecutorModelCache}. May be null
      * @param evalBatchSize Max examples per evaluation. Do multiple separate forward passes if data exceeds
      *                              this. Used to avoid doing too many at once (and hence memory issues)
      * @param evaluations Initial evaulation instance (i.e., empty Evaluation or RegressionEvaluation instance)
      */
-    public IEvaluateMDSFlatMapFunctionAdapter(Broadcast<String> json, Broadcast<INDArray> params, int evalBatchSize,
-                    T[] evaluations) {
+    public IEvaluateMDSFlatMapFunctionAdapter(Broadcast<String> json, Broadcast<INDArray> params, String modelKey,
+                    int evalBatchSize, T[] evaluations) {
         this.json = json;
         this.params = params;
+        this.modelKey = modelKey;
         this.evalBatchSize = evalBatchSize;
         this.evaluations = evaluations;
     }
@@ -87,17 +99,15 @@ class IEvaluateMDSFlatMapFunctionAdapter<T extends IEvaluation>
             return Collections.emptyList();
         }
 
-        INDArray val = params.value().unsafeDuplication();
-        ComputationGraph graph = new ComputationGraph(ComputationGraphConfiguration.fromJson(json.getValue()));
-        graph.init();
-        if (val.length() != graph.numParams(false))
-            throw new IllegalStateException(
-                            "Network did not have same number of parameters as the broadcast set parameters");
-        graph.setParams(val);
-
-        T[] eval = graph.doEvaluation(
-                        new SparkAMDSI(new IteratorMultiDataSetIterator(dataSetIterator, evalBatchSize), 2, true),
-                        evaluations);
-        return Collections.singletonList(eval);
+        ExecutorModelCache cache = ExecutorModelCache.getInstance();
+        ComputationGraph graph = cache.getComputationGraph(modelKey, json, params);
+        try {
+            T[] eval = graph.doEvaluation(
+                            new SparkAMDSI(new IteratorMultiDataSetIterator(dataSetIterator, evalBatchSize), 2, true),
+                            evaluations);
+            return Collections.singletonList(eval);
+        } finally {
+            cache.release(modelKey, graph);
+        }
     }
 }
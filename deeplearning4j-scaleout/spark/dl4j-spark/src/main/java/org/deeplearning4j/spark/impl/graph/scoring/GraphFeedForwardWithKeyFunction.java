@@ -20,8 +20,8 @@ package org.deeplearning4j.spark.impl.graph.scoring;
 
 import org.apache.spark.broadcast.Broadcast;
 import org.datavec.spark.functions.FlatMapFunctionAdapter;
-import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.spark.impl.common.ExecutorModelCache;
 import org.deeplearning4j.spark.util.BasePairFlatMapFunctionAdaptee;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
@@ -46,7 +46,16 @@ public class GraphFeedForwardWithKeyFunction<K>
                 extends BasePairFlatMapFunctionAdaptee<Iterator<Tuple2<K, INDArray[]>>, K, INDArray[]> {
 
     public GraphFeedForwardWithKeyFunction(Broadcast<INDArray> params, Broadcast<String> jsonConfig, int batchSize) {
-        super(new GraphFeedForwardWithKeyFunctionAdapter<K>(params, jsonConfig, batchSize));
+        this(params, jsonConfig, batchSize, null);
+    }
+
+    /**
+     * @param modelKey Key for the {@link ExecutorModelCache}, as per
+     *                 {@link ExecutorModelCache#fingerprint(String, INDArray)}. If null: don't use the cache
+     */
+    public GraphFeedForwardWithKeyFunction(Broadcast<INDArray> params, Broadcast<String> jsonConfig, int batchSize,
+                    String modelKey) {
+        super(new GraphFeedForwardWithKeyFunctionAdapter<K>(params, jsonConfig, batchSize, modelKey));
     }
 }
 
@@ -65,6 +74,7 @@ class GraphFeedForwardWithKeyFunctionAdapter<K>
 
     private final Broadcast<INDArray> params;
     private final Broadcast<String> jsonConfig;
+    private final String modelKey;
     private final int batchSize;
 
     /**
@@ -73,9 +83,10 @@ class GraphFeedForwardWithKeyFunctionAdapter<K>
      * @param batchSize  Batch size to use for forward pass (use > 1 for efficiency)
      */
     public GraphFeedForwardWithKeyFunctionAdapter(Broadcast<INDArray> params, Broadcast<String> jsonConfig,
-                    int batchSize) {
+                    int batchSize, String modelKey) {
         this.params = params;
         this.jsonConfig = jsonConfig;
+        this.modelKey = modelKey;
         this.batchSize = batchSize;
     }
 
@@ -86,14 +97,17 @@ class GraphFeedForwardWithKeyFunctionAdapter<K>
             return Collections.emptyList();
         }
 
-        ComputationGraph network = new ComputationGraph(ComputationGraphConfiguration.fromJson(jsonConfig.getValue()));
-        network.init();
-        INDArray val = params.value().unsafeDuplication();
-        if (val.length() != network.numParams(false))
-            throw new IllegalStateException(
-                            "Network did not have same number of parameters as the broadcast set parameters");
-        network.setParams(val);
+        ExecutorModelCache cache = ExecutorModelCache.getInstance();
+        ComputationGraph network = cache.getComputationGraph(modelKey, jsonConfig, params);
+        try {
+            return feedForward(network, iterator);
+        } finally {
+            cache.release(modelKey, network);
+        }
+    }
 
+    private Iterable<Tuple2<K, INDArray[]>> feedForward(ComputationGraph network,
+                    Iterator<Tuple2<K, INDArray[]>> iterator) {
         //Issue: for 2d data (MLPs etc) we can just stack the examples.
         //But: for 3d and 4d: in principle the data sizes could be different
         //We could handle that with mask arrays - but it gets messy. The approach used here is simpler but less efficient
@@ -20,8 +20,8 @@ package org.deeplearning4j.spark.impl.graph.scoring;
 
 import org.apache.spark.broadcast.Broadcast;
 import org.datavec.spark.functions.FlatMapFunctionAdapter;
-import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.spark.impl.common.ExecutorModelCache;
 import org.deeplearning4j.spark.util.BaseDoubleFlatMapFunctionAdaptee;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.api.MultiDataSet;
@@ -46,7 +46,16 @@ public class ScoreExamplesFunction extends BaseDoubleFlatMapFunctionAdaptee<Iter
 
     public ScoreExamplesFunction(Broadcast<INDArray> params, Broadcast<String> jsonConfig,
                     boolean addRegularizationTerms, int batchSize) {
-        super(new ScoreExamplesFunctionAdapter(params, jsonConfig, addRegularizationTerms, batchSize));
+        this(params, jsonConfig, addRegularizationTerms, batchSize, null);
+    }
+
+    /**
+     * @param modelKey Key for the {@link ExecutorModelCache}, as per
+     *                 {@link ExecutorModelCache#fingerprint(String, INDArray)}. If null: don't use the cache
+     */
+    public ScoreExamplesFunction(Broadcast<INDArray> params, Broadcast<String> jsonConfig,
+                    boolean addRegularizationTerms, int batchSize, String modelKey) {
+        super(new ScoreExamplesFunctionAdapter(params, jsonConfig, addRegularizationTerms, batchSize, modelKey));
     }
 }
 
@@ -63,13 +72,15 @@ class ScoreExamplesFunctionAdapter implements FlatMapFunctionAdapter<Iterator<Mu
 
     private final Broadcast<INDArray> params;
     private final Broadcast<String> jsonConfig;
+    private final String modelKey;
     private final boolean addRegularization;
     private final int batchSize;
 
     public ScoreExamplesFunctionAdapter(Broadcast<INDArray> params, Broadcast<String> jsonConfig,
-                    boolean addRegularizationTerms, int batchSize) {
+                    boolean addRegularizationTerms, int batchSize, String modelKey) {
         this.params = params;
         this.jsonConfig = jsonConfig;
+        this.modelKey = modelKey;
         this.addRegularization = addRegularizationTerms;
         this.batchSize = batchSize;
     }
@@ -81,14 +92,16 @@ class ScoreExamplesFunctionAdapter implements FlatMapFunctionAdapter<Iterator<Mu
             return Collections.emptyList();
         }
 
-        ComputationGraph network = new ComputationGraph(ComputationGraphConfiguration.fromJson(jsonConfig.getValue()));
-        network.init();
-        INDArray val = params.value().unsafeDuplication();
-        if (val.length() != network.numParams(false))
-            throw new IllegalStateException(
-                            "Network did not have same number of parameters as the broadcast set parameters");
-        network.setParams(val);
+        ExecutorModelCache cache = ExecutorModelCache.getInstance();
+        ComputationGraph network = cache.getComputationGraph(modelKey, jsonConfig, params);
+        try {
+            return scoreExamples(network, iterator);
+        } finally {
+            cache.release(modelKey, network);
+        }
+    }
 
+    private Iterable<Double> scoreExamples(ComputationGraph network, Iterator<MultiDataSet> iterator) {
         List<Double> ret = new ArrayList<>();
 
         List<MultiDataSet> collect = new ArrayList<>(batchSize);
@@ -22,6 +22,7 @@ import org.apache.spark.broadcast.Broadcast;
 import org.datavec.spark.functions.FlatMapFunctionAdapter;
 import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.spark.impl.common.ExecutorModelCache;
 import org.deeplearning4j.spark.util.BasePairFlatMapFunctionAdaptee;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.api.MultiDataSet;
@@ -49,7 +50,17 @@ public class ScoreExamplesWithKeyFunction<K>
 
     public ScoreExamplesWithKeyFunction(Broadcast<INDArray> params, Broadcast<String> jsonConfig,
                     boolean addRegularizationTerms, int batchSize) {
-        super(new ScoreExamplesWithKeyFunctionAdapter<K>(params, jsonConfig, addRegularizationTerms, batchSize));
+        this(params, jsonConfig, addRegularizationTerms, batchSize, null);
+    }
+
+    /**
+     * @param modelKey Key for the {@link ExecutorModelCache}, as per
+     *                 {@link ExecutorModelCache#fingerprint(String, INDArray)}. If null: don't use the cache
+     */
+    public ScoreExamplesWithKeyFunction(Broadcast<INDArray> params, Broadcast<String> jsonConfig,
+                    boolean addRegularizationTerms, int batchSize, String modelKey) {
+        super(new ScoreExamplesWithKeyFunctionAdapter<K>(params, jsonConfig, addRegularizationTerms, batchSize,
+                        modelKey));
     }
 }
 
@@ -70,6 +81,7 @@ class ScoreExamplesWithKeyFunctionAdapter<K>
 
     private final Broadcast<INDArray> params;
     private final Broadcast<String> jsonConfig;
+    private final String modelKey;
     private final boolean addRegularization;
     private final int batchSize;
 
@@ -80,9 +92,10 @@ class ScoreExamplesWithKeyFunctionAdapter<K>
      * @param batchSize Batch size to use when scoring examples
      */
     public ScoreExamplesWithKeyFunctionAdapter(Broadcast<INDArray> params, Broadcast<String> jsonConfig,
-                    boolean addRegularizationTerms, int batchSize) {
+                    boolean addRegularizationTerms, int batchSize, String modelKey) {
         this.params = params;
         this.jsonConfig = jsonConfig;
+        this.modelKey = modelKey;
         this.addRegularization = addRegularizationTerms;
         this.batchSize = batchSize;
     }
@@ -94,14 +107,17 @@ class ScoreExamplesWithKeyFunctionAdapter<K>
             return Collections.emptyList();
         }
 
-        ComputationGraph network = new ComputationGraph(ComputationGraphConfiguration.fromJson(jsonConfig.getValue()));
-        network.init();
-        INDArray val = params.value().unsafeDuplication();
-        if (val.length() != network.numParams(false))
-            throw new IllegalStateException(
-                            "Network did not have same number of parameters as the broadcast set parameters");
-        network.setParams(val);
+        ExecutorModelCache cache = ExecutorModelCache.getInstance();
+        ComputationGraph network = cache.getComputationGraph(modelKey, jsonConfig, params);
+        try {
+            return scoreExamples(network, iterator);
+        } finally {
+            cache.release(modelKey, network);
+        }
+    }
 
+    private Iterable<Tuple2<K, Double>> scoreExamples(ComputationGraph network,
+                    Iterator<Tuple2<K, MultiDataSet>> iterator) {
         List<Tuple2<K, Double>> ret = new ArrayList<>();
 
         List<MultiDataSet> collect = new ArrayList<>(batchSize);
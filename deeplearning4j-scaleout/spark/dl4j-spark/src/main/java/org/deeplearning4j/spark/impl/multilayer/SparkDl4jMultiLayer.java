@@ -24,6 +24,7 @@ import org.apache.spark.api.java.JavaDoubleRDD;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.broadcast.Broadcast;
 import org.apache.spark.mllib.linalg.Matrix;
 import org.apache.spark.mllib.linalg.Vector;
 import org.apache.spark.mllib.regression.LabeledPoint;
@@ -35,6 +36,7 @@ import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.spark.api.TrainingMaster;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
 import org.deeplearning4j.spark.impl.SparkListenable;
+import org.deeplearning4j.spark.impl.common.ExecutorModelCache;
 import org.deeplearning4j.spark.impl.common.reduce.IntDoubleReduceFunction;
 import org.deeplearning4j.spark.impl.multilayer.evaluation.IEvaluateAggregateFunction;
 import org.deeplearning4j.spark.impl.multilayer.evaluation.IEvaluateFlatMapFunction;
@@ -75,6 +77,9 @@ public class SparkDl4jMultiLayer extends SparkListenable {
     private MultiLayerConfiguration conf;
     private MultiLayerNetwork network;
     private double lastScore;
+    //Parameter broadcast reused by the scoring and evaluation methods, while the parameter fingerprint is unchanged
+    private transient Broadcast<INDArray> paramsBroadcast;
+    private transient String paramsBroadcastKey;
 
     /**
      * Instantiate a multi layer spark instance
@@ -385,8 +390,10 @@ public class SparkDl4jMultiLayer extends SparkListenable {
      * @see MultiLayerNetwork#scoreExamples(DataSet, boolean)
      */
     public JavaDoubleRDD scoreExamples(JavaRDD<DataSet> data, boolean includeRegularizationTerms, int batchSize) {
-        return data.mapPartitionsToDouble(new ScoreExamplesFunction(sc.broadcast(network.params()),
-                        sc.broadcast(conf.toJson()), includeRegularizationTerms, batchSize));
+        String json = conf.toJson();
+        String modelCacheKey = modelCacheKey(json);
+        return data.mapPartitionsToDouble(new ScoreExamplesFunction(paramsBroadcast(modelCacheKey),
+                        sc.broadcast(json), includeRegularizationTerms, batchSize, modelCacheKey));
     }
 
     /**
@@ -421,8 +428,10 @@ public class SparkDl4jMultiLayer extends SparkListenable {
      */
     public <K> JavaPairRDD<K, Double> scoreExamples(JavaPairRDD<K, DataSet> data, boolean includeRegularizationTerms,
                     int batchSize) {
-        return data.mapPartitionsToPair(new ScoreExamplesWithKeyFunction<K>(sc.broadcast(network.params()),
-                        sc.broadcast(conf.toJson()), includeRegularizationTerms, batchSize));
+        String json = conf.toJson();
+        String modelCacheKey = modelCacheKey(json);
+        return data.mapPartitionsToPair(new ScoreExamplesWithKeyFunction<K>(paramsBroadcast(modelCacheKey),
+                        sc.broadcast(json), includeRegularizationTerms, batchSize, modelCacheKey));
     }
 
     /**
@@ -434,8 +443,10 @@ public class SparkDl4jMultiLayer extends SparkListenable {
      * @return             Network output given the input, by key
      */
     public <K> JavaPairRDD<K, INDArray> feedForwardWithKey(JavaPairRDD<K, INDArray> featuresData, int batchSize) {
-        return featuresData.mapPartitionsToPair(new FeedForwardWithKeyFunction<K>(sc.broadcast(network.params()),
-                        sc.broadcast(conf.toJson()), batchSize));
+        String json = conf.toJson();
+        String modelCacheKey = modelCacheKey(json);
+        return featuresData.mapPartitionsToPair(new FeedForwardWithKeyFunction<K>(paramsBroadcast(modelCacheKey),
+                        sc.broadcast(json), batchSize, modelCacheKey));
     }
 
     /**
@@ -594,9 +605,35 @@ public class SparkDl4jMultiLayer extends SparkListenable {
      */
     @SuppressWarnings("unchecked")
     public <T extends IEvaluation> T[] doEvaluation(JavaRDD<DataSet> data, int evalBatchSize, T... emptyEvaluations) {
-        IEvaluateFlatMapFunction<T> evalFn = new IEvaluateFlatMapFunction<>(false, sc.broadcast(conf.toJson()),
-                        sc.broadcast(network.params()), evalBatchSize, emptyEvaluations);
+        String json = conf.toJson();
+        String modelCacheKey = modelCacheKey(json);
+        IEvaluateFlatMapFunction<T> evalFn = new IEvaluateFlatMapFunction<>(false, sc.broadcast(json),
+                        paramsBroadcast(modelCacheKey), modelCacheKey, evalBatchSize, emptyEvaluations);
         JavaRDD<T[]> evaluations = data.mapPartitions(evalFn);
         return evaluations.treeAggregate(null, new IEvaluateAggregateFunction<T>(), new IEvaluationReduceFunction<T>());
     }
+
+    /**
+     * Key for the {@link ExecutorModelCache}, used by the scoring and evaluation functions so that executors can
+     * reuse networks built by earlier partitions/jobs, as long as the parameters haven't changed since. This is a
+     * fingerprint of the current parameters, computed on every call, so that direct modification of the parameters
+     * (for example, via {@code getNetwork().setParams(...)}) is always detected
+     */
+    protected String modelCacheKey(String jsonConfig) {
+        return ExecutorModelCache.fingerprint(jsonConfig, network.params());
+    }
+
+    /**
+     * Broadcast of the network parameters, used by the scoring and evaluation methods. Reused between calls while
+     * the model cache key (i.e., the parameters) is unchanged
+     *
+     * @param modelCacheKey Current key, as per {@link #modelCacheKey(String)}
+     */
+    protected synchronized Broadcast<INDArray> paramsBroadcast(String modelCacheKey) {
+        if (paramsBroadcast == null || !modelCacheKey.equals(paramsBroadcastKey)) {
+            paramsBroadcast = sc.broadcast(network.params());
+            paramsBroadcastKey = modelCacheKey;
+        }
+        return paramsBroadcast;
+    }
 }
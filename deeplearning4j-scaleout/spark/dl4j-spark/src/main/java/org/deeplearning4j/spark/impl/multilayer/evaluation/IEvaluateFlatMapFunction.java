@@ -24,10 +24,9 @@ import org.datavec.spark.functions.FlatMapFunctionAdapter;
 import org.datavec.spark.transform.BaseFlatMapFunctionAdaptee;
 import org.deeplearning4j.datasets.iterator.IteratorDataSetIterator;
 import org.deeplearning4j.eval.IEvaluation;
-import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
-import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.spark.impl.common.ExecutorModelCache;
 import org.deeplearning4j.spark.iterator.SparkADSI;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
@@ -47,7 +46,17 @@ public class IEvaluateFlatMapFunction<T extends IEvaluation>
 
     public IEvaluateFlatMapFunction(boolean isCompGraph, Broadcast<String> json, Broadcast<INDArray> params,
                     int evalBatchSize, T... evaluations) {
-        super(new IEvaluateFlatMapFunctionAdapter<>(isCompGraph, json, params, evalBatchSize, evaluations));
+        this(isCompGraph, json, params, null, evalBatchSize, evaluations);
+    }
+
+    /**
+     * @param modelKey Key for the {@link ExecutorModelCache}, as per
+     *                 {@link ExecutorModelCache#fingerprint(String, INDArray)}. If null: don't use the cache
+     */
+    public IEvaluateFlatMapFunction(boolean isCompGraph, Broadcast<String> json, Broadcast<INDArray> params,
+                    String modelKey, int evalBatchSize, T... evaluations) {
+        super(new IEvaluateFlatMapFunctionAdapter<>(isCompGraph, json, params, modelKey, evalBatchSize,
+                        evaluations));
     }
 }
 
@@ -65,21 +74,24 @@ class IEvaluateFlatMapFunctionAdapter<T extends IEvaluation> implements FlatMapF
     protected boolean isCompGraph;
     protected Broadcast<String> json;
     protected Broadcast<INDArray> params;
+    protected String modelKey;
     protected int evalBatchSize;
     protected T[] evaluations;
 
     /**
      * @param json Network configuration (json format)
      * @param params Network parameters
+     * @param modelKey Key for the {@link ExecutorModelCache}. May be null
      * @param evalBatchSize Max examples per evaluation. Do multiple separate forward passes if data exceeds
      *                              this. Used to avoid doing too many at once (and hence memory issues)
      * @param evaluations Initial evaulation instance (i.e., empty Evaluation or RegressionEvaluation instance)
      */
     public IEvaluateFlatMapFunctionAdapter(boolean isCompGraph, Broadcast<String> json, Broadcast<INDArray> params,
-                    int evalBatchSize, T[] evaluations) {
+                    String modelKey, int evalBatchSize, T[] evaluations) {
         this.isCompGraph = isCompGraph;
         this.json = json;
         this.params = params;
+        this.modelKey = modelKey;
         this.evalBatchSize = evalBatchSize;
         this.evaluations = evaluations;
     }
@@ -90,34 +102,27 @@ class IEvaluateFlatMapFunctionAdapter<T extends IEvaluation> implements FlatMapF
             return Collections.emptyList();
         }
 
-        MultiLayerNetwork network = null;
-        ComputationGraph graph = null;
-        INDArray val = params.value().unsafeDuplication();
+        ExecutorModelCache cache = ExecutorModelCache.getInstance();
         if (isCompGraph) {
-            graph = new ComputationGraph(ComputationGraphConfiguration.fromJson(json.getValue()));
-            graph.init();
-            if (val.length() != graph.numParams(false))
-                throw new IllegalStateException(
-                                "Network did not have same number of parameters as the broadcast set parameters");
-            graph.setParams(val);
-
-            T[] eval = graph.doEvaluation(
-                            new SparkADSI(new IteratorDataSetIterator(dataSetIterator, evalBatchSize), 2, true),
-                            evaluations);
-            return Collections.singletonList(eval);
-
+            ComputationGraph graph = cache.getComputationGraph(modelKey, json, params);
+            try {
+                T[] eval = graph.doEvaluation(
+                                new SparkADSI(new IteratorDataSetIterator(dataSetIterator, evalBatchSize), 2, true),
+                                evaluations);
+                return Collections.singletonList(eval);
+            } finally {
+                cache.release(modelKey, graph);
+            }
         } else {
-            network = new MultiLayerNetwork(MultiLayerConfiguration.fromJson(json.getValue()));
-            network.init();
-            if (val.length() != network.numParams(false))
-                throw new IllegalStateException(
-                                "Network did not have same number of parameters as the broadcast set parameters");
-            network.setParameters(val);
-
-            T[] eval = network.doEvaluation(
-                            new SparkADSI(new IteratorDataSetIterator(dataSetIterator, evalBatchSize), 2, true),
-                            evaluations);
-            return Collections.singletonList(eval);
+            MultiLayerNetwork network = cache.getMultiLayerNetwork(modelKey, json, params);
+            try {
+                T[] eval = network.doEvaluation(
+                                new SparkADSI(new IteratorDataSetIterator(dataSetIterator, evalBatchSize), 2, true),
+                                evaluations);
+                return Collections.singletonList(eval);
+            } finally {
+                cache.release(modelKey, network);
+            }
         }
     }
 }
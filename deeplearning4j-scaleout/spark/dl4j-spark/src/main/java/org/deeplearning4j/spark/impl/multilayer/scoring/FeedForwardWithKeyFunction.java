@@ -22,6 +22,7 @@ import org.apache.spark.broadcast.Broadcast;
 import org.datavec.spark.functions.FlatMapFunctionAdapter;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.spark.impl.common.ExecutorModelCache;
 import org.deeplearning4j.spark.util.BasePairFlatMapFunctionAdaptee;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
@@ -46,7 +47,16 @@ public class FeedForwardWithKeyFunction<K>
                 extends BasePairFlatMapFunctionAdaptee<Iterator<Tuple2<K, INDArray>>, K, INDArray> {
 
     public FeedForwardWithKeyFunction(Broadcast<INDArray> params, Broadcast<String> jsonConfig, int batchSize) {
-        super(new FeedForwardWithKeyFunctionAdapter<K>(params, jsonConfig, batchSize));
+        this(params, jsonConfig, batchSize, null);
+    }
+
+    /**
+     * @param modelKey Key for the {@link ExecutorModelCache}, as per
+     *                 {@link ExecutorModelCache#fingerprint(String, INDArray)}. If null: don't use the cache
+     */
+    public FeedForwardWithKeyFunction(Broadcast<INDArray> params, Broadcast<String> jsonConfig, int batchSize,
+                    String modelKey) {
+        super(new FeedForwardWithKeyFunctionAdapter<K>(params, jsonConfig, batchSize, modelKey));
     }
 }
 
@@ -65,6 +75,7 @@ class FeedForwardWithKeyFunctionAdapter<K>
 
     private final Broadcast<INDArray> params;
     private final Broadcast<String> jsonConfig;
+    private final String modelKey;
     private final int batchSize;
 
     /**
@@ -72,9 +83,11 @@ class FeedForwardWithKeyFunctionAdapter<K>
      * @param jsonConfig MultiLayerConfiguration, as json
      * @param batchSize  Batch size to use for forward pass (use > 1 for efficiency)
      */
-    public FeedForwardWithKeyFunctionAdapter(Broadcast<INDArray> params, Broadcast<String> jsonConfig, int batchSize) {
+    public FeedForwardWithKeyFunctionAdapter(Broadcast<INDArray> params, Broadcast<String> jsonConfig, int batchSize,
+                    String modelKey) {
         this.params = params;
         this.jsonConfig = jsonConfig;
+        this.modelKey = modelKey;
         this.batchSize = batchSize;
     }
 
@@ -85,14 +98,17 @@ class FeedForwardWithKeyFunctionAdapter<K>
             return Collections.emptyList();
         }
 
-        MultiLayerNetwork network = new MultiLayerNetwork(MultiLayerConfiguration.fromJson(jsonConfig.getValue()));
-        network.init();
-        INDArray val = params.value().unsafeDuplication();
-        if (val.length() != network.numParams(false))
-            throw new IllegalStateException(
-                            "Network did not have same number of parameters as the broadcasted set parameters");
-        network.setParameters(val);
+        ExecutorModelCache cache = ExecutorModelCache.getInstance();
+        MultiLayerNetwork network = cache.getMultiLayerNetwork(modelKey, jsonConfig, params);
+        try {
+            return feedForward(network, iterator);
+        } finally {
+            cache.release(modelKey, network);
+        }
+    }
 
+    private Iterable<Tuple2<K, INDArray>> feedForward(MultiLayerNetwork network,
+                    Iterator<Tuple2<K, INDArray>> iterator) {
         //Issue: for 2d data (MLPs etc) we can just stack the examples.
         //But: for 3d and 4d: in principle the data sizes could be different
         //We could handle that with mask arrays - but it gets messy. The approach used here is simpler but less efficient
@@ -20,8 +20,8 @@ package org.deeplearning4j.spark.impl.multilayer.scoring;
 
 import org.apache.spark.broadcast.Broadcast;
 import org.datavec.spark.functions.FlatMapFunctionAdapter;
-import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.spark.impl.common.ExecutorModelCache;
 import org.deeplearning4j.spark.util.BaseDoubleFlatMapFunctionAdaptee;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
@@ -45,7 +45,16 @@ public class ScoreExamplesFunction extends BaseDoubleFlatMapFunctionAdaptee<Iter
 
     public ScoreExamplesFunction(Broadcast<INDArray> params, Broadcast<String> jsonConfig,
                     boolean addRegularizationTerms, int batchSize) {
-        super(new ScoreExamplesFunctionAdapter(params, jsonConfig, addRegularizationTerms, batchSize));
+        this(params, jsonConfig, addRegularizationTerms, batchSize, null);
+    }
+
+    /**
+     * @param modelKey Key for the {@link ExecutorModelCache}, as per
+     *                 {@link ExecutorModelCache#fingerprint(String, INDArray)}. If null: don't use the cache
+     */
+    public ScoreExamplesFunction(Broadcast<INDArray> params, Broadcast<String> jsonConfig,
+                    boolean addRegularizationTerms, int batchSize, String modelKey) {
+        super(new ScoreExamplesFunctionAdapter(params, jsonConfig, addRegularizationTerms, batchSize, modelKey));
     }
 }
 
@@ -63,13 +72,15 @@ class ScoreExamplesFunctionAdapter implements FlatMapFunctionAdapter<Iterator<Da
 
     private final Broadcast<INDArray> params;
     private final Broadcast<String> jsonConfig;
+    private final String modelKey;
     private final boolean addRegularization;
     private final int batchSize;
 
     public ScoreExamplesFunctionAdapter(Broadcast<INDArray> params, Broadcast<String> jsonConfig,
-                    boolean addRegularizationTerms, int batchSize) {
+                    boolean addRegularizationTerms, int batchSize, String modelKey) {
         this.params = params;
         this.jsonConfig = jsonConfig;
+        this.modelKey = modelKey;
         this.addRegularization = addRegularizationTerms;
         this.batchSize = batchSize;
     }
@@ -81,14 +92,16 @@ class ScoreExamplesFunctionAdapter implements FlatMapFunctionAdapter<Iterator<Da
             return Collections.emptyList();
         }
 
-        MultiLayerNetwork network = new MultiLayerNetwork(MultiLayerConfiguration.fromJson(jsonConfig.getValue()));
-        network.init();
-        INDArray val = params.value().unsafeDuplication();
-        if (val.length() != network.numParams(false))
-            throw new IllegalStateException(
-                            "Network did not have same number of parameters as the broadcast set parameters");
-        network.setParameters(val);
+        ExecutorModelCache cache = ExecutorModelCache.getInstance();
+        MultiLayerNetwork network = cache.getMultiLayerNetwork(modelKey, jsonConfig, params);
+        try {
+            return scoreExamples(network, iterator);
+        } finally {
+            cache.release(modelKey, network);
+        }
+    }
 
+    private Iterable<Double> scoreExamples(MultiLayerNetwork network, Iterator<DataSet> iterator) {
         List<Double> ret = new ArrayList<>();
 
         List<DataSet> collect = new ArrayList<>(batchSize);
@@ -13,6 +13,7 @@ import org.deeplearning4j.optimize.api.IterationListener;
 import org.deeplearning4j.spark.api.*;
 import org.deeplearning4j.spark.data.BatchAndExportDataSetsFunction;
 import org.deeplearning4j.spark.data.BatchAndExportMultiDataSetsFunction;
+import org.deeplearning4j.spark.data.chunk.ChunkCompression;
 import org.deeplearning4j.spark.impl.paramavg.stats.ParameterAveragingTrainingMasterStats;
 import org.deeplearning4j.spark.impl.paramavg.util.ExportSupport;
 import org.deeplearning4j.spark.util.serde.StorageLevelDeserializer;
@@ -53,6 +54,8 @@ public abstract class BaseTrainingMaster<R extends TrainingResult, W extends Tra
     protected String lastRDDExportPath;
     protected int batchSizePerWorker;
     protected String exportDirectory = null;
+    protected int exportMinibatchesPerChunk = 0;
+    protected ChunkCompression exportChunkCompression = ChunkCompression.NONE;
     protected Random rng;
 
     protected String trainingMasterUID;
@@ -180,7 +183,8 @@ public abstract class BaseTrainingMaster<R extends TrainingResult, W extends Tra
 
         log.info("Initiating RDD<DataSet> export at {}", baseDir);
         JavaRDD<String> paths = trainingData
-                        .mapPartitionsWithIndex(new BatchAndExportDataSetsFunction(batchSizePerWorker, dataDir), true);
+                        .mapPartitionsWithIndex(new BatchAndExportDataSetsFunction(batchSizePerWorker, dataDir,
+                                        exportMinibatchesPerChunk, exportChunkCompression), true);
         paths.saveAsTextFile(pathsDir);
         log.info("RDD<DataSet> export complete at {}", baseDir);
 
@@ -22,6 +22,8 @@ import org.deeplearning4j.optimize.api.IterationListener;
 import org.deeplearning4j.spark.api.*;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
 import org.deeplearning4j.spark.api.worker.*;
+import org.deeplearning4j.spark.data.chunk.ChunkCompression;
+import org.deeplearning4j.spark.data.chunk.DataSetChunkFormat;
 import org.deeplearning4j.spark.impl.graph.SparkComputationGraph;
 import org.deeplearning4j.spark.impl.graph.dataset.DataSetToMultiDataSetFn;
 import org.deeplearning4j.spark.impl.listeners.VanillaStatsStorageRouterProvider;
@@ -29,6 +31,8 @@ import org.deeplearning4j.spark.impl.multilayer.SparkDl4jMultiLayer;
 import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingAggregationTuple;
 import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingElementAddFunction;
 import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingElementCombineFunction;
+import org.deeplearning4j.spark.impl.paramavg.delta.DeltaCompression;
+import org.deeplearning4j.spark.impl.paramavg.delta.ParameterDelta;
 import org.deeplearning4j.spark.impl.paramavg.stats.ParameterAveragingTrainingMasterStats;
 import org.deeplearning4j.spark.util.SparkUtils;
 import org.deeplearning4j.util.UIDProvider;
@@ -74,6 +78,8 @@ public class ParameterAveragingTrainingMaster
     protected int aggregationDepth;
     protected int prefetchNumBatches;
     protected int iterationCount = 0;
+    protected DeltaCompression deltaCompression = DeltaCompression.None;
+    protected double deltaThreshold;
 
     protected Collection<TrainingHook> trainingHookList;
 
@@ -100,7 +106,11 @@ public class ParameterAveragingTrainingMaster
         this.storageLevelStreams = builder.storageLevelStreams;
         this.rddTrainingApproach = builder.rddTrainingApproach;
         this.exportDirectory = builder.exportDirectory;
+        this.exportMinibatchesPerChunk = builder.exportMinibatchesPerChunk;
+        this.exportChunkCompression = builder.exportChunkCompression;
         this.trainingHookList = builder.trainingHooks;
+        this.deltaCompression = builder.deltaCompression;
+        this.deltaThreshold = builder.deltaThreshold;
 
         if (builder.rngSeed == null) {
             this.rng = new Random();
@@ -263,7 +273,7 @@ public class ParameterAveragingTrainingMaster
         WorkerConfiguration configuration = new WorkerConfiguration(false, rddDataSetNumExamples, batchSizePerWorker,
                         averagingFrequency, prefetchNumBatches, collectTrainingStats);
         return new ParameterAveragingTrainingWorker(broadcast, saveUpdater, configuration, trainingHookList, listeners,
-                        getRouterProvider());
+                        getRouterProvider(), deltaCompression, deltaThreshold);
     }
 
     @Override
@@ -280,7 +290,7 @@ public class ParameterAveragingTrainingMaster
         WorkerConfiguration configuration = new WorkerConfiguration(true, rddDataSetNumExamples, batchSizePerWorker,
                         averagingFrequency, prefetchNumBatches, collectTrainingStats);
         return new ParameterAveragingTrainingWorker(broadcast, saveUpdater, configuration, trainingHookList, listeners,
-                        getRouterProvider());
+                        getRouterProvider(), deltaCompression, deltaThreshold);
     }
 
     protected int numObjectsEachWorker(int numExamplesEachRddObject) {
@@ -801,6 +811,7 @@ public class ParameterAveragingTrainingMaster
                         results.treeAggregate(null, new ParameterAveragingElementAddFunction(),
                                         new ParameterAveragingElementCombineFunction(), this.aggregationDepth);
         INDArray params = tuple.getParametersSum();
+        INDArray updaterState = tuple.getUpdaterStateSum();
         int aggCount = tuple.getAggregationsCount();
         SparkTrainingStats aggregatedStats = tuple.getSparkTrainingStats();
         if (collectTrainingStats)
@@ -809,12 +820,30 @@ public class ParameterAveragingTrainingMaster
 
         if (collectTrainingStats)
             stats.logProcessParamsUpdaterStart();
-        if (params != null) {
+        if (tuple.getParametersDeltaSum() != null) {
+            //Workers returned deltas relative to the broadcast values, which the driver network still holds
+            INDArray currParams;
+            INDArray currUpdaterState;
+            if (network != null) {
+                currParams = network.getNetwork().params();
+                currUpdaterState = network.getNetwork().getUpdater().getStateViewArray();
+            } else {
+                currParams = graph.getNetwork().params();
+                currUpdaterState = graph.getNetwork().getUpdater().getStateViewArray();
+            }
+
+            params = ParameterDelta.apply(currParams, tuple.getParametersDeltaSum(), 1.0 / aggCount);
+            if (tuple.getUpdaterStateDeltaSum() != null && currUpdaterState != null) {
+                updaterState = ParameterDelta.apply(currUpdaterState, tuple.getUpdaterStateDeltaSum(),
+                                1.0 / aggCount);
+            }
+        } else if (params != null) {
             params.divi(aggCount);
-            INDArray updaterState = tuple.getUpdaterStateSum();
             if (updaterState != null)
                 updaterState.divi(aggCount); //May be null if all SGD updaters, for example
+        }
 
+        if (params != null) {
             if (network != null) {
                 MultiLayerNetwork net = network.getNetwork();
                 net.setParameters(params);
@@ -899,8 +928,12 @@ public class ParameterAveragingTrainingMaster
         protected StorageLevel storageLevelStreams = StorageLevel.MEMORY_ONLY();
         protected RDDTrainingApproach rddTrainingApproach = RDDTrainingApproach.Export;
         protected String exportDirectory = null;
+        protected int exportMinibatchesPerChunk = 0;
+        protected ChunkCompression exportChunkCompression = ChunkCompression.NONE;
         protected Long rngSeed;
         protected Collection<TrainingHook> trainingHooks;
+        protected DeltaCompression deltaCompression = DeltaCompression.None;
+        protected double deltaThreshold = 1e-3;
 
 
         /**
@@ -1116,6 +1149,26 @@ public class ParameterAveragingTrainingMaster
             return this;
         }
 
+        /**
+         * When {@link #rddTrainingApproach(RDDTrainingApproach)} is set to {@link RDDTrainingApproach#Export} (as it is by
+         * default) for {@code RDD<DataSet>} data, pack multiple minibatches into each exported file (see
+         * {@link DataSetChunkFormat}), instead of exporting one file per minibatch. This substantially reduces the number
+         * of files (and hence file system overhead); workers read the minibatches they need directly from the chunk
+         * files, memory mapped for local files. Combine with {@link #workerPrefetchNumBatches(int)} to load the next
+         * minibatches while training on the current one.<br>
+         * Default: 0 (one file per minibatch)
+         *
+         * @param minibatchesPerChunk Maximum number of minibatches in each exported file. 0: one file per minibatch
+         * @param compression         Compression to use for each minibatch in the exported files
+         */
+        public Builder exportChunking(int minibatchesPerChunk, ChunkCompression compression) {
+            checkArgument(minibatchesPerChunk >= 0,
+                            "Invalid input: minibatches per chunk must be >= 0. Got: " + minibatchesPerChunk);
+            this.exportMinibatchesPerChunk = minibatchesPerChunk;
+            this.exportChunkCompression = compression;
+            return this;
+        }
+
         /**
          * Random number generator seed, used mainly for enforcing repeatable splitting on RDDs
          * Default: no seed set (i.e., random seed)
@@ -1128,6 +1181,35 @@ public class ParameterAveragingTrainingMaster
             return this;
         }
 
+        /**
+         * Set the compression to use for the parameter and updater state updates returned by each worker.
+         * With compression enabled, workers return the change since the last broadcast rather than their full
+         * parameters and updater state, and these (compressed) deltas are summed during tree aggregation, which
+         * reduces the network traffic and memory use on the driver. See {@link DeltaCompression} for details.<br>
+         * Default: {@link DeltaCompression#None}
+         *
+         * @param deltaCompression Compression to use for worker updates
+         */
+        public Builder deltaCompression(DeltaCompression deltaCompression) {
+            this.deltaCompression = deltaCompression;
+            return this;
+        }
+
+        /**
+         * Set the compression to use for worker updates, as per {@link #deltaCompression(DeltaCompression)}, with
+         * the specified threshold. The threshold is only used with {@link DeltaCompression#Threshold}: changes with
+         * an absolute value smaller than this are not sent.
+         *
+         * @param deltaCompression Compression to use for worker updates
+         * @param threshold        Threshold for {@link DeltaCompression#Threshold}
+         */
+        public Builder deltaCompression(DeltaCompression deltaCompression, double threshold) {
+            checkArgument(threshold >= 0, "Invalid input: delta threshold must be >= 0. Got: " + threshold);
+            this.deltaCompression = deltaCompression;
+            this.deltaThreshold = threshold;
+            return this;
+        }
+
         public ParameterAveragingTrainingMaster build() {
             return new ParameterAveragingTrainingMaster(this);
         }
@@ -5,13 +5,16 @@ import org.deeplearning4j.api.storage.Persistable;
 import org.deeplearning4j.api.storage.StorageMetaData;
 import org.deeplearning4j.spark.api.TrainingResult;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
+import org.deeplearning4j.spark.impl.paramavg.delta.ParameterDelta;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
 import java.util.Collection;
 
 /**
  * The results (parameters, optional updaters) returned by a {@link ParameterAveragingTrainingWorker} to the
- * {@link ParameterAveragingTrainingMaster}
+ * {@link ParameterAveragingTrainingMaster}<br>
+ * When delta compression is enabled, the parameters and updater state are null, and the (compressed) changes
+ * since the last broadcast are returned via {@link #getParametersDelta()} and {@link #getUpdaterStateDelta()} instead
  *
  * @author Alex Black
  */
@@ -23,6 +26,9 @@ public class ParameterAveragingTrainingResult implements TrainingResult {
     private final double score;
     private SparkTrainingStats sparkTrainingStats;
 
+    private final ParameterDelta parametersDelta;
+    private final ParameterDelta updaterStateDelta;
+
     private final Collection<StorageMetaData> listenerMetaData;
     private final Collection<Persistable> listenerStaticInfo;
     private final Collection<Persistable> listenerUpdates;
@@ -37,8 +43,25 @@ public class ParameterAveragingTrainingResult implements TrainingResult {
     public ParameterAveragingTrainingResult(INDArray parameters, INDArray updaterState, double score,
                     SparkTrainingStats sparkTrainingStats, Collection<StorageMetaData> listenerMetaData,
                     Collection<Persistable> listenerStaticInfo, Collection<Persistable> listenerUpdates) {
+        this(parameters, updaterState, null, null, score, sparkTrainingStats, listenerMetaData, listenerStaticInfo,
+                        listenerUpdates);
+    }
+
+    public ParameterAveragingTrainingResult(ParameterDelta parametersDelta, ParameterDelta updaterStateDelta,
+                    double score, Collection<StorageMetaData> listenerMetaData,
+                    Collection<Persistable> listenerStaticInfo, Collection<Persistable> listenerUpdates) {
+        this(null, null, parametersDelta, updaterStateDelta, score, null, listenerMetaData, listenerStaticInfo,
+                        listenerUpdates);
+    }
+
+    private ParameterAveragingTrainingResult(INDArray parameters, INDArray updaterState,
+                    ParameterDelta parametersDelta, ParameterDelta updaterStateDelta, double score,
+                    SparkTrainingStats sparkTrainingStats, Collection<StorageMetaData> listenerMetaData,
+                    Collection<Persistable> listenerStaticInfo, Collection<Persistable> listenerUpdates) {
         this.parameters = parameters;
         this.updaterState = updaterState;
+        this.parametersDelta = parametersDelta;
+        this.updaterStateDelta = updaterStateDelta;
         this.score = score;
         this.sparkTrainingStats = sparkTrainingStats;
 
@@ -19,6 +19,8 @@ import org.deeplearning4j.spark.api.WorkerConfiguration;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
 import org.deeplearning4j.spark.api.worker.NetBroadcastTuple;
 import org.deeplearning4j.spark.impl.listeners.VanillaStatsStorageRouter;
+import org.deeplearning4j.spark.impl.paramavg.delta.DeltaCompression;
+import org.deeplearning4j.spark.impl.paramavg.delta.ParameterDelta;
 import org.deeplearning4j.spark.impl.paramavg.stats.ParameterAveragingTrainingWorkerStats;
 import org.deeplearning4j.util.UIDProvider;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -47,10 +49,25 @@ public class ParameterAveragingTrainingWorker extends BaseTrainingWorker<Paramet
     private ParameterAveragingTrainingWorkerStats.ParameterAveragingTrainingWorkerStatsHelper stats = null;
     private Collection<IterationListener> iterationListeners;
     private StatsStorageRouterProvider listenerRouterProvider;
+    private final DeltaCompression deltaCompression;
+    private final double deltaThreshold;
 
     public ParameterAveragingTrainingWorker(Broadcast<NetBroadcastTuple> broadcast, boolean saveUpdater,
                     WorkerConfiguration configuration, Collection<TrainingHook> trainingHooks,
                     Collection<IterationListener> listeners, StatsStorageRouterProvider routerProvider) {
+        this(broadcast, saveUpdater, configuration, trainingHooks, listeners, routerProvider, DeltaCompression.None,
+                        0.0);
+    }
+
+    /**
+     * @param deltaCompression If not {@link DeltaCompression#None}: return the (compressed) change in parameters and
+     *                         updater state since the broadcast, instead of the full parameters and updater state
+     * @param deltaThreshold   Threshold used for {@link DeltaCompression#Threshold}
+     */
+    public ParameterAveragingTrainingWorker(Broadcast<NetBroadcastTuple> broadcast, boolean saveUpdater,
+                    WorkerConfiguration configuration, Collection<TrainingHook> trainingHooks,
+                    Collection<IterationListener> listeners, StatsStorageRouterProvider routerProvider,
+                    DeltaCompression deltaCompression, double deltaThreshold) {
 
         this.broadcast = broadcast;
         this.saveUpdater = saveUpdater;
@@ -58,6 +75,8 @@ public class ParameterAveragingTrainingWorker extends BaseTrainingWorker<Paramet
         this.trainingHooks = trainingHooks;
         this.iterationListeners = listeners;
         this.listenerRouterProvider = routerProvider;
+        this.deltaCompression = (deltaCompression == null ? DeltaCompression.None : deltaCompression);
+        this.deltaThreshold = deltaThreshold;
     }
 
     /**
@@ -274,20 +293,7 @@ public class ParameterAveragingTrainingWorker extends BaseTrainingWorker<Paramet
 
         Nd4j.getExecutioner().commit();
 
-        Collection<StorageMetaData> storageMetaData = null;
-        Collection<Persistable> listenerStaticInfo = null;
-        Collection<Persistable> listenerUpdates = null;
-        if (listenerRouterProvider != null) {
-            StatsStorageRouter r = listenerRouterProvider.getRouter();
-            if (r instanceof VanillaStatsStorageRouter) { //TODO this is ugly... need to find a better solution
-                VanillaStatsStorageRouter ssr = (VanillaStatsStorageRouter) r;
-                storageMetaData = ssr.getStorageMetaData();
-                listenerStaticInfo = ssr.getStaticInfo();
-                listenerUpdates = ssr.getUpdates();
-            }
-        }
-        return new ParameterAveragingTrainingResult(network.params(), updaterState, network.score(), storageMetaData,
-                        listenerStaticInfo, listenerUpdates);
+        return createResult(network.params(), updaterState, network.score());
     }
 
     @Override
@@ -301,6 +307,13 @@ public class ParameterAveragingTrainingWorker extends BaseTrainingWorker<Paramet
 
         Nd4j.getExecutioner().commit();
 
+        return createResult(network.params(), updaterState, network.score());
+    }
+
+    protected ParameterAveragingTrainingResult createResult(INDArray params, INDArray updaterState, double score) {
+        if (configuration.isCollectTrainingStats())
+            stats.logResultStart();
+
         Collection<StorageMetaData> storageMetaData = null;
         Collection<Persistable> listenerStaticInfo = null;
         Collection<Persistable> listenerUpdates = null;
@@ -314,8 +327,28 @@ public class ParameterAveragingTrainingWorker extends BaseTrainingWorker<Paramet
             }
         }
 
-        return new ParameterAveragingTrainingResult(network.params(), updaterState, network.score(), storageMetaData,
-                        listenerStaticInfo, listenerUpdates);
+        ParameterAveragingTrainingResult result;
+        if (deltaCompression == DeltaCompression.None) {
+            result = new ParameterAveragingTrainingResult(params, updaterState, score, storageMetaData,
+                            listenerStaticInfo, listenerUpdates);
+        } else {
+            //Encode changes relative to the broadcast values. Master applies the averaged delta to the same values
+            NetBroadcastTuple tuple = broadcast.getValue();
+            ParameterDelta paramsDelta =
+                            ParameterDelta.encode(params, tuple.getParameters(), deltaCompression, deltaThreshold);
+            ParameterDelta updaterDelta = null;
+            if (updaterState != null && tuple.getUpdaterState() != null) {
+                updaterDelta = ParameterDelta.encode(updaterState, tuple.getUpdaterState(), deltaCompression,
+                                deltaThreshold);
+            }
+            result = new ParameterAveragingTrainingResult(paramsDelta, updaterDelta, score, storageMetaData,
+                            listenerStaticInfo, listenerUpdates);
+        }
+
+        if (configuration.isCollectTrainingStats())
+            stats.logResultEnd();
+
+        return result;
     }
 
     @Override
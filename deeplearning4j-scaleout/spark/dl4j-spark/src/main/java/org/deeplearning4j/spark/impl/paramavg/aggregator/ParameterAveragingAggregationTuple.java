@@ -6,6 +6,7 @@ import lombok.Data;
 import org.deeplearning4j.api.storage.Persistable;
 import org.deeplearning4j.api.storage.StorageMetaData;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
+import org.deeplearning4j.spark.impl.paramavg.delta.ParameterDelta;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
 import java.io.Serializable;
@@ -28,4 +29,6 @@ public class ParameterAveragingAggregationTuple implements Serializable {
     private final Collection<StorageMetaData> listenerMetaData;
     private final Collection<Persistable> listenerStaticInfo;
     private final Collection<Persistable> listenerUpdates;
+    private final ParameterDelta parametersDeltaSum;
+    private final ParameterDelta updaterStateDeltaSum;
 }
@@ -5,6 +5,7 @@ import org.deeplearning4j.api.storage.Persistable;
 import org.deeplearning4j.api.storage.StorageMetaData;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
 import org.deeplearning4j.spark.impl.paramavg.ParameterAveragingTrainingResult;
+import org.deeplearning4j.spark.impl.paramavg.delta.ParameterDelta;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
@@ -27,10 +28,19 @@ public class ParameterAveragingElementAddFunction implements
                             .sparkTrainingStats(result.getSparkTrainingStats())
                             .listenerMetaData(result.getListenerMetaData())
                             .listenerStaticInfo(result.getListenerStaticInfo())
-                            .listenerUpdates(result.getListenerUpdates()).build();
+                            .listenerUpdates(result.getListenerUpdates())
+                            .parametersDeltaSum(result.getParametersDelta())
+                            .updaterStateDeltaSum(result.getUpdaterStateDelta()).build();
         }
 
-        INDArray params = tuple.getParametersSum().addi(result.getParameters());
+        //Results with no data (no parameters or deltas) should not contribute to the average
+        boolean hasContent = result.getParameters() != null || result.getParametersDelta() != null;
+
+        INDArray params = tuple.getParametersSum();
+        if (params == null)
+            params = result.getParameters();
+        else if (result.getParameters() != null)
+            params.addi(result.getParameters());
         INDArray updaterStateSum;
         if (tuple.getUpdaterStateSum() == null) {
             updaterStateSum = result.getUpdaterState();
@@ -40,6 +50,11 @@ public class ParameterAveragingElementAddFunction implements
                 updaterStateSum.addi(result.getUpdaterState());
         }
 
+        //Compressed deltas (if enabled) are summed without decompressing to full arrays where possible
+        ParameterDelta paramsDeltaSum = ParameterDelta.sum(tuple.getParametersDeltaSum(), result.getParametersDelta());
+        ParameterDelta updaterDeltaSum =
+                        ParameterDelta.sum(tuple.getUpdaterStateDeltaSum(), result.getUpdaterStateDelta());
+
         double scoreSum = tuple.getScoreSum() + result.getScore();
         SparkTrainingStats stats = tuple.getSparkTrainingStats();
         if (result.getSparkTrainingStats() != null) {
@@ -81,6 +96,7 @@ public class ParameterAveragingElementAddFunction implements
 
 
         return new ParameterAveragingAggregationTuple(params, updaterStateSum, scoreSum,
-                        tuple.getAggregationsCount() + 1, stats, listenerMetaData, listenerStaticInfo, listenerUpdates);
+                        tuple.getAggregationsCount() + (hasContent ? 1 : 0), stats, listenerMetaData, listenerStaticInfo, listenerUpdates,
+                        paramsDeltaSum, updaterDeltaSum);
     }
 }
@@ -4,6 +4,7 @@ import org.apache.spark.api.java.function.Function2;
 import org.deeplearning4j.api.storage.Persistable;
 import org.deeplearning4j.api.storage.StorageMetaData;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
+import org.deeplearning4j.spark.impl.paramavg.delta.ParameterDelta;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
@@ -25,12 +26,16 @@ public class ParameterAveragingElementCombineFunction implements
             return v1;
 
         //Handle edge case of less data than executors: in this case, one (or both) of v1 and v2 might not have any contents...
-        if (v1.getParametersSum() == null)
+        if (v1.getParametersSum() == null && v1.getParametersDeltaSum() == null)
             return v2;
-        else if (v2.getParametersSum() == null)
+        else if (v2.getParametersSum() == null && v2.getParametersDeltaSum() == null)
             return v1;
 
-        INDArray newParams = v1.getParametersSum().addi(v2.getParametersSum());
+        INDArray newParams = v1.getParametersSum();
+        if (newParams == null)
+            newParams = v2.getParametersSum();
+        else if (v2.getParametersSum() != null)
+            newParams.addi(v2.getParametersSum());
         INDArray updaterStateSum;
         if (v1.getUpdaterStateSum() == null) {
             updaterStateSum = v2.getUpdaterStateSum();
@@ -40,6 +45,9 @@ public class ParameterAveragingElementCombineFunction implements
                 updaterStateSum.addi(v2.getUpdaterStateSum());
         }
 
+        ParameterDelta paramsDeltaSum = ParameterDelta.sum(v1.getParametersDeltaSum(), v2.getParametersDeltaSum());
+        ParameterDelta updaterDeltaSum =
+                        ParameterDelta.sum(v1.getUpdaterStateDeltaSum(), v2.getUpdaterStateDeltaSum());
 
         double scoreSum = v1.getScoreSum() + v2.getScoreSum();
         int aggregationCount = v1.getAggregationsCount() + v2.getAggregationsCount();
@@ -82,6 +90,6 @@ public class ParameterAveragingElementCombineFunction implements
         }
 
         return new ParameterAveragingAggregationTuple(newParams, updaterStateSum, scoreSum, aggregationCount, stats,
-                        listenerMetaData, listenerStaticInfo, listenerUpdates);
+                        listenerMetaData, listenerStaticInfo, listenerUpdates, paramsDeltaSum, updaterDeltaSum);
     }
 }
@@ -0,0 +1,15 @@
+package org.deeplearning4j.spark.impl.paramavg.delta;
+
+/**
+ * Compression to use for parameter (and updater state) deltas returned by workers when doing parameter averaging.
+ *
+ * <b>None</b>: workers return full dense parameter arrays (default, standard parameter averaging)<br>
+ * <b>Fp16</b>: workers return the change in parameters since the last broadcast, in half precision. Roughly halves
+ * the network traffic compared to single precision, with a relative error of about 1e-3 on the averaged update<br>
+ * <b>Threshold</b>: workers return only the elements of the delta with an absolute value at or above the configured
+ * threshold, as sparse (index, value) pairs. Smaller changes are dropped (this is lossy: there is no residual
+ * carried over between averaging rounds), so the threshold should be small relative to the typical update size
+ */
+public enum DeltaCompression {
+    None, Fp16, Threshold
+}
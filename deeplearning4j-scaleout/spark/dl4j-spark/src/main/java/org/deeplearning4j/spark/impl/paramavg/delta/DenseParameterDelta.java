@@ -0,0 +1,38 @@
+package org.deeplearning4j.spark.impl.paramavg.delta;
+
+/**
+ * Uncompressed (single precision) parameter delta. Used as the result of merging deltas that can't be merged
+ * in their compressed form.
+ */
+public class DenseParameterDelta extends ParameterDelta {
+
+    private final float[] values;
+
+    public DenseParameterDelta(float[] values) {
+        this.values = values;
+    }
+
+    @Override
+    public int length() {
+        return values.length;
+    }
+
+    @Override
+    public void addTo(float[] target, float scale) {
+        for (int i = 0; i < values.length; i++) {
+            target[i] += scale * values[i];
+        }
+    }
+
+    @Override
+    public ParameterDelta merge(ParameterDelta other) {
+        checkLength(this, other);
+        other.addTo(values, 1.0f);
+        return this;
+    }
+
+    @Override
+    public long sizeInBytes() {
+        return 4L * values.length;
+    }
+}
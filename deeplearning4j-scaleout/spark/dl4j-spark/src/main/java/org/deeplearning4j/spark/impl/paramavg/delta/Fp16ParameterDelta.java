@@ -0,0 +1,120 @@
+package org.deeplearning4j.spark.impl.paramavg.delta;
+
+/**
+ * Dense parameter delta, stored in IEEE 754 half precision (2 bytes per value).
+ * Values are rounded to nearest; values outside of the half precision range are clamped to +/- 65504.<br>
+ * Half precision is used only for encoding each worker's delta: merging returns a single precision
+ * {@link DenseParameterDelta}, and all subsequent merges are done in single precision.
+ */
+public class Fp16ParameterDelta extends ParameterDelta {
+
+    private final short[] values;
+
+    public Fp16ParameterDelta(short[] values) {
+        this.values = values;
+    }
+
+    public static Fp16ParameterDelta fromDense(float[] delta) {
+        short[] values = new short[delta.length];
+        for (int i = 0; i < delta.length; i++) {
+            values[i] = toHalf(delta[i]);
+        }
+        return new Fp16ParameterDelta(values);
+    }
+
+    @Override
+    public int length() {
+        return values.length;
+    }
+
+    @Override
+    public void addTo(float[] target, float scale) {
+        for (int i = 0; i < values.length; i++) {
+            target[i] += scale * toFloat(values[i]);
+        }
+    }
+
+    @Override
+    public ParameterDelta merge(ParameterDelta other) {
+        checkLength(this, other);
+        //Always sum in single precision: summing in half precision would compound rounding errors with each merge
+        // (i.e., with tree depth), and overflow once many workers' deltas are summed
+        float[] sum = new float[values.length];
+        addTo(sum, 1.0f);
+        other.addTo(sum, 1.0f);
+        return new DenseParameterDelta(sum);
+    }
+
+    @Override
+    public long sizeInBytes() {
+        return 2L * values.length;
+    }
+
+    /**
+     * Convert a single precision value to half precision bits, with round-to-nearest-even
+     */
+    public static short toHalf(float value) {
+        int bits = Float.floatToIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exp = (bits >>> 23) & 0xff;
+        int mantissa = bits & 0x7fffff;
+
+        if (exp == 0xff) {
+            //NaN or infinity
+            return (short) (sign | 0x7c00 | (mantissa != 0 ? 0x200 : 0));
+        }
+
+        int halfExp = exp - 127 + 15;
+        if (halfExp >= 0x1f) {
+            //Overflow: clamp to max finite value
+            return (short) (sign | 0x7bff);
+        }
+
+        if (halfExp <= 0) {
+            //Subnormal half, or underflow to zero
+            if (halfExp < -10)
+                return (short) sign;
+            mantissa |= 0x800000;
+            int shift = 14 - halfExp;
+            int halfMantissa = mantissa >> shift;
+            int roundBit = 1 << (shift - 1);
+            if ((mantissa & roundBit) != 0 && ((mantissa & ((roundBit << 1) | (roundBit - 1))) != 0))
+                halfMantissa++;
+            return (short) (sign | halfMantissa);
+        }
+
+        int result = sign | (halfExp << 10) | (mantissa >> 13);
+        //Round to nearest even; a carry into the exponent is correct (rounds up to the next power of two)
+        if ((mantissa & 0x1000) != 0 && (mantissa & 0x2fff) != 0)
+            result++;
+        if ((result & 0x7fff) >= 0x7c00)
+            result = sign | 0x7bff;
+        return (short) result;
+    }
+
+    /**
+     * Convert half precision bits to a single precision value
+     */
+    public static float toFloat(short half) {
+        int h = half & 0xffff;
+        int sign = (h & 0x8000) << 16;
+        int exp = (h >>> 10) & 0x1f;
+        int mantissa = h & 0x3ff;
+
+        if (exp == 0) {
+            if (mantissa == 0)
+                return Float.intBitsToFloat(sign);
+            //Subnormal: normalize
+            while ((mantissa & 0x400) == 0) {
+                mantissa <<= 1;
+                exp--;
+            }
+            exp++;
+            mantissa &= 0x3ff;
+        } else if (exp == 0x1f) {
+            return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+        }
+
+        return Float.intBitsToFloat(sign | ((exp + 127 - 15) << 23) | (mantissa << 13));
+    }
+}
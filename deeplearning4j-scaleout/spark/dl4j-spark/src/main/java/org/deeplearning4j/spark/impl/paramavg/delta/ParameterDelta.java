@@ -0,0 +1,101 @@
+package org.deeplearning4j.spark.impl.paramavg.delta;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.Serializable;
+
+/**
+ * A (possibly compressed) change in a flattened parameter or updater state array, relative to the last broadcast.
+ * Deltas from multiple workers can be merged (summed) without first decompressing them to full dense arrays on the
+ * driver, which is what allows tree aggregation to move compressed data only.
+ */
+public abstract class ParameterDelta implements Serializable {
+
+    /**
+     * @return Length of the (uncompressed) array this delta applies to
+     */
+    public abstract int length();
+
+    /**
+     * Add this delta, multiplied by the given scale, to the target array
+     *
+     * @param target Dense array to add to. Must have exactly {@link #length()} elements
+     * @param scale  Scale for the delta values
+     */
+    public abstract void addTo(float[] target, float scale);
+
+    /**
+     * Sum this delta with another one. Either delta may be modified and/or returned
+     *
+     * @param other Delta to add
+     * @return Sum of both deltas
+     */
+    public abstract ParameterDelta merge(ParameterDelta other);
+
+    /**
+     * @return Approximate serialized size of the delta values, in bytes
+     */
+    public abstract long sizeInBytes();
+
+    /**
+     * Encode the difference (current - original) using the specified compression
+     *
+     * @param current     Current (trained) array
+     * @param original    Original (broadcast) array
+     * @param compression Compression to use. Must not be {@link DeltaCompression#None}
+     * @param threshold   Threshold for {@link DeltaCompression#Threshold}; ignored otherwise
+     */
+    public static ParameterDelta encode(INDArray current, INDArray original, DeltaCompression compression,
+                    double threshold) {
+        if (current.length() != original.length())
+            throw new IllegalArgumentException("Cannot encode delta: arrays have different lengths ("
+                            + current.length() + " vs. " + original.length() + ")");
+
+        float[] delta = current.data().asFloat();
+        float[] orig = original.data().asFloat();
+        for (int i = 0; i < delta.length; i++) {
+            delta[i] -= orig[i];
+        }
+
+        switch (compression) {
+            case Fp16:
+                return Fp16ParameterDelta.fromDense(delta);
+            case Threshold:
+                return SparseParameterDelta.fromDense(delta, (float) threshold);
+            default:
+                throw new IllegalArgumentException("Cannot encode delta with compression " + compression);
+        }
+    }
+
+    /**
+     * Apply the (summed) delta to the original array: original + delta * scale
+     *
+     * @param original Original (broadcast) array. Not modified
+     * @param delta    Delta to apply
+     * @param scale    Scale for the delta values; usually 1.0 / number of aggregated deltas
+     * @return New array, with the same shape as the original
+     */
+    public static INDArray apply(INDArray original, ParameterDelta delta, double scale) {
+        float[] values = new float[delta.length()];
+        delta.addTo(values, (float) scale);
+        return original.add(Nd4j.create(values, original.shape(), original.ordering()));
+    }
+
+    /**
+     * Null-safe sum of two deltas: returns the other delta if either is null
+     */
+    public static ParameterDelta sum(ParameterDelta first, ParameterDelta second) {
+        if (first == null)
+            return second;
+        if (second == null)
+            return first;
+        return first.merge(second);
+    }
+
+    protected static void checkLength(ParameterDelta first, ParameterDelta second) {
+        if (first.length() != second.length())
+            throw new IllegalArgumentException("Cannot merge deltas with different lengths: " + first.length()
+                            + " vs. " + second.length());
+    }
+}
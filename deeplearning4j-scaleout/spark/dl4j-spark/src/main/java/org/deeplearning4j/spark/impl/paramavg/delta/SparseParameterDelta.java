@@ -0,0 +1,121 @@
+package org.deeplearning4j.spark.impl.paramavg.delta;
+
+/**
+ * Sparse parameter delta: only values with absolute value greater than or equal to the threshold are kept, as
+ * (sorted index, value) pairs. Values below the threshold are dropped.<br>
+ * Merging two sparse deltas yields a sparse delta with the union of their indices; once this becomes dense enough
+ * that the sparse encoding is no longer smaller, the merged delta is converted to a {@link DenseParameterDelta}.
+ */
+public class SparseParameterDelta extends ParameterDelta {
+
+    private final int length;
+    private final int[] indices;
+    private final float[] values;
+
+    public SparseParameterDelta(int length, int[] indices, float[] values) {
+        if (indices.length != values.length)
+            throw new IllegalArgumentException("Indices and values must have the same length: " + indices.length
+                            + " vs. " + values.length);
+        this.length = length;
+        this.indices = indices;
+        this.values = values;
+    }
+
+    public static SparseParameterDelta fromDense(float[] delta, float threshold) {
+        int count = 0;
+        for (float f : delta) {
+            if (Math.abs(f) >= threshold && f != 0.0f)
+                count++;
+        }
+
+        int[] indices = new int[count];
+        float[] values = new float[count];
+        int j = 0;
+        for (int i = 0; i < delta.length; i++) {
+            float f = delta[i];
+            if (Math.abs(f) >= threshold && f != 0.0f) {
+                indices[j] = i;
+                values[j++] = f;
+            }
+        }
+        return new SparseParameterDelta(delta.length, indices, values);
+    }
+
+    /**
+     * @return Number of non-zero values stored in this delta
+     */
+    public int numNonZero() {
+        return indices.length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public void addTo(float[] target, float scale) {
+        for (int i = 0; i < indices.length; i++) {
+            target[indices[i]] += scale * values[i];
+        }
+    }
+
+    @Override
+    public ParameterDelta merge(ParameterDelta other) {
+        checkLength(this, other);
+        if (!(other instanceof SparseParameterDelta)) {
+            return toDense().merge(other);
+        }
+
+        SparseParameterDelta o = (SparseParameterDelta) other;
+        int[] outIdx = new int[indices.length + o.indices.length];
+        float[] outVal = new float[outIdx.length];
+        int i = 0, j = 0, k = 0;
+        while (i < indices.length && j < o.indices.length) {
+            if (indices[i] < o.indices[j]) {
+                outIdx[k] = indices[i];
+                outVal[k++] = values[i++];
+            } else if (indices[i] > o.indices[j]) {
+                outIdx[k] = o.indices[j];
+                outVal[k++] = o.values[j++];
+            } else {
+                outIdx[k] = indices[i];
+                outVal[k++] = values[i++] + o.values[j++];
+            }
+        }
+        while (i < indices.length) {
+            outIdx[k] = indices[i];
+            outVal[k++] = values[i++];
+        }
+        while (j < o.indices.length) {
+            outIdx[k] = o.indices[j];
+            outVal[k++] = o.values[j++];
+        }
+
+        //Sparse encoding uses 8 bytes per value vs. 4 for dense
+        if (2L * k >= length) {
+            float[] dense = new float[length];
+            for (int x = 0; x < k; x++) {
+                dense[outIdx[x]] = outVal[x];
+            }
+            return new DenseParameterDelta(dense);
+        }
+
+        int[] finalIdx = new int[k];
+        float[] finalVal = new float[k];
+        System.arraycopy(outIdx, 0, finalIdx, 0, k);
+        System.arraycopy(outVal, 0, finalVal, 0, k);
+        return new SparseParameterDelta(length, finalIdx, finalVal);
+    }
+
+    private DenseParameterDelta toDense() {
+        float[] dense = new float[length];
+        addTo(dense, 1.0f);
+        return new DenseParameterDelta(dense);
+    }
+
+    @Override
+    public long sizeInBytes() {
+        return 8L * indices.length;
+    }
+}
@@ -26,25 +26,38 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
     public static final String FILENAME_BROADCAST_GET_STATS = "parameterAveragingWorkerBroadcastGetValueTimeMs.txt";
     public static final String FILENAME_INIT_STATS = "parameterAveragingWorkerInitTimeMs.txt";
     public static final String FILENAME_FIT_STATS = "parameterAveragingWorkerFitTimesMs.txt";
+    public static final String FILENAME_RESULT_STATS = "parameterAveragingWorkerResultTimesMs.txt";
 
     private List<EventStats> parameterAveragingWorkerBroadcastGetValueTimeMs;
     private List<EventStats> parameterAveragingWorkerInitTimeMs;
     private List<EventStats> parameterAveragingWorkerFitTimesMs;
+    private List<EventStats> parameterAveragingWorkerResultTimesMs;
 
     public static final String PARAMETER_AVERAGING_WORKER_BROADCAST_GET_VALUE_TIME_MS =
                     "ParameterAveragingWorkerBroadcastGetValueTimeMs";
     public static final String PARAMETER_AVERAGING_WORKER_INIT_TIME_MS = "ParameterAveragingWorkerInitTimeMs";
     public static final String PARAMETER_AVERAGING_WORKER_FIT_TIMES_MS = "ParameterAveragingWorkerFitTimesMs";
+    public static final String PARAMETER_AVERAGING_WORKER_RESULT_TIMES_MS = "ParameterAveragingWorkerResultTimesMs";
     private static Set<String> columnNames = Collections.unmodifiableSet(
                     new LinkedHashSet<>(Arrays.asList(PARAMETER_AVERAGING_WORKER_BROADCAST_GET_VALUE_TIME_MS,
-                                    PARAMETER_AVERAGING_WORKER_INIT_TIME_MS, PARAMETER_AVERAGING_WORKER_FIT_TIMES_MS)));
+                                    PARAMETER_AVERAGING_WORKER_INIT_TIME_MS, PARAMETER_AVERAGING_WORKER_FIT_TIMES_MS,
+                                    PARAMETER_AVERAGING_WORKER_RESULT_TIMES_MS)));
 
     public ParameterAveragingTrainingWorkerStats(List<EventStats> parameterAveragingWorkerBroadcastGetValueTimeMs,
                     List<EventStats> parameterAveragingWorkerInitTimeMs,
                     List<EventStats> parameterAveragingWorkerFitTimesMs) {
+        this(parameterAveragingWorkerBroadcastGetValueTimeMs, parameterAveragingWorkerInitTimeMs,
+                        parameterAveragingWorkerFitTimesMs, new ArrayList<EventStats>());
+    }
+
+    public ParameterAveragingTrainingWorkerStats(List<EventStats> parameterAveragingWorkerBroadcastGetValueTimeMs,
+                    List<EventStats> parameterAveragingWorkerInitTimeMs,
+                    List<EventStats> parameterAveragingWorkerFitTimesMs,
+                    List<EventStats> parameterAveragingWorkerResultTimesMs) {
         this.parameterAveragingWorkerBroadcastGetValueTimeMs = parameterAveragingWorkerBroadcastGetValueTimeMs;
         this.parameterAveragingWorkerInitTimeMs = parameterAveragingWorkerInitTimeMs;
         this.parameterAveragingWorkerFitTimesMs = parameterAveragingWorkerFitTimesMs;
+        this.parameterAveragingWorkerResultTimesMs = parameterAveragingWorkerResultTimesMs;
     }
 
     @Override
@@ -61,6 +74,8 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
                 return parameterAveragingWorkerInitTimeMs;
             case PARAMETER_AVERAGING_WORKER_FIT_TIMES_MS:
                 return parameterAveragingWorkerFitTimesMs;
+            case PARAMETER_AVERAGING_WORKER_RESULT_TIMES_MS:
+                return parameterAveragingWorkerResultTimesMs;
             default:
                 throw new IllegalArgumentException("Unknown key: \"" + key + "\"");
         }
@@ -75,6 +90,8 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
                 return "ModelInit";
             case PARAMETER_AVERAGING_WORKER_FIT_TIMES_MS:
                 return "Fit";
+            case PARAMETER_AVERAGING_WORKER_RESULT_TIMES_MS:
+                return "Result";
             default:
                 throw new IllegalArgumentException("Unknown key: \"" + key + "\"");
         }
@@ -86,6 +103,7 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
             case PARAMETER_AVERAGING_WORKER_BROADCAST_GET_VALUE_TIME_MS:
             case PARAMETER_AVERAGING_WORKER_INIT_TIME_MS:
             case PARAMETER_AVERAGING_WORKER_FIT_TIMES_MS:
+            case PARAMETER_AVERAGING_WORKER_RESULT_TIMES_MS:
                 return true;
             default:
                 throw new IllegalArgumentException("Unknown key: \"" + key + "\"");
@@ -103,6 +121,7 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
         this.parameterAveragingWorkerBroadcastGetValueTimeMs.addAll(o.parameterAveragingWorkerBroadcastGetValueTimeMs);
         this.parameterAveragingWorkerInitTimeMs.addAll(o.parameterAveragingWorkerInitTimeMs);
         this.parameterAveragingWorkerFitTimesMs.addAll(o.parameterAveragingWorkerFitTimesMs);
+        this.parameterAveragingWorkerResultTimesMs.addAll(o.parameterAveragingWorkerResultTimesMs);
     }
 
     @Override
@@ -134,6 +153,12 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
         else
             sb.append(StatsUtils.getDurationAsString(parameterAveragingWorkerFitTimesMs, ",")).append("\n");
 
+        sb.append(String.format(f, PARAMETER_AVERAGING_WORKER_RESULT_TIMES_MS));
+        if (parameterAveragingWorkerResultTimesMs == null)
+            sb.append("-\n");
+        else
+            sb.append(StatsUtils.getDurationAsString(parameterAveragingWorkerResultTimesMs, ",")).append("\n");
+
         return sb.toString();
     }
 
@@ -150,6 +175,9 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
 
         //Network fit time:
         StatsUtils.exportStats(parameterAveragingWorkerFitTimesMs, outputPath, FILENAME_FIT_STATS, d, sc);
+
+        //Result preparation time (including delta encoding, if enabled):
+        StatsUtils.exportStats(parameterAveragingWorkerResultTimesMs, outputPath, FILENAME_RESULT_STATS, d, sc);
     }
 
     public static class ParameterAveragingTrainingWorkerStatsHelper {
@@ -157,6 +185,8 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
         private long broadcastEndTime;
         private long initEndTime;
         private long lastFitStartTime;
+        private long resultStartTime;
+        private long resultEndTime;
         //TODO replace with fast int collection (no boxing)
         private List<EventStats> fitTimes = new ArrayList<>();
 
@@ -184,6 +214,14 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
             fitTimes.add(new ExampleCountEventStats(lastFitStartTime, now - lastFitStartTime, numExamples));
         }
 
+        public void logResultStart() {
+            resultStartTime = timeSource.currentTimeMillis();
+        }
+
+        public void logResultEnd() {
+            resultEndTime = timeSource.currentTimeMillis();
+        }
+
         public ParameterAveragingTrainingWorkerStats build() {
             //Using ArrayList not Collections.singletonList() etc so we can add to them later (during merging)
             List<EventStats> bList = new ArrayList<>();
@@ -191,7 +229,10 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
             List<EventStats> initList = new ArrayList<>();
             initList.add(new BaseEventStats(broadcastEndTime, initEndTime - broadcastEndTime)); //Init starts at same time that broadcast ends
 
-            return new ParameterAveragingTrainingWorkerStats(bList, initList, fitTimes);
+            List<EventStats> resultList = new ArrayList<>();
+            resultList.add(new BaseEventStats(resultStartTime, resultEndTime - resultStartTime));
+
+            return new ParameterAveragingTrainingWorkerStats(bList, initList, fitTimes, resultList);
         }
     }
 }
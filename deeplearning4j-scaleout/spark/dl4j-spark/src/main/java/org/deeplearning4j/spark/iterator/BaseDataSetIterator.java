@@ -4,6 +4,8 @@ import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -20,6 +22,8 @@ public abstract class BaseDataSetIterator<T> implements DataSetIterator {
     protected int batch = -1;
     protected DataSet preloadedDataSet;
     protected int cursor = 0;
+    //Remaining DataSets from the last loaded source, when one source contains multiple DataSets (i.e., chunk files)
+    protected Iterator<DataSet> pending;
 
     @Override
     public DataSet next(int num) {
@@ -59,6 +63,7 @@ public abstract class BaseDataSetIterator<T> implements DataSetIterator {
             throw new IllegalStateException("Cannot reset iterator constructed with an iterator");
         iter = dataSetStreams.iterator();
         cursor = 0;
+        closePending();
     }
 
     @Override
@@ -95,7 +100,7 @@ public abstract class BaseDataSetIterator<T> implements DataSetIterator {
 
     @Override
     public boolean hasNext() {
-        return iter.hasNext();
+        return (pending != null && pending.hasNext()) || iter.hasNext();
     }
 
     @Override
@@ -104,11 +109,36 @@ public abstract class BaseDataSetIterator<T> implements DataSetIterator {
     }
 
     private void preloadDataSet() {
-        preloadedDataSet = load(iter.next());
+        preloadedDataSet = loadNext();
         totalOutcomes = preloadedDataSet.getLabels().size(1);
         inputColumns = preloadedDataSet.getFeatureMatrix().size(1);
     }
 
+    /**
+     * Load the next DataSet: either the next remaining DataSet from the last source, or the first DataSet of the
+     * next source
+     */
+    protected DataSet loadNext() {
+        if (pending != null) {
+            if (pending.hasNext()) {
+                cursor++;
+                return pending.next();
+            }
+            pending = null;
+        }
+        return load(iter.next());
+    }
+
+    protected void closePending() {
+        if (pending instanceof Closeable) {
+            try {
+                ((Closeable) pending).close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        pending = null;
+    }
 
     protected abstract DataSet load(T ds);
 }
@@ -4,8 +4,12 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.deeplearning4j.spark.data.chunk.DataSetChunkFormat;
+import org.deeplearning4j.spark.data.chunk.DataSetChunkReader;
+import org.deeplearning4j.spark.data.chunk.DataSetChunkStreamIterator;
 import org.nd4j.linalg.dataset.DataSet;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
@@ -14,7 +18,11 @@ import java.util.Iterator;
 
 /**
  * A DataSetIterator that loads serialized DataSet objects (saved with {@link DataSet#save(OutputStream)}) from
- * a String that represents the path (for example, on HDFS)
+ * a String that represents the path (for example, on HDFS)<br>
+ * Chunk files (see {@link DataSetChunkFormat}) are also supported, either as a path to the chunk file (in which case
+ * all DataSets in the chunk file are streamed in order) or as a path to a single entry in the chunk file (see
+ * {@link DataSetChunkFormat#entryPath(String, int)}). For entry paths, the chunk file is kept open (memory mapped,
+ * for local files) while consecutive paths refer to the same chunk file.
  *
  * @author Alex Black
  */
@@ -22,6 +30,8 @@ public class PathSparkDataSetIterator extends BaseDataSetIterator<String> {
 
     public static final int BUFFER_SIZE = 4194304; //4 MB
     private FileSystem fileSystem;
+    private DataSetChunkReader chunkReader;
+    private String chunkReaderPath;
 
     public PathSparkDataSetIterator(Iterator<String> iter) {
         this.dataSetStreams = null;
@@ -45,8 +55,10 @@ public class PathSparkDataSetIterator extends BaseDataSetIterator<String> {
             ds = preloadedDataSet;
             preloadedDataSet = null;
         } else {
-            ds = load(iter.next());
+            ds = loadNext();
         }
+        if (!hasNext())
+            closeChunkReader();
 
         totalOutcomes = ds.getLabels() == null ? 0 : ds.getLabels().size(1); //May be null for layerwise pretraining
         inputColumns = ds.getFeatureMatrix().size(1);
@@ -57,23 +69,85 @@ public class PathSparkDataSetIterator extends BaseDataSetIterator<String> {
         return ds;
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        closeChunkReader();
+    }
+
     protected synchronized DataSet load(String path) {
+        boolean entryPath = DataSetChunkFormat.isEntryPath(path);
+        String filePath = (entryPath ? DataSetChunkFormat.chunkPath(path) : path);
         if (fileSystem == null) {
             try {
-                fileSystem = FileSystem.get(new URI(path), new Configuration());
+                fileSystem = FileSystem.get(new URI(filePath), new Configuration());
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
         }
 
-        DataSet ds = new DataSet();
-        try (FSDataInputStream inputStream = fileSystem.open(new Path(path), BUFFER_SIZE)) {
-            ds.load(inputStream);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        DataSet ds;
+        if (entryPath) {
+            try {
+                if (!filePath.equals(chunkReaderPath)) {
+                    closeChunkReader();
+                    chunkReader = new DataSetChunkReader(fileSystem, filePath);
+                    chunkReaderPath = filePath;
+                }
+                ds = chunkReader.read(DataSetChunkFormat.entryIndex(path));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        } else {
+            ds = loadFile(filePath);
         }
 
         cursor++;
         return ds;
     }
+
+    private DataSet loadFile(String path) {
+        FSDataInputStream inputStream = null;
+        try {
+            inputStream = fileSystem.open(new Path(path), BUFFER_SIZE);
+            BufferedInputStream bis = new BufferedInputStream(inputStream);
+            if (DataSetChunkFormat.isChunkStream(bis)) {
+                //Stream all entries in the chunk file; the stream is closed once all have been read
+                DataSetChunkStreamIterator chunkIter = new DataSetChunkStreamIterator(bis);
+                inputStream = null;
+                if (!chunkIter.hasNext())
+                    throw new IllegalStateException("Chunk file contains no DataSets: " + path);
+                DataSet ds = chunkIter.next();
+                pending = chunkIter;
+                return ds;
+            }
+
+            DataSet ds = new DataSet();
+            ds.load(bis);
+            return ds;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (inputStream != null) {
+                try {
+                    inputStream.close();
+                } catch (IOException e) {
+                    //Ignore
+                }
+            }
+        }
+    }
+
+    private synchronized void closeChunkReader() {
+        if (chunkReader != null) {
+            try {
+                chunkReader.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                chunkReader = null;
+                chunkReaderPath = null;
+            }
+        }
+    }
 }
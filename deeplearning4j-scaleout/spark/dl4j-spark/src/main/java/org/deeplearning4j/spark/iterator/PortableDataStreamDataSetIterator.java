@@ -1,8 +1,11 @@
 package org.deeplearning4j.spark.iterator;
 
 import org.apache.spark.input.PortableDataStream;
+import org.deeplearning4j.spark.data.chunk.DataSetChunkFormat;
+import org.deeplearning4j.spark.data.chunk.DataSetChunkStreamIterator;
 import org.nd4j.linalg.dataset.DataSet;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -11,7 +14,9 @@ import java.util.Iterator;
 
 /**
  * A DataSetIterator that loads serialized DataSet objects (saved with {@link DataSet#save(OutputStream)}) from
- * a {@link PortableDataStream}, usually obtained from SparkContext.binaryFiles()
+ * a {@link PortableDataStream}, usually obtained from SparkContext.binaryFiles()<br>
+ * Chunk files (see {@link DataSetChunkFormat}) are also supported: all DataSets in each chunk file are streamed
+ * in order, one at a time.
  *
  * @author Alex Black
  */
@@ -39,7 +44,7 @@ public class PortableDataStreamDataSetIterator extends BaseDataSetIterator<Porta
             ds = preloadedDataSet;
             preloadedDataSet = null;
         } else {
-            ds = load(iter.next());
+            ds = loadNext();
         }
 
         totalOutcomes = ds.getLabels().size(1);
@@ -52,11 +57,32 @@ public class PortableDataStreamDataSetIterator extends BaseDataSetIterator<Porta
     }
 
     protected DataSet load(PortableDataStream pds) {
-        DataSet ds = new DataSet();
-        try (InputStream is = pds.open()) {
-            ds.load(is);
+        DataSet ds;
+        InputStream is = null;
+        try {
+            is = new BufferedInputStream(pds.open());
+            if (DataSetChunkFormat.isChunkStream(is)) {
+                //Stream all entries in the chunk file; the stream is closed once all have been read
+                DataSetChunkStreamIterator chunkIter = new DataSetChunkStreamIterator(is);
+                is = null;
+                if (!chunkIter.hasNext())
+                    throw new IllegalStateException("Chunk file contains no DataSets: " + pds.getPath());
+                ds = chunkIter.next();
+                pending = chunkIter;
+            } else {
+                ds = new DataSet();
+                ds.load(is);
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            if (is != null) {
+                try {
+                    is.close();
+                } catch (IOException e) {
+                    //Ignore
+                }
+            }
         }
         cursor++;
         return ds;
@@ -0,0 +1,157 @@
+package org.deeplearning4j.spark.data.chunk;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.input.PortableDataStream;
+import org.deeplearning4j.spark.BaseSparkTest;
+import org.deeplearning4j.spark.data.BatchAndExportDataSetsFunction;
+import org.deeplearning4j.spark.data.PathToDataSetFunction;
+import org.deeplearning4j.spark.iterator.PathSparkDataSetIterator;
+import org.deeplearning4j.spark.iterator.PortableDataStreamDataSetIterator;
+import org.junit.Test;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class TestDataSetChunks extends BaseSparkTest {
+
+    private static File getTempDir(String name) throws Exception {
+        String baseDir = System.getProperty("java.io.tmpdir");
+        baseDir = FilenameUtils.concat(baseDir, name);
+        File f = new File(baseDir);
+        if (f.exists())
+            FileUtils.deleteDirectory(f);
+        f.mkdirs();
+        f.deleteOnExit();
+        return f;
+    }
+
+    @Test
+    public void testWriteReadRoundTrip() throws Exception {
+        File dir = getTempDir("dl4j_spark_testChunkRoundTrip/");
+        Nd4j.getRandom().setSeed(12345);
+
+        List<DataSet> list = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int n = 1 + i % 4;
+            list.add(new DataSet(Nd4j.rand(n, 5), Nd4j.rand(n, 3)));
+        }
+
+        for (ChunkCompression c : ChunkCompression.values()) {
+            File f = new File(dir, "chunk_" + c + ".bin");
+            try (DataSetChunkWriter writer = new DataSetChunkWriter(new FileOutputStream(f), c)) {
+                for (int i = 0; i < list.size(); i++) {
+                    assertEquals(i, writer.write(list.get(i)));
+                }
+            }
+
+            FileSystem fs = FileSystem.get(f.toURI(), new Configuration());
+            try (DataSetChunkReader reader = new DataSetChunkReader(fs, f.getPath())) {
+                assertEquals(c, reader.getCompression());
+                assertEquals(list.size(), reader.numEntries());
+                //Random access, reverse order
+                for (int i = list.size() - 1; i >= 0; i--) {
+                    assertEquals(list.get(i).numExamples(), reader.numExamples(i));
+                    assertEquals(list.get(i), reader.read(i));
+                }
+            }
+
+            int count = 0;
+            try (DataSetChunkStreamIterator iter = new DataSetChunkStreamIterator(new FileInputStream(f))) {
+                while (iter.hasNext()) {
+                    assertEquals(list.get(count).numExamples(), iter.peekNumExamples());
+                    assertEquals(list.get(count++), iter.next());
+                }
+            }
+            assertEquals(list.size(), count);
+        }
+
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testEntryPaths() {
+        String p = DataSetChunkFormat.entryPath("/some/dir/dataset_0_chunk1.bin", 12);
+        assertTrue(DataSetChunkFormat.isEntryPath(p));
+        assertEquals("/some/dir/dataset_0_chunk1.bin", DataSetChunkFormat.chunkPath(p));
+        assertEquals(12, DataSetChunkFormat.entryIndex(p));
+
+        assertFalse(DataSetChunkFormat.isEntryPath("/some/dir/dataset_0_1.bin"));
+        assertFalse(DataSetChunkFormat.isEntryPath("/some/dir#/dataset_0_1.bin"));
+        assertFalse(DataSetChunkFormat.isEntryPath("/some/dir/dataset_0_1.bin#"));
+    }
+
+    @Test
+    public void testBatchAndExportChunked() throws Exception {
+        File dir = getTempDir("dl4j_spark_testBatchAndExportChunked/");
+        String baseDir = dir.getPath().replaceAll("\\\\", "/");
+        int minibatchSize = 5;
+        int minibatchesPerChunk = 8;
+
+        List<DataSet> dataSets = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            int n = (i % 2 == 0 ? 3 : 7); //Requires splitting and merging
+            dataSets.add(new DataSet(Nd4j.rand(n, 4), Nd4j.rand(n, 3)));
+        }
+        Collections.shuffle(dataSets, new Random(12345));
+
+        JavaRDD<DataSet> rdd = sc.parallelize(dataSets).repartition(1);
+        List<String> paths = rdd.mapPartitionsWithIndex(new BatchAndExportDataSetsFunction(minibatchSize,
+                        "file://" + baseDir, minibatchesPerChunk, ChunkCompression.DEFLATE), true).collect();
+        assertEquals(100, paths.size());
+
+        Set<String> chunkFiles = new HashSet<>();
+        for (String s : paths) {
+            assertTrue(s, DataSetChunkFormat.isEntryPath(s));
+            chunkFiles.add(DataSetChunkFormat.chunkPath(s));
+        }
+        assertEquals(13, chunkFiles.size());
+
+        //Entry paths: one DataSet per path
+        PathSparkDataSetIterator iter = new PathSparkDataSetIterator(paths);
+        int count = 0;
+        while (iter.hasNext()) {
+            assertEquals(minibatchSize, iter.next().numExamples());
+            count++;
+        }
+        assertEquals(100, count);
+
+        assertEquals(minibatchSize, new PathToDataSetFunction().call(paths.get(99)).numExamples());
+
+        //Chunk file paths: all DataSets in each chunk file
+        iter = new PathSparkDataSetIterator(new ArrayList<>(chunkFiles));
+        count = 0;
+        while (iter.hasNext()) {
+            assertEquals(minibatchSize, iter.next().numExamples());
+            count++;
+        }
+        assertEquals(100, count);
+
+        //Portable data streams, as per SparkContext.binaryFiles()
+        List<PortableDataStream> streams = sc.binaryFiles("file://" + baseDir).values().collect();
+        assertEquals(13, streams.size());
+        PortableDataStreamDataSetIterator pdsIter = new PortableDataStreamDataSetIterator(streams);
+        count = 0;
+        while (pdsIter.hasNext()) {
+            assertEquals(minibatchSize, pdsIter.next().numExamples());
+            count++;
+        }
+        assertEquals(100, count);
+
+        FileUtils.deleteDirectory(dir);
+    }
+}
@@ -0,0 +1,118 @@
+package org.deeplearning4j.spark.impl.common;
+
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.broadcast.Broadcast;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.spark.BaseSparkTest;
+import org.deeplearning4j.spark.impl.multilayer.SparkDl4jMultiLayer;
+import org.deeplearning4j.spark.impl.paramavg.ParameterAveragingTrainingMaster;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestExecutorModelCache extends BaseSparkTest {
+
+    private MultiLayerConfiguration getConf() {
+        return new NeuralNetConfiguration.Builder().seed(12345).list()
+                        .layer(0, new DenseLayer.Builder().nIn(nIn).nOut(5).activation(Activation.TANH).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(5).nOut(nOut)
+                                        .activation(Activation.SOFTMAX).build())
+                        .build();
+    }
+
+    @Test
+    public void testReuseAndEviction() {
+        MultiLayerNetwork net = new MultiLayerNetwork(getConf());
+        net.init();
+
+        String json = net.getLayerWiseConfigurations().toJson();
+        Broadcast<String> bJson = sc.broadcast(json);
+        Broadcast<INDArray> bParams = sc.broadcast(net.params());
+        String key = ExecutorModelCache.fingerprint(json, net.params());
+        assertEquals(key, ExecutorModelCache.fingerprint(json, net.params().dup()));
+        //Views: only the values in the view should be hashed
+        INDArray view = Nd4j.linspace(1, 20, 20).get(NDArrayIndex.point(0), NDArrayIndex.interval(5, 15));
+        assertEquals(ExecutorModelCache.fingerprint(json, view.dup()), ExecutorModelCache.fingerprint(json, view));
+        assertNotEquals(key, ExecutorModelCache.fingerprint(json, net.params().mul(2.0)));
+
+        ExecutorModelCache cache = new ExecutorModelCache(1);
+
+        MultiLayerNetwork n1 = cache.getMultiLayerNetwork(key, bJson, bParams);
+        MultiLayerNetwork n2 = cache.getMultiLayerNetwork(key, bJson, bParams);
+        assertNotSame(n1, n2); //In use concurrently: should not share instances
+        assertEquals(net.params(), n1.params());
+        assertEquals(net.output(input), n2.output(input));
+        assertEquals(1, cache.size());
+
+        cache.release(key, n1);
+        cache.release(key, n2);
+        assertEquals(1, cache.size());
+
+        //Idle instances should be reused
+        MultiLayerNetwork n3 = cache.getMultiLayerNetwork(key, bJson, bParams);
+        assertTrue(n3 == n1 || n3 == n2);
+        cache.release(key, n3);
+
+        //Different parameters: different key, and old entry should be evicted as it is not in use
+        INDArray newParams = net.params().add(1.0);
+        String key2 = ExecutorModelCache.fingerprint(json, newParams);
+        assertNotEquals(key, key2);
+        MultiLayerNetwork n4 = cache.getMultiLayerNetwork(key2, bJson, sc.broadcast(newParams));
+        assertEquals(newParams, n4.params());
+        cache.release(key2, n4);
+        assertEquals(1, cache.size());
+
+        //Entries in use should not be evicted
+        MultiLayerNetwork n5 = cache.getMultiLayerNetwork(key2, bJson, bParams);
+        MultiLayerNetwork n6 = cache.getMultiLayerNetwork(key, bJson, bParams);
+        assertEquals(2, cache.size());
+        cache.release(key, n6);
+        assertEquals(1, cache.size());
+        cache.release(key2, n5);
+
+        //No key: no caching
+        MultiLayerNetwork n7 = cache.getMultiLayerNetwork(null, bJson, bParams);
+        cache.release(null, n7);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testSparkScoringWithCache() {
+        SparkDl4jMultiLayer sparkNet = new SparkDl4jMultiLayer(sc, getConf(),
+                        new ParameterAveragingTrainingMaster.Builder(1).build());
+
+        JavaRDD<DataSet> rdd = sc.parallelize(data.asList());
+        List<Double> first = sparkNet.scoreExamples(rdd, false).collect();
+        List<Double> second = sparkNet.scoreExamples(rdd, false).collect();
+        assertEquals(first, second);
+
+        //Scoring after a parameter change should use the new parameters, not the cached network
+        sparkNet.getNetwork().setParams(sparkNet.getNetwork().params().add(0.5));
+        List<Double> third = sparkNet.scoreExamples(rdd, false).collect();
+        assertNotEquals(first, third);
+
+        //Likewise after an in-place parameter change
+        sparkNet.getNetwork().params().addi(0.5);
+        List<Double> thirdInPlace = sparkNet.scoreExamples(rdd, false).collect();
+        assertNotEquals(third, thirdInPlace);
+
+        //Likewise after fitting
+        sparkNet.fit(rdd);
+        List<Double> fourth = sparkNet.scoreExamples(rdd, false).collect();
+        assertNotEquals(thirdInPlace, fourth);
+
+        assertTrue(ExecutorModelCache.getInstance().size() <= ExecutorModelCache.getInstance().getMaxEntries());
+    }
+}
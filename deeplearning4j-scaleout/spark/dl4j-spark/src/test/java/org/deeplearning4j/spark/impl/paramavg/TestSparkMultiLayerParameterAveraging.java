@@ -53,6 +53,7 @@ import org.deeplearning4j.spark.api.Repartition;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
 import org.deeplearning4j.spark.impl.graph.SparkComputationGraph;
 import org.deeplearning4j.spark.impl.multilayer.SparkDl4jMultiLayer;
+import org.deeplearning4j.spark.impl.paramavg.delta.DeltaCompression;
 import org.deeplearning4j.spark.stats.EventStats;
 import org.deeplearning4j.spark.stats.ExampleCountEventStats;
 import org.junit.Test;
@@ -271,6 +272,40 @@ public class TestSparkMultiLayerParameterAveraging extends BaseSparkTest {
 
     }
 
+    @Test
+    public void testDeltaCompression() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().updater(new RmsProp()).seed(12345)
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).iterations(1).list()
+                        .layer(0, new org.deeplearning4j.nn.conf.layers.DenseLayer.Builder().nIn(nIn).nOut(3)
+                                        .activation(Activation.TANH).build())
+                        .layer(1, new org.deeplearning4j.nn.conf.layers.OutputLayer.Builder(
+                                        LossFunctions.LossFunction.MSE).nIn(3).nOut(nOut).activation(Activation.SOFTMAX)
+                                                        .build())
+                        .build();
+
+        Nd4j.getRandom().setSeed(12345);
+        List<DataSet> list = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            list.add(new DataSet(Nd4j.rand(1, nIn), Nd4j.rand(1, nOut)));
+        }
+        JavaRDD<DataSet> rddData = sc.parallelize(list);
+
+        for (DeltaCompression c : DeltaCompression.values()) {
+            ParameterAveragingTrainingMaster tm = new ParameterAveragingTrainingMaster.Builder(numExecutors(), 1)
+                            .batchSizePerWorker(2).averagingFrequency(1).saveUpdater(true)
+                            .deltaCompression(c, 1e-6).build();
+            SparkDl4jMultiLayer sparkNet = new SparkDl4jMultiLayer(sc, conf, tm);
+
+            INDArray initialParams = sparkNet.getNetwork().params().dup();
+            sparkNet.fit(rddData);
+            INDArray finalParams = sparkNet.getNetwork().params();
+
+            assertNotEquals(c.toString(), initialParams, finalParams);
+            assertFalse(c.toString(), Double.isNaN(finalParams.sumNumber().doubleValue()));
+            assertFalse(c.toString(), Double.isNaN(sparkNet.getScore()));
+        }
+    }
+
     @Test
     public void testDistributedScoring() {
 
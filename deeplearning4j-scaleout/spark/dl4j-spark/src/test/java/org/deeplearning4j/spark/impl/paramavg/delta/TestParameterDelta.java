@@ -0,0 +1,115 @@
+package org.deeplearning4j.spark.impl.paramavg.delta;
+
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import static org.junit.Assert.*;
+
+public class TestParameterDelta {
+
+    @Test
+    public void testFp16Conversion() {
+        float[] values = {0.0f, -0.0f, 1.0f, -2.5f, 0.1f, 1e-5f, 65504f, 1e6f, -1e6f, 6e-8f};
+        for (float f : values) {
+            float out = Fp16ParameterDelta.toFloat(Fp16ParameterDelta.toHalf(f));
+            if (Math.abs(f) > 65504f) {
+                assertEquals(Math.signum(f) * 65504f, out, 0.0f);
+            } else {
+                //Half precision: 11 bits of precision for normal values
+                assertEquals(String.valueOf(f), f, out, Math.max(Math.abs(f) / 1024, 6e-8f));
+            }
+        }
+
+        assertTrue(Float.isNaN(Fp16ParameterDelta.toFloat(Fp16ParameterDelta.toHalf(Float.NaN))));
+        assertEquals(Float.POSITIVE_INFINITY,
+                        Fp16ParameterDelta.toFloat(Fp16ParameterDelta.toHalf(Float.POSITIVE_INFINITY)), 0.0f);
+    }
+
+    @Test
+    public void testEncodeApply() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray original = Nd4j.rand(3, 4);
+        INDArray current = original.add(Nd4j.rand(3, 4).subi(0.5).muli(0.1));
+
+        for (DeltaCompression c : new DeltaCompression[] {DeltaCompression.Fp16, DeltaCompression.Threshold}) {
+            ParameterDelta delta = ParameterDelta.encode(current, original, c, 0.0);
+            assertEquals(12, delta.length());
+
+            INDArray out = ParameterDelta.apply(original, delta, 1.0);
+            assertArrayEquals(original.shape(), out.shape());
+            assertTrue(out.sub(current).norm1Number().doubleValue() < 1e-3);
+        }
+    }
+
+    @Test
+    public void testSparseThresholdAndMerge() {
+        float[] d1 = {0.5f, 0.0001f, 0.0f, -0.3f, 0.0f, 0.0f, 0.0f, 0.0f};
+        float[] d2 = {0.1f, 0.0f, 0.2f, 0.0f, 0.0f, 0.0f, 0.0f, 0.0f};
+
+        SparseParameterDelta s1 = SparseParameterDelta.fromDense(d1, 0.01f);
+        SparseParameterDelta s2 = SparseParameterDelta.fromDense(d2, 0.01f);
+        assertEquals(2, s1.numNonZero());
+        assertEquals(2, s2.numNonZero());
+
+        ParameterDelta merged = s1.merge(s2);
+        assertTrue(merged instanceof SparseParameterDelta);
+        assertEquals(3, ((SparseParameterDelta) merged).numNonZero());
+
+        float[] out = new float[8];
+        merged.addTo(out, 0.5f);
+        assertArrayEquals(new float[] {0.3f, 0.0f, 0.1f, -0.15f, 0.0f, 0.0f, 0.0f, 0.0f}, out, 1e-6f);
+
+        //Dense enough: should switch to dense representation
+        float[] d3 = {0.0f, 0.0f, 0.0f, 0.0f, 1.0f, 1.0f, 1.0f, 1.0f};
+        ParameterDelta mergedDense = merged.merge(SparseParameterDelta.fromDense(d3, 0.01f));
+        assertTrue(mergedDense instanceof DenseParameterDelta);
+
+        //Mixed types: dense result
+        ParameterDelta mixed = ParameterDelta.sum(Fp16ParameterDelta.fromDense(d1),
+                        SparseParameterDelta.fromDense(d2, 0.01f));
+        assertTrue(mixed instanceof DenseParameterDelta);
+        float[] mixedOut = new float[8];
+        mixed.addTo(mixedOut, 1.0f);
+        assertEquals(0.6f, mixedOut[0], 1e-3f);
+        assertEquals(0.2f, mixedOut[2], 1e-3f);
+
+        assertSame(s1, ParameterDelta.sum(s1, null));
+        assertSame(s2, ParameterDelta.sum(null, s2));
+    }
+
+    @Test
+    public void testFp16MergeAccumulatesInSinglePrecision() {
+        java.util.Random r = new java.util.Random(12345);
+        int length = 100;
+        int numWorkers = 1000;
+        float[] expected = new float[length];
+        ParameterDelta[] deltas = new ParameterDelta[numWorkers];
+        for (int i = 0; i < numWorkers; i++) {
+            float[] d = new float[length];
+            for (int j = 0; j < length; j++) {
+                //Large enough for half precision sums to overflow 65504, with non-representable values
+                d[j] = 100.0f + (float) r.nextGaussian();
+                expected[j] += Fp16ParameterDelta.toFloat(Fp16ParameterDelta.toHalf(d[j]));
+            }
+            deltas[i] = Fp16ParameterDelta.fromDense(d);
+        }
+
+        //Tree aggregation: pairwise merges
+        int n = numWorkers;
+        while (n > 1) {
+            int half = (n + 1) / 2;
+            for (int i = 0; i + half < n; i++) {
+                deltas[i] = ParameterDelta.sum(deltas[i], deltas[i + half]);
+            }
+            n = half;
+        }
+        assertTrue(deltas[0] instanceof DenseParameterDelta);
+
+        float[] out = new float[length];
+        deltas[0].addTo(out, 1.0f);
+        for (int j = 0; j < length; j++) {
+            assertEquals(expected[j], out[j], Math.abs(expected[j]) * 1e-4);
+        }
+    }
+}
@@ -25,7 +25,6 @@ import org.deeplearning4j.ui.views.html.training.TrainingHelp;
 import org.deeplearning4j.ui.views.html.training.TrainingModel;
 import org.deeplearning4j.ui.views.html.training.TrainingOverview;
 import org.deeplearning4j.ui.views.html.training.TrainingSystem;
-import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
 import org.nd4j.linalg.learning.config.IUpdater;
 import org.nd4j.linalg.primitives.Pair;
 import org.nd4j.linalg.primitives.Triple;
@@ -66,6 +65,7 @@ public class TrainModule implements UIModule {
     private Map<String, AtomicInteger> workerIdxCount = Collections.synchronizedMap(new HashMap<>()); //Key: session ID
     private Map<String, Map<Integer, String>> workerIdxToName = Collections.synchronizedMap(new HashMap<>()); //Key: session ID
     private Map<String, Long> lastUpdateForSession = Collections.synchronizedMap(new HashMap<>());
+    private final Map<String, ChartSeries> chartSeries = new HashMap<>(); //Key: session ID + worker ID
 
     public TrainModule() {
         String maxChartPointsProp = System.getProperty(CHART_MAX_POINTS_PROPERTY);
@@ -163,6 +163,14 @@ public class TrainModule implements UIModule {
                 knownSessionIDs.remove(s);
             }
         }
+        synchronized (chartSeries) {
+            Iterator<ChartSeries> iter = chartSeries.values().iterator();
+            while (iter.hasNext()) {
+                if (iter.next().storage == statsStorage) {
+                    iter.remove();
+                }
+            }
+        }
     }
 
     private void getDefaultSession() {
@@ -348,6 +356,82 @@ public class TrainModule implements UIModule {
         }
     }
 
+    /**
+     * Get the (subsampled) updates to plot for the given session and worker. The subsampled series is cached, and
+     * only updates after the last cached update are queried from the storage on each call - i.e., the cost of each
+     * UI refresh depends on the number of new updates only, not on the total length of the training session.
+     */
+    private List<Persistable> getChartUpdates(StatsStorage ss, String sessionID, String workerID) {
+        ChartSeries series;
+        synchronized (chartSeries) {
+            String key = sessionID + "_" + workerID;
+            series = chartSeries.get(key);
+            if (series == null || series.storage != ss) {
+                series = new ChartSeries(ss, sessionID, workerID, maxChartPoints);
+                chartSeries.put(key, series);
+            }
+        }
+        return series.update();
+    }
+
+    /**
+     * Subsampled chart updates for one session and worker. Every stride-th update is kept, where the stride starts at 1
+     * and doubles each time more than 2*maxPoints updates are held - at which point every second held update is
+     * dropped. New updates are subsampled with the same stride, so the held updates are always uniformly spaced. The
+     * most recent update is always returned, in addition to the subsampled updates.
+     */
+    private static class ChartSeries {
+        private final StatsStorage storage;
+        private final String sessionID;
+        private final String workerID;
+        private final int maxPoints;
+        private List<Persistable> updates = new ArrayList<>();
+        private long lastTimestamp = Long.MIN_VALUE;
+        private long updateCount = 0;
+        private long stride = 1;
+        private Persistable mostRecent;
+        private boolean mostRecentKept;
+
+        private ChartSeries(StatsStorage storage, String sessionID, String workerID, int maxPoints) {
+            this.storage = storage;
+            this.sessionID = sessionID;
+            this.workerID = workerID;
+            this.maxPoints = maxPoints;
+        }
+
+        private synchronized List<Persistable> update() {
+            List<Persistable> newUpdates = storage.getUpdatesInRange(sessionID, StatsListener.TYPE_ID, workerID,
+                            lastTimestamp, Long.MAX_VALUE, maxPoints);
+            for (Persistable p : newUpdates) {
+                mostRecentKept = (updateCount++ % stride == 0);
+                if (mostRecentKept) {
+                    updates.add(p);
+                    if (updates.size() > 2 * maxPoints) {
+                        //Held updates are at iterations 0, stride, 2*stride, ...: keep the multiples of 2*stride
+                        List<Persistable> subsampled = new ArrayList<>(updates.size() / 2 + 1);
+                        for (int i = 0; i < updates.size(); i += 2) {
+                            subsampled.add(updates.get(i));
+                        }
+                        updates = subsampled;
+                        stride *= 2;
+                        mostRecentKept = ((updateCount - 1) % stride == 0);
+                    }
+                }
+                mostRecent = p;
+            }
+            if (!newUpdates.isEmpty()) {
+                lastTimestamp = newUpdates.get(newUpdates.size() - 1).getTimeStamp();
+            }
+
+            List<Persistable> out = new ArrayList<>(updates.size() + 1);
+            out.addAll(updates);
+            if (mostRecent != null && !mostRecentKept) {
+                out.add(mostRecent);
+            }
+            return out;
+        }
+    }
+
     private Result getOverviewData() {
         Long lastUpdate = lastUpdateForSession.get(currentSessionID);
         if (lastUpdate == null)
@@ -374,24 +458,7 @@ public class TrainModule implements UIModule {
         result.put("scoresIter", scoresIterCount);
 
         //Get scores info
-        long[] allTimes = (noData ? null : ss.getAllUpdateTimes(currentSessionID, StatsListener.TYPE_ID, wid));
-        List<Persistable> updates = null;
-        if(allTimes != null && allTimes.length > maxChartPoints){
-            int subsamplingFrequency = allTimes.length / maxChartPoints;
-            LongArrayList timesToQuery = new LongArrayList(maxChartPoints+2);
-            int i=0;
-            for(; i<allTimes.length; i+= subsamplingFrequency){
-                timesToQuery.add(allTimes[i]);
-            }
-            if((i-subsamplingFrequency) != allTimes.length-1){
-                //Also add final point
-                timesToQuery.add(allTimes[allTimes.length-1]);
-            }
-            updates = ss.getUpdates(currentSessionID, StatsListener.TYPE_ID, wid, timesToQuery.toArray());
-        } else if(allTimes != null) {
-            //Don't subsample
-            updates = ss.getAllUpdatesAfter(currentSessionID, StatsListener.TYPE_ID, wid, 0);
-        }
+        List<Persistable> updates = (noData ? null : getChartUpdates(ss, currentSessionID, wid));
         if (updates == null || updates.size() == 0) {
             noData = true;
         }
@@ -702,28 +769,10 @@ public class TrainModule implements UIModule {
 
         result.put("layerInfo", layerInfoTable);
 
-        //First: get all data, and subsample it if necessary, to avoid returning too many points...
-        long[] allTimes = (noData ? null : ss.getAllUpdateTimes(currentSessionID, StatsListener.TYPE_ID, wid));
-
-        List<Persistable> updates = null;
+        //First: get the (subsampled) data, to avoid returning too many points...
+        List<Persistable> updates = (noData ? null : getChartUpdates(ss, currentSessionID, wid));
         List<Integer> iterationCounts = null;
         boolean needToHandleLegacyIterCounts = false;
-        if(allTimes != null && allTimes.length > maxChartPoints){
-            int subsamplingFrequency = allTimes.length / maxChartPoints;
-            LongArrayList timesToQuery = new LongArrayList(maxChartPoints+2);
-            int i=0;
-            for(; i<allTimes.length; i+= subsamplingFrequency){
-                timesToQuery.add(allTimes[i]);
-            }
-            if((i-subsamplingFrequency) != allTimes.length-1){
-                //Also add final point
-                timesToQuery.add(allTimes[allTimes.length-1]);
-            }
-            updates = ss.getUpdates(currentSessionID, StatsListener.TYPE_ID, wid, timesToQuery.toArray());
-        } else if(allTimes != null) {
-            //Don't subsample
-            updates = ss.getAllUpdatesAfter(currentSessionID, StatsListener.TYPE_ID, wid, 0);
-        }
 
         iterationCounts = new ArrayList<>(updates.size());
         int lastIterCount = -1;
@@ -32,6 +32,11 @@ import java.lang.management.OperatingSystemMXBean;
 import java.lang.management.RuntimeMXBean;
 import java.lang.reflect.Constructor;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * BaseStatsListener: a general purpose listener for collecting and reporting system and model information.
@@ -44,10 +49,6 @@ import java.util.*;
 public abstract class BaseStatsListener implements RoutingIterationListener {
     public static final String TYPE_ID = "StatsListener";
 
-    private enum StatType {
-        Mean, Stdev, MeanMagnitude
-    }
-
     private StatsStorageRouter router;
     private final StatsInitializationConfiguration initConfig;
     private StatsUpdateConfiguration updateConfig;
@@ -60,6 +61,10 @@ public abstract class BaseStatsListener implements RoutingIterationListener {
     private Map<String, INDArray> activationsMap;
     private Map<String, INDArray> gradientsPreUpdateMap = new HashMap<>();
 
+    private transient FusedStatsCalculator statsCalculator;
+    private transient ExecutorService statsExecutor;
+    private transient volatile Future<?> pendingStats;
+
     //NOTE: may have multiple models, due to multiple pretrain layers all using the same StatsListener
     private List<ModelInfo> modelInfos = new ArrayList<>();
 
@@ -438,113 +443,174 @@ public abstract class BaseStatsListener implements RoutingIterationListener {
         }
 
 
-        //--- Histograms ---
-
-        if (config.collectHistograms(StatsType.Parameters)) {
-            Map<String, Histogram> paramHistograms = getHistograms(model.paramTable(backpropParamsOnly),
-                            config.numHistogramBins(StatsType.Parameters));
-            report.reportHistograms(StatsType.Parameters, paramHistograms);
-        }
-
-        if (config.collectHistograms(StatsType.Gradients)) {
-            Map<String, Histogram> gradientHistograms =
-                            getHistograms(gradientsPreUpdateMap, config.numHistogramBins(StatsType.Gradients));
-            report.reportHistograms(StatsType.Gradients, gradientHistograms);
-        }
+        //--- Histograms and Summary Stats: Mean, Stdev, Mean Magnitudes ---
+        Map<String, INDArray> params = null;
+        Map<String, INDArray> updates = null;
+        if (collectArrayStats(config, StatsType.Parameters))
+            params = model.paramTable(backpropParamsOnly);
+        if (collectArrayStats(config, StatsType.Updates))
+            updates = model.gradient().gradientForVariable();
+        Map<String, INDArray> gradients = gradientsPreUpdateMap;
+        Map<String, INDArray> activations = activationsMap;
 
-        if (config.collectHistograms(StatsType.Updates)) {
-            Map<String, Histogram> updateHistograms = getHistograms(model.gradient().gradientForVariable(),
-                            config.numHistogramBins(StatsType.Updates));
-            report.reportHistograms(StatsType.Updates, updateHistograms);
-        }
+        modelInfo.lastReportTime = currentTime;
+        modelInfo.lastReportIteration = iteration;
+        report.reportIterationCount(iteration);
+        modelInfo.iterCount = iteration;
+        activationsMap = null;
 
-        if (config.collectHistograms(StatsType.Activations)) {
-            Map<String, Histogram> activationHistograms =
-                            getHistograms(activationsMap, config.numHistogramBins(StatsType.Activations));
-            report.reportHistograms(StatsType.Activations, activationHistograms);
+        waitForPendingStats();
+        if (config.asyncStatsCollection()) {
+            //Parameters and updates will be modified in-place by the next iteration: need copies. Gradients and
+            // activations are already copies; hand them over to the collection thread
+            params = snapshot(params);
+            updates = snapshot(updates);
+            gradientsPreUpdateMap = new HashMap<>();
+            pendingStats = getStatsExecutor().submit(
+                            new CollectStatsTask(report, config, params, gradients, updates, activations, currentTime));
+        } else {
+            collectArrayStats(report, config, params, gradients, updates, activations, currentTime);
         }
+    }
 
+    private static boolean collectArrayStats(StatsUpdateConfiguration config, StatsType type) {
+        return config.collectHistograms(type) || config.collectMean(type) || config.collectStdev(type)
+                        || config.collectMeanMagnitudes(type);
+    }
 
-        //--- Summary Stats: Mean, Variance, Mean Magnitudes ---
-
-        if (config.collectMean(StatsType.Parameters)) {
-            Map<String, Double> meanParams = calculateSummaryStats(model.paramTable(backpropParamsOnly), StatType.Mean);
-            report.reportMean(StatsType.Parameters, meanParams);
-        }
+    private void collectArrayStats(StatsReport report, StatsUpdateConfiguration config, Map<String, INDArray> params,
+                    Map<String, INDArray> gradients, Map<String, INDArray> updates,
+                    Map<String, INDArray> activations, long startTime) {
+        collectArrayStats(report, config, StatsType.Parameters, params);
+        collectArrayStats(report, config, StatsType.Gradients, gradients);
+        collectArrayStats(report, config, StatsType.Updates, updates);
+        collectArrayStats(report, config, StatsType.Activations, activations);
 
-        if (config.collectMean(StatsType.Gradients)) {
-            Map<String, Double> meanGradients = calculateSummaryStats(gradientsPreUpdateMap, StatType.Mean);
-            report.reportMean(StatsType.Gradients, meanGradients);
-        }
+        long endTime = getTime();
+        report.reportStatsCollectionDurationMS((int) (endTime - startTime)); //Amount of time required to alculate all histograms, means etc.
+        this.router.putUpdate(report);
+    }
 
-        if (config.collectMean(StatsType.Updates)) {
-            Map<String, Double> meanUpdates =
-                            calculateSummaryStats(model.gradient().gradientForVariable(), StatType.Mean);
-            report.reportMean(StatsType.Updates, meanUpdates);
-        }
+    /**
+     * Calculate and report the histograms and summary stats for the given arrays, in a single fused calculation
+     * per array
+     */
+    private void collectArrayStats(StatsReport report, StatsUpdateConfiguration config, StatsType type,
+                    Map<String, INDArray> source) {
+        boolean collectHistograms = config.collectHistograms(type);
+        boolean collectMean = config.collectMean(type);
+        boolean collectStdev = config.collectStdev(type);
+        boolean collectMeanMagnitudes = config.collectMeanMagnitudes(type);
+        if (!collectHistograms && !collectMean && !collectStdev && !collectMeanMagnitudes)
+            return;
 
-        if (config.collectMean(StatsType.Activations)) {
-            Map<String, Double> meanActivations = calculateSummaryStats(activationsMap, StatType.Mean);
-            report.reportMean(StatsType.Activations, meanActivations);
+        int nBins = (collectHistograms ? config.numHistogramBins(type) : 0);
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        Map<String, Double> mean = new LinkedHashMap<>();
+        Map<String, Double> stdev = new LinkedHashMap<>();
+        Map<String, Double> meanMagnitudes = new LinkedHashMap<>();
+
+        if (source != null) {
+            FusedStatsCalculator calculator = getStatsCalculator();
+            for (Map.Entry<String, INDArray> entry : source.entrySet()) {
+                String name = entry.getKey();
+                calculator.calculate(entry.getValue(), collectStdev, nBins);
+                if (collectHistograms)
+                    histograms.put(name, new Histogram(calculator.getMin(), calculator.getMax(), nBins,
+                                    calculator.getHistogramCounts()));
+                if (collectMean)
+                    mean.put(name, calculator.getMean());
+                if (collectStdev)
+                    stdev.put(name, calculator.getStdev());
+                if (collectMeanMagnitudes)
+                    meanMagnitudes.put(name, calculator.getMeanMagnitude());
+            }
         }
 
+        if (collectHistograms)
+            report.reportHistograms(type, histograms);
+        if (collectMean)
+            report.reportMean(type, mean);
+        if (collectStdev)
+            report.reportStdev(type, stdev);
+        if (collectMeanMagnitudes)
+            report.reportMeanMagnitudes(type, meanMagnitudes);
+    }
 
-        if (config.collectStdev(StatsType.Parameters)) {
-            Map<String, Double> stdevParams =
-                            calculateSummaryStats(model.paramTable(backpropParamsOnly), StatType.Stdev);
-            report.reportStdev(StatsType.Parameters, stdevParams);
-        }
-
-        if (config.collectStdev(StatsType.Gradients)) {
-            Map<String, Double> stdevGradient = calculateSummaryStats(gradientsPreUpdateMap, StatType.Stdev);
-            report.reportStdev(StatsType.Gradients, stdevGradient);
-        }
+    private FusedStatsCalculator getStatsCalculator() {
+        if (statsCalculator == null)
+            statsCalculator = new FusedStatsCalculator();
+        return statsCalculator;
+    }
 
-        if (config.collectStdev(StatsType.Updates)) {
-            Map<String, Double> stdevUpdates =
-                            calculateSummaryStats(model.gradient().gradientForVariable(), StatType.Stdev);
-            report.reportStdev(StatsType.Updates, stdevUpdates);
+    private static Map<String, INDArray> snapshot(Map<String, INDArray> map) {
+        if (map == null)
+            return null;
+        Map<String, INDArray> out = new LinkedHashMap<>();
+        try (MemoryWorkspace ws = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+            for (Map.Entry<String, INDArray> e : map.entrySet()) {
+                out.put(e.getKey(), e.getValue().dup());
+            }
         }
+        return out;
+    }
 
-        if (config.collectStdev(StatsType.Activations)) {
-            Map<String, Double> stdevActivations = calculateSummaryStats(activationsMap, StatType.Stdev);
-            report.reportStdev(StatsType.Activations, stdevActivations);
+    private synchronized ExecutorService getStatsExecutor() {
+        if (statsExecutor == null) {
+            statsExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "StatsListener-collection");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
         }
+        return statsExecutor;
+    }
 
-
-        if (config.collectMeanMagnitudes(StatsType.Parameters)) {
-            Map<String, Double> meanMagParams =
-                            calculateSummaryStats(model.paramTable(backpropParamsOnly), StatType.MeanMagnitude);
-            report.reportMeanMagnitudes(StatsType.Parameters, meanMagParams);
+    /**
+     * Wait for the previous asynchronous stats report (if any) to be completed and routed
+     */
+    public void waitForPendingStats() {
+        Future<?> pending = pendingStats;
+        if (pending == null)
+            return;
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Error calculating stats", e.getCause());
         }
+        pendingStats = null;
+    }
 
-        if (config.collectMeanMagnitudes(StatsType.Gradients)) {
-            Map<String, Double> meanMagGradients = calculateSummaryStats(gradientsPreUpdateMap, StatType.MeanMagnitude);
-            report.reportMeanMagnitudes(StatsType.Gradients, meanMagGradients);
-        }
+    private class CollectStatsTask implements Runnable {
+        private final StatsReport report;
+        private final StatsUpdateConfiguration config;
+        private final Map<String, INDArray> params;
+        private final Map<String, INDArray> gradients;
+        private final Map<String, INDArray> updates;
+        private final Map<String, INDArray> activations;
+        private final long startTime;
 
-        if (config.collectMeanMagnitudes(StatsType.Updates)) {
-            Map<String, Double> meanMagUpdates =
-                            calculateSummaryStats(model.gradient().gradientForVariable(), StatType.MeanMagnitude);
-            report.reportMeanMagnitudes(StatsType.Updates, meanMagUpdates);
+        private CollectStatsTask(StatsReport report, StatsUpdateConfiguration config, Map<String, INDArray> params,
+                        Map<String, INDArray> gradients, Map<String, INDArray> updates,
+                        Map<String, INDArray> activations, long startTime) {
+            this.report = report;
+            this.config = config;
+            this.params = params;
+            this.gradients = gradients;
+            this.updates = updates;
+            this.activations = activations;
+            this.startTime = startTime;
         }
 
-        if (config.collectMeanMagnitudes(StatsType.Activations)) {
-            Map<String, Double> meanMagActivations = calculateSummaryStats(activationsMap, StatType.MeanMagnitude);
-            report.reportMeanMagnitudes(StatsType.Activations, meanMagActivations);
+        @Override
+        public void run() {
+            collectArrayStats(report, config, params, gradients, updates, activations, startTime);
         }
-
-
-        long endTime = getTime();
-        report.reportStatsCollectionDurationMS((int) (endTime - currentTime)); //Amount of time required to alculate all histograms, means etc.
-        modelInfo.lastReportTime = currentTime;
-        modelInfo.lastReportIteration = iteration;
-        report.reportIterationCount(iteration);
-
-        this.router.putUpdate(report);
-
-        modelInfo.iterCount = iteration;
-        activationsMap = null;
     }
 
     private long getTime() {
@@ -709,61 +775,6 @@ public abstract class BaseStatsListener implements RoutingIterationListener {
         return model instanceof MultiLayerNetwork || model instanceof ComputationGraph;
     }
 
-    private static Map<String, Double> calculateSummaryStats(Map<String, INDArray> source, StatType statType) {
-        Map<String, Double> out = new LinkedHashMap<>();
-
-        if (source == null)
-            return out;
-
-        for (Map.Entry<String, INDArray> entry : source.entrySet()) {
-            String name = entry.getKey();
-            double value;
-            switch (statType) {
-                case Mean:
-                    value = entry.getValue().meanNumber().doubleValue();
-                    break;
-                case Stdev:
-                    value = entry.getValue().stdNumber().doubleValue();
-                    break;
-                case MeanMagnitude:
-                    value = entry.getValue().norm1Number().doubleValue() / entry.getValue().length();
-                    break;
-                default:
-                    throw new RuntimeException(); //Should never happen
-            }
-            out.put(name, value);
-        }
-        return out;
-    }
-
-    private static Map<String, Histogram> getHistograms(Map<String, INDArray> map, int nBins) {
-        Map<String, Histogram> out = new LinkedHashMap<>();
-
-        if (map == null)
-            return out;
-
-        for (Map.Entry<String, INDArray> entry : map.entrySet()) {
-
-            org.nd4j.linalg.api.ops.impl.transforms.Histogram hOp =
-                            new org.nd4j.linalg.api.ops.impl.transforms.Histogram(entry.getValue(), nBins);
-            Nd4j.getExecutioner().exec(hOp);
-
-            INDArray bins = hOp.z();
-            int[] count = new int[nBins];
-            for (int i = 0; i < bins.length(); i++) {
-                count[i] = (int) bins.getDouble(i);
-            }
-
-            double min = entry.getValue().minNumber().doubleValue();
-            double max = entry.getValue().maxNumber().doubleValue();
-
-            Histogram h = new Histogram(min, max, nBins, count);
-
-            out.put(entry.getKey(), h);
-        }
-        return out;
-    }
-
     @Override
     public abstract BaseStatsListener clone();
 }
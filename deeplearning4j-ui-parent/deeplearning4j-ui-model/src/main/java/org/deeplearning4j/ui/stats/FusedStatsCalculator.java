@@ -0,0 +1,243 @@
+package org.deeplearning4j.ui.stats;
+
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.concurrency.AffinityManager;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Calculates all of the summary statistics used by the {@link BaseStatsListener} (mean, standard deviation, mean
+ * magnitude, min, max and histogram bin counts) for an array in two passes over the array values, instead of one
+ * op (i.e., one full pass) per statistic.<br>
+ * Array values are bulk-copied into a primitive buffer that is reused between arrays and between calls, hence the
+ * calculations don't allocate (other than for growing the buffers to the size of the largest array seen so far).
+ * <p>
+ * Results are consistent with the equivalent ND4J ops: the standard deviation is bias-corrected, and the histogram
+ * bins are equally spaced between the min and max values (as per the ND4J Histogram op)
+ * <p>
+ * Not thread safe: use one instance per thread.
+ */
+public class FusedStatsCalculator {
+
+    private float[] floatBuffer = new float[0];
+    private double[] doubleBuffer = new double[0];
+    private int[] binCounts = new int[0];
+
+    private long n;
+    private double mean;
+    private double stdev;
+    private double meanMagnitude;
+    private double min;
+    private double max;
+    private int nBins;
+
+    /**
+     * Calculate the statistics for the given array. Results are available via the getters until the next call.
+     *
+     * @param array Array to calculate the statistics for
+     * @param stdev Whether the standard deviation should be calculated
+     * @param nBins Number of histogram bins. If 0: no histogram is calculated
+     */
+    public void calculate(INDArray array, boolean stdev, int nBins) {
+        this.nBins = nBins;
+        int length = (int) array.length();
+        n = length;
+        if (nBins > 0) {
+            if (binCounts.length < nBins)
+                binCounts = new int[nBins];
+            Arrays.fill(binCounts, 0, nBins, 0);
+        }
+        if (length == 0) {
+            mean = Double.NaN;
+            this.stdev = Double.NaN;
+            meanMagnitude = Double.NaN;
+            min = Double.NaN;
+            max = Double.NaN;
+            return;
+        }
+
+        if (array.data().dataType() == DataBuffer.Type.DOUBLE) {
+            copyDouble(array, length);
+            calculateDouble(length, stdev, nBins);
+        } else {
+            copyFloat(array, length);
+            calculateFloat(length, stdev, nBins);
+        }
+    }
+
+    private void copyFloat(INDArray array, int length) {
+        if (floatBuffer.length < length)
+            floatBuffer = new float[length];
+
+        DataBuffer.Type type = array.data().dataType();
+        INDArray contiguous = getContiguous(array);
+        if (type == DataBuffer.Type.FLOAT) {
+            FloatBuffer fb = contiguous.data().asNioFloat();
+            fb.position((int) contiguous.offset());
+            fb.get(floatBuffer, 0, length);
+        } else {
+            //Half precision etc: no direct NIO view
+            DataBuffer db = contiguous.data();
+            long offset = contiguous.offset();
+            for (int i = 0; i < length; i++) {
+                floatBuffer[i] = db.getFloat(offset + i);
+            }
+        }
+    }
+
+    private void copyDouble(INDArray array, int length) {
+        if (doubleBuffer.length < length)
+            doubleBuffer = new double[length];
+
+        INDArray contiguous = getContiguous(array);
+        DoubleBuffer db = contiguous.data().asNioDouble();
+        db.position((int) contiguous.offset());
+        db.get(doubleBuffer, 0, length);
+    }
+
+    private static INDArray getContiguous(INDArray array) {
+        //Order of the values doesn't matter for these statistics: only need the values to be in one contiguous block
+        INDArray out = array;
+        if (array.elementWiseStride() != 1) {
+            try (MemoryWorkspace ws = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+                out = array.dup();
+            }
+        }
+        //Values are read directly from the buffer: make sure they are up to date on the host (CUDA)
+        Nd4j.getAffinityManager().ensureLocation(out, AffinityManager.Location.HOST);
+        return out;
+    }
+
+    private void calculateFloat(int length, boolean calcStdev, int nBins) {
+        float[] buffer = floatBuffer;
+        double sum = 0.0;
+        double sumAbs = 0.0;
+        float min = buffer[0];
+        float max = buffer[0];
+        for (int i = 0; i < length; i++) {
+            float f = buffer[i];
+            sum += f;
+            sumAbs += Math.abs(f);
+            if (f < min)
+                min = f;
+            if (f > max)
+                max = f;
+        }
+        setFirstPassResults(sum, sumAbs, min, max, length);
+
+        if (!calcStdev && nBins <= 0)
+            return;
+
+        //Second pass: sum of squared deviations (more accurate than sum of squares) and histogram
+        double m = mean;
+        double sumSqDev = 0.0;
+        double binSize = (max - min) / (double) nBins;
+        int[] bins = binCounts;
+        for (int i = 0; i < length; i++) {
+            double d = buffer[i] - m;
+            sumSqDev += d * d;
+            if (nBins > 0)
+                bins[binIndex(buffer[i], min, binSize, nBins)]++;
+        }
+        setStdev(sumSqDev, length, calcStdev);
+    }
+
+    private void calculateDouble(int length, boolean calcStdev, int nBins) {
+        double[] buffer = doubleBuffer;
+        double sum = 0.0;
+        double sumAbs = 0.0;
+        double min = buffer[0];
+        double max = buffer[0];
+        for (int i = 0; i < length; i++) {
+            double d = buffer[i];
+            sum += d;
+            sumAbs += Math.abs(d);
+            if (d < min)
+                min = d;
+            if (d > max)
+                max = d;
+        }
+        setFirstPassResults(sum, sumAbs, min, max, length);
+
+        if (!calcStdev && nBins <= 0)
+            return;
+
+        double m = mean;
+        double sumSqDev = 0.0;
+        double binSize = (max - min) / nBins;
+        int[] bins = binCounts;
+        for (int i = 0; i < length; i++) {
+            double d = buffer[i] - m;
+            sumSqDev += d * d;
+            if (nBins > 0)
+                bins[binIndex(buffer[i], min, binSize, nBins)]++;
+        }
+        setStdev(sumSqDev, length, calcStdev);
+    }
+
+    private void setFirstPassResults(double sum, double sumAbs, double min, double max, int length) {
+        this.mean = sum / length;
+        this.meanMagnitude = sumAbs / length;
+        this.min = min;
+        this.max = max;
+        this.stdev = Double.NaN;
+    }
+
+    private void setStdev(double sumSqDev, int length, boolean calcStdev) {
+        if (calcStdev)
+            this.stdev = (length > 1 ? Math.sqrt(sumSqDev / (length - 1)) : 0.0);
+    }
+
+    private static int binIndex(double value, double min, double binSize, int nBins) {
+        if (binSize <= 0.0)
+            return 0; //All values equal
+        int idx = (int) ((value - min) / binSize);
+        if (idx < 0)
+            return 0;
+        if (idx >= nBins)
+            return nBins - 1;
+        return idx;
+    }
+
+    /** @return Number of values in the last array */
+    public long getN() {
+        return n;
+    }
+
+    /** @return Mean of the last array */
+    public double getMean() {
+        return mean;
+    }
+
+    /** @return Standard deviation (bias-corrected) of the last array. NaN if not calculated */
+    public double getStdev() {
+        return stdev;
+    }
+
+    /** @return Mean magnitude (mean of absolute values) of the last array */
+    public double getMeanMagnitude() {
+        return meanMagnitude;
+    }
+
+    /** @return Minimum value of the last array */
+    public double getMin() {
+        return min;
+    }
+
+    /** @return Maximum value of the last array */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * @return A copy of the histogram bin counts for the last array
+     */
+    public int[] getHistogramCounts() {
+        return Arrays.copyOf(binCounts, nBins);
+    }
+}
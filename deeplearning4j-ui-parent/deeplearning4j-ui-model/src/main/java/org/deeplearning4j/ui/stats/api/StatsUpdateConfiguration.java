@@ -86,4 +86,14 @@ public interface StatsUpdateConfiguration extends Serializable {
      */
     boolean collectMeanMagnitudes(StatsType type);
 
+    //--- Collection ---
+
+    /**
+     * Should the histograms and summary stats be calculated asynchronously? If true, copies of the required arrays
+     * (parameters, gradients, updates, activations) are made on the training thread, and the stats are calculated and
+     * reported from a separate thread. At most one report is being calculated at any time: if the previous report
+     * has not yet been completed, the training thread waits for it before creating the next one.
+     */
+    boolean asyncStatsCollection();
+
 }
@@ -34,6 +34,7 @@ public class DefaultStatsUpdateConfiguration implements StatsUpdateConfiguration
     private boolean collectMeanMagnitudesGradients = true;
     private boolean collectMeanMagnitudesUpdates = true;
     private boolean collectMeanMagnitudesActivations = true;
+    private boolean asyncStatsCollection = false;
 
     private DefaultStatsUpdateConfiguration(Builder b) {
         this.reportingFrequency = b.reportingFrequency;
@@ -58,6 +59,7 @@ public class DefaultStatsUpdateConfiguration implements StatsUpdateConfiguration
         this.collectMeanMagnitudesGradients = b.collectMeanMagnitudesGradients;
         this.collectMeanMagnitudesUpdates = b.collectMeanMagnitudesUpdates;
         this.collectMeanMagnitudesActivations = b.collectMeanMagnitudesActivations;
+        this.asyncStatsCollection = b.asyncStatsCollection;
     }
 
     @Override
@@ -91,7 +93,7 @@ public class DefaultStatsUpdateConfiguration implements StatsUpdateConfiguration
             case Parameters:
                 return collectHistogramsParameters;
             case Gradients:
-                return collectStdevGradients;
+                return collectHistogramsGradients;
             case Updates:
                 return collectHistogramsUpdates;
             case Activations:
@@ -150,6 +152,11 @@ public class DefaultStatsUpdateConfiguration implements StatsUpdateConfiguration
         return false;
     }
 
+    @Override
+    public boolean asyncStatsCollection() {
+        return asyncStatsCollection;
+    }
+
     public static class Builder {
         private int reportingFrequency = DEFAULT_REPORTING_FREQUENCY;
         private boolean collectPerformanceStats = true;
@@ -173,6 +180,7 @@ public class DefaultStatsUpdateConfiguration implements StatsUpdateConfiguration
         private boolean collectMeanMagnitudesGradients = true;
         private boolean collectMeanMagnitudesUpdates = true;
         private boolean collectMeanMagnitudesActivations = true;
+        private boolean asyncStatsCollection = false;
 
         public Builder reportingFrequency(int reportingFrequency) {
             this.reportingFrequency = reportingFrequency;
@@ -284,6 +292,15 @@ public class DefaultStatsUpdateConfiguration implements StatsUpdateConfiguration
             return this;
         }
 
+        /**
+         * If true: calculate histograms and summary stats on a separate thread, using copies of the arrays.
+         * See {@link StatsUpdateConfiguration#asyncStatsCollection()}
+         */
+        public Builder asyncStatsCollection(boolean asyncStatsCollection) {
+            this.asyncStatsCollection = asyncStatsCollection;
+            return this;
+        }
+
         public DefaultStatsUpdateConfiguration build() {
             return new DefaultStatsUpdateConfiguration(this);
         }
@@ -7,6 +7,7 @@ import org.deeplearning4j.api.storage.*;
 import java.io.Serializable;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 
 /**
  * An implementation of the {@link StatsStorage} interface, backed by MapDB
@@ -20,6 +21,8 @@ public abstract class BaseCollectionStatsStorage implements StatsStorage {
     protected Map<SessionTypeWorkerId, Persistable> staticInfo;
 
     protected Map<SessionTypeWorkerId, Map<Long, Persistable>> updates = new ConcurrentHashMap<>();
+    //Sorted update times, for range queries. Built lazily from the update map keys (which may be unordered)
+    protected final Map<SessionTypeWorkerId, NavigableSet<Long>> updateTimes = new ConcurrentHashMap<>();
 
     protected List<StatsStorageListener> listeners = new ArrayList<>();
 
@@ -30,6 +33,47 @@ public abstract class BaseCollectionStatsStorage implements StatsStorage {
     protected abstract Map<Long, Persistable> getUpdateMap(String sessionID, String typeID, String workerID,
                     boolean createIfRequired);
 
+    /**
+     * Get the sorted update times for the given ID, building the index from the update map if required.
+     *
+     * @return Sorted update times, or null if there are no updates for the given ID
+     */
+    protected NavigableSet<Long> getUpdateTimeIndex(SessionTypeWorkerId id) {
+        NavigableSet<Long> index = updateTimes.get(id);
+        if (index != null)
+            return index;
+
+        Map<Long, Persistable> map = updates.get(id);
+        if (map == null)
+            return null;
+        synchronized (updateTimes) {
+            index = updateTimes.get(id);
+            if (index == null) {
+                index = new ConcurrentSkipListSet<>(map.keySet());
+                updateTimes.put(id, index);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Add the update's time to the sorted update time index. Should be called after the update has been added to
+     * the update map.
+     */
+    protected void indexUpdateTime(Persistable update) {
+        SessionTypeWorkerId id = new SessionTypeWorkerId(update.getSessionID(), update.getTypeID(),
+                        update.getWorkerID());
+        NavigableSet<Long> index = updateTimes.get(id);
+        if (index == null) {
+            //Index may be being built concurrently; if not, it will be built from the update map when first needed
+            synchronized (updateTimes) {
+                index = updateTimes.get(id);
+            }
+        }
+        if (index != null)
+            index.add(update.getTimeStamp());
+    }
+
     //Return any relevant storage events
     //We want to return these so they can be logged later. Can't be logged immediately, as this may case a race
     //condition with whatever is receiving the events: i.e., might get the event before the contents are actually
@@ -216,13 +260,10 @@ public abstract class BaseCollectionStatsStorage implements StatsStorage {
     public Persistable getLatestUpdate(String sessionID, String typeID, String workerID) {
         SessionTypeWorkerId id = new SessionTypeWorkerId(sessionID, typeID, workerID);
         Map<Long, Persistable> map = updates.get(id);
-        if (map == null || map.isEmpty())
+        NavigableSet<Long> index = getUpdateTimeIndex(id);
+        if (map == null || index == null || index.isEmpty())
             return null;
-        long maxTime = Long.MIN_VALUE;
-        for (Long l : map.keySet()) {
-            maxTime = Math.max(maxTime, l);
-        }
-        return map.get(maxTime);
+        return map.get(index.last());
     }
 
     @Override
@@ -311,18 +352,11 @@ public abstract class BaseCollectionStatsStorage implements StatsStorage {
     @Override
     public long[] getAllUpdateTimes(String sessionID, String typeID, String workerID) {
         SessionTypeWorkerId stw = new SessionTypeWorkerId(sessionID, typeID, workerID);
-        Map<Long,Persistable> m = updates.get(stw);
-        if(m == null){
+        NavigableSet<Long> index = getUpdateTimeIndex(stw);
+        if(index == null){
             return new long[0];
         }
-
-        long[] ret = new long[m.size()];
-        int i=0;
-        for(Long l : m.keySet()){
-            ret[i++] = l;
-        }
-        Arrays.sort(ret);
-        return ret;
+        return toArray(index);
     }
 
     @Override
@@ -343,6 +377,77 @@ public abstract class BaseCollectionStatsStorage implements StatsStorage {
         return ret;
     }
 
+    @Override
+    public List<Persistable> getLatestUpdates(String sessionID, String typeID, String workerID, int maxCount) {
+        NavigableSet<Long> index = getUpdateTimeIndex(new SessionTypeWorkerId(sessionID, typeID, workerID));
+        if (index == null || maxCount <= 0) {
+            return Collections.emptyList();
+        }
+
+        LinkedList<Long> times = new LinkedList<>();
+        Iterator<Long> iter = index.descendingIterator();
+        while (times.size() < maxCount && iter.hasNext()) {
+            times.addFirst(iter.next());
+        }
+        long[] arr = new long[times.size()];
+        int i = 0;
+        for (Long l : times) {
+            arr[i++] = l;
+        }
+        return getUpdates(sessionID, typeID, workerID, arr);
+    }
+
+    @Override
+    public long[] getUpdateTimesInRange(String sessionID, String typeID, String workerID, long fromExclusive,
+                    long toInclusive) {
+        NavigableSet<Long> index = getUpdateTimeIndex(new SessionTypeWorkerId(sessionID, typeID, workerID));
+        if (index == null || fromExclusive >= toInclusive) {
+            return new long[0];
+        }
+        return toArray(index.subSet(fromExclusive, false, toInclusive, true));
+    }
+
+    @Override
+    public List<Persistable> getUpdatesInRange(String sessionID, String typeID, String workerID, long fromExclusive,
+                    long toInclusive, int maxPoints) {
+        long[] times = getUpdateTimesInRange(sessionID, typeID, workerID, fromExclusive, toInclusive);
+        return getUpdates(sessionID, typeID, workerID, UpdateSampling.subsample(times, maxPoints));
+    }
+
+    @Override
+    public List<UpdateBucket> getUpdateBuckets(String sessionID, String typeID, String workerID, long fromExclusive,
+                    long toInclusive, int numBuckets, UpdateValueFunction valueFunction) {
+        SessionTypeWorkerId stw = new SessionTypeWorkerId(sessionID, typeID, workerID);
+        Map<Long, Persistable> m = updates.get(stw);
+        long[] times = getUpdateTimesInRange(sessionID, typeID, workerID, fromExclusive, toInclusive);
+        if (m == null || times.length == 0) {
+            return Collections.emptyList();
+        }
+
+        UpdateSampling.BucketAccumulator acc =
+                        new UpdateSampling.BucketAccumulator(times[0], times[times.length - 1], numBuckets);
+        for (long l : times) {
+            Persistable p = m.get(l);
+            if (p != null) {
+                acc.add(l, valueFunction.getValue(p));
+            }
+        }
+        return acc.getBuckets();
+    }
+
+    private static long[] toArray(Collection<Long> times) {
+        long[] ret = new long[times.size()];
+        int i = 0;
+        for (Long l : times) {
+            if (i == ret.length) {
+                //Concurrent modification (new update added): ignore any new times
+                break;
+            }
+            ret[i++] = l;
+        }
+        return (i == ret.length ? ret : Arrays.copyOf(ret, i));
+    }
+
     // ----- Store new info -----
 
     @Override
@@ -1,6 +1,7 @@
 package org.deeplearning4j.ui.storage.sqlite;
 
 import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
 import org.deeplearning4j.api.storage.*;
 import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
 import org.nd4j.linalg.primitives.Pair;
@@ -8,6 +9,11 @@ import org.nd4j.linalg.primitives.Pair;
 import java.io.*;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A Java 7 compatible file-based {@link StatsStorage} implementation, based on SQLite.
@@ -15,11 +21,21 @@ import java.util.*;
  * on MapDB).
  * Obviously, the storage formats for J7FileStatsStorage and {@link org.deeplearning4j.ui.storage.FileStatsStorage} are
  * incompatible.
+ * <p>
+ * Updates are written behind: they are buffered in memory, and written to the database in a single transaction once
+ * there are maxBatchSize of them, or after at most maxFlushDelayMs milliseconds (whichever comes first). Queries
+ * flush any buffered updates first, so they always see all updates put so far. Use {@link #flush()} to force
+ * buffered updates to be written; they are also written when the storage is closed.
+ * Static info and metadata are written synchronously (in one transaction per call).
  *
  * @author Alex Black
  */
+@Slf4j
 public class J7FileStatsStorage implements StatsStorage {
 
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+    public static final long DEFAULT_MAX_FLUSH_DELAY_MS = 1000;
+
     private static final String TABLE_NAME_METADATA = "StorageMetaData";
     private static final String TABLE_NAME_STATIC_INFO = "StaticInfo";
     private static final String TABLE_NAME_UPDATES = "Updates";
@@ -31,15 +47,103 @@ public class J7FileStatsStorage implements StatsStorage {
     private static final String INSERT_UPDATE_SQL = "INSERT OR REPLACE INTO " + TABLE_NAME_UPDATES
                     + " (SessionID, TypeID, WorkerID, Timestamp, ObjectClass, ObjectBytes) VALUES ( ?, ?, ?, ?, ?, ? );";
 
+    //Lookups by (SessionID, TypeID, WorkerID[, Timestamp]) use the primary key indexes; this one is for queries
+    // across all workers
+    private static final String CREATE_UPDATES_INDEX_SQL = "CREATE INDEX IF NOT EXISTS Updates_SessionTypeTime ON "
+                    + TABLE_NAME_UPDATES + " (SessionID, TypeID, Timestamp);";
+
+    private static final String SESSION_EXISTS_META_SQL =
+                    "SELECT 1 FROM " + TABLE_NAME_METADATA + " WHERE SessionID = ? LIMIT 1;";
+    private static final String SESSION_EXISTS_STATIC_SQL =
+                    "SELECT 1 FROM " + TABLE_NAME_STATIC_INFO + " WHERE SessionID = ? LIMIT 1;";
+    private static final String SELECT_STATIC_SQL = "SELECT ObjectBytes FROM " + TABLE_NAME_STATIC_INFO
+                    + " WHERE SessionID = ? AND TypeID = ? AND WorkerID = ?;";
+    private static final String SELECT_ALL_STATIC_SQL =
+                    "SELECT ObjectBytes FROM " + TABLE_NAME_STATIC_INFO + " WHERE SessionID = ? AND TypeID = ?;";
+    private static final String COUNT_UPDATES_SESSION_SQL =
+                    "SELECT COUNT(*) FROM " + TABLE_NAME_UPDATES + " WHERE SessionID = ?;";
+    private static final String COUNT_UPDATES_WORKER_SQL = "SELECT COUNT(*) FROM " + TABLE_NAME_UPDATES
+                    + " WHERE SessionID = ? AND TypeID = ? AND WorkerID = ?;";
+    private static final String SELECT_LATEST_UPDATE_SQL = "SELECT ObjectBytes FROM " + TABLE_NAME_UPDATES
+                    + " WHERE SessionID = ? AND TypeID = ? AND WorkerID = ? ORDER BY Timestamp DESC LIMIT 1;";
+    private static final String SELECT_UPDATE_SQL = "SELECT ObjectBytes FROM " + TABLE_NAME_UPDATES
+                    + " WHERE SessionID = ? AND TypeID = ? AND WorkerID = ? AND Timestamp = ?;";
+    private static final String SELECT_LATEST_UPDATE_ALL_WORKERS_SQL = "SELECT u.ObjectBytes FROM "
+                    + TABLE_NAME_UPDATES + " u JOIN (SELECT WorkerID, MAX(Timestamp) AS MaxTimestamp FROM "
+                    + TABLE_NAME_UPDATES + " WHERE SessionID = ? AND TypeID = ? GROUP BY WorkerID) m"
+                    + " ON u.WorkerID = m.WorkerID AND u.Timestamp = m.MaxTimestamp"
+                    + " WHERE u.SessionID = ? AND u.TypeID = ?;";
+    private static final String SELECT_UPDATES_AFTER_WORKER_SQL = "SELECT ObjectBytes FROM " + TABLE_NAME_UPDATES
+                    + " WHERE SessionID = ? AND TypeID = ? AND WorkerID = ? AND Timestamp > ? ORDER BY Timestamp;";
+    private static final String SELECT_UPDATES_AFTER_SQL = "SELECT ObjectBytes FROM " + TABLE_NAME_UPDATES
+                    + " WHERE SessionID = ? AND TypeID = ? AND Timestamp > ? ORDER BY Timestamp;";
+    private static final String SELECT_UPDATE_TIMES_SQL = "SELECT Timestamp FROM " + TABLE_NAME_UPDATES
+                    + " WHERE SessionID = ? AND TypeID = ? AND WorkerID = ? ORDER BY Timestamp;";
+    private static final String SELECT_LATEST_UPDATES_SQL = "SELECT ObjectBytes FROM " + TABLE_NAME_UPDATES
+                    + " WHERE SessionID = ? AND TypeID = ? AND WorkerID = ? ORDER BY Timestamp DESC LIMIT ?;";
+    private static final String SELECT_UPDATE_TIMES_RANGE_SQL = "SELECT Timestamp FROM " + TABLE_NAME_UPDATES
+                    + " WHERE SessionID = ? AND TypeID = ? AND WorkerID = ? AND Timestamp > ? AND Timestamp <= ?"
+                    + " ORDER BY Timestamp;";
+    private static final String SELECT_UPDATES_RANGE_SQL = "SELECT ObjectBytes, Timestamp FROM " + TABLE_NAME_UPDATES
+                    + " WHERE SessionID = ? AND TypeID = ? AND WorkerID = ? AND Timestamp > ? AND Timestamp <= ?"
+                    + " ORDER BY Timestamp;";
+    private static final String SELECT_META_SQL = "SELECT ObjectBytes FROM " + TABLE_NAME_METADATA
+                    + " WHERE SessionID = ? AND TypeID = ? LIMIT 1;";
+
     private final File file;
     private final Connection connection;
     private List<StatsStorageListener> listeners = new ArrayList<>();
 
+    //Prepared statements, by SQL. Guarded by connection
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+    //Write-behind buffer for updates. Guarded by itself; when both are held, lock connection first
+    private final int maxBatchSize;
+    private final List<PendingUpdate> pending = new ArrayList<>();
+    private final ScheduledExecutorService flushExecutor;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile RuntimeException flushException;
+
+    //Session/type/worker IDs seen so far, for generating storage events without querying the database.
+    // Guarded by knownSessionIDs
+    private final Set<String> knownSessionIDs = new HashSet<>();
+    private final Set<List<String>> knownTypeIDs = new HashSet<>();
+    private final Set<List<String>> knownWorkerIDs = new HashSet<>();
+
+    private static class PendingUpdate {
+        private final String sessionID;
+        private final String typeID;
+        private final String workerID;
+        private final long timestamp;
+        private final String objectClass;
+        private final byte[] objectBytes;
+
+        private PendingUpdate(Persistable p, Pair<String, byte[]> serialized) {
+            this.sessionID = p.getSessionID();
+            this.typeID = p.getTypeID();
+            this.workerID = p.getWorkerID();
+            this.timestamp = p.getTimeStamp();
+            this.objectClass = serialized.getFirst();
+            this.objectBytes = serialized.getSecond();
+        }
+    }
+
     /**
      * @param file Storage location for the stats
      */
     public J7FileStatsStorage(@NonNull File file) {
+        this(file, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_FLUSH_DELAY_MS);
+    }
+
+    /**
+     * @param file            Storage location for the stats
+     * @param maxBatchSize    Maximum number of updates to buffer before writing them to the database
+     * @param maxFlushDelayMs Maximum amount of time to buffer updates for before writing them to the database.
+     *                        If maxFlushDelayMs <= 0 or maxBatchSize <= 1, updates are written synchronously
+     */
+    public J7FileStatsStorage(@NonNull File file, int maxBatchSize, long maxFlushDelayMs) {
         this.file = file;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
 
         try {
             connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
@@ -49,9 +153,29 @@ public class J7FileStatsStorage implements StatsStorage {
 
         try {
             initializeTables();
+            loadKnownIDs();
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+
+        if (maxFlushDelayMs > 0 && this.maxBatchSize > 1) {
+            flushExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "J7FileStatsStorage-flush");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+            flushExecutor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    backgroundFlush();
+                }
+            }, maxFlushDelayMs, maxFlushDelayMs, TimeUnit.MILLISECONDS);
+        } else {
+            flushExecutor = null;
+        }
     }
 
     private void initializeTables() throws SQLException {
@@ -100,10 +224,41 @@ public class J7FileStatsStorage implements StatsStorage {
                             + "PRIMARY KEY ( SessionID, TypeID, WorkerID, Timestamp )" + ");");
         }
 
+        //Also added to existing files
+        statement.executeUpdate(CREATE_UPDATES_INDEX_SQL);
+
         statement.close();
 
     }
 
+    private void loadKnownIDs() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            ResultSet rs = statement
+                            .executeQuery("SELECT DISTINCT SessionID, TypeID FROM " + TABLE_NAME_METADATA + ";");
+            while (rs.next()) {
+                registerIDs(rs.getString(1), rs.getString(2), null);
+            }
+            for (String table : new String[] {TABLE_NAME_STATIC_INFO, TABLE_NAME_UPDATES}) {
+                rs = statement.executeQuery("SELECT DISTINCT SessionID, TypeID, WorkerID FROM " + table + ";");
+                while (rs.next()) {
+                    registerIDs(rs.getString(1), rs.getString(2), rs.getString(3));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Flags: new session ID, new type ID, new worker ID
+     */
+    private boolean[] registerIDs(String sessionID, String typeID, String workerID) {
+        synchronized (knownSessionIDs) {
+            boolean newSID = knownSessionIDs.add(sessionID);
+            boolean newTID = knownTypeIDs.add(Arrays.asList(sessionID, typeID));
+            boolean newWID = workerID != null && knownWorkerIDs.add(Arrays.asList(sessionID, typeID, workerID));
+            return new boolean[] {newSID, newTID, newWID};
+        }
+    }
+
     private static Pair<String, byte[]> serializeForDB(Object object) {
         String classStr = object.getClass().getName();
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -125,15 +280,60 @@ public class J7FileStatsStorage implements StatsStorage {
         }
     }
 
-    private <T> T queryAndGet(String sql, int columnIndex) {
-        try (Statement statement = connection.createStatement()) {
-            ResultSet rs = statement.executeQuery(sql);
-            if (!rs.next())
-                return null;
-            byte[] bytes = rs.getBytes(columnIndex);
-            return deserialize(bytes);
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
+    /**
+     * Get a (cached) prepared statement for the given SQL, with the parameters set. Must be called while holding
+     * the lock on the connection; the statement may only be used while holding the lock.
+     */
+    private PreparedStatement prepare(String sql, Object... params) throws SQLException {
+        PreparedStatement ps = statements.get(sql);
+        if (ps == null) {
+            ps = connection.prepareStatement(sql);
+            statements.put(sql, ps);
+        }
+        for (int i = 0; i < params.length; i++) {
+            ps.setObject(i + 1, params[i]);
+        }
+        return ps;
+    }
+
+    private <T> T queryAndGet(String sql, Object... params) {
+        flush();
+        synchronized (connection) {
+            try (ResultSet rs = prepare(sql, params).executeQuery()) {
+                if (!rs.next())
+                    return null;
+                byte[] bytes = rs.getBytes(1);
+                return deserialize(bytes);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private List<Persistable> queryAll(String sql, Object... params) {
+        flush();
+        synchronized (connection) {
+            try (ResultSet rs = prepare(sql, params).executeQuery()) {
+                List<Persistable> out = new ArrayList<>();
+                while (rs.next()) {
+                    byte[] bytes = rs.getBytes(1);
+                    out.add((Persistable) deserialize(bytes));
+                }
+                return out;
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private int queryCount(String sql, Object... params) {
+        flush();
+        synchronized (connection) {
+            try (ResultSet rs = prepare(sql, params).executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
         }
     }
 
@@ -141,103 +341,116 @@ public class J7FileStatsStorage implements StatsStorage {
                     String conditionColumn, String conditionValue) {
         Set<String> unique = new HashSet<>();
 
-        try (Statement statement = connection.createStatement()) {
-            if (queryMeta) {
-                queryHelper(statement, querySqlHelper(columnName, TABLE_NAME_METADATA, conditionColumn, conditionValue),
-                                unique);
-            }
+        flush();
+        synchronized (connection) {
+            try {
+                if (queryMeta) {
+                    queryHelper(querySqlHelper(columnName, TABLE_NAME_METADATA, conditionColumn), conditionValue,
+                                    unique);
+                }
 
-            if (queryStatic) {
-                queryHelper(statement,
-                                querySqlHelper(columnName, TABLE_NAME_STATIC_INFO, conditionColumn, conditionValue),
-                                unique);
-            }
+                if (queryStatic) {
+                    queryHelper(querySqlHelper(columnName, TABLE_NAME_STATIC_INFO, conditionColumn), conditionValue,
+                                    unique);
+                }
 
-            if (queryUpdates) {
-                queryHelper(statement, querySqlHelper(columnName, TABLE_NAME_UPDATES, conditionColumn, conditionValue),
-                                unique);
+                if (queryUpdates) {
+                    queryHelper(querySqlHelper(columnName, TABLE_NAME_UPDATES, conditionColumn), conditionValue,
+                                    unique);
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
             }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
         }
 
         return new ArrayList<>(unique);
     }
 
-    private String querySqlHelper(String columnName, String table, String conditionColumn, String conditionValue) {
+    private String querySqlHelper(String columnName, String table, String conditionColumn) {
         String unique = "SELECT DISTINCT " + columnName + " FROM " + table;
         if (conditionColumn != null) {
-            unique += " WHERE " + conditionColumn + " = '" + conditionValue + "'";
+            unique += " WHERE " + conditionColumn + " = ?";
         }
         unique += ";";
         return unique;
     }
 
-    private void queryHelper(Statement statement, String q, Set<String> unique) throws SQLException {
-        ResultSet rs = statement.executeQuery(q);
-        while (rs.next()) {
-            String str = rs.getString(1);
-            unique.add(str);
+    private void queryHelper(String sql, String conditionValue, Set<String> unique) throws SQLException {
+        PreparedStatement ps = (conditionValue == null ? prepare(sql) : prepare(sql, conditionValue));
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String str = rs.getString(1);
+                unique.add(str);
+            }
         }
     }
 
     protected List<StatsStorageEvent> checkStorageEvents(Persistable p) {
+        //IDs are tracked even without listeners, so that events are correct for listeners registered later
+        boolean[] isNew = registerIDs(p.getSessionID(), p.getTypeID(), p.getWorkerID());
+        boolean isNewSID = isNew[0];
+        boolean isNewTID = isNew[1];
+        boolean isNewWID = isNew[2];
+
         if (listeners.size() == 0)
             return null;
 
-        StatsStorageEvent newSID = null;
-        StatsStorageEvent newTID = null;
-        StatsStorageEvent newWID = null;
-
-        String sid = p.getSessionID();
-        String tid = p.getTypeID();
-        String wid = p.getWorkerID();
-
-        //Is this a new session ID? type ID? worker ID?
-
-        //This is not the most efficient approach
-        boolean isNewSID = false;
-        boolean isNewTID = false;
-        boolean isNewWID = false;
-        if (!listSessionIDs().contains(sid)) {
-            isNewSID = true;
-            isNewTID = true;
-            isNewWID = true;
-        }
-
-        if (!isNewTID && !listTypeIDsForSession(sid).contains(tid)) {
-            isNewTID = true;
-        }
-
-        if (!isNewWID && !listWorkerIDsForSessionAndType(sid, tid).contains(wid)) {
-            isNewWID = true;
-        }
-
+        if (!isNewSID && !isNewTID && !isNewWID)
+            return null;
+        List<StatsStorageEvent> sses = new ArrayList<>(3);
         if (isNewSID) {
-            newSID = new StatsStorageEvent(this, StatsStorageListener.EventType.NewSessionID, p.getSessionID(),
-                            p.getTypeID(), p.getWorkerID(), p.getTimeStamp());
+            sses.add(new StatsStorageEvent(this, StatsStorageListener.EventType.NewSessionID, p.getSessionID(),
+                            p.getTypeID(), p.getWorkerID(), p.getTimeStamp()));
         }
         if (isNewTID) {
-            newTID = new StatsStorageEvent(this, StatsStorageListener.EventType.NewTypeID, p.getSessionID(),
-                            p.getTypeID(), p.getWorkerID(), p.getTimeStamp());
+            sses.add(new StatsStorageEvent(this, StatsStorageListener.EventType.NewTypeID, p.getSessionID(),
+                            p.getTypeID(), p.getWorkerID(), p.getTimeStamp()));
         }
         if (isNewWID) {
-            newWID = new StatsStorageEvent(this, StatsStorageListener.EventType.NewWorkerID, p.getSessionID(),
-                            p.getTypeID(), p.getWorkerID(), p.getTimeStamp());
+            sses.add(new StatsStorageEvent(this, StatsStorageListener.EventType.NewWorkerID, p.getSessionID(),
+                            p.getTypeID(), p.getWorkerID(), p.getTimeStamp()));
         }
+        return sses;
+    }
 
-        if (!isNewSID && !isNewTID && !isNewWID)
-            return null;
-        List<StatsStorageEvent> sses = new ArrayList<>(3);
-        if (newSID != null)
-            sses.add(newSID);
-        if (newTID != null)
-            sses.add(newTID);
-        if (newWID != null)
-            sses.add(newWID);
+    private List<StatsStorageEvent> addEvents(List<StatsStorageEvent> sses, Persistable p,
+                    StatsStorageListener.EventType postEventType) {
+        List<StatsStorageEvent> ssesTemp = checkStorageEvents(p);
+        if (ssesTemp != null) {
+            if (sses == null)
+                sses = ssesTemp;
+            else
+                sses.addAll(ssesTemp);
+        }
+
+        if (listeners.size() > 0) {
+            StatsStorageEvent sse = new StatsStorageEvent(this, postEventType, p.getSessionID(), p.getTypeID(),
+                            p.getWorkerID(), p.getTimeStamp());
+            if (sses == null)
+                sses = new ArrayList<>();
+            sses.add(sse);
+        }
         return sses;
     }
 
+    /**
+     * Execute all rows added via {@link PreparedStatement#addBatch()} in a single transaction
+     */
+    private void executeBatchInTransaction(PreparedStatement ps) throws SQLException {
+        //Autocommit would commit (and sync to disk) each row separately
+        connection.setAutoCommit(false);
+        try {
+            ps.executeBatch();
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            ps.clearBatch();
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
     @Override
     public void putStorageMetaData(StorageMetaData storageMetaData) {
         putStorageMetaData(Collections.singletonList(storageMetaData));
@@ -246,39 +459,24 @@ public class J7FileStatsStorage implements StatsStorage {
     @Override
     public void putStorageMetaData(Collection<? extends StorageMetaData> collection) {
         List<StatsStorageEvent> sses = null;
-        try {
-            PreparedStatement ps = connection.prepareStatement(INSERT_META_SQL);
-
-            for (StorageMetaData storageMetaData : collection) {
-                List<StatsStorageEvent> ssesTemp = checkStorageEvents(storageMetaData);
-                if (ssesTemp != null) {
-                    if (sses == null)
-                        sses = ssesTemp;
-                    else
-                        sses.addAll(ssesTemp);
-                }
-
-                if (listeners.size() > 0) {
-                    StatsStorageEvent sse = new StatsStorageEvent(this, StatsStorageListener.EventType.PostMetaData,
-                                    storageMetaData.getSessionID(), storageMetaData.getTypeID(),
-                                    storageMetaData.getWorkerID(), storageMetaData.getTimeStamp());
-                    if (sses == null)
-                        sses = new ArrayList<>();
-                    sses.add(sse);
+        synchronized (connection) {
+            try {
+                PreparedStatement ps = prepare(INSERT_META_SQL);
+                for (StorageMetaData storageMetaData : collection) {
+                    sses = addEvents(sses, storageMetaData, StatsStorageListener.EventType.PostMetaData);
+
+                    Pair<String, byte[]> p = serializeForDB(storageMetaData);
+
+                    ps.setString(1, storageMetaData.getSessionID());
+                    ps.setString(2, storageMetaData.getTypeID());
+                    ps.setString(3, p.getFirst());
+                    ps.setBytes(4, p.getSecond());
+                    ps.addBatch();
                 }
-
-
-                //Normally we'd batch these... sqlite has an autocommit feature that messes up batching with .addBatch() and .executeUpdate()
-                Pair<String, byte[]> p = serializeForDB(storageMetaData);
-
-                ps.setString(1, storageMetaData.getSessionID());
-                ps.setString(2, storageMetaData.getTypeID());
-                ps.setString(3, p.getFirst());
-                ps.setObject(4, p.getSecond());
-                ps.executeUpdate();
+                executeBatchInTransaction(ps);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
             }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
         }
 
         notifyListeners(sses);
@@ -292,38 +490,25 @@ public class J7FileStatsStorage implements StatsStorage {
     @Override
     public void putStaticInfo(Collection<? extends Persistable> collection) {
         List<StatsStorageEvent> sses = null;
-        try {
-            PreparedStatement ps = connection.prepareStatement(INSERT_STATIC_SQL);
-
-            for (Persistable p : collection) {
-                List<StatsStorageEvent> ssesTemp = checkStorageEvents(p);
-                if (ssesTemp != null) {
-                    if (sses == null)
-                        sses = ssesTemp;
-                    else
-                        sses.addAll(ssesTemp);
+        synchronized (connection) {
+            try {
+                PreparedStatement ps = prepare(INSERT_STATIC_SQL);
+                for (Persistable p : collection) {
+                    sses = addEvents(sses, p, StatsStorageListener.EventType.PostStaticInfo);
+
+                    Pair<String, byte[]> pair = serializeForDB(p);
+
+                    ps.setString(1, p.getSessionID());
+                    ps.setString(2, p.getTypeID());
+                    ps.setString(3, p.getWorkerID());
+                    ps.setString(4, pair.getFirst());
+                    ps.setBytes(5, pair.getSecond());
+                    ps.addBatch();
                 }
-
-                if (listeners.size() > 0) {
-                    StatsStorageEvent sse = new StatsStorageEvent(this, StatsStorageListener.EventType.PostStaticInfo,
-                                    p.getSessionID(), p.getTypeID(), p.getWorkerID(), p.getTimeStamp());
-                    if (sses == null)
-                        sses = new ArrayList<>();
-                    sses.add(sse);
-                }
-
-                //Normally we'd batch these... sqlite has an autocommit feature that messes up batching with .addBatch() and .executeUpdate()
-                Pair<String, byte[]> pair = serializeForDB(p);
-
-                ps.setString(1, p.getSessionID());
-                ps.setString(2, p.getTypeID());
-                ps.setString(3, p.getWorkerID());
-                ps.setString(4, pair.getFirst());
-                ps.setBytes(5, pair.getSecond());
-                ps.executeUpdate();
+                executeBatchInTransaction(ps);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
             }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
         }
 
         notifyListeners(sses);
@@ -337,49 +522,117 @@ public class J7FileStatsStorage implements StatsStorage {
     @Override
     public void putUpdate(Collection<? extends Persistable> collection) {
         List<StatsStorageEvent> sses = null;
+        List<PendingUpdate> toWrite = new ArrayList<>(collection.size());
+        for (Persistable p : collection) {
+            sses = addEvents(sses, p, StatsStorageListener.EventType.PostUpdate);
+            toWrite.add(new PendingUpdate(p, serializeForDB(p)));
+        }
+
+        if (flushExecutor == null) {
+            writeUpdates(toWrite);
+        } else {
+            RuntimeException e = flushException;
+            if (e != null) {
+                flushException = null;
+                throw new RuntimeException("Error writing buffered updates", e);
+            }
 
-        try {
-            PreparedStatement ps = connection.prepareStatement(INSERT_UPDATE_SQL);
-
-            for (Persistable p : collection) {
-                List<StatsStorageEvent> ssesTemp = checkStorageEvents(p);
-                if (ssesTemp != null) {
-                    if (sses == null)
-                        sses = ssesTemp;
-                    else
-                        sses.addAll(ssesTemp);
-                }
-
-                if (listeners.size() > 0) {
-                    StatsStorageEvent sse = new StatsStorageEvent(this, StatsStorageListener.EventType.PostUpdate,
-                                    p.getSessionID(), p.getTypeID(), p.getWorkerID(), p.getTimeStamp());
-                    if (sses == null)
-                        sses = new ArrayList<>();
-                    sses.add(sse);
-                }
+            int size;
+            synchronized (pending) {
+                pending.addAll(toWrite);
+                size = pending.size();
+            }
+            if (size >= 4 * maxBatchSize) {
+                //Background writes are not keeping up: write in the caller's thread instead of buffering more
+                flush();
+            } else if (size >= maxBatchSize && flushScheduled.compareAndSet(false, true)) {
+                flushExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        flushScheduled.set(false);
+                        backgroundFlush();
+                    }
+                });
+            }
+        }
 
-                //Normally we'd batch these... sqlite has an autocommit feature that messes up batching with .addBatch() and .executeUpdate()
-                Pair<String, byte[]> pair = serializeForDB(p);
+        notifyListeners(sses);
+    }
 
-                ps.setString(1, p.getSessionID());
-                ps.setString(2, p.getTypeID());
-                ps.setString(3, p.getWorkerID());
-                ps.setLong(4, p.getTimeStamp());
-                ps.setString(5, pair.getFirst());
-                ps.setObject(6, pair.getSecond());
-                ps.executeUpdate();
+    /**
+     * Write any buffered updates to the database. If the write fails, the updates remain buffered (ahead of any
+     * updates added since), so that they are written by the next flush
+     */
+    public void flush() {
+        synchronized (connection) {
+            List<PendingUpdate> toWrite;
+            synchronized (pending) {
+                if (pending.isEmpty())
+                    return;
+                toWrite = new ArrayList<>(pending);
+                pending.clear();
+            }
+            try {
+                writeUpdates(toWrite);
+            } catch (RuntimeException e) {
+                //The batch was rolled back: put the updates back at the head of the buffer
+                synchronized (pending) {
+                    pending.addAll(0, toWrite);
+                }
+                throw e;
             }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
         }
+    }
 
-        notifyListeners(sses);
+    private void backgroundFlush() {
+        try {
+            if (!isClosed())
+                flush();
+        } catch (RuntimeException e) {
+            log.error("Error writing buffered updates to J7FileStatsStorage (file: {})", file, e);
+            flushException = e;
+        }
+    }
+
+    private void writeUpdates(List<PendingUpdate> updates) {
+        synchronized (connection) {
+            try {
+                PreparedStatement ps = prepare(INSERT_UPDATE_SQL);
+                for (PendingUpdate u : updates) {
+                    ps.setString(1, u.sessionID);
+                    ps.setString(2, u.typeID);
+                    ps.setString(3, u.workerID);
+                    ps.setLong(4, u.timestamp);
+                    ps.setString(5, u.objectClass);
+                    ps.setBytes(6, u.objectBytes);
+                    ps.addBatch();
+                }
+                executeBatchInTransaction(ps);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
     }
 
     @Override
     public void close() throws IOException {
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+        }
         try {
-            connection.close();
+            synchronized (connection) {
+                if (connection.isClosed())
+                    return;
+                try {
+                    flush();
+                } finally {
+                    for (PreparedStatement ps : statements.values()) {
+                        ps.close();
+                    }
+                    statements.clear();
+                    connection.close();
+                }
+            }
         } catch (Exception e) {
             throw new IOException(e);
         }
@@ -401,44 +654,31 @@ public class J7FileStatsStorage implements StatsStorage {
 
     @Override
     public boolean sessionExists(String sessionID) {
-        String existsMetaSQL = "SELECT 1 FROM " + TABLE_NAME_METADATA + " WHERE SessionID = '" + sessionID + "';";
-        String existsStaticSQL = "SELECT 1 FROM " + TABLE_NAME_STATIC_INFO + " WHERE SessionID = '" + sessionID + "';";
+        synchronized (connection) {
+            try {
+                try (ResultSet rs = prepare(SESSION_EXISTS_META_SQL, sessionID).executeQuery()) {
+                    if (rs.next()) {
+                        return true;
+                    }
+                }
 
-        try (Statement statement = connection.createStatement()) {
-            ResultSet rs = statement.executeQuery(existsMetaSQL);
-            if (rs.next()) {
-                return true;
+                try (ResultSet rs = prepare(SESSION_EXISTS_STATIC_SQL, sessionID).executeQuery()) {
+                    return rs.next();
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
             }
-
-            rs = statement.executeQuery(existsStaticSQL);
-            return rs.next();
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
         }
     }
 
     @Override
     public Persistable getStaticInfo(String sessionID, String typeID, String workerID) {
-        String selectStaticSQL = "SELECT ObjectBytes FROM " + TABLE_NAME_STATIC_INFO + " WHERE SessionID = '"
-                        + sessionID + "' AND TypeID = '" + typeID + "' AND WorkerID = '" + workerID + "';";
-        return queryAndGet(selectStaticSQL, 1);
+        return queryAndGet(SELECT_STATIC_SQL, sessionID, typeID, workerID);
     }
 
     @Override
     public List<Persistable> getAllStaticInfos(String sessionID, String typeID) {
-        String selectStaticSQL = "SELECT * FROM " + TABLE_NAME_STATIC_INFO + " WHERE SessionID = '" + sessionID
-                        + "' AND TypeID = '" + typeID + "';";
-        try (Statement statement = connection.createStatement()) {
-            ResultSet rs = statement.executeQuery(selectStaticSQL);
-            List<Persistable> out = new ArrayList<>();
-            while (rs.next()) {
-                byte[] bytes = rs.getBytes(5);
-                out.add((Persistable) deserialize(bytes));
-            }
-            return out;
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        return queryAll(SELECT_ALL_STATIC_SQL, sessionID, typeID);
     }
 
     @Override
@@ -453,27 +693,26 @@ public class J7FileStatsStorage implements StatsStorage {
 
     @Override
     public List<String> listWorkerIDsForSessionAndType(String sessionID, String typeID) {
-        String uniqueStatic = "SELECT DISTINCT WorkerID FROM " + TABLE_NAME_STATIC_INFO + " WHERE SessionID = '"
-                        + sessionID + "' AND TypeID = '" + typeID + "';";
-        String uniqueUpdates = "SELECT DISTINCT WorkerID FROM " + TABLE_NAME_UPDATES + " WHERE SessionID = '"
-                        + sessionID + "' AND TypeID = '" + typeID + "';";
+        String uniqueStatic = "SELECT DISTINCT WorkerID FROM " + TABLE_NAME_STATIC_INFO
+                        + " WHERE SessionID = ? AND TypeID = ?;";
+        String uniqueUpdates = "SELECT DISTINCT WorkerID FROM " + TABLE_NAME_UPDATES
+                        + " WHERE SessionID = ? AND TypeID = ?;";
 
         Set<String> unique = new HashSet<>();
-        try (Statement statement = connection.createStatement()) {
-            ResultSet rs = statement.executeQuery(uniqueStatic);
-            while (rs.next()) {
-                String str = rs.getString(1);
-                unique.add(str);
-            }
-
-            rs = statement.executeQuery(uniqueUpdates);
-            while (rs.next()) {
-                String str = rs.getString(1);
-                unique.add(str);
+        flush();
+        synchronized (connection) {
+            try {
+                for (String sql : new String[] {uniqueStatic, uniqueUpdates}) {
+                    try (ResultSet rs = prepare(sql, sessionID, typeID).executeQuery()) {
+                        while (rs.next()) {
+                            String str = rs.getString(1);
+                            unique.add(str);
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
             }
-
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
         }
 
         return new ArrayList<>(unique);
@@ -481,108 +720,56 @@ public class J7FileStatsStorage implements StatsStorage {
 
     @Override
     public int getNumUpdateRecordsFor(String sessionID) {
-        String sql = "SELECT COUNT(*) FROM " + TABLE_NAME_UPDATES + " WHERE SessionID = '" + sessionID + "';";
-        try (Statement statement = connection.createStatement()) {
-            return statement.executeQuery(sql).getInt(1);
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        return queryCount(COUNT_UPDATES_SESSION_SQL, sessionID);
     }
 
     @Override
     public int getNumUpdateRecordsFor(String sessionID, String typeID, String workerID) {
-        String sql = "SELECT COUNT(*) FROM " + TABLE_NAME_UPDATES + " WHERE SessionID = '" + sessionID
-                        + "' AND TypeID = '" + typeID + "' AND WorkerID = '" + workerID + "';";
-        try (Statement statement = connection.createStatement()) {
-            return statement.executeQuery(sql).getInt(1);
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        return queryCount(COUNT_UPDATES_WORKER_SQL, sessionID, typeID, workerID);
     }
 
     @Override
     public Persistable getLatestUpdate(String sessionID, String typeID, String workerID) {
-        String sql = "SELECT ObjectBytes FROM " + TABLE_NAME_UPDATES + " WHERE SessionID = '" + sessionID
-                        + "' AND TypeID = '" + typeID + "' AND WorkerID = '" + workerID
-                        + "' ORDER BY Timestamp DESC LIMIT 1;";
-        return queryAndGet(sql, 1);
+        return queryAndGet(SELECT_LATEST_UPDATE_SQL, sessionID, typeID, workerID);
     }
 
     @Override
     public Persistable getUpdate(String sessionID, String typeId, String workerID, long timestamp) {
-        String sql = "SELECT ObjectBytes FROM " + TABLE_NAME_UPDATES + " WHERE SessionID = '" + sessionID
-                        + "' AND TypeID = '" + typeId + "' AND WorkerID = '" + workerID + "' AND Timestamp = '"
-                        + timestamp + "';";
-        return queryAndGet(sql, 1);
+        return queryAndGet(SELECT_UPDATE_SQL, sessionID, typeId, workerID, timestamp);
     }
 
     @Override
     public List<Persistable> getLatestUpdateAllWorkers(String sessionID, String typeID) {
-        String sql = "SELECT workerId, MAX(Timestamp) FROM " + TABLE_NAME_UPDATES + " WHERE SessionID ='"
-                + sessionID + "' AND " + "TypeID = '" + typeID + "' GROUP BY workerId";
-
-        Map<String,Long> m = new HashMap<>();
-        try (Statement statement = connection.createStatement()) {
-            ResultSet rs = statement.executeQuery(sql);
-            while (rs.next()) {
-                String wid = rs.getString(1);
-                long ts = rs.getLong(2);
-                m.put(wid, ts);
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
-
-        List<Persistable> out = new ArrayList<>();
-        for(String s : m.keySet()){
-            out.add(getUpdate(sessionID, typeID, s, m.get(s)));
-        }
-        return out;
+        return queryAll(SELECT_LATEST_UPDATE_ALL_WORKERS_SQL, sessionID, typeID, sessionID, typeID);
     }
 
     @Override
     public List<Persistable> getAllUpdatesAfter(String sessionID, String typeID, String workerID, long timestamp) {
-        String sql = "SELECT * FROM " + TABLE_NAME_UPDATES + " WHERE SessionID = '" + sessionID + "' AND TypeID = '"
-                        + typeID + "' " + "AND Timestamp > " + timestamp + ";";
-        try (Statement statement = connection.createStatement()) {
-            ResultSet rs = statement.executeQuery(sql);
-            List<Persistable> out = new ArrayList<>();
-            while (rs.next()) {
-                byte[] bytes = rs.getBytes(6);
-                out.add((Persistable) deserialize(bytes));
-            }
-            return out;
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        return queryAll(SELECT_UPDATES_AFTER_WORKER_SQL, sessionID, typeID, workerID, timestamp);
     }
 
     @Override
     public List<Persistable> getAllUpdatesAfter(String sessionID, String typeID, long timestamp) {
-        String sql = "SELECT ObjectBytes FROM " + TABLE_NAME_UPDATES + " WHERE SessionID = '" + sessionID + "'  "
-                        + "AND Timestamp > " + timestamp + ";";
-        return queryUpdates(sql);
+        return queryAll(SELECT_UPDATES_AFTER_SQL, sessionID, typeID, timestamp);
     }
 
     @Override
     public long[] getAllUpdateTimes(String sessionID, String typeID, String workerID) {
-        /*
-        statement.executeUpdate("CREATE TABLE " + TABLE_NAME_UPDATES + " (" + "SessionID TEXT NOT NULL, "
-                + "TypeID TEXT NOT NULL, " + "WorkerID TEXT NOT NULL, " + "Timestamp INTEGER NOT NULL, "
-                + "ObjectClass TEXT NOT NULL, " + "ObjectBytes BLOB NOT NULL, "
-                + "PRIMARY KEY ( SessionID, TypeID, WorkerID, Timestamp )" + ");");
-         */
-        String sql = "SELECT Timestamp FROM " + TABLE_NAME_UPDATES + " WHERE SessionID = '" + sessionID + "'  "
-                + "AND TypeID = '" + typeID + "' AND workerID = '" + workerID + "';";
-        try (Statement statement = connection.createStatement()) {
-            ResultSet rs = statement.executeQuery(sql);
-            LongArrayList list = new LongArrayList();
-            while (rs.next()) {
-                list.add(rs.getLong(1));
+        return queryTimes(SELECT_UPDATE_TIMES_SQL, sessionID, typeID, workerID);
+    }
+
+    private long[] queryTimes(String sql, Object... params) {
+        flush();
+        synchronized (connection) {
+            try (ResultSet rs = prepare(sql, params).executeQuery()) {
+                LongArrayList list = new LongArrayList();
+                while (rs.next()) {
+                    list.add(rs.getLong(1));
+                }
+                return list.toArray();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
             }
-            return list.toArray();
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
         }
     }
 
@@ -592,42 +779,81 @@ public class J7FileStatsStorage implements StatsStorage {
             return Collections.emptyList();
         }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append("SELECT ObjectBytes FROM ").append(TABLE_NAME_UPDATES).append(" WHERE SessionID = '").append(sessionID)
-                .append("' AND TypeID = '").append(typeID).append("' AND workerID='").append(workerID)
-                .append("'  AND Timestamp IN (");
-
-        for( int i=0; i<timestamps.length; i++ ){
-            if(i > 0){
-                sb.append(",");
+        //One primary key lookup per timestamp, with the same prepared statement
+        flush();
+        List<Persistable> out = new ArrayList<>(timestamps.length);
+        synchronized (connection) {
+            try {
+                for (long timestamp : timestamps) {
+                    try (ResultSet rs = prepare(SELECT_UPDATE_SQL, sessionID, typeID, workerID, timestamp)
+                                    .executeQuery()) {
+                        if (rs.next()) {
+                            out.add((Persistable) deserialize(rs.getBytes(1)));
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
             }
-            sb.append(timestamps[i]);
         }
-        sb.append(");");
+        return out;
+    }
 
-        String sql = sb.toString();
-        return queryUpdates(sql);
+    @Override
+    public List<Persistable> getLatestUpdates(String sessionID, String typeID, String workerID, int maxCount) {
+        if (maxCount <= 0) {
+            return Collections.emptyList();
+        }
+        List<Persistable> out = queryAll(SELECT_LATEST_UPDATES_SQL, sessionID, typeID, workerID, maxCount);
+        Collections.reverse(out);
+        return out;
     }
 
-    private List<Persistable> queryUpdates(String sql){
-        try (Statement statement = connection.createStatement()) {
-            ResultSet rs = statement.executeQuery(sql);
-            List<Persistable> out = new ArrayList<>();
-            while (rs.next()) {
-                byte[] bytes = rs.getBytes(1);
-                out.add((Persistable) deserialize(bytes));
+    @Override
+    public long[] getUpdateTimesInRange(String sessionID, String typeID, String workerID, long fromExclusive,
+                    long toInclusive) {
+        return queryTimes(SELECT_UPDATE_TIMES_RANGE_SQL, sessionID, typeID, workerID, fromExclusive, toInclusive);
+    }
+
+    @Override
+    public List<Persistable> getUpdatesInRange(String sessionID, String typeID, String workerID, long fromExclusive,
+                    long toInclusive, int maxPoints) {
+        if (maxPoints <= 0) {
+            return queryAll(SELECT_UPDATES_RANGE_SQL, sessionID, typeID, workerID, fromExclusive, toInclusive);
+        }
+
+        //Timestamps only come from the index; only the selected updates are read and deserialized
+        long[] times = getUpdateTimesInRange(sessionID, typeID, workerID, fromExclusive, toInclusive);
+        return getUpdates(sessionID, typeID, workerID, UpdateSampling.subsample(times, maxPoints));
+    }
+
+    @Override
+    public List<UpdateBucket> getUpdateBuckets(String sessionID, String typeID, String workerID, long fromExclusive,
+                    long toInclusive, int numBuckets, UpdateValueFunction valueFunction) {
+        long[] times = getUpdateTimesInRange(sessionID, typeID, workerID, fromExclusive, toInclusive);
+        if (times.length == 0) {
+            return Collections.emptyList();
+        }
+
+        UpdateSampling.BucketAccumulator acc =
+                        new UpdateSampling.BucketAccumulator(times[0], times[times.length - 1], numBuckets);
+        synchronized (connection) {
+            try (ResultSet rs = prepare(SELECT_UPDATES_RANGE_SQL, sessionID, typeID, workerID, fromExclusive,
+                            times[times.length - 1]).executeQuery()) {
+                while (rs.next()) {
+                    Persistable p = deserialize(rs.getBytes(1));
+                    acc.add(rs.getLong(2), valueFunction.getValue(p));
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
             }
-            return out;
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
         }
+        return acc.getBuckets();
     }
 
     @Override
     public StorageMetaData getStorageMetaData(String sessionID, String typeID) {
-        String sql = "SELECT ObjectBytes FROM " + TABLE_NAME_METADATA + " WHERE SessionID = '" + sessionID
-                        + "' AND TypeID = '" + typeID + "' LIMIT 1;";
-        return queryAndGet(sql, 1);
+        return queryAndGet(SELECT_META_SQL, sessionID, typeID);
     }
 
     @Override
@@ -8,9 +8,16 @@ import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.conf.layers.OutputLayer;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.ui.stats.api.StatsReport;
+import org.deeplearning4j.ui.stats.api.StatsType;
+import org.deeplearning4j.ui.stats.impl.DefaultStatsUpdateConfiguration;
+import org.deeplearning4j.ui.storage.InMemoryStatsStorage;
 import org.deeplearning4j.ui.storage.mapdb.MapDBStatsStorage;
 import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
 
 import java.util.List;
@@ -76,4 +83,76 @@ public class TestStatsListener {
 
     }
 
+    @Test
+    public void testFusedStatsCalculator() {
+        Nd4j.getRandom().setSeed(12345);
+        FusedStatsCalculator calc = new FusedStatsCalculator();
+        int nBins = 10;
+        INDArray full = Nd4j.rand(new int[] {20, 30}).subi(0.3);
+        //Contiguous, views (contiguous and not) and f order
+        for (INDArray arr : new INDArray[] {full, full.get(NDArrayIndex.interval(2, 5), NDArrayIndex.all()),
+                        full.get(NDArrayIndex.all(), NDArrayIndex.interval(3, 10)), full.dup('f'),
+                        Nd4j.valueArrayOf(new int[] {3, 4}, 2.0)}) {
+            calc.calculate(arr, true, nBins);
+
+            assertEquals(arr.length(), calc.getN());
+            assertEquals(arr.meanNumber().doubleValue(), calc.getMean(), 1e-5);
+            assertEquals(arr.stdNumber().doubleValue(), calc.getStdev(), 1e-5);
+            assertEquals(arr.norm1Number().doubleValue() / arr.length(), calc.getMeanMagnitude(), 1e-5);
+            assertEquals(arr.minNumber().doubleValue(), calc.getMin(), 1e-6);
+            assertEquals(arr.maxNumber().doubleValue(), calc.getMax(), 1e-6);
+
+            int[] counts = calc.getHistogramCounts();
+            assertEquals(nBins, counts.length);
+            int sum = 0;
+            for (int c : counts) {
+                sum += c;
+            }
+            assertEquals(arr.length(), sum);
+        }
+    }
+
+    @Test
+    public void testAsyncStatsCollection() {
+        DataSet ds = new IrisDataSetIterator(150, 150).next();
+
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().iterations(1)
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).list()
+                        .layer(0, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(4).nOut(3).build())
+                        .pretrain(false).backprop(true).build();
+
+        StatsStorage[] storage = new StatsStorage[2];
+        for (int i = 0; i < 2; i++) {
+            boolean async = (i == 1);
+            MultiLayerNetwork net = new MultiLayerNetwork(conf);
+            net.init();
+
+            storage[i] = new InMemoryStatsStorage();
+            StatsListener l = new StatsListener(storage[i], null, new DefaultStatsUpdateConfiguration.Builder()
+                            .reportingFrequency(1).asyncStatsCollection(async).build(), "sid", "wid");
+            net.setListeners(l);
+            for (int j = 0; j < 5; j++) {
+                net.fit(ds);
+            }
+            l.waitForPendingStats();
+        }
+
+        //Same model, same data: async stats should match the synchronously collected stats
+        List<Persistable> syncUpdates = storage[0].getAllUpdatesAfter("sid", BaseStatsListener.TYPE_ID, "wid", 0);
+        List<Persistable> asyncUpdates = storage[1].getAllUpdatesAfter("sid", BaseStatsListener.TYPE_ID, "wid", 0);
+        assertEquals(5, syncUpdates.size());
+        assertEquals(5, asyncUpdates.size());
+        for (int i = 0; i < 5; i++) {
+            StatsReport sr = (StatsReport) syncUpdates.get(i);
+            StatsReport ar = (StatsReport) asyncUpdates.get(i);
+            assertEquals(sr.getIterationCount(), ar.getIterationCount());
+            for (StatsType st : new StatsType[] {StatsType.Parameters, StatsType.Gradients, StatsType.Updates}) {
+                assertEquals(sr.getMean(st), ar.getMean(st));
+                assertEquals(sr.getStdev(st), ar.getStdev(st));
+                assertEquals(sr.getMeanMagnitudes(st), ar.getMeanMagnitudes(st));
+                assertNotNull(ar.getHistograms(st));
+                assertEquals(sr.getHistograms(st).keySet(), ar.getHistograms(st).keySet());
+            }
+        }
+    }
 }
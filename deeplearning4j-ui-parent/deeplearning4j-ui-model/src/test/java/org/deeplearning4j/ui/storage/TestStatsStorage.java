@@ -6,6 +6,8 @@ import org.deeplearning4j.api.storage.Persistable;
 import org.deeplearning4j.api.storage.StatsStorage;
 import org.deeplearning4j.api.storage.StatsStorageEvent;
 import org.deeplearning4j.api.storage.StatsStorageListener;
+import org.deeplearning4j.api.storage.UpdateBucket;
+import org.deeplearning4j.api.storage.UpdateValueFunction;
 import org.deeplearning4j.ui.stats.api.StatsInitializationReport;
 import org.deeplearning4j.ui.stats.api.StatsReport;
 import org.deeplearning4j.ui.stats.impl.SbeStatsInitializationReport;
@@ -332,6 +334,133 @@ public class TestStatsStorage {
         }
     }
 
+    @Test
+    public void testJ7WriteBehind() throws Exception {
+        File f = Files.createTempFile("TestJ7WriteBehind", ".db").toFile();
+        f.delete();
+
+        //Small batches and a long delay: most writes are triggered by batch size, the remainder by queries/close
+        J7FileStatsStorage ss = new J7FileStatsStorage(f, 64, 60000);
+        CountingListener l = new CountingListener();
+        ss.registerStatsStorageListener(l);
+
+        ss.putStaticInfo(getInitReport(0, 0, 0, true));
+        int n = 1000;
+        for (int i = 0; i < n; i++) {
+            ss.putUpdate(getReport(0, 0, i % 2, i, true));
+        }
+        assertEquals(1, l.countNewSession);
+        assertEquals(2, l.countNewWorkerId);
+        assertEquals(n, l.countUpdate);
+
+        //Queries should see all updates, including any still buffered
+        assertEquals(n, ss.getNumUpdateRecordsFor("sid0"));
+        assertEquals(getReport(0, 0, 1, n - 1, true), ss.getLatestUpdate("sid0", "tid0", "wid1"));
+        assertEquals(2, ss.getLatestUpdateAllWorkers("sid0", "tid0").size());
+        assertEquals(n / 2, ss.getAllUpdatesAfter("sid0", "tid0", "wid0", -1).size());
+        assertEquals(10, ss.getAllUpdatesAfter("sid0", "tid0", n - 11).size());
+
+        ss.putUpdate(getReport(0, 0, 0, n, true));
+        ss.close();
+
+        //Buffered update should have been written on close; known IDs should be loaded from the file
+        ss = new J7FileStatsStorage(f);
+        l = new CountingListener();
+        ss.registerStatsStorageListener(l);
+        assertEquals(n + 1, ss.getNumUpdateRecordsFor("sid0"));
+        ss.putUpdate(getReport(0, 0, 1, n + 1, true));
+        assertEquals(0, l.countNewSession);
+        assertEquals(0, l.countNewWorkerId);
+        assertEquals(1, l.countUpdate);
+        ss.close();
+        f.delete();
+    }
+
+    @Test
+    public void testRangeQueries() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            StatsStorage ss;
+            boolean useJ7Storage = (i == 1);
+            switch (i) {
+                case 0:
+                    File f = Files.createTempFile("TestMapDbStatsStoreRange", ".db").toFile();
+                    f.delete();
+                    ss = new MapDBStatsStorage.Builder().file(f).build();
+                    break;
+                case 1:
+                    File f2 = Files.createTempFile("TestJ7FileStatsStoreRange", ".db").toFile();
+                    f2.delete();
+                    ss = new J7FileStatsStorage(f2);
+                    break;
+                case 2:
+                    ss = new InMemoryStatsStorage();
+                    break;
+                default:
+                    throw new RuntimeException();
+            }
+
+            ss.putStaticInfo(getInitReport(0, 0, 0, useJ7Storage));
+            //Times 0, 10, ..., 990 for worker 0; worker 1 should not appear in any results
+            for (int j = 0; j < 100; j++) {
+                ss.putUpdate(getReport(0, 0, 0, 10 * j, useJ7Storage));
+                ss.putUpdate(getReport(0, 0, 1, 10 * j + 5, useJ7Storage));
+            }
+
+            List<Persistable> latest = ss.getLatestUpdates("sid0", "tid0", "wid0", 3);
+            assertEquals(Arrays.asList(getReport(0, 0, 0, 970, useJ7Storage),
+                            getReport(0, 0, 0, 980, useJ7Storage), getReport(0, 0, 0, 990, useJ7Storage)), latest);
+            assertEquals(100, ss.getLatestUpdates("sid0", "tid0", "wid0", 1000).size());
+            assertEquals(0, ss.getLatestUpdates("sid0", "tid0", "wid2", 10).size());
+
+            assertArrayEquals(new long[] {500, 510, 520}, ss.getUpdateTimesInRange("sid0", "tid0", "wid0", 495, 520));
+            assertEquals(0, ss.getUpdateTimesInRange("sid0", "tid0", "wid0", 990, Long.MAX_VALUE).length);
+
+            //All updates in range
+            List<Persistable> range = ss.getUpdatesInRange("sid0", "tid0", "wid0", 0, 100, 0);
+            assertEquals(10, range.size());
+            assertEquals(10, range.get(0).getTimeStamp());
+            assertEquals(100, range.get(9).getTimeStamp());
+
+            //Downsampled: first and last should always be included
+            List<Persistable> sampled =
+                            ss.getUpdatesInRange("sid0", "tid0", "wid0", Long.MIN_VALUE, Long.MAX_VALUE, 10);
+            assertEquals(10, sampled.size());
+            assertEquals(0, sampled.get(0).getTimeStamp());
+            assertEquals(990, sampled.get(9).getTimeStamp());
+            for (int j = 1; j < sampled.size(); j++) {
+                assertTrue(sampled.get(j).getTimeStamp() > sampled.get(j - 1).getTimeStamp());
+            }
+
+            //Incremental: only new updates
+            ss.putUpdate(getReport(0, 0, 0, 1000, useJ7Storage));
+            assertEquals(Collections.singletonList(getReport(0, 0, 0, 1000, useJ7Storage)),
+                            ss.getUpdatesInRange("sid0", "tid0", "wid0", 990, Long.MAX_VALUE, 10));
+            assertEquals(getReport(0, 0, 0, 1000, useJ7Storage), ss.getLatestUpdate("sid0", "tid0", "wid0"));
+
+            //Buckets: 0 to 1000 inclusive, 4 buckets
+            UpdateValueFunction timeValue = new UpdateValueFunction() {
+                @Override
+                public double getValue(Persistable update) {
+                    return update.getTimeStamp();
+                }
+            };
+            List<UpdateBucket> buckets = ss.getUpdateBuckets("sid0", "tid0", "wid0", Long.MIN_VALUE, Long.MAX_VALUE,
+                            4, timeValue);
+            assertEquals(4, buckets.size());
+            int count = 0;
+            for (UpdateBucket b : buckets) {
+                count += b.getCount();
+                assertEquals(b.getMax(), b.getLastTimeStamp(), 0.0);
+                assertEquals((b.getMin() + b.getMax()) / 2.0, b.getMean(), 1e-6);
+            }
+            assertEquals(101, count);
+            assertEquals(0.0, buckets.get(0).getMin(), 0.0);
+            assertEquals(1000, buckets.get(3).getLastTimeStamp());
+
+            ss.close();
+        }
+    }
+
     private static StatsInitializationReport getInitReport(int idNumber, int tid, int wid, boolean useJ7Storage) {
         StatsInitializationReport rep;
         if (useJ7Storage) {